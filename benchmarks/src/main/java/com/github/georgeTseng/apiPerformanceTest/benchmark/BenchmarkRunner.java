@@ -0,0 +1,28 @@
+package com.github.georgeTseng.apiPerformanceTest.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 執行所有 benchmark 並固定附上 gc profiler, 結果中的 gc.alloc.rate.norm 即為每次操作配置的位元組數;
+ * 其餘參數與 JMH 的命令列相同, 例如只執行部分 benchmark 或指定 @Param
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(options).run();
+
+  }
+
+}
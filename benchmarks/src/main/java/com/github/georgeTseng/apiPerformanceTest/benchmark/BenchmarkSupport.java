@@ -0,0 +1,61 @@
+package com.github.georgeTseng.apiPerformanceTest.benchmark;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestFileData;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各 benchmark 共用的請求設定, 經由與讀取設定檔相同的轉換取得所有預設值
+ */
+class BenchmarkSupport {
+
+  private final static String BENCHMARK_FILE_PATH = "benchmark";
+
+  /**
+   * 建立請求設定, 其餘設定皆為讀取設定檔時的預設值
+   *
+   * @param url 目標 url
+   * @param httpMethod Http方法
+   * @param responseMode 回應內文處理方式
+   */
+  static PerformanceRequestData createRequestData(String url, String httpMethod, String responseMode) {
+
+    PerformanceRequestFileData requestFileData = PerformanceRequestFileData.builder()
+        .url(url)
+        .httpMethod(httpMethod)
+        .taskLimit("1")
+        .waitTime("1")
+        .concurrency("1")
+        .contentType("application/json")
+        .authorization("Bearer benchmark-token")
+        .responseMode(responseMode)
+        .otherParams(createOtherParams())
+        .build();
+
+    return DataTransferUtils.transIntoPerformanceRequestData(requestFileData, BENCHMARK_FILE_PATH);
+
+  }
+
+  /**
+   * 一般大小的其他參數, 包含字串, 數字與巢狀物件
+   */
+  static Map<String, Object> createOtherParams() {
+
+    Map<String, Object> otherParams = new LinkedHashMap<>();
+    otherParams.put("userId", "u-000123");
+    otherParams.put("keyword", "performance test");
+    otherParams.put("page", 1);
+    otherParams.put("pageSize", 50);
+
+    Map<String, Object> filter = new LinkedHashMap<>();
+    filter.put("status", "ACTIVE");
+    filter.put("region", "TW");
+    otherParams.put("filter", filter);
+
+    return otherParams;
+
+  }
+
+}
@@ -0,0 +1,123 @@
+package com.github.georgeTseng.apiPerformanceTest.benchmark;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceTask;
+import com.github.georgeTseng.apiPerformanceTest.template.RequestTemplate;
+import com.github.georgeTseng.apiPerformanceTest.utils.HttpClientUtils;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 單次請求的完整路徑: 產生請求內容, 經連線池送出, 依回應模式處理內文並交由 collector 累計;
+ * 目標為同一個 JVM 內的 HttpServer, 耗時與 gc 配置量皆包含 server 端處理的部分, 只適合比較不同回應模式或前後版本的差異
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PerformanceTaskBenchmark {
+
+  private final static String TARGET_PATH = "/api/v1/orders";
+
+  @Param({"PARSE", "DISCARD"})
+  public String responseMode;
+
+  private HttpServer httpServer;
+  private CloseableHttpClient httpClient;
+  private PerformanceRequestData requestData;
+  private RequestTemplate requestTemplate;
+  private PerformanceResultCollector resultCollector;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+
+    byte[] responseBody = createResponseBody();
+
+    httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    httpServer.createContext(TARGET_PATH, exchange -> {
+      try (InputStream requestBody = exchange.getRequestBody()) {
+        while (requestBody.read() != -1) {
+          /* 讀完請求內文才能重用連線 */
+        }
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, responseBody.length);
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(responseBody);
+      }
+    });
+    httpServer.start();
+
+    String url = "http://127.0.0.1:" + httpServer.getAddress().getPort() + TARGET_PATH;
+    requestData = BenchmarkSupport.createRequestData(url, "POST", responseMode);
+    requestTemplate = RequestTemplate.compile(requestData);
+    httpClient = HttpClientUtils.createHttpClient(requestData);
+    resultCollector = new PerformanceResultCollector(null, null);
+
+  }
+
+  private static byte[] createResponseBody() {
+
+    StringBuilder body = new StringBuilder("{\"code\":\"0000\",\"data\":{\"items\":[");
+    for (int index = 0; index < 20; index++) {
+      if (index > 0) {
+        body.append(',');
+      }
+      body.append("{\"id\":").append(index).append(",\"name\":\"item-").append(index).append("\",\"active\":true}");
+    }
+    body.append("]}}");
+
+    return body.toString().getBytes(StandardCharsets.UTF_8);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    HttpClientUtils.closeHttpClient(httpClient);
+    httpServer.stop(0);
+  }
+
+  /**
+   * 設定排定的送出時間, 與固定到達速率模式相同, 執行後不等待
+   */
+  @Benchmark
+  public PerformanceTestData call() {
+
+    PerformanceTask performanceTask = PerformanceTask.builder()
+        .taskCount(0)
+        .requestData(requestData)
+        .requestTemplate(requestTemplate)
+        .httpClient(httpClient)
+        .scheduledStartTime(System.nanoTime())
+        .resultCollector(resultCollector)
+        .build();
+
+    return performanceTask.call();
+
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.github.georgeTseng.apiPerformanceTest.benchmark;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedFeederOrder;
+import com.github.georgeTseng.apiPerformanceTest.model.FeederData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.template.PreparedRequest;
+import com.github.georgeTseng.apiPerformanceTest.template.RequestTemplate;
+import com.github.georgeTseng.apiPerformanceTest.utils.ApiConnectionUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.methods.HttpPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 組出請求的成本: 其他參數轉為內文或 url, 建立 HttpPost, 以及請求範本在內容固定, 含有變數與每次重新編碼時的差異
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBuildBenchmark {
+
+  private final static String TARGET_URL = "http://127.0.0.1:8080/api/v1/orders";
+
+  private Map<String, Object> otherParams;
+  private Map<String, String> headerValues;
+  private PreparedRequest preparedRequest;
+  private RequestTemplate staticTemplate;
+  private RequestTemplate variableTemplate;
+  private Path feederFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+
+    otherParams = BenchmarkSupport.createOtherParams();
+
+    headerValues = new LinkedHashMap<>();
+    headerValues.put("Content-Type", "application/json");
+    headerValues.put("authorization", "Bearer benchmark-token");
+    preparedRequest = PreparedRequest.create(TARGET_URL, ApiConnectionUtils.createRequestJsonString(otherParams), headerValues);
+
+    PerformanceRequestData requestData = BenchmarkSupport.createRequestData(TARGET_URL, "POST", "PARSE");
+    staticTemplate = RequestTemplate.compile(requestData);
+
+    /* 含有變數的範本, 每次請求自資料檔取一筆資料填入 */
+    feederFile = Files.createTempFile("benchmark-feeder", ".csv");
+    StringBuilder feederContent = new StringBuilder("id,name,token\n");
+    for (int index = 0; index < 1000; index++) {
+      feederContent.append(index).append(",user-").append(index).append(",token-").append(index).append('\n');
+    }
+    Files.write(feederFile, feederContent.toString().getBytes(StandardCharsets.UTF_8));
+
+    Map<String, Object> variableParams = new LinkedHashMap<>(otherParams);
+    variableParams.put("userId", "${id}");
+    variableParams.put("keyword", "${name}");
+    PerformanceRequestData variableRequestData = requestData.toBuilder()
+        .url(TARGET_URL + "/${id}")
+        .authorization("Bearer ${token}")
+        .otherParams(variableParams)
+        .feeders(Collections.singletonList(FeederData.builder()
+            .filePath(feederFile.toString())
+            .order(SupportedFeederOrder.SEQUENTIAL)
+            .build()))
+        .build();
+    variableTemplate = RequestTemplate.compile(variableRequestData);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(feederFile);
+  }
+
+  @Benchmark
+  public String createRequestJsonString() {
+    return ApiConnectionUtils.createRequestJsonString(otherParams);
+  }
+
+  @Benchmark
+  public String createFinalGetUrl() {
+    return ApiConnectionUtils.createFinalGetUrl(TARGET_URL, otherParams);
+  }
+
+  @Benchmark
+  public HttpPost createHttpPostObject() {
+    HttpPost httpPost = ApiConnectionUtils.createHttpPostObject(preparedRequest);
+    httpPost.setEntity(preparedRequest.getBodyEntity());
+    return httpPost;
+  }
+
+  /**
+   * 內容固定時, 所有請求共用編譯時已編碼的一份
+   */
+  @Benchmark
+  public PreparedRequest prepareStaticRequest() {
+    return staticTemplate.prepare();
+  }
+
+  /**
+   * 含有變數時, 每次取一筆資料填入後編碼
+   */
+  @Benchmark
+  public PreparedRequest prepareVariableRequest() {
+    return variableTemplate.prepare();
+  }
+
+  /**
+   * 不使用範本, 每次重新轉換其他參數並編碼, 即請求範本之前的做法
+   */
+  @Benchmark
+  public PreparedRequest rebuildRequest() {
+    return PreparedRequest.create(TARGET_URL, ApiConnectionUtils.createRequestJsonString(otherParams), headerValues);
+  }
+
+}
@@ -0,0 +1,86 @@
+package com.github.georgeTseng.apiPerformanceTest.benchmark;
+
+import com.github.georgeTseng.apiPerformanceTest.utils.ApiConnectionUtils;
+import com.github.georgeTseng.apiPerformanceTest.workflow.JsonValueExtractor;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 處理回應內文的成本: PARSE 模式將整份內文轉為 Map, 流程步驟只以 JsonValueExtractor 取出需要的值
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParseBenchmark {
+
+  /**
+   * 回應內文中的資料筆數, 10 筆約 1KB, 1000 筆約 100KB
+   */
+  @Param({"10", "1000"})
+  public int itemCount;
+
+  private String responseBody;
+  private JsonValueExtractor headExtractor;
+  private JsonValueExtractor tailExtractor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+
+    StringBuilder body = new StringBuilder("{\"code\":\"0000\",\"data\":{\"token\":\"eyJhbGciOiJIUzI1NiJ9.benchmark\",\"items\":[");
+    for (int index = 0; index < itemCount; index++) {
+      if (index > 0) {
+        body.append(',');
+      }
+      body.append("{\"id\":").append(index)
+          .append(",\"name\":\"item-").append(index)
+          .append("\",\"price\":").append(index * 10 + 0.5)
+          .append(",\"tags\":[\"a\",\"b\",\"c\"],\"active\":true}");
+    }
+    body.append("],\"total\":").append(itemCount).append("}}");
+    responseBody = body.toString();
+
+    /* 位於內文開頭的值取出後即停止讀取, 位於結尾的值需讀完整份內文 */
+    Map<String, String> headExtract = new LinkedHashMap<>();
+    headExtract.put("token", "$.data.token");
+    headExtractor = JsonValueExtractor.compile(headExtract);
+
+    Map<String, String> tailExtract = new LinkedHashMap<>();
+    tailExtract.put("total", "$.data.total");
+    tailExtractor = JsonValueExtractor.compile(tailExtract);
+
+  }
+
+  @Benchmark
+  public Map<String, Object> parseResponseJson() {
+    return ApiConnectionUtils.parseResponseJson(responseBody);
+  }
+
+  @Benchmark
+  public String[] extractHeadValue() throws IOException {
+    return headExtractor.extract(new StringReader(responseBody));
+  }
+
+  @Benchmark
+  public String[] extractTailValue() throws IOException {
+    return tailExtractor.extract(new StringReader(responseBody));
+  }
+
+}
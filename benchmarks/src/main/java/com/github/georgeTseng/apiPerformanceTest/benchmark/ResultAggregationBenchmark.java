@@ -0,0 +1,78 @@
+package com.github.georgeTseng.apiPerformanceTest.benchmark;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 累計結果與產出結果檔的成本: 每次操作以新的 collector 累計指定筆數的結果後轉換為結果檔物件,
+ * 可確認 histogram 累計的耗時與配置量不隨筆數成長
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultAggregationBenchmark {
+
+  /* 預先建立的結果筆數, 累計時循環使用 */
+  private final static int SAMPLE_POOL_SIZE = 1024;
+
+  @Param({"10000", "1000000"})
+  public int sampleCount;
+
+  private PerformanceTestData[] samples;
+  private PerformanceRequestData requestData;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+
+    requestData = BenchmarkSupport.createRequestData("http://127.0.0.1:8080/api/v1/orders", "POST", "PARSE");
+
+    /* 耗時呈指數分佈, 平均約 20ms, 約 1% 為失敗 */
+    SplittableRandom random = new SplittableRandom(42);
+    samples = new PerformanceTestData[SAMPLE_POOL_SIZE];
+    for (int index = 0; index < samples.length; index++) {
+      long operateTimeInMicros = 1000 + (long) (-Math.log(1 - random.nextDouble()) * 19000);
+      samples[index] = PerformanceTestData.builder()
+          .operateTime(TimeUnit.MICROSECONDS.toMillis(operateTimeInMicros))
+          .operateTimeInMicros(operateTimeInMicros)
+          .connectTimeInMicros((long) random.nextInt(50))
+          .timeToFirstByteInMicros(operateTimeInMicros * 9 / 10)
+          .bodyTransferTimeInMicros(operateTimeInMicros / 10)
+          .statusCode(random.nextInt(100) == 0 ? 500 : 200)
+          .responseBytes(512L + random.nextInt(1024))
+          .build();
+    }
+
+  }
+
+  @Benchmark
+  public PerformanceResultFileData aggregate() {
+
+    PerformanceResultCollector resultCollector = new PerformanceResultCollector(null, null);
+    for (int index = 0; index < sampleCount; index++) {
+      resultCollector.collect(samples[index & (SAMPLE_POOL_SIZE - 1)]);
+    }
+
+    return resultCollector.toResultFileData(TimeUnit.SECONDS.toNanos(60), requestData);
+
+  }
+
+}
@@ -1,14 +1,46 @@
 package com.github.georgeTseng.apiPerformanceTest;
 
+import com.github.georgeTseng.apiPerformanceTest.distributed.DistributedLocalCheck;
+import com.github.georgeTseng.apiPerformanceTest.distributed.PerformanceAgent;
+import com.github.georgeTseng.apiPerformanceTest.distributed.PerformanceCoordinator;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedEngine;
 import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedLoadModel;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
 import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.CalibrationResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.CalibrationSettingData;
+import com.github.georgeTseng.apiPerformanceTest.model.CalibrationStepData;
+import com.github.georgeTseng.apiPerformanceTest.model.ComparisonResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.ComparisonThresholdData;
+import com.github.georgeTseng.apiPerformanceTest.model.ErrorResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.FeederData;
+import com.github.georgeTseng.apiPerformanceTest.model.GeneratorHealthData;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageData;
+import com.github.georgeTseng.apiPerformanceTest.model.MetricComparisonData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
-import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
-import com.github.georgeTseng.apiPerformanceTest.task.PerformanceTask;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StageResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StepResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StubServerData;
+import com.github.georgeTseng.apiPerformanceTest.model.WarmUpResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.WorkflowStepData;
+import com.github.georgeTseng.apiPerformanceTest.monitor.GeneratorHealthMonitor;
+import com.github.georgeTseng.apiPerformanceTest.result.IntervalReporter;
+import com.github.georgeTseng.apiPerformanceTest.result.JsonLinesResultWriter;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultComparator;
+import com.github.georgeTseng.apiPerformanceTest.stub.StubCalibrator;
+import com.github.georgeTseng.apiPerformanceTest.stub.StubTargetServer;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceRunner;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
 import com.github.georgeTseng.apiPerformanceTest.utils.JsonUtils;
-import com.google.gson.Gson;
 
 import java.io.File;
+import java.net.InetSocketAddress;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Optional;
@@ -16,15 +48,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 
 public class ApiPerformanceTestApplication {
 
@@ -40,16 +69,72 @@ public class ApiPerformanceTestApplication {
   public final static String TEST_LIMIT_TIME_I18N_ZH_TW = "總測試次數";
   public final static String HTTP_METHOD_I18N_ZH_TW = "使用的HTTP方法";
   public final static String TEST_WAIT_TIME_PERIOD_I18N_ZH_TW = "測試間的等待時間(s)";
+  public final static String TEST_CONCURRENCY_I18N_ZH_TW = "併發數";
+  public final static String LOAD_MODEL_I18N_ZH_TW = "負載模式";
+  public final static String TARGET_RATE_I18N_ZH_TW = "目標速率(次/秒)";
+  public final static String RESPONSE_MODE_I18N_ZH_TW = "回應內文處理方式";
+  public final static String REUSE_CONNECTION_I18N_ZH_TW = "重複使用連線";
+  public final static String COMPRESSION_I18N_ZH_TW = "要求壓縮回應(gzip/deflate)";
+  public final static String MAX_CONNECTIONS_I18N_ZH_TW = "最大連線數(全部/單一路由)";
+  public final static String KEEP_ALIVE_TIME_I18N_ZH_TW = "連線保持時間/閒置連線回收時間(s)";
+  public final static String TIMEOUT_I18N_ZH_TW = "連線逾時/讀取逾時/總時間逾時(ms)";
+  public final static String ENGINE_I18N_ZH_TW = "請求送出方式";
+  public final static String IO_THREADS_I18N_ZH_TW = "I/O 執行緒數";
+  public final static String HTTP2_CONNECTIONS_I18N_ZH_TW = "HTTP/2 連線數/每條連線的串流上限";
+  public final static String LOAD_STAGE_I18N_ZH_TW = "負載階段";
+  public final static String FEEDER_I18N_ZH_TW = "變數資料檔";
+  public final static String SCENARIO_I18N_ZH_TW = "混合的請求(名稱, 權重)";
+  public final static String WORKFLOW_STEP_I18N_ZH_TW = "流程步驟";
+  public final static String EXTRACT_I18N_ZH_TW = "取出的值";
+  public final static String CACHE_TTL_I18N_ZH_TW = "快取期限(s)";
+  public final static String RUN_DURATION_I18N_ZH_TW = "執行時間(s)";
+  public final static String WARM_UP_COUNT_I18N_ZH_TW = "暖機次數";
+  public final static String WARM_UP_DURATION_I18N_ZH_TW = "暖機時間(s)";
+  public final static String SHUTDOWN_TIMEOUT_I18N_ZH_TW = "結束時等待進行中請求的最長時間(s)";
   public final static String DEFAULT_YES = "Y";
   public final static String DEFAULT_NO = "N";
   public final static String INVALID_FILE_PATH = "無效的檔案路徑! 程式已停止";
+  public final static String AGENT_COMMAND = "agent";
+  public final static String COORDINATOR_COMMAND = "coordinator";
+  public final static String COMPARE_COMMAND = "compare";
+  public final static String STUB_COMMAND = "stub";
+  public final static String CALIBRATE_COMMAND = "calibrate";
+  public final static String DISTRIBUTED_CHECK_COMMAND = "distributedcheck";
+  public final static String COMMAND_USAGE_MESSAGE = "用法: agent <port> 或 coordinator <設定檔路徑> <host:port,host:port,...> [結果檔路徑] "
+      + "或 compare <基準結果檔> <比較結果檔> [mean=% p50=% p90=% p99=% p999=% okPercent=百分點 achievedRate=% alpha=顯著水準] "
+      + "或 stub <port> [latency=延遲分佈 errorRate=0~1 errorStatus=Http狀態碼 payloadBytes=回應大小 ioThreads=I/O執行緒數 protocol=h1|h2c] "
+      + "或 calibrate [engine=BLOCKING|ASYNC|VIRTUAL_THREAD|HTTP2 httpMethod=GET|POST responseMode=回應內文處理方式 payloadBytes=回應大小 "
+      + "duration=每個併發數的執行時間(s) maxConcurrency=最大併發數] "
+      + "或 distributedcheck [agents=agent數 taskLimit=總測試次數], 不帶參數時為互動模式";
+
+  /* 比較結果發生退化時的結束代碼, 與執行失敗(1)區分 */
+  public final static int REGRESSION_EXIT_CODE = 2;
+
+  /* 比較結果時的預設門檻, 以 none 取消單一項目的檢查 */
+  public final static double DEFAULT_P50_THRESHOLD = 10.0;
+  public final static double DEFAULT_P99_THRESHOLD = 20.0;
+  public final static double DEFAULT_OK_PERCENT_THRESHOLD = 1.0;
+  public final static double DEFAULT_SIGNIFICANCE_LEVEL = 0.05;
+  public final static String DISABLED_THRESHOLD = "none";
+
+  /* stub server 與自我校準的預設值 */
+  public final static int DEFAULT_STUB_ERROR_STATUS = 500;
+  public final static int DEFAULT_STUB_PAYLOAD_BYTES = 1024;
+  public final static long DEFAULT_CALIBRATION_STEP_DURATION = 5;
+  public final static int DEFAULT_CALIBRATION_MAX_CONCURRENCY = 256;
+
+  /* 分散式檢查的預設值 */
+  public final static int DEFAULT_CHECK_AGENT_COUNT = 3;
+  public final static int DEFAULT_CHECK_TASK_LIMIT = 600;
 
   /* Set the basic condition */
   public enum BasicParamKey {
     TARGET_URL_KEY("url"),
     HTTP_METHOD("httpMethod"),
     TASK_LIMIT("taskLimit"),
-    WAIT_TIME("waitTime");
+    RUN_DURATION("runDuration"),
+    WAIT_TIME("waitTime"),
+    CONCURRENCY("concurrency");
 
     String key;
 
@@ -67,7 +152,8 @@ public class ApiPerformanceTestApplication {
   public enum HeadersParamKey {
     AUTHORIZATION("authorization"),
     CONTENT_TYPE("Content-Type"),
-    ACCEPT("accept");
+    ACCEPT("accept"),
+    ACCEPT_ENCODING("Accept-Encoding");
 
     String key;
 
@@ -104,6 +190,12 @@ public class ApiPerformanceTestApplication {
 
   public static void main(String[] args) {
 
+    /* 帶有參數時以分散式的 agent, coordinator, 比較結果, stub server 或自我校準的指令執行, 不需要互動輸入 */
+    if (args.length > ZERO) {
+      runCommand(args);
+      return;
+    }
+
     Scanner scanner = new Scanner(System.in);
     Logger mainLogger = LoggerFactory.getLogger(ApiPerformanceTestApplication.class);
     mainLogger.info("開始執行本程式...{} ", System.lineSeparator());
@@ -132,37 +224,38 @@ public class ApiPerformanceTestApplication {
         mainLogger.info("本次使用的請求設定將不予儲存...");
       }
 
-      mainLogger.info("即將開始以相關設定連線至指定uri... {} ", System.lineSeparator());
-
-      /* 取出總執行次數 */
-      int taskLimit = requestData.getTaskLimit();
-
-      /* 指定所有排程的集合 */
-      List<PerformanceTask> performanceTasks = new ArrayList<>();
-      for (int index = ZERO; index < taskLimit; index++) {
-        PerformanceTask performanceTask = PerformanceTask.builder()
-            .taskCount(index)
-            .totalCount(taskLimit)
-            .requestData(requestData)
-            .build();
-        performanceTasks.add(performanceTask);
+      /* 是否輸出量測結果為檔案, 逐次的結果會在執行期間即時寫出, 因此需於開始前決定 */
+      String testResultFileModel = checkTestingResult(mainLogger, scanner);
+      Path testResultPath = null;
+      JsonLinesResultWriter resultWriter = null;
+      IntervalReporter intervalReporter;
+      GeneratorHealthMonitor healthMonitor;
+      if (DEFAULT_YES.equals(testResultFileModel)) {
+        testResultPath = getTestingResultPath(mainLogger, scanner);
+        resultWriter = new JsonLinesResultWriter(JsonUtils.getSampleFilePath(testResultPath));
+        intervalReporter = new IntervalReporter(JsonUtils.getIntervalFilePath(testResultPath));
+        healthMonitor = new GeneratorHealthMonitor(JsonUtils.getHealthFilePath(testResultPath));
+      } else {
+        intervalReporter = new IntervalReporter(null);
+        healthMonitor = new GeneratorHealthMonitor(null);
       }
 
-      /* 僅測試用, 單執行緒來跑排程即可 */
-      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-
-      List<Future<PerformanceTestData>> taskResults = doInvokeAll(executor, performanceTasks);
+      mainLogger.info("即將開始以相關設定連線至指定uri... {} ", System.lineSeparator());
 
-      /* 結束排程 */
-      executor.shutdown();
+      /* 建立接收結果的 collector 並執行測試 */
+      PerformanceResultCollector resultCollector = new PerformanceResultCollector(resultWriter, intervalReporter);
+      long runTime = PerformanceRunner.run(requestData, resultCollector, intervalReporter, healthMonitor);
 
       /* 顯示量測結果 */
-      showTestResult(mainLogger, taskResults);
-
-      /* 是否輸出量測結果為檔案 */
-      String testResultFileModel = checkTestingResult(mainLogger, scanner);
-      if (DEFAULT_YES.equals(testResultFileModel)) {
-        saveRequestTestingResult(mainLogger, scanner, taskResults);
+      PerformanceResultFileData resultData = resultCollector.toResultFileData(runTime, requestData);
+      showTestResult(mainLogger, resultData);
+
+      /* 輸出量測結果的統計值 */
+      if (Optional.ofNullable(testResultPath).isPresent()) {
+        resultData.setSampleFilePath(JsonUtils.getSampleFilePath(testResultPath).toString());
+        resultData.setIntervalFilePath(JsonUtils.getIntervalFilePath(testResultPath).toString());
+        resultData.setHealthFilePath(JsonUtils.getHealthFilePath(testResultPath).toString());
+        JsonUtils.writeRequestTestingResultJsonIntoFile(testResultPath, resultData);
       }
 
       displayEndingMessage(mainLogger, "測試程式已順利完成工作並結束");
@@ -179,6 +272,348 @@ public class ApiPerformanceTestApplication {
 
   }
 
+  /**
+   * 以分散式的 agent 或 coordinator 執行; coordinator 讀取設定檔後分配給各 agent, 並合併所有 agent 的結果.
+   * compare 比較兩份結果檔, 發生退化時以 REGRESSION_EXIT_CODE 結束, 可用於部署前的檢查.
+   * stub 啟動回應固定 json 的 stub server, calibrate 以內建的 stub server 量測本程式在此硬體上的耗時下限與最大速率.
+   * distributedcheck 在本機啟動 stub server, 多個 agent 與 coordinator, 檢查合併後的結果與各 agent 的合計一致
+   */
+  public static void runCommand(String[] args) {
+
+    Logger mainLogger = LoggerFactory.getLogger(ApiPerformanceTestApplication.class);
+
+    try {
+      if (AGENT_COMMAND.equalsIgnoreCase(args[ZERO]) && args.length == 2) {
+        new PerformanceAgent(parsePort(args[ONE])).serve();
+      } else if (COORDINATOR_COMMAND.equalsIgnoreCase(args[ZERO]) && (args.length == 3 || args.length == 4)) {
+        PerformanceRequestData requestData = JsonUtils.readRequestSettingJsonFromFile(Paths.get(args[ONE]));
+        mainLogger.info("自 {} 讀取請求設定檔...", requestData.getFilePath());
+        viewParams(mainLogger, requestData);
+
+        List<InetSocketAddress> agentAddresses = parseAgentAddresses(args[2]);
+        Path testResultPath = args.length == 4 ? Paths.get(args[3]) : null;
+        Path intervalFilePath = testResultPath == null ? null : JsonUtils.getIntervalFilePath(testResultPath);
+
+        /* 顯示合併所有 agent 後的量測結果 */
+        PerformanceResultFileData resultData = new PerformanceCoordinator(requestData, agentAddresses).coordinate(intervalFilePath);
+        showTestResult(mainLogger, resultData);
+
+        /* 逐次的結果只留在各 agent, 結果檔只包含合併後的統計值與區間紀錄 */
+        if (Optional.ofNullable(testResultPath).isPresent()) {
+          resultData.setIntervalFilePath(intervalFilePath.toString());
+          JsonUtils.writeRequestTestingResultJsonIntoFile(testResultPath, resultData);
+        }
+
+        displayEndingMessage(mainLogger, "分散式測試已順利完成工作並結束");
+      } else if (COMPARE_COMMAND.equalsIgnoreCase(args[ZERO]) && args.length >= 3) {
+        PerformanceResultFileData baseline = JsonUtils.readRequestTestingResultJsonFromFile(Paths.get(args[ONE]));
+        PerformanceResultFileData candidate = JsonUtils.readRequestTestingResultJsonFromFile(Paths.get(args[2]));
+        ComparisonThresholdData thresholds = parseComparisonThresholds(Arrays.copyOfRange(args, 3, args.length));
+
+        ComparisonResultData comparisonResult = PerformanceResultComparator.compare(baseline, candidate, thresholds);
+        showComparisonResult(mainLogger, args[ONE], args[2], thresholds, comparisonResult);
+
+        if (comparisonResult.getRegressed()) {
+          displayEndingMessageInError(mainLogger, "比較結果發生退化, 程式以結束代碼 " + REGRESSION_EXIT_CODE + " 結束");
+          System.exit(REGRESSION_EXIT_CODE);
+        }
+        displayEndingMessage(mainLogger, "比較結果未發現退化");
+      } else if (STUB_COMMAND.equalsIgnoreCase(args[ZERO]) && args.length >= 2) {
+        StubServerData stubServerData = parseStubServerSettings(parsePort(args[ONE]), Arrays.copyOfRange(args, 2, args.length));
+        new StubTargetServer(stubServerData).serve();
+      } else if (CALIBRATE_COMMAND.equalsIgnoreCase(args[ZERO])) {
+        CalibrationSettingData settingData = parseCalibrationSettings(Arrays.copyOfRange(args, ONE, args.length));
+        CalibrationResultData calibrationResult = StubCalibrator.calibrate(settingData);
+        showCalibrationResult(mainLogger, calibrationResult);
+        displayEndingMessage(mainLogger, "自我校準已順利完成工作並結束");
+      } else if (DISTRIBUTED_CHECK_COMMAND.equalsIgnoreCase(args[ZERO])) {
+        runDistributedCheck(Arrays.copyOfRange(args, ONE, args.length));
+        displayEndingMessage(mainLogger, "分散式檢查已全部通過");
+      } else {
+        throw new CustomApplicationException(COMMAND_USAGE_MESSAGE);
+      }
+    } catch (CustomApplicationException e) {
+      if (Optional.ofNullable(e.getErrorCause()).isPresent()) {
+        displayEndingMessageInError(mainLogger, e.getErrorMessage(), e.getErrorCause());
+      } else {
+        displayEndingMessageInError(mainLogger, e.getErrorMessage());
+      }
+      System.exit(ONE);
+    }
+
+  }
+
+  public static int parsePort(String portValue) throws CustomApplicationException {
+
+    try {
+      int port = Integer.parseInt(portValue.trim());
+      if (port <= ZERO || port > 65535) {
+        throw new CustomApplicationException("無效的 port: " + portValue);
+      }
+      return port;
+    } catch (NumberFormatException e) {
+      throw new CustomApplicationException("無效的 port: " + portValue, e);
+    }
+
+  }
+
+  /**
+   * 解析比較結果的門檻, 格式為 key=value; 未指定的項目使用預設值, 值為 none 時不檢查該項目
+   *
+   * @param thresholdArgs compare 指令在兩個結果檔之後的參數
+   */
+  public static ComparisonThresholdData parseComparisonThresholds(String[] thresholdArgs) throws CustomApplicationException {
+
+    ComparisonThresholdData thresholds = ComparisonThresholdData.builder()
+        .p50(DEFAULT_P50_THRESHOLD)
+        .p99(DEFAULT_P99_THRESHOLD)
+        .okPercent(DEFAULT_OK_PERCENT_THRESHOLD)
+        .significanceLevel(DEFAULT_SIGNIFICANCE_LEVEL)
+        .build();
+
+    for (String thresholdArg : thresholdArgs) {
+      String[] setting = splitSettingArg(thresholdArg);
+      String key = setting[ZERO];
+      String value = setting[ONE];
+      Double threshold = DISABLED_THRESHOLD.equalsIgnoreCase(value) ? null : parseThreshold(thresholdArg, value);
+
+      switch (key) {
+        case "mean":
+          thresholds.setMean(threshold);
+          break;
+        case "p50":
+          thresholds.setP50(threshold);
+          break;
+        case "p90":
+          thresholds.setP90(threshold);
+          break;
+        case "p99":
+          thresholds.setP99(threshold);
+          break;
+        case "p999":
+          thresholds.setP999(threshold);
+          break;
+        case "okPercent":
+          thresholds.setOkPercent(threshold);
+          break;
+        case "achievedRate":
+          thresholds.setAchievedRate(threshold);
+          break;
+        case "alpha":
+          if (threshold == null || threshold <= ZERO || threshold >= ONE) {
+            throw new CustomApplicationException("無效的顯著水準: " + thresholdArg + " , 需介於 0 與 1 之間");
+          }
+          thresholds.setSignificanceLevel(threshold);
+          break;
+        default:
+          throw new CustomApplicationException("無效的門檻: " + thresholdArg + " , " + COMMAND_USAGE_MESSAGE);
+      }
+    }
+
+    return thresholds;
+
+  }
+
+  /**
+   * 將 key=value 格式的參數拆為 key 與 value, 格式錯誤時拋出例外
+   */
+  private static String[] splitSettingArg(String settingArg) throws CustomApplicationException {
+
+    int separatorIndex = settingArg.indexOf('=');
+    if (separatorIndex <= ZERO) {
+      throw new CustomApplicationException("無效的參數: " + settingArg + " , 格式應為 key=value");
+    }
+
+    return new String[]{settingArg.substring(ZERO, separatorIndex).trim(), settingArg.substring(separatorIndex + ONE).trim()};
+
+  }
+
+  /**
+   * 解析 stub server 的設定, 格式為 key=value, 未指定的項目使用預設值; 預設不延遲也不回應失敗
+   *
+   * @param port stub server 使用的 port
+   * @param settingArgs stub 指令在 port 之後的參數
+   */
+  public static StubServerData parseStubServerSettings(int port, String[] settingArgs) throws CustomApplicationException {
+
+    StubServerData stubServerData = StubServerData.builder()
+        .port(port)
+        .errorRate(0.0)
+        .errorStatus(DEFAULT_STUB_ERROR_STATUS)
+        .payloadBytes(DEFAULT_STUB_PAYLOAD_BYTES)
+        .ioThreads(Runtime.getRuntime().availableProcessors())
+        .protocol(StubTargetServer.PROTOCOL_HTTP1)
+        .build();
+
+    for (String settingArg : settingArgs) {
+      String[] setting = splitSettingArg(settingArg);
+      switch (setting[ZERO]) {
+        case "latency":
+          stubServerData.setLatency(setting[ONE]);
+          break;
+        case "errorRate":
+          stubServerData.setErrorRate(parseErrorRate(settingArg, setting[ONE]));
+          break;
+        case "errorStatus":
+          int errorStatus = parseSettingInteger(settingArg, setting[ONE]);
+          if (errorStatus < 100 || errorStatus > 599) {
+            throw new CustomApplicationException("無效的Http狀態碼: " + settingArg);
+          }
+          stubServerData.setErrorStatus(errorStatus);
+          break;
+        case "payloadBytes":
+          stubServerData.setPayloadBytes(parseSettingInteger(settingArg, setting[ONE]));
+          break;
+        case "ioThreads":
+          stubServerData.setIoThreads(parseSettingInteger(settingArg, setting[ONE]));
+          break;
+        case "protocol":
+          if (!StubTargetServer.PROTOCOL_HTTP1.equals(setting[ONE]) && !StubTargetServer.PROTOCOL_H2C.equals(setting[ONE])) {
+            throw new CustomApplicationException("無效的協定: " + settingArg + " , 僅支援 h1 或 h2c");
+          }
+          stubServerData.setProtocol(setting[ONE]);
+          break;
+        default:
+          throw new CustomApplicationException("無效的參數: " + settingArg + " , " + COMMAND_USAGE_MESSAGE);
+      }
+    }
+
+    return stubServerData;
+
+  }
+
+  /**
+   * 解析自我校準的設定, 格式為 key=value, 未指定的項目使用預設值; engine 等設定值的檢查與設定檔相同
+   *
+   * @param settingArgs calibrate 指令之後的參數
+   */
+  public static CalibrationSettingData parseCalibrationSettings(String[] settingArgs) throws CustomApplicationException {
+
+    CalibrationSettingData settingData = CalibrationSettingData.builder()
+        .payloadBytes(DEFAULT_STUB_PAYLOAD_BYTES)
+        .stepDuration(DEFAULT_CALIBRATION_STEP_DURATION)
+        .maxConcurrency(DEFAULT_CALIBRATION_MAX_CONCURRENCY)
+        .build();
+
+    for (String settingArg : settingArgs) {
+      String[] setting = splitSettingArg(settingArg);
+      switch (setting[ZERO]) {
+        case "engine":
+          settingData.setEngine(setting[ONE]);
+          break;
+        case "httpMethod":
+          settingData.setHttpMethod(setting[ONE]);
+          break;
+        case "responseMode":
+          settingData.setResponseMode(setting[ONE]);
+          break;
+        case "payloadBytes":
+          settingData.setPayloadBytes(parseSettingInteger(settingArg, setting[ONE]));
+          break;
+        case "duration":
+          settingData.setStepDuration((long) parseSettingInteger(settingArg, setting[ONE]));
+          break;
+        case "maxConcurrency":
+          settingData.setMaxConcurrency(parseSettingInteger(settingArg, setting[ONE]));
+          break;
+        default:
+          throw new CustomApplicationException("無效的參數: " + settingArg + " , " + COMMAND_USAGE_MESSAGE);
+      }
+    }
+
+    return settingData;
+
+  }
+
+  /**
+   * 解析分散式檢查的設定並執行, 格式為 key=value, 未指定的項目使用預設值
+   *
+   * @param settingArgs distributedcheck 指令之後的參數
+   */
+  private static void runDistributedCheck(String[] settingArgs) throws CustomApplicationException {
+
+    int agentCount = DEFAULT_CHECK_AGENT_COUNT;
+    int taskLimit = DEFAULT_CHECK_TASK_LIMIT;
+
+    for (String settingArg : settingArgs) {
+      String[] setting = splitSettingArg(settingArg);
+      switch (setting[ZERO]) {
+        case "agents":
+          agentCount = parseSettingInteger(settingArg, setting[ONE]);
+          break;
+        case "taskLimit":
+          taskLimit = parseSettingInteger(settingArg, setting[ONE]);
+          break;
+        default:
+          throw new CustomApplicationException("無效的參數: " + settingArg + " , " + COMMAND_USAGE_MESSAGE);
+      }
+    }
+
+    DistributedLocalCheck.check(agentCount, taskLimit);
+
+  }
+
+  private static double parseErrorRate(String settingArg, String value) throws CustomApplicationException {
+
+    try {
+      double errorRate = Double.parseDouble(value);
+      if (!(errorRate >= ZERO && errorRate <= ONE)) {
+        throw new CustomApplicationException("無效的失敗比例: " + settingArg + " , 需介於 0 與 1 之間");
+      }
+      return errorRate;
+    } catch (NumberFormatException e) {
+      throw new CustomApplicationException("無效的失敗比例: " + settingArg + " , 需介於 0 與 1 之間", e);
+    }
+
+  }
+
+  private static int parseSettingInteger(String settingArg, String value) throws CustomApplicationException {
+
+    try {
+      int settingValue = Integer.parseInt(value);
+      if (settingValue < ONE) {
+        throw new CustomApplicationException("無效的參數: " + settingArg + " , 需為正整數");
+      }
+      return settingValue;
+    } catch (NumberFormatException e) {
+      throw new CustomApplicationException("無效的參數: " + settingArg + " , 需為正整數", e);
+    }
+
+  }
+
+  private static double parseThreshold(String thresholdArg, String value) throws CustomApplicationException {
+
+    try {
+      double threshold = Double.parseDouble(value);
+      if (threshold < ZERO || Double.isNaN(threshold) || Double.isInfinite(threshold)) {
+        throw new CustomApplicationException("無效的門檻: " + thresholdArg + " , 不可小於 0");
+      }
+      return threshold;
+    } catch (NumberFormatException e) {
+      throw new CustomApplicationException("無效的門檻: " + thresholdArg, e);
+    }
+
+  }
+
+  /**
+   * 解析以逗號分隔的 agent 位址, 格式為 host:port
+   */
+  public static List<InetSocketAddress> parseAgentAddresses(String agentAddressValue) throws CustomApplicationException {
+
+    List<InetSocketAddress> agentAddresses = new ArrayList<>();
+    for (String agentAddress : agentAddressValue.split(",")) {
+      int separatorIndex = agentAddress.lastIndexOf(':');
+      if (separatorIndex <= ZERO) {
+        throw new CustomApplicationException("無效的 agent 位址: " + agentAddress + " , 格式應為 host:port");
+      }
+      agentAddresses.add(new InetSocketAddress(agentAddress.substring(ZERO, separatorIndex).trim(),
+          parsePort(agentAddress.substring(separatorIndex + ONE))));
+    }
+
+    return agentAddresses;
+
+  }
+
   /**
    * 由使用者在每次操作中手動輸入測試所需的參數
    */
@@ -209,20 +644,91 @@ public class ApiPerformanceTestApplication {
       }
 
       int taskLimit = getTaskLimitInput(logger, scanner);
-      if (taskLimit < ONE) {
+      if (taskLimit < ZERO) {
         throw new CustomApplicationException("無效的輸入次數 - " + taskLimit + " , 程式已停止");
       }
 
+      /* 總次數與執行時間至少需指定一項, 0 代表不限制 */
+      long runDuration = getRunDurationInput(logger, scanner);
+      if (runDuration < ZERO || (taskLimit == ZERO && runDuration == ZERO)) {
+        throw new CustomApplicationException("無效的執行時間 - " + runDuration + " , 程式已停止");
+      }
+
       long waitTime = getWaitTimeInput(logger, scanner);
       if (waitTime < ONE) {
         throw new CustomApplicationException("無效的等待時間 - " + waitTime + " , 程式已停止");
       }
 
-      logger.info(DEFAULT_STOP_INPUT_MESSAGE);
-      logger.info("以下請設定 Http Headers 相關的參數... ");
+      int concurrency = getConcurrencyInput(logger, scanner);
+      if (concurrency < ONE) {
+        throw new CustomApplicationException("無效的併發數 - " + concurrency + " , 程式已停止");
+      }
 
       scanner.nextLine();
 
+      String usedLoadModel = getLoadModelInput(logger, scanner);
+      SupportedLoadModel loadModel;
+      Double targetRate = null;
+      if (StringUtils.isBlank(usedLoadModel)) {
+        loadModel = SupportedLoadModel.CLOSED;
+      } else {
+        switch (usedLoadModel) {
+          case "1":
+            loadModel = SupportedLoadModel.CLOSED;
+            break;
+          case "2":
+            loadModel = SupportedLoadModel.ARRIVAL_RATE;
+            break;
+          default:
+            throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
+        }
+      }
+
+      if (SupportedLoadModel.ARRIVAL_RATE == loadModel) {
+        targetRate = getTargetRateInput(logger, scanner);
+        if (targetRate <= ZERO) {
+          throw new CustomApplicationException("無效的目標速率 - " + targetRate + " , 程式已停止");
+        }
+
+        scanner.nextLine();
+      }
+
+      String reuseConnectionValue = getReuseConnectionInput(logger, scanner);
+      boolean reuseConnection;
+      if (StringUtils.isBlank(reuseConnectionValue) || DEFAULT_YES.equalsIgnoreCase(reuseConnectionValue)) {
+        reuseConnection = true;
+      } else if (DEFAULT_NO.equalsIgnoreCase(reuseConnectionValue)) {
+        reuseConnection = false;
+      } else {
+        throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
+      }
+
+      String usedEngine = getEngineInput(logger, scanner);
+      SupportedEngine engine;
+      if (StringUtils.isBlank(usedEngine)) {
+        engine = SupportedEngine.BLOCKING;
+      } else {
+        switch (usedEngine) {
+          case "1":
+            engine = SupportedEngine.BLOCKING;
+            break;
+          case "2":
+            engine = SupportedEngine.ASYNC;
+            break;
+          case "3":
+            engine = SupportedEngine.VIRTUAL_THREAD;
+            break;
+          case "4":
+            engine = SupportedEngine.HTTP2;
+            break;
+          default:
+            throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
+        }
+      }
+
+      logger.info(DEFAULT_STOP_INPUT_MESSAGE);
+      logger.info("以下請設定 Http Headers 相關的參數... ");
+
       String contentTypeValue = getContentTypeInput(logger, scanner);
       if (StringUtils.isNotBlank(contentTypeValue) &&
           (HeadersParamValue.isNotEqualToDefaultValue(contentTypeValue, HeadersParamValue.JSON) &&
@@ -237,6 +743,29 @@ public class ApiPerformanceTestApplication {
         throw new CustomApplicationException(UNSUPPORTED_ACCEPT_MESSAGE);
       }
 
+      String usedResponseMode = getResponseModeInput(logger, scanner);
+      SupportedResponseMode responseMode;
+      if (StringUtils.isBlank(usedResponseMode)) {
+        responseMode = SupportedResponseMode.PARSE;
+      } else {
+        switch (usedResponseMode) {
+          case "1":
+            responseMode = SupportedResponseMode.PARSE;
+            break;
+          case "2":
+            responseMode = SupportedResponseMode.DISCARD;
+            break;
+          case "3":
+            responseMode = SupportedResponseMode.HASH;
+            break;
+          case "4":
+            responseMode = SupportedResponseMode.SIZE_ONLY;
+            break;
+          default:
+            throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
+        }
+      }
+
       Map<String, Object> otherHeadersParams = new HashMap<>();
       String otherHeadersKey;
       do {
@@ -279,11 +808,30 @@ public class ApiPerformanceTestApplication {
       return PerformanceRequestData.builder()
           .url(targetUrl)
           .httpMethod(targetMethod)
-          .taskLimit(taskLimit)
+          .taskLimit(taskLimit == ZERO ? null : taskLimit)
+          .runDuration(runDuration == ZERO ? null : runDuration)
+          .shutdownTimeout(DataTransferUtils.DEFAULT_SHUTDOWN_TIMEOUT)
           .waitTime(waitTime)
+          .concurrency(concurrency)
+          .loadModel(loadModel)
+          .targetRate(targetRate)
+          .reuseConnection(reuseConnection)
+          .compression(false)
+          .maxConnections(concurrency)
+          .maxConnectionsPerRoute(concurrency)
+          .keepAliveTime(DataTransferUtils.DEFAULT_KEEP_ALIVE_TIME)
+          .idleConnectionTime(DataTransferUtils.DEFAULT_IDLE_CONNECTION_TIME)
+          .connectTimeout(DataTransferUtils.DEFAULT_CONNECT_TIMEOUT)
+          .readTimeout(DataTransferUtils.DEFAULT_READ_TIMEOUT)
+          .totalTimeout(DataTransferUtils.DEFAULT_TOTAL_TIMEOUT)
+          .engine(engine)
+          .ioThreads(DataTransferUtils.DEFAULT_IO_THREADS)
+          .http2Connections(DataTransferUtils.getDefaultHttp2Connections(concurrency, DataTransferUtils.DEFAULT_HTTP2_MAX_STREAMS))
+          .http2MaxStreams(DataTransferUtils.DEFAULT_HTTP2_MAX_STREAMS)
           .contentType(contentTypeValue)
           .authorization(authorizationValue)
           .accept(acceptValue)
+          .responseMode(responseMode)
           .otherHeadersParams(otherHeadersParams)
           .otherParams(otherParams)
           .build();
@@ -305,15 +853,45 @@ public class ApiPerformanceTestApplication {
   }
 
   public static int getTaskLimitInput(Logger logger, Scanner scanner) {
-    logger.info("請輸入要執行的總次數(正整數):");
+    logger.info("請輸入要執行的總次數(正整數, 0 代表不限次數, 依執行時間結束):");
     return scanner.nextInt();
   }
 
+  public static long getRunDurationInput(Logger logger, Scanner scanner) {
+    logger.info("請輸入要執行的總時間(秒數, 0 代表不限時間, 依總次數結束):");
+    return scanner.nextLong();
+  }
+
   public static long getWaitTimeInput(Logger logger, Scanner scanner) {
     logger.info("請輸入要執行的等待時間(秒數):");
     return scanner.nextLong();
   }
 
+  public static int getConcurrencyInput(Logger logger, Scanner scanner) {
+    logger.info("請輸入要同時執行的併發數(正整數, 1 代表依序執行):");
+    return scanner.nextInt();
+  }
+
+  public static String getLoadModelInput(Logger logger, Scanner scanner) {
+    logger.info("請輸入要使用的負載模式(請輸入'數字', 1.每次執行後等待/2.固定到達速率, 預設為1)");
+    return scanner.nextLine();
+  }
+
+  public static double getTargetRateInput(Logger logger, Scanner scanner) {
+    logger.info("請輸入固定到達速率模式的目標速率(次/秒):");
+    return scanner.nextDouble();
+  }
+
+  public static String getReuseConnectionInput(Logger logger, Scanner scanner) {
+    logger.info("是否要重複使用連線?(Y->是, N->每次請求都建立新連線, 預設為是)");
+    return scanner.nextLine();
+  }
+
+  public static String getEngineInput(Logger logger, Scanner scanner) {
+    logger.info("請輸入請求的送出方式(請輸入'數字', 1.阻塞式(每個請求佔用一條執行緒)/2.非阻塞式/3.虛擬執行緒(需 JDK 21 以上)/4.HTTP/2(https 為 h2, http 為 h2c), 預設為1)");
+    return scanner.nextLine();
+  }
+
   public static String getContentTypeInput(Logger logger, Scanner scanner) {
     logger.info("是否需要指定 Content-Type ? 需要則輸入對應的值, 否則直接按enter跳過即可");
     return scanner.nextLine();
@@ -329,6 +907,11 @@ public class ApiPerformanceTestApplication {
     return scanner.nextLine();
   }
 
+  public static String getResponseModeInput(Logger logger, Scanner scanner) {
+    logger.info("請輸入回應內文的處理方式(請輸入'數字', 1.完整解析/2.讀取後丟棄/3.僅計算雜湊/4.僅取大小(不讀取內文), 預設為1)");
+    return scanner.nextLine();
+  }
+
   public static String getOtherHeadersParamKey(Logger logger, Scanner scanner) {
     logger.info("是否需要指定其他 Header 所需的參數 ? 需要則先輸入對應的參數名稱, 否則直接按enter跳過即可");
     return scanner.nextLine();
@@ -376,10 +959,72 @@ public class ApiPerformanceTestApplication {
 
     logger.info("以下為本次測試所使用的設定值: {} ", System.lineSeparator());
 
-    logger.info("{} : {} ", TEST_API_URI_I118N_ZH_TW, requestData.getUrl());
-    logger.info("{} : {} ", HTTP_METHOD_I18N_ZH_TW, requestData.getHttpMethod());
-    logger.info("{} : {} ", TEST_LIMIT_TIME_I18N_ZH_TW, requestData.getTaskLimit());
+    /* 混合多種請求時逐一顯示各請求, 未設定的 Headers 沿用以下最外層的值 */
+    if (Optional.ofNullable(requestData.getScenarios()).isPresent() && !requestData.getScenarios().isEmpty()) {
+      for (ScenarioData scenario : requestData.getScenarios()) {
+        logger.info("{} : {} , {} , {} {} ", SCENARIO_I18N_ZH_TW, scenario.getName(), scenario.getWeight(), scenario.getHttpMethod(),
+            scenario.getUrl());
+        if (Optional.ofNullable(scenario.getOtherParams()).isPresent() && scenario.getOtherParams().size() > 0) {
+          viewExtraParams(logger, scenario.getOtherParams());
+        }
+      }
+    } else if (Optional.ofNullable(requestData.getSteps()).isPresent() && !requestData.getSteps().isEmpty()) {
+      /* 執行流程時依序顯示各步驟 */
+      for (WorkflowStepData step : requestData.getSteps()) {
+        logger.info("{} : {} , {} {} ", WORKFLOW_STEP_I18N_ZH_TW, step.getName(), step.getHttpMethod(), step.getUrl());
+        if (Optional.ofNullable(step.getOtherParams()).isPresent() && step.getOtherParams().size() > 0) {
+          viewExtraParams(logger, step.getOtherParams());
+        }
+        if (Optional.ofNullable(step.getExtract()).isPresent() && !step.getExtract().isEmpty()) {
+          logger.info("{} : {} ", EXTRACT_I18N_ZH_TW, step.getExtract());
+        }
+        if (Optional.ofNullable(step.getCacheTtl()).isPresent()) {
+          logger.info("{} : {} ", CACHE_TTL_I18N_ZH_TW, step.getCacheTtl());
+        }
+      }
+    } else {
+      logger.info("{} : {} ", TEST_API_URI_I118N_ZH_TW, requestData.getUrl());
+      logger.info("{} : {} ", HTTP_METHOD_I18N_ZH_TW, requestData.getHttpMethod());
+    }
+    if (Optional.ofNullable(requestData.getTaskLimit()).isPresent()) {
+      logger.info("{} : {} ", TEST_LIMIT_TIME_I18N_ZH_TW, requestData.getTaskLimit());
+    }
+    if (Optional.ofNullable(requestData.getRunDuration()).isPresent()) {
+      logger.info("{} : {} ", RUN_DURATION_I18N_ZH_TW, requestData.getRunDuration());
+    }
+    if (Optional.ofNullable(requestData.getWarmUpCount()).isPresent()) {
+      logger.info("{} : {} ", WARM_UP_COUNT_I18N_ZH_TW, requestData.getWarmUpCount());
+    }
+    if (Optional.ofNullable(requestData.getWarmUpDuration()).isPresent()) {
+      logger.info("{} : {} ", WARM_UP_DURATION_I18N_ZH_TW, requestData.getWarmUpDuration());
+    }
+    logger.info("{} : {} ", SHUTDOWN_TIMEOUT_I18N_ZH_TW, requestData.getShutdownTimeout());
     logger.info("{} : {} ", TEST_WAIT_TIME_PERIOD_I18N_ZH_TW, requestData.getWaitTime());
+    logger.info("{} : {} ", TEST_CONCURRENCY_I18N_ZH_TW, requestData.getConcurrency());
+    logger.info("{} : {} ", LOAD_MODEL_I18N_ZH_TW, requestData.getLoadModel());
+    if (Optional.ofNullable(requestData.getStages()).isPresent() && !requestData.getStages().isEmpty()) {
+      for (LoadStageData stage : requestData.getStages()) {
+        logger.info("{} : {} , {} 秒, {} {} ", LOAD_STAGE_I18N_ZH_TW, stage.getName(), stage.getDuration(), stage.getTransition(),
+            SupportedLoadModel.ARRIVAL_RATE == requestData.getLoadModel() ? stage.getTargetRate() + " 次/秒" : stage.getTargetConcurrency() + " 併發");
+      }
+    } else if (SupportedLoadModel.ARRIVAL_RATE == requestData.getLoadModel()) {
+      logger.info("{} : {} ", TARGET_RATE_I18N_ZH_TW, requestData.getTargetRate());
+    }
+    logger.info("{} : {} ", REUSE_CONNECTION_I18N_ZH_TW, requestData.getReuseConnection());
+    logger.info("{} : {} ", COMPRESSION_I18N_ZH_TW, requestData.getCompression());
+    logger.info("{} : {} / {} ", MAX_CONNECTIONS_I18N_ZH_TW, requestData.getMaxConnections(), requestData.getMaxConnectionsPerRoute());
+    logger.info("{} : {} / {} ", KEEP_ALIVE_TIME_I18N_ZH_TW, requestData.getKeepAliveTime(), requestData.getIdleConnectionTime());
+    logger.info("{} : {} / {} / {} ", TIMEOUT_I18N_ZH_TW, requestData.getConnectTimeout(), requestData.getReadTimeout(),
+        requestData.getTotalTimeout());
+    logger.info("{} : {} ", ENGINE_I18N_ZH_TW, requestData.getEngine());
+    if (SupportedEngine.ASYNC == requestData.getEngine()) {
+      logger.info("{} : {} ", IO_THREADS_I18N_ZH_TW, requestData.getIoThreads());
+    }
+    if (SupportedEngine.HTTP2 == requestData.getEngine()) {
+      logger.info("{} : {} / {} ", HTTP2_CONNECTIONS_I18N_ZH_TW, requestData.getHttp2Connections(), requestData.getHttp2MaxStreams());
+    }
+
+    logger.info("{} : {} ", RESPONSE_MODE_I18N_ZH_TW, requestData.getResponseMode());
 
     String contentType = requestData.getContentType();
     if (StringUtils.isNotBlank(contentType)) {
@@ -410,6 +1055,13 @@ public class ApiPerformanceTestApplication {
       logger.info("未使用其他自定義的參數...");
     }
 
+    /* url, Headers 與參數中的 ${變數} 由資料檔提供 */
+    if (Optional.ofNullable(requestData.getFeeders()).isPresent()) {
+      for (FeederData feeder : requestData.getFeeders()) {
+        logger.info("{} : {} , {} ", FEEDER_I18N_ZH_TW, feeder.getFilePath(), feeder.getOrder());
+      }
+    }
+
   }
 
   public static void viewExtraParams(Logger logger, Map<String, Object> paramsMap) {
@@ -418,78 +1070,201 @@ public class ApiPerformanceTestApplication {
     }
   }
 
-  public static List<Future<PerformanceTestData>> doInvokeAll(ScheduledExecutorService executor, List<PerformanceTask> performanceTasks) throws CustomApplicationException {
+  public static void showTestResult(Logger logger, PerformanceResultFileData resultData) {
 
-    try {
-      return executor.invokeAll(performanceTasks);
-    } catch (InterruptedException e) {
-      throw new CustomApplicationException("fail to invoke task data...", e);
+    if (resultData == null || resultData.getTotalCount() == ZERO) {
+      throw new CustomApplicationException("empty performance test result...");
+    } else {
+      double decimalPlaceFactor = Math.pow(10, 2);
+
+      logger.info("以下為本次測試的統計資訊: {} ", System.lineSeparator());
+      logger.info("共 {} 筆", resultData.getTotalCount());
+      logger.info("平均耗時為 {} ms", resultData.getAverageOperateTime());
+      logger.info("最長耗時為 {} ms", resultData.getWorstOperateTime());
+      logger.info("最短耗時為 {} ms", resultData.getBestOperateTime());
+      HistogramUtils.showPercentiles(logger, resultData.getLatencyPercentiles());
+      HistogramUtils.showPhasePercentiles(logger, resultData.getPhasePercentiles());
+      logger.info("Http請求成功次數為 {} 次", resultData.getOkCount());
+      logger.info("Http請求失敗次數為 {} 次", resultData.getNgCount());
+      logger.info("Http請求成功率為(到2位小數) {} % {} ", resultData.getOkPercent(), System.lineSeparator());
+
+      /* 失敗依類型分開顯示, 用來區分逾時與快速回應的錯誤 */
+      if (Optional.ofNullable(resultData.getErrorResults()).isPresent()) {
+        showErrorResults(logger, resultData.getErrorResults());
+      }
+
+      /* 顯示回應內文的處理方式, 以及耗時是否包含讀取內文 */
+      logger.info("回應內文處理方式為 {} , 耗時{}包含讀取回應內文, 平均回應大小為 {} bytes", resultData.getResponseMode(),
+          Boolean.TRUE.equals(resultData.getBodyConsumed()) ? "" : "不", resultData.getAverageResponseBytes());
+      if (Optional.ofNullable(resultData.getUnknownSizeCount()).orElse(0) > 0) {
+        logger.info("其中 {} 筆未取得回應大小(例如未取得回應的失敗), 不計入平均大小", resultData.getUnknownSizeCount());
+      }
+      if (Optional.ofNullable(resultData.getWireMegabytesPerSecond()).isPresent()) {
+        logger.info("平均傳輸大小為 {} bytes, 傳輸量為 {} MB/s, 解壓縮後為 {} MB/s", resultData.getAverageWireBytes(),
+            resultData.getWireMegabytesPerSecond(), resultData.getDecodedMegabytesPerSecond());
+      }
+
+      /* 顯示整次測試的實際速率, 固定到達速率模式下一併顯示目標速率 */
+      logger.info("總執行時間為 {} s", Math.round(resultData.getRunTime() / 1000.0 * decimalPlaceFactor) / decimalPlaceFactor);
+      if (Optional.ofNullable(resultData.getTargetRate()).isPresent()) {
+        logger.info("目標速率為 {} 次/秒, 實際速率為 {} 次/秒 {} ", resultData.getTargetRate(), resultData.getAchievedRate(), System.lineSeparator());
+      } else {
+        logger.info("實際速率為 {} 次/秒 {} ", resultData.getAchievedRate(), System.lineSeparator());
+      }
+
+      /* 暖機的結果不計入以上的統計, 另外顯示 */
+      if (Optional.ofNullable(resultData.getWarmUpResult()).isPresent()) {
+        showWarmUpResult(logger, resultData.getWarmUpResult());
+      }
+
+      /* 依負載階段執行時, 各階段分開顯示 */
+      if (Optional.ofNullable(resultData.getStageResults()).isPresent()) {
+        showStageResults(logger, resultData.getStageResults());
+      }
+
+      /* 混合多種請求時, 各請求分開顯示 */
+      if (Optional.ofNullable(resultData.getScenarioResults()).isPresent()) {
+        showScenarioResults(logger, resultData.getScenarioResults());
+      }
+
+      /* 執行流程時, 各步驟分開顯示 */
+      if (Optional.ofNullable(resultData.getStepResults()).isPresent()) {
+        showStepResults(logger, resultData.getStepResults());
+      }
+
+      /* 負載產生端的健康狀態, 用來判斷耗時是否受本程式自身影響 */
+      if (Optional.ofNullable(resultData.getGeneratorHealth()).isPresent()) {
+        showGeneratorHealth(logger, resultData.getGeneratorHealth());
+      }
     }
 
   }
 
-  public static void showTestResult(Logger logger, List<Future<PerformanceTestData>> taskResults) {
+  public static void showErrorResults(Logger logger, List<ErrorResultData> errorResults) {
 
-    if (taskResults == null) {
-      throw new CustomApplicationException("empty performance test result...");
+    logger.info("以下為各錯誤類型的統計資訊: ");
+    for (ErrorResultData errorResult : errorResults) {
+      logger.info("{} ({}) : 共 {} 筆, 佔全部 {} %, 平均耗時 {} ms, p50 {} ms, p99 {} ms, max {} ms", errorResult.getDescription(),
+          errorResult.getErrorType(), errorResult.getCount(), errorResult.getPercent(),
+          HistogramUtils.toMillis(errorResult.getLatencyPercentiles().getMean()),
+          HistogramUtils.toMillis(errorResult.getLatencyPercentiles().getP50()),
+          HistogramUtils.toMillis(errorResult.getLatencyPercentiles().getP99()),
+          HistogramUtils.toMillis(errorResult.getLatencyPercentiles().getMax()));
+    }
+
+  }
+
+  public static void showWarmUpResult(Logger logger, WarmUpResultData warmUpResult) {
+
+    logger.info("以下為暖機期間的統計資訊(不計入以上的統計): ");
+    logger.info("共 {} 筆, 成功 {} 次, 失敗 {} 次, 平均耗時 {} ms, 最長耗時 {} ms, 實際速率為 {} 次/秒, p50 {} ms, p99 {} ms, 暖機時間為 {} s {} ",
+        warmUpResult.getTotalCount(), warmUpResult.getOkCount(), warmUpResult.getNgCount(), warmUpResult.getAverageOperateTime(),
+        warmUpResult.getWorstOperateTime(), warmUpResult.getAchievedRate(),
+        HistogramUtils.toMillis(warmUpResult.getLatencyPercentiles().getP50()),
+        HistogramUtils.toMillis(warmUpResult.getLatencyPercentiles().getP99()),
+        Math.round(warmUpResult.getRunTime() / 10.0) / 100.0, System.lineSeparator());
+
+  }
+
+  public static void showGeneratorHealth(Logger logger, GeneratorHealthData generatorHealth) {
+
+    logger.info("以下為負載產生端的健康狀態: ");
+    logger.info("程序 CPU 平均 {} %, 最高 {} %, 最忙的工作執行緒最高 {} %, CPU 飽和 {} 秒", generatorHealth.getAverageProcessCpuPercent(),
+        generatorHealth.getMaxProcessCpuPercent(), generatorHealth.getMaxBusiestWorkerCpuPercent(), generatorHealth.getCpuSaturatedSampleCount());
+    logger.info("GC 停頓 {} 次, 共 {} ms, 最長 {} ms, heap 最高使用 {} MB / 上限 {} MB", generatorHealth.getGcPauseCount(),
+        generatorHealth.getGcPauseTime(), generatorHealth.getMaxGcPause(), generatorHealth.getMaxHeapUsedMb(), generatorHealth.getHeapMaxMb());
+    logger.info("與 GC 停頓重疊的請求 {} 筆, 等待送出的時間最長 {} ms {} ", generatorHealth.getGcOverlapCount(),
+        HistogramUtils.toMillis(generatorHealth.getSchedulingLagMax()), System.lineSeparator());
+
+    for (String warning : generatorHealth.getWarnings()) {
+      logger.warn("負載產生端警告: {} ", warning);
+    }
+
+  }
+
+  public static void showScenarioResults(Logger logger, List<ScenarioResultData> scenarioResults) {
+
+    logger.info("以下為各請求的統計資訊: ");
+    for (ScenarioResultData scenarioResult : scenarioResults) {
+      logger.info("{} ({} {}) : 共 {} 筆(設定 {} % / 實際 {} %), 成功 {} 次, 失敗 {} 次, 成功率 {} %, 平均耗時 {} ms, 實際速率為 {} 次/秒, p50 {} ms, p99 {} ms, max {} ms",
+          scenarioResult.getScenario(), scenarioResult.getHttpMethod(), scenarioResult.getUrl(), scenarioResult.getTotalCount(),
+          scenarioResult.getWeightPercent(), scenarioResult.getActualPercent(), scenarioResult.getOkCount(), scenarioResult.getNgCount(),
+          scenarioResult.getOkPercent(), scenarioResult.getAverageOperateTime(), scenarioResult.getAchievedRate(),
+          HistogramUtils.toMillis(scenarioResult.getLatencyPercentiles().getP50()),
+          HistogramUtils.toMillis(scenarioResult.getLatencyPercentiles().getP99()),
+          HistogramUtils.toMillis(scenarioResult.getLatencyPercentiles().getMax()));
+    }
+
+  }
+
+  public static void showComparisonResult(Logger logger, String baselinePath, String candidatePath, ComparisonThresholdData thresholds,
+      ComparisonResultData comparisonResult) {
+
+    logger.info("以下為基準 {} 與比較 {} 的差異: ", baselinePath, candidatePath);
+    for (MetricComparisonData metric : comparisonResult.getMetrics()) {
+      logger.info("{} : {} -> {} ( {} {} , 門檻 {} ){}", metric.getMetric(), metric.getBaselineValue(), metric.getCandidateValue(),
+          metric.getChange() > ZERO ? "+" + metric.getChange() : metric.getChange(), "okPercent".equals(metric.getMetric()) ? "個百分點" : "%",
+          Optional.ofNullable(metric.getThreshold()).map(String::valueOf).orElse("未設定"), metric.getExceeded() ? " 超過門檻" : "");
+    }
+
+    if (Optional.ofNullable(comparisonResult.getPValue()).isPresent()) {
+      logger.info("Mann-Whitney U 檢定(單尾): U = {} , z = {} , p 值 = {} , 比較結果較慢的機率 = {} , 顯著水準 {} 下{}", comparisonResult.getUStatistic(),
+          comparisonResult.getZScore(), comparisonResult.getPValue(), comparisonResult.getProbabilityOfSuperiority(),
+          thresholds.getSignificanceLevel(), comparisonResult.getSignificant() ? "差異顯著" : "差異不顯著");
     } else {
-      logger.info("以下為逐次測試的相關資訊: {} ", System.lineSeparator());
+      logger.info("結果檔沒有耗時的 Histogram, 無法進行顯著性檢定, 耗時只依門檻判定");
+    }
 
-      long totalOperateTime = ZERO, bestOperateTime = ZERO, worstOperateTime = ZERO;
-      int okCount = ZERO, ngCount = ZERO;
+    for (String regression : comparisonResult.getRegressions()) {
+      logger.info("退化: {} ", regression);
+    }
 
-      int totalTestCount = taskResults.size();
+  }
 
-      for (int index = 0; index < totalTestCount; index++) {
-        Future<PerformanceTestData> currentTest = taskResults.get(index);
-        try {
-          PerformanceTestData currentTestData = currentTest.get();
+  public static void showCalibrationResult(Logger logger, CalibrationResultData calibrationResult) {
 
-          /* 顯示耗時資訊 */
-          long currentOperateTime = currentTestData.getOperateTime();
-          logger.info("第 {} 次執行時的耗時資訊為: {} ms", (index + 1), currentOperateTime);
+    logger.info("以下為自我校準的結果(engine: {} , 回應內文處理方式: {} , 回應大小: {} bytes): ", calibrationResult.getEngine(),
+        calibrationResult.getResponseMode(), calibrationResult.getPayloadBytes());
+    for (CalibrationStepData step : calibrationResult.getSteps()) {
+      logger.info("併發數 {} : 共 {} 筆, 失敗 {} 次, 實際速率為 {} 次/秒, p50 {} ms, p99 {} ms, max {} ms", step.getConcurrency(),
+          step.getTotalCount(), step.getNgCount(), step.getAchievedRate(),
+          HistogramUtils.toMillis(step.getLatencyPercentiles().getP50()),
+          HistogramUtils.toMillis(step.getLatencyPercentiles().getP99()),
+          HistogramUtils.toMillis(step.getLatencyPercentiles().getMax()));
+    }
 
-          /* 顯示 api 回應的訊息 */
-          Map<String, Object> currentResponseDatas = currentTestData.getResponseDatas();
-          String currentResponseText = new Gson().toJson(currentResponseDatas);
-          logger.info("第 {} 次執行時的回傳資訊為: {} ", (index + 1), currentResponseText + System.lineSeparator());
+    logger.info("耗時下限(併發數 1): p50 {} ms, p99 {} ms, p99.9 {} ms", HistogramUtils.toMillis(calibrationResult.getLatencyFloor().getP50()),
+        HistogramUtils.toMillis(calibrationResult.getLatencyFloor().getP99()),
+        HistogramUtils.toMillis(calibrationResult.getLatencyFloor().getP999()));
+    logger.info("最大速率為 {} 次/秒(併發數 {}), 目標服務的耗時接近耗時下限或測試速率接近最大速率時, 結果主要反映本程式自身的上限",
+        calibrationResult.getMaxRate(), calibrationResult.getMaxRateConcurrency());
 
-          if (worstOperateTime < currentOperateTime) {
-            worstOperateTime = currentOperateTime;
-          }
+  }
 
-          if (bestOperateTime == ZERO || bestOperateTime > currentOperateTime) {
-            bestOperateTime = currentOperateTime;
-          }
+  public static void showStepResults(Logger logger, List<StepResultData> stepResults) {
+
+    logger.info("以下為流程各步驟的統計資訊: ");
+    for (StepResultData stepResult : stepResults) {
+      logger.info("{} ({} {}) : 共 {} 筆, 成功 {} 次, 失敗 {} 次, 成功率 {} %, 平均耗時 {} ms, 使用快取 {} 次, 無法取值而中止 {} 次, p50 {} ms, p99 {} ms, max {} ms",
+          stepResult.getStep(), stepResult.getHttpMethod(), stepResult.getUrl(), stepResult.getTotalCount(), stepResult.getOkCount(),
+          stepResult.getNgCount(), stepResult.getOkPercent(), stepResult.getAverageOperateTime(), stepResult.getCachedCount(),
+          stepResult.getAbortedCount(),
+          HistogramUtils.toMillis(stepResult.getLatencyPercentiles().getP50()),
+          HistogramUtils.toMillis(stepResult.getLatencyPercentiles().getP99()),
+          HistogramUtils.toMillis(stepResult.getLatencyPercentiles().getMax()));
+    }
 
-          if (HTTP_OK_STATUS_OK == currentTestData.getStatusCode()) {
-            okCount++;
-          } else {
-            ngCount++;
-          }
+  }
 
-          totalOperateTime = totalOperateTime + currentOperateTime;
-          if (index == totalTestCount - 1) {
-            logger.info("共 {} 筆", totalTestCount);
-
-            /* 求出平均耗時 */
-            long averageOperateTime = totalOperateTime / totalTestCount;
-            double okRate = (100 * okCount) / (totalTestCount * 1.0);
-            double decimalPlaceFactor = Math.pow(10, 2);
-            double okPercent = Math.round((okRate / decimalPlaceFactor) * decimalPlaceFactor);
-
-            logger.info("平均耗時為 {} ms", averageOperateTime);
-            logger.info("最長耗時為 {} ms", worstOperateTime);
-            logger.info("最短耗時為 {} ms", bestOperateTime);
-            logger.info("Http請求成功次數為 {} 次", okCount);
-            logger.info("Http請求失敗次數為 {} 次", ngCount);
-            logger.info("Http請求成功率為(到2位小數) {} % {} ", okPercent, System.lineSeparator());
-          }
+  public static void showStageResults(Logger logger, List<StageResultData> stageResults) {
 
-        } catch (InterruptedException | ExecutionException e) {
-          throw new CustomApplicationException(System.lineSeparator() + "fail to get TaskData in currentTask" + System.lineSeparator(), e);
-        }
-      }
+    logger.info("以下為各負載階段的統計資訊: ");
+    for (StageResultData stageResult : stageResults) {
+      logger.info("{} : 共 {} 筆, 成功 {} 次, 失敗 {} 次, 實際速率為 {} 次/秒, p50 {} ms, p99 {} ms, max {} ms",
+          stageResult.getStage(), stageResult.getTotalCount(), stageResult.getOkCount(), stageResult.getNgCount(),
+          stageResult.getAchievedRate(), HistogramUtils.toMillis(stageResult.getLatencyPercentiles().getP50()),
+          HistogramUtils.toMillis(stageResult.getLatencyPercentiles().getP99()),
+          HistogramUtils.toMillis(stageResult.getLatencyPercentiles().getMax()));
     }
 
   }
@@ -642,9 +1417,9 @@ public class ApiPerformanceTestApplication {
   }
 
   /**
-   * 寫入測試的結果
+   * 取得儲存測試結果的檔案路徑
    */
-  public static void saveRequestTestingResult(Logger logger, Scanner scanner, List<Future<PerformanceTestData>> taskResults) throws CustomApplicationException {
+  public static Path getTestingResultPath(Logger logger, Scanner scanner) throws CustomApplicationException {
 
     logger.info("請輸入欲儲存測試結果的檔案完整路徑");
     String testResultFilePath = scanner.nextLine();
@@ -662,10 +1437,7 @@ public class ApiPerformanceTestApplication {
       }
 
       /* 產生路徑物件 */
-      Path testProfilePath = Paths.get(testResultFilePath);
-
-      /* 執行儲存請求測試的結果 */
-      JsonUtils.writeRequestTestingResultJsonIntoFile(testProfilePath, taskResults);
+      return Paths.get(testResultFilePath);
 
     } catch (CustomApplicationException e) {
       throw e;
@@ -0,0 +1,74 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+
+/**
+ * 重複使用解壓縮用的 Inflater, 避免每次回應都配置並釋放 native 記憶體; 虛擬執行緒每個請求各自一條執行緒,
+ * 無法以 ThreadLocal 重複使用, 因此由所有執行緒共用. nowrap 為 true 時用於 gzip 與未包裝的 deflate, false 時用於 zlib 格式
+ */
+public class InflaterPool {
+
+  /* 超過此數量時歸還的 Inflater 直接釋放, 數量約等於同時解壓縮中的回應數 */
+  private final static int MAX_POOLED_INFLATERS = 256;
+
+  private final static Pool RAW_INFLATERS = new Pool(true);
+  private final static Pool ZLIB_INFLATERS = new Pool(false);
+
+  private InflaterPool() {
+  }
+
+  /**
+   * 取得可使用的 Inflater, 使用完畢後須以 release 歸還
+   *
+   * @param nowrap gzip 與未包裝的 deflate 為 true, zlib 格式為 false
+   */
+  public static Inflater borrow(boolean nowrap) {
+    return (nowrap ? RAW_INFLATERS : ZLIB_INFLATERS).borrow();
+  }
+
+  /**
+   * 歸還 Inflater, 重設狀態後供下一個回應使用
+   *
+   * @param inflater 以 borrow 取得的 Inflater
+   * @param nowrap 取得時指定的 nowrap
+   */
+  public static void release(Inflater inflater, boolean nowrap) {
+    (nowrap ? RAW_INFLATERS : ZLIB_INFLATERS).release(inflater);
+  }
+
+  private static class Pool {
+
+    private final boolean nowrap;
+    private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+    /* ConcurrentLinkedQueue 的 size() 需走訪整個佇列, 另外計數 */
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    private Pool(boolean nowrap) {
+      this.nowrap = nowrap;
+    }
+
+    private Inflater borrow() {
+      Inflater inflater = inflaters.poll();
+      if (inflater == null) {
+        return new Inflater(nowrap);
+      }
+      pooledCount.decrementAndGet();
+      return inflater;
+    }
+
+    private void release(Inflater inflater) {
+      if (pooledCount.incrementAndGet() > MAX_POOLED_INFLATERS) {
+        pooledCount.decrementAndGet();
+        inflater.end();
+        return;
+      }
+      inflater.reset();
+      inflaters.offer(inflater);
+    }
+
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * 各階段計時存放於 HttpContext 中所使用的 key, 值皆為 System.nanoTime() 的差值或時間點
+ */
+public class PhaseTimingAttributes {
+
+  public final static String CONNECT_TIME = "apiPerformanceTest.connectTime";
+  public final static String TLS_HANDSHAKE_TIME = "apiPerformanceTest.tlsHandshakeTime";
+  public final static String REQUEST_SENT_AT = "apiPerformanceTest.requestSentAt";
+  public final static String RESPONSE_HEAD_RECEIVED_AT = "apiPerformanceTest.responseHeadReceivedAt";
+
+  /**
+   * 取出 HttpContext 中的計時, 未記錄時(例如沿用既有連線)回傳 0
+   */
+  public static long getNanos(HttpContext context, String attributeName) {
+    Object attribute = context.getAttribute(attributeName);
+    return attribute instanceof Long ? (Long) attribute : 0L;
+  }
+
+}
@@ -0,0 +1,270 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 依 Content-Encoding 邊接收邊解壓縮回應內文, 阻塞與非阻塞模式共用; 內文可分成任意大小的片段傳入, 解壓縮後的內容交由
+ * DecodedBytesConsumer 處理. 同時累計解壓縮後的位元組數與解壓縮本身的耗時(不含 consumer 處理的時間).
+ * 每個回應各自建立, 不可由多條執行緒同時使用, 結束時須呼叫 close 歸還 Inflater
+ */
+public class ResponseContentDecoder {
+
+  /* 要求壓縮時送出的 Accept-Encoding, 只列出可解壓縮的格式 */
+  public final static String ACCEPT_ENCODING = "gzip, deflate";
+
+  private final static String GZIP_ENCODING = "gzip";
+  private final static String X_GZIP_ENCODING = "x-gzip";
+  private final static String DEFLATE_ENCODING = "deflate";
+
+  private final static int OUTPUT_BUFFER_SIZE = 8192;
+  private final static int GZIP_MIN_HEADER_LENGTH = 10;
+  private final static int GZIP_MAGIC_FIRST = 0x1f;
+  private final static int GZIP_MAGIC_SECOND = 0x8b;
+  private final static int DEFLATE_METHOD = 8;
+  private final static int FLAG_HEADER_CRC = 2;
+  private final static int FLAG_EXTRA = 4;
+  private final static int FLAG_NAME = 8;
+  private final static int FLAG_COMMENT = 16;
+
+  private final boolean gzip;
+  private final byte[] outputBuffer = new byte[OUTPUT_BUFFER_SIZE];
+
+  private Inflater inflater;
+  private boolean nowrap;
+  /* gzip 標頭分散在多個片段時, 先暫存已收到的部分 */
+  private byte[] pendingHeader;
+  private int pendingHeaderLength;
+  private boolean started;
+  private long decodedBytes;
+  private long decodeTimeNanos;
+
+  private ResponseContentDecoder(boolean gzip) {
+    this.gzip = gzip;
+  }
+
+  /**
+   * 依 Content-Encoding 建立解壓縮器
+   *
+   * @param contentEncoding 回應的 Content-Encoding
+   * @return 未壓縮或不支援的格式時回傳 null, 內文視為未壓縮
+   */
+  public static ResponseContentDecoder create(String contentEncoding) {
+
+    if (contentEncoding == null) {
+      return null;
+    }
+
+    String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+    if (GZIP_ENCODING.equals(encoding) || X_GZIP_ENCODING.equals(encoding)) {
+      return new ResponseContentDecoder(true);
+    } else if (DEFLATE_ENCODING.equals(encoding)) {
+      return new ResponseContentDecoder(false);
+    }
+
+    return null;
+
+  }
+
+  /**
+   * 解壓縮一段收到的內文, 格式錯誤時拋出 ZipException
+   *
+   * @param input 收到的內文
+   * @param offset 起始位置
+   * @param length 長度
+   * @param consumer 處理解壓縮後的內容
+   */
+  public void update(byte[] input, int offset, int length, DecodedBytesConsumer consumer) throws IOException {
+
+    if (length <= 0 || (inflater != null && inflater.finished())) {
+      /* 壓縮資料結束後只剩 gzip 的 CRC 與長度, 不需處理 */
+      return;
+    }
+
+    int dataOffset = offset;
+    int dataLength = length;
+    if (!started) {
+      if (gzip) {
+        int headerEnd = consumeGzipHeader(input, offset, length);
+        if (headerEnd < 0) {
+          return;
+        }
+        dataOffset = headerEnd;
+        dataLength = offset + length - headerEnd;
+        nowrap = true;
+      } else {
+        /* 部分伺服器的 deflate 未包含 zlib 標頭, 依開頭判斷 */
+        nowrap = !isZlibHeader(input, offset, length);
+      }
+      inflater = InflaterPool.borrow(nowrap);
+      started = true;
+    }
+
+    if (dataLength > 0) {
+      inflate(input, dataOffset, dataLength, consumer);
+    }
+
+  }
+
+  /**
+   * 解壓縮非阻塞模式收到的一段內文, 讀取完畢後 src 的 position 會移至 limit
+   */
+  public void update(ByteBuffer src, DecodedBytesConsumer consumer) throws IOException {
+
+    int length = src.remaining();
+    if (src.hasArray()) {
+      update(src.array(), src.arrayOffset() + src.position(), length, consumer);
+      src.position(src.limit());
+    } else {
+      byte[] input = new byte[length];
+      src.get(input);
+      update(input, 0, length, consumer);
+    }
+
+  }
+
+  private void inflate(byte[] input, int offset, int length, DecodedBytesConsumer consumer) throws IOException {
+
+    inflater.setInput(input, offset, length);
+    try {
+      while (!inflater.finished()) {
+        long inflateStartTime = System.nanoTime();
+        int inflatedBytes = inflater.inflate(outputBuffer);
+        decodeTimeNanos += System.nanoTime() - inflateStartTime;
+
+        if (inflatedBytes > 0) {
+          decodedBytes += inflatedBytes;
+          if (consumer != null) {
+            consumer.accept(outputBuffer, 0, inflatedBytes);
+          }
+        } else if (inflater.needsInput()) {
+          break;
+        } else if (inflater.needsDictionary()) {
+          throw new ZipException("壓縮內容需要預設字典, 無法解壓縮");
+        }
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException("壓縮內容格式錯誤 : " + e.getMessage());
+    }
+
+  }
+
+  /**
+   * 略過 gzip 標頭, 回傳壓縮資料在 input 中的起始位置; 標頭尚未收完時暫存並回傳 -1
+   */
+  private int consumeGzipHeader(byte[] input, int offset, int length) throws ZipException {
+
+    if (pendingHeader == null) {
+      /* 標頭通常在第一個片段內即收完, 不需複製 */
+      int headerLength = parseGzipHeaderLength(input, offset, length);
+      if (headerLength >= 0) {
+        return offset + headerLength;
+      }
+      pendingHeader = Arrays.copyOfRange(input, offset, offset + length);
+      pendingHeaderLength = length;
+      return -1;
+    }
+
+    int previousLength = pendingHeaderLength;
+    if (pendingHeader.length < previousLength + length) {
+      pendingHeader = Arrays.copyOf(pendingHeader, Math.max(pendingHeader.length * 2, previousLength + length));
+    }
+    System.arraycopy(input, offset, pendingHeader, previousLength, length);
+    pendingHeaderLength = previousLength + length;
+
+    int headerLength = parseGzipHeaderLength(pendingHeader, 0, pendingHeaderLength);
+    if (headerLength < 0) {
+      return -1;
+    }
+    pendingHeader = null;
+    return offset + headerLength - previousLength;
+
+  }
+
+  /**
+   * 計算 gzip 標頭的長度, 尚未收完時回傳 -1
+   */
+  private static int parseGzipHeaderLength(byte[] input, int offset, int length) throws ZipException {
+
+    if (length >= 2 && ((input[offset] & 0xff) != GZIP_MAGIC_FIRST || (input[offset + 1] & 0xff) != GZIP_MAGIC_SECOND)) {
+      throw new ZipException("回應標示為 gzip, 但內文不是 gzip 格式");
+    }
+    if (length < GZIP_MIN_HEADER_LENGTH) {
+      return -1;
+    }
+    if ((input[offset + 2] & 0xff) != DEFLATE_METHOD) {
+      throw new ZipException("不支援的 gzip 壓縮方式 : " + (input[offset + 2] & 0xff));
+    }
+
+    int flags = input[offset + 3] & 0xff;
+    int position = GZIP_MIN_HEADER_LENGTH;
+    if ((flags & FLAG_EXTRA) != 0) {
+      if (position + 2 > length) {
+        return -1;
+      }
+      position += 2 + ((input[offset + position] & 0xff) | ((input[offset + position + 1] & 0xff) << 8));
+    }
+    if ((flags & FLAG_NAME) != 0) {
+      position = skipZeroTerminated(input, offset, length, position);
+    }
+    if ((flags & FLAG_COMMENT) != 0 && position >= 0) {
+      position = skipZeroTerminated(input, offset, length, position);
+    }
+    if ((flags & FLAG_HEADER_CRC) != 0 && position >= 0) {
+      position += 2;
+    }
+
+    return position < 0 || position > length ? -1 : position;
+
+  }
+
+  private static int skipZeroTerminated(byte[] input, int offset, int length, int position) {
+    for (int index = position; index < length; index++) {
+      if (input[offset + index] == 0) {
+        return index + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isZlibHeader(byte[] input, int offset, int length) {
+    int compressionMethod = input[offset] & 0xff;
+    if ((compressionMethod & 0x0f) != DEFLATE_METHOD || (compressionMethod >> 4) > 7) {
+      return false;
+    }
+    return length < 2 || ((compressionMethod << 8) | (input[offset + 1] & 0xff)) % 31 == 0;
+  }
+
+  public long getDecodedBytes() {
+    return decodedBytes;
+  }
+
+  public long getDecodeTimeNanos() {
+    return decodeTimeNanos;
+  }
+
+  /**
+   * 歸還 Inflater, 可重複呼叫
+   */
+  public void close() {
+    if (inflater != null) {
+      InflaterPool.release(inflater, nowrap);
+      inflater = null;
+    }
+  }
+
+  /**
+   * 處理解壓縮後的內容, 傳入的陣列會被重複使用, 需要保留時須自行複製
+   */
+  public interface DecodedBytesConsumer {
+
+    void accept(byte[] buffer, int offset, int length) throws IOException;
+
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.io.IOException;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * 記錄開始送出請求與收到回應標頭的時間點, 兩者相減即為 time-to-first-byte
+ */
+public class TimedHttpRequestExecutor extends HttpRequestExecutor {
+
+  @Override
+  protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+      throws IOException, HttpException {
+    context.setAttribute(PhaseTimingAttributes.REQUEST_SENT_AT, System.nanoTime());
+    return super.doSendRequest(request, conn, context);
+  }
+
+  @Override
+  protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+      throws HttpException, IOException {
+    HttpResponse response = super.doReceiveResponse(request, conn, context);
+    context.setAttribute(PhaseTimingAttributes.RESPONSE_HEAD_RECEIVED_AT, System.nanoTime());
+    return response;
+  }
+
+}
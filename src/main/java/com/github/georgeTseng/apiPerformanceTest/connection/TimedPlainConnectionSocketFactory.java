@@ -0,0 +1,26 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * 記錄 TCP 連線建立時間的 PlainConnectionSocketFactory
+ */
+public class TimedPlainConnectionSocketFactory extends PlainConnectionSocketFactory {
+
+  @Override
+  public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+      InetSocketAddress localAddress, HttpContext context) throws IOException {
+
+    long connectStartTime = System.nanoTime();
+    Socket connectedSocket = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+    context.setAttribute(PhaseTimingAttributes.CONNECT_TIME, System.nanoTime() - connectStartTime);
+
+    return connectedSocket;
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * 分別記錄 TCP 連線建立與 TLS 交握時間的 SSLConnectionSocketFactory
+ */
+public class TimedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+  public TimedSSLConnectionSocketFactory(SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+    super(sslContext, hostnameVerifier);
+  }
+
+  @Override
+  public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+      InetSocketAddress localAddress, HttpContext context) throws IOException {
+
+    long connectStartTime = System.nanoTime();
+    Socket connectedSocket = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+
+    /* connectSocket 內含 TLS 交握, 扣除後即為 TCP 連線建立的時間 */
+    long totalTime = System.nanoTime() - connectStartTime;
+    long tlsHandshakeTime = PhaseTimingAttributes.getNanos(context, PhaseTimingAttributes.TLS_HANDSHAKE_TIME);
+    context.setAttribute(PhaseTimingAttributes.CONNECT_TIME, totalTime - tlsHandshakeTime);
+
+    return connectedSocket;
+  }
+
+  @Override
+  public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+
+    long handshakeStartTime = System.nanoTime();
+    Socket layeredSocket = super.createLayeredSocket(socket, target, port, context);
+    context.setAttribute(PhaseTimingAttributes.TLS_HANDSHAKE_TIME, System.nanoTime() - handshakeStartTime);
+
+    return layeredSocket;
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.io.InterruptedIOException;
+
+/**
+ * 請求超過總時間上限而被中止, 原本的例外(通常是連線被關閉)保留為 cause
+ */
+public class TotalTimeoutException extends InterruptedIOException {
+
+  public TotalTimeoutException(long totalTimeoutMillis, Throwable cause) {
+    super("請求超過總時間上限 " + totalTimeoutMillis + " ms, 已中止");
+    initCause(cause);
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.github.georgeTseng.apiPerformanceTest.connection;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整次測試共用, 在請求超過總時間上限時中止請求; 連線與讀取逾時只限制單次等待, 回應持續緩慢送出時需以此限制總時間.
+ * 所有請求共用一條排程執行緒, 請求完成時即取消排程
+ */
+public class TotalTimeoutGuard {
+
+  private final long totalTimeoutMillis;
+  private final ScheduledThreadPoolExecutor timeoutScheduler;
+
+  /**
+   * @param totalTimeoutMillis 單次請求的總時間上限(ms), 涵蓋取得連線, 送出請求與接收內文
+   */
+  public TotalTimeoutGuard(long totalTimeoutMillis) {
+
+    this.totalTimeoutMillis = totalTimeoutMillis;
+    this.timeoutScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread timeoutThread = new Thread(runnable, "total-timeout-guard");
+      timeoutThread.setDaemon(true);
+      return timeoutThread;
+    });
+
+    /* 大部分的請求會在逾時前完成, 取消時即移出佇列避免堆積 */
+    this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+
+  }
+
+  /**
+   * 送出請求前呼叫, 開始計算總時間
+   */
+  public Deadline start() {
+    Deadline deadline = new Deadline();
+    deadline.timeoutFuture = timeoutScheduler.schedule(deadline::expire, totalTimeoutMillis, TimeUnit.MILLISECONDS);
+    return deadline;
+  }
+
+  public long getTotalTimeoutMillis() {
+    return totalTimeoutMillis;
+  }
+
+  public void close() {
+    timeoutScheduler.shutdownNow();
+  }
+
+  /**
+   * 單次請求的期限, 逾時時執行設定的中止動作; 中止動作可於送出請求後才設定
+   */
+  public static class Deadline {
+
+    private volatile ScheduledFuture<?> timeoutFuture;
+    private volatile Runnable abortAction;
+    private volatile boolean expired;
+    private volatile boolean finished;
+
+    private void expire() {
+
+      if (finished) {
+        return;
+      }
+
+      expired = true;
+      Runnable currentAction = abortAction;
+      if (currentAction != null) {
+        currentAction.run();
+      }
+
+    }
+
+    /**
+     * 設定逾時時中止請求的動作, 設定前已逾時則立即執行; 中止動作可能執行兩次, 需可重複呼叫
+     *
+     * @param abortAction 中止請求的動作
+     */
+    public void onExpired(Runnable abortAction) {
+      this.abortAction = abortAction;
+      if (expired && !finished) {
+        abortAction.run();
+      }
+    }
+
+    /**
+     * 請求結束(不論成功或失敗)時呼叫, 取消逾時的排程
+     */
+    public void finish() {
+      finished = true;
+      ScheduledFuture<?> currentFuture = timeoutFuture;
+      if (currentFuture != null) {
+        currentFuture.cancel(false);
+      }
+    }
+
+    public boolean isExpired() {
+      return expired;
+    }
+
+  }
+
+}
@@ -0,0 +1,235 @@
+package com.github.georgeTseng.apiPerformanceTest.distributed;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.AgentResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.AggregateSnapshotData;
+import com.github.georgeTseng.apiPerformanceTest.model.IntervalResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.StubServerData;
+import com.github.georgeTseng.apiPerformanceTest.stub.StubTargetServer;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 在同一個 JVM 內以 localhost 的 stub server, 多個 agent 與一個 coordinator 檢查分散式執行: 設定依 agent 數分配,
+ * 合併後的累計值與 Histogram 等於各 agent 的合計, 合併後的區間紀錄筆數等於總筆數; 另以不回應的 agent 檢查接收的逾時.
+ * 任一項不符時拋出例外
+ */
+public class DistributedLocalCheck {
+
+  private final static Logger checkLogger = LoggerFactory.getLogger(DistributedLocalCheck.class);
+
+  private final static String LOCAL_HOST = "127.0.0.1";
+  private final static String STUB_PATH = "/distributed-check";
+
+  /* 每個 agent 的併發數與目標速率(次/秒), 讓檢查在數秒內完成 */
+  private final static int CONCURRENCY_PER_AGENT = 4;
+  private final static double RATE_PER_AGENT = 100;
+
+  /* 不回應的 agent 在此時間後應被判定逾時 */
+  private final static long SILENT_AGENT_TIMEOUT_MILLIS = 1000;
+
+  private final static Gson GSON = new Gson();
+
+  /**
+   * 執行檢查, 任一項不符或無法執行時拋出例外
+   *
+   * @param agentCount 啟動的 agent 數
+   * @param taskLimit 所有 agent 合計的總測試次數
+   */
+  public static void check(int agentCount, int taskLimit) throws CustomApplicationException {
+
+    if (agentCount < 1 || taskLimit < agentCount) {
+      throw new CustomApplicationException("agent 數需大於 0, 總測試次數不可少於 agent 數: " + agentCount + " / " + taskLimit);
+    }
+
+    List<String> failures = new ArrayList<>();
+    StubTargetServer stubServer = new StubTargetServer(StubServerData.builder()
+        .host(LOCAL_HOST)
+        .port(0)
+        .errorRate(0.0)
+        .errorStatus(500)
+        .payloadBytes(256)
+        .ioThreads(2)
+        .protocol(StubTargetServer.PROTOCOL_HTTP1)
+        .build());
+    List<PerformanceAgent> agents = new ArrayList<>();
+    Path intervalFilePath = null;
+
+    try {
+      String url = "http://" + LOCAL_HOST + ":" + stubServer.start() + STUB_PATH;
+
+      List<InetSocketAddress> agentAddresses = new ArrayList<>();
+      for (int agentIndex = 0; agentIndex < agentCount; agentIndex++) {
+        PerformanceAgent agent = new PerformanceAgent(0);
+        agents.add(agent);
+        agentAddresses.add(new InetSocketAddress(LOCAL_HOST, agent.start()));
+      }
+
+      intervalFilePath = Files.createTempFile("distributed-check-", ".jsonl");
+      PerformanceCoordinator coordinator = new PerformanceCoordinator(createRequestData(url, agentCount, taskLimit), agentAddresses);
+      PerformanceResultFileData resultData = coordinator.coordinate(intervalFilePath);
+
+      checkMergedResult(failures, resultData, coordinator.getAgentResultDatas(), agentCount, taskLimit);
+      checkIntervals(failures, intervalFilePath, resultData.getTotalCount());
+      checkReceiveTimeout(failures);
+    } catch (IOException e) {
+      throw new CustomApplicationException("發生IO Exception", e);
+    } finally {
+      agents.forEach(PerformanceAgent::close);
+      stubServer.close();
+      deleteQuietly(intervalFilePath);
+    }
+
+    if (!failures.isEmpty()) {
+      throw new CustomApplicationException("分散式檢查未通過: " + String.join(" ; ", failures));
+    }
+
+  }
+
+  /**
+   * 合併後的總筆數等於設定的總測試次數, 且等於各 agent 的合計; 各 agent 的筆數依 coordinator 的分配方式
+   */
+  private static void checkMergedResult(List<String> failures, PerformanceResultFileData resultData, List<AgentResultData> agentResultDatas,
+      int agentCount, int taskLimit) {
+
+    verify(failures, "回傳結果的 agent 數", agentCount, agentResultDatas.size());
+    verify(failures, "合併後的總筆數與總測試次數", taskLimit, resultData.getTotalCount());
+
+    long agentTotalCount = 0;
+    long agentOkCount = 0;
+    long agentNgCount = 0;
+    for (int agentIndex = 0; agentIndex < agentResultDatas.size(); agentIndex++) {
+      AggregateSnapshotData aggregate = agentResultDatas.get(agentIndex).getAggregate();
+      int expectedCount = taskLimit / agentCount + (agentIndex < taskLimit % agentCount ? 1 : 0);
+      verify(failures, "agent " + agentIndex + " 分配到的筆數", expectedCount, aggregate.getTotalCount());
+      agentTotalCount = agentTotalCount + aggregate.getTotalCount();
+      agentOkCount = agentOkCount + aggregate.getOkCount();
+      agentNgCount = agentNgCount + aggregate.getNgCount();
+    }
+
+    verify(failures, "合併後的總筆數與各 agent 的合計", agentTotalCount, resultData.getTotalCount());
+    verify(failures, "合併後的成功次數與各 agent 的合計", agentOkCount, resultData.getOkCount());
+    verify(failures, "合併後的失敗次數與各 agent 的合計", agentNgCount, resultData.getNgCount());
+    verify(failures, "合併後 Histogram 的筆數與總筆數", resultData.getTotalCount(),
+        HistogramUtils.decodeHistogram(resultData.getLatencyHistogram()).getTotalCount());
+    verify(failures, "對 stub server 的失敗次數", 0, resultData.getNgCount());
+
+  }
+
+  /**
+   * 合併後各區間的筆數加總等於總筆數, 代表每個 agent 的每個區間都只合併一次
+   */
+  private static void checkIntervals(List<String> failures, Path intervalFilePath, long totalCount) throws IOException {
+
+    long intervalRequestCount = 0;
+    for (String intervalLine : Files.readAllLines(intervalFilePath, StandardCharsets.UTF_8)) {
+      if (!intervalLine.trim().isEmpty()) {
+        intervalRequestCount = intervalRequestCount + GSON.fromJson(intervalLine, IntervalResultData.class).getRequestCount();
+      }
+    }
+
+    verify(failures, "合併後區間紀錄的筆數加總與總筆數", totalCount, intervalRequestCount);
+
+  }
+
+  /**
+   * 接受連線後不回應的 agent 應在逾時後使 coordinator 拋出例外, 而不是一直等待
+   */
+  private static void checkReceiveTimeout(List<String> failures) throws IOException {
+
+    List<Socket> acceptedSockets = Collections.synchronizedList(new ArrayList<>());
+    try (ServerSocket silentAgent = new ServerSocket(0)) {
+      Thread acceptThread = new Thread(() -> {
+        try {
+          acceptedSockets.add(silentAgent.accept());
+        } catch (IOException e) {
+          /* 檢查結束時關閉 */
+        }
+      }, "silent-agent");
+      acceptThread.setDaemon(true);
+      acceptThread.start();
+
+      PerformanceRequestData requestData = createRequestData("http://" + LOCAL_HOST + ":1" + STUB_PATH, 1, 1);
+      PerformanceCoordinator coordinator = new PerformanceCoordinator(requestData,
+          Collections.singletonList(new InetSocketAddress(LOCAL_HOST, silentAgent.getLocalPort())));
+      coordinator.setReadyTimeoutMillis(SILENT_AGENT_TIMEOUT_MILLIS);
+
+      long startTime = System.nanoTime();
+      try {
+        coordinator.coordinate(null);
+        failures.add("不回應的 agent 未使 coordinator 逾時");
+      } catch (CustomApplicationException e) {
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        checkLogger.info("不回應的 agent 於 {} ms 後逾時: {} ", waitMillis, e.getErrorMessage());
+        if (waitMillis > SILENT_AGENT_TIMEOUT_MILLIS * 5) {
+          failures.add("不回應的 agent 於 " + waitMillis + " ms 後才逾時, 預期約 " + SILENT_AGENT_TIMEOUT_MILLIS + " ms");
+        }
+      }
+    } finally {
+      for (Socket acceptedSocket : acceptedSockets) {
+        acceptedSocket.close();
+      }
+    }
+
+  }
+
+  /**
+   * 經由與設定檔相同的檢查建立請求設定, 以固定到達速率送出, 讓各 agent 的筆數不受回應速度影響
+   */
+  private static PerformanceRequestData createRequestData(String url, int agentCount, int taskLimit) throws CustomApplicationException {
+
+    PerformanceRequestFileData requestFileData = PerformanceRequestFileData.builder()
+        .url(url)
+        .httpMethod("GET")
+        .waitTime("1")
+        .concurrency(String.valueOf(CONCURRENCY_PER_AGENT * agentCount))
+        .taskLimit(String.valueOf(taskLimit))
+        .loadModel("ARRIVAL_RATE")
+        .targetRate(String.valueOf(RATE_PER_AGENT * agentCount))
+        .engine("BLOCKING")
+        .contentType("application/json")
+        .responseMode("HASH")
+        .build();
+
+    return DataTransferUtils.transIntoPerformanceRequestData(requestFileData, null);
+
+  }
+
+  private static void verify(List<String> failures, String item, long expected, long actual) {
+    if (expected == actual) {
+      checkLogger.info("檢查通過: {} , {} ", item, actual);
+    } else {
+      checkLogger.error("檢查未通過: {} , 預期 {} , 實際 {} ", item, expected, actual);
+      failures.add(item + " 預期 " + expected + " , 實際 " + actual);
+    }
+  }
+
+  private static void deleteQuietly(Path filePath) {
+    if (filePath == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(filePath);
+    } catch (IOException e) {
+      checkLogger.warn("無法刪除暫存檔 {} ", filePath);
+    }
+  }
+
+}
@@ -0,0 +1,144 @@
+package com.github.georgeTseng.apiPerformanceTest.distributed;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.DistributedMessageType;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.DistributedMessageData;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * coordinator 與 agent 之間的連線, 每則訊息為一行精簡的 json; 送出可由多條執行緒同時呼叫, 接收只由單一執行緒呼叫
+ */
+public class DistributedMessageChannel implements AutoCloseable {
+
+  private final Gson gson = new Gson();
+
+  private final Socket socket;
+  private final String remoteAddress;
+  private final BufferedReader reader;
+  private final BufferedWriter writer;
+  private long receiveTimeoutMillis;
+
+  /**
+   * 以已建立的連線開啟讀寫用的 stream, 失敗時拋出例外
+   *
+   * @param socket 已建立的連線
+   */
+  public DistributedMessageChannel(Socket socket) throws CustomApplicationException {
+
+    this.socket = socket;
+    this.remoteAddress = String.valueOf(socket.getRemoteSocketAddress());
+
+    try {
+      socket.setTcpNoDelay(true);
+      this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new CustomApplicationException("發生IO Exception", e, new Object[]{remoteAddress});
+    }
+
+  }
+
+  public String getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  /**
+   * 設定接收的逾時, 超過此時間未收到任何訊息時 receive 拋出例外, 避免對方停止回應但未中斷連線時一直等待
+   *
+   * @param timeoutMillis 逾時(ms), 0 代表不限
+   */
+  public void setReceiveTimeout(long timeoutMillis) throws CustomApplicationException {
+
+    try {
+      socket.setSoTimeout((int) Math.min(timeoutMillis, Integer.MAX_VALUE));
+    } catch (SocketException e) {
+      throw new CustomApplicationException("發生IO Exception", e, new Object[]{remoteAddress});
+    }
+    this.receiveTimeoutMillis = timeoutMillis;
+
+  }
+
+  /**
+   * 送出一則訊息, 失敗時拋出例外
+   *
+   * @param messageData 要送出的訊息
+   */
+  public synchronized void send(DistributedMessageData messageData) throws CustomApplicationException {
+
+    try {
+      writer.write(gson.toJson(messageData));
+      writer.write('\n');
+      writer.flush();
+    } catch (IOException e) {
+      throw new CustomApplicationException("無法送出訊息至 " + remoteAddress, e);
+    }
+
+  }
+
+  /**
+   * 等待下一則訊息, 連線中斷, 超過接收的逾時或內容無法解析時拋出例外
+   */
+  public DistributedMessageData receive() throws CustomApplicationException {
+
+    String messageLine;
+    try {
+      messageLine = reader.readLine();
+    } catch (SocketTimeoutException e) {
+      throw new CustomApplicationException(remoteAddress + " 超過 " + receiveTimeoutMillis + " ms 未回傳任何訊息", e);
+    } catch (IOException e) {
+      throw new CustomApplicationException("無法接收 " + remoteAddress + " 的訊息", e);
+    }
+
+    if (messageLine == null) {
+      throw new CustomApplicationException(remoteAddress + " 的連線已中斷");
+    }
+
+    try {
+      return gson.fromJson(messageLine, DistributedMessageData.class);
+    } catch (JsonParseException e) {
+      throw new CustomApplicationException("無法解析 " + remoteAddress + " 的訊息", e);
+    }
+
+  }
+
+  /**
+   * 等待下一則指定種類的訊息, 收到對方的 ERROR 或其他種類的訊息時拋出例外
+   *
+   * @param expectedType 預期的訊息種類
+   */
+  public DistributedMessageData receive(DistributedMessageType expectedType) throws CustomApplicationException {
+
+    DistributedMessageData messageData = receive();
+
+    if (DistributedMessageType.ERROR == messageData.getType()) {
+      throw new CustomApplicationException(remoteAddress + " 發生異常: " + messageData.getErrorMessage());
+    }
+
+    if (expectedType != messageData.getType()) {
+      throw new CustomApplicationException(remoteAddress + " 回傳了非預期的訊息: " + messageData.getType() + " , 預期為: " + expectedType);
+    }
+
+    return messageData;
+
+  }
+
+  @Override
+  public void close() {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      /* 連線已中斷時不需處理 */
+    }
+  }
+
+}
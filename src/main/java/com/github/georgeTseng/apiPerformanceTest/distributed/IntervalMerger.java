@@ -0,0 +1,197 @@
+package com.github.georgeTseng.apiPerformanceTest.distributed;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.IntervalResultData;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import com.google.gson.Gson;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 依區間編號合併各 agent 回傳的區間統計, 所有仍在執行的 agent 都回傳後才輸出合計值, 並視需要寫入區間紀錄檔(json lines)
+ */
+public class IntervalMerger {
+
+  private final Logger mergerLogger = LoggerFactory.getLogger(IntervalMerger.class);
+  private final Gson gson = new Gson();
+
+  private final int agentCount;
+  private final Path intervalFilePath;
+  private final BitSet finishedAgents = new BitSet();
+  private final TreeMap<Long, PendingInterval> pendingIntervals = new TreeMap<>();
+
+  private Writer intervalWriter;
+  private IOException writeFailure;
+
+  /**
+   * @param agentCount agent 的數量
+   * @param intervalFilePath 合併後區間紀錄檔的路徑, 不需輸出檔案時為 null
+   */
+  public IntervalMerger(int agentCount, Path intervalFilePath) throws CustomApplicationException {
+
+    this.agentCount = agentCount;
+    this.intervalFilePath = intervalFilePath;
+
+    if (intervalFilePath != null) {
+      try {
+        intervalWriter = new BufferedWriter(Files.newBufferedWriter(intervalFilePath, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        mergerLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{intervalFilePath});
+        throw new CustomApplicationException("發生IO Exception", e, new Object[]{intervalFilePath});
+      }
+    }
+
+  }
+
+  /**
+   * 加入單一 agent 的區間統計, 由各 agent 的接收執行緒呼叫; 資料無法還原時拋出例外
+   *
+   * @param agentIndex agent 的編號
+   * @param intervalData agent 回傳的區間統計
+   */
+  public synchronized void merge(int agentIndex, IntervalResultData intervalData) throws CustomApplicationException {
+
+    PendingInterval pendingInterval = pendingIntervals.computeIfAbsent(intervalData.getSequence(), sequence -> new PendingInterval());
+    pendingInterval.reportedAgents.set(agentIndex);
+    pendingInterval.requestCount = pendingInterval.requestCount + intervalData.getRequestCount();
+    pendingInterval.errorCount = pendingInterval.errorCount + intervalData.getErrorCount();
+    pendingInterval.timeoutCount = pendingInterval.timeoutCount + intervalData.getTimeoutCount();
+    pendingInterval.inFlight = pendingInterval.inFlight + intervalData.getInFlight();
+    pendingInterval.elapsedTime = Math.max(pendingInterval.elapsedTime, intervalData.getElapsedTime());
+    pendingInterval.intervalTime = Math.max(pendingInterval.intervalTime, intervalData.getIntervalTime());
+    if (intervalData.getHistogram() != null) {
+      pendingInterval.histogram.add(HistogramUtils.decodeHistogram(intervalData.getHistogram()));
+    }
+
+    reportCompletedIntervals(false);
+
+  }
+
+  /**
+   * agent 回傳最終結果後呼叫, 之後的區間不再等待該 agent
+   *
+   * @param agentIndex agent 的編號
+   */
+  public synchronized void finishAgent(int agentIndex) {
+    finishedAgents.set(agentIndex);
+    reportCompletedIntervals(false);
+  }
+
+  /**
+   * 所有 agent 結束後呼叫, 輸出剩餘的區間並關閉區間紀錄檔, 寫入曾失敗時拋出例外
+   */
+  public synchronized void close() throws CustomApplicationException {
+
+    reportCompletedIntervals(true);
+
+    if (intervalWriter != null) {
+      try {
+        intervalWriter.close();
+      } catch (IOException e) {
+        writeFailure = e;
+      }
+      intervalWriter = null;
+    }
+
+    if (writeFailure != null) {
+      throw new CustomApplicationException("發生IO Exception", writeFailure, new Object[]{intervalFilePath});
+    }
+
+    if (intervalFilePath != null) {
+      mergerLogger.info("合併後的每秒區間紀錄已儲存於 {} ", intervalFilePath);
+    }
+
+  }
+
+  /**
+   * 依編號順序輸出已完整的區間, 較早的區間尚未完整時後面的區間也先保留, 以維持輸出的順序
+   *
+   * @param flushAll 是否不論完整與否輸出所有剩餘的區間
+   */
+  private void reportCompletedIntervals(boolean flushAll) {
+
+    while (!pendingIntervals.isEmpty()) {
+      Map.Entry<Long, PendingInterval> firstInterval = pendingIntervals.firstEntry();
+      BitSet awaitingAgents = new BitSet(agentCount);
+      awaitingAgents.set(0, agentCount);
+      awaitingAgents.andNot(firstInterval.getValue().reportedAgents);
+      awaitingAgents.andNot(finishedAgents);
+
+      if (!flushAll && !awaitingAgents.isEmpty()) {
+        return;
+      }
+
+      pendingIntervals.remove(firstInterval.getKey());
+      report(firstInterval.getKey(), firstInterval.getValue());
+    }
+
+  }
+
+  private void report(long sequence, PendingInterval pendingInterval) {
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    double intervalSeconds = pendingInterval.intervalTime;
+    Histogram histogram = pendingInterval.histogram;
+
+    IntervalResultData intervalData = IntervalResultData.builder()
+        .sequence(sequence)
+        .elapsedTime(pendingInterval.elapsedTime)
+        .intervalTime(pendingInterval.intervalTime)
+        .requestCount(pendingInterval.requestCount)
+        .errorCount(pendingInterval.errorCount)
+        .timeoutCount(pendingInterval.timeoutCount)
+        .requestsPerSecond(intervalSeconds > 0 ? Math.round(pendingInterval.requestCount / intervalSeconds * decimalPlaceFactor) / decimalPlaceFactor : 0)
+        .errorsPerSecond(intervalSeconds > 0 ? Math.round(pendingInterval.errorCount / intervalSeconds * decimalPlaceFactor) / decimalPlaceFactor : 0)
+        .p50(histogram.getValueAtPercentile(50.0))
+        .p99(histogram.getValueAtPercentile(99.0))
+        .max(histogram.getMaxValue())
+        .inFlight(pendingInterval.inFlight)
+        .build();
+
+    mergerLogger.info("[{} s] 合計 {} 次/秒, 失敗 {} 次/秒(逾時 {} 次), p50 {} ms, p99 {} ms, 進行中 {} , 回報的 agent 數 {} ", intervalData.getElapsedTime(),
+        intervalData.getRequestsPerSecond(), intervalData.getErrorsPerSecond(), intervalData.getTimeoutCount(), HistogramUtils.toMillis(intervalData.getP50()),
+        HistogramUtils.toMillis(intervalData.getP99()), intervalData.getInFlight(), pendingInterval.reportedAgents.cardinality());
+
+    if (intervalWriter == null || writeFailure != null) {
+      return;
+    }
+
+    intervalData.setHistogram(HistogramUtils.encodeHistogram(histogram));
+    try {
+      gson.toJson(intervalData, intervalWriter);
+      intervalWriter.write(System.lineSeparator());
+      intervalWriter.flush();
+    } catch (IOException e) {
+      mergerLogger.error("寫入區間紀錄時發生異常, 原因為: {} ", e.getMessage());
+      writeFailure = e;
+    }
+
+  }
+
+  /**
+   * 尚在等待其他 agent 回傳的單一區間
+   */
+  private static class PendingInterval {
+
+    private final BitSet reportedAgents = new BitSet();
+    private final Histogram histogram = HistogramUtils.createLatencyHistogram();
+    private long requestCount;
+    private long errorCount;
+    private long timeoutCount;
+    private int inFlight;
+    private double elapsedTime;
+    private double intervalTime;
+
+  }
+
+}
@@ -0,0 +1,182 @@
+package com.github.georgeTseng.apiPerformanceTest.distributed;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.DistributedMessageType;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.DistributedMessageData;
+import com.github.georgeTseng.apiPerformanceTest.model.IntervalResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.result.IntervalReporter;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceRunner;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 分散式執行時的 agent, 於指定的 port 等待 coordinator 連線; 收到設定後回覆 READY, 於 coordinator 指定的時間點開始測試,
+ * 執行期間每秒回傳區間統計, 結束時回傳完整的 Histogram 與累計值; 一次只服務一個 coordinator, 結束後繼續等待下一次連線
+ */
+public class PerformanceAgent {
+
+  private final Logger agentLogger = LoggerFactory.getLogger(PerformanceAgent.class);
+
+  private final int port;
+  private ServerSocket serverSocket;
+
+  /**
+   * @param port 等待 coordinator 連線的 port, 0 代表由系統指定
+   */
+  public PerformanceAgent(int port) {
+    this.port = port;
+  }
+
+  /**
+   * 持續等待並依序處理 coordinator 的連線, 無法開啟 port 時拋出例外
+   */
+  public void serve() throws CustomApplicationException {
+
+    open();
+    try {
+      acceptConnections();
+    } finally {
+      close();
+    }
+
+  }
+
+  /**
+   * 於背景執行緒等待 coordinator 連線並回傳實際使用的 port, 用於在同一個 JVM 內啟動多個 agent; 結束時須呼叫 close
+   */
+  public int start() throws CustomApplicationException {
+
+    open();
+    int localPort = serverSocket.getLocalPort();
+    Thread agentThread = new Thread(() -> {
+      try {
+        acceptConnections();
+      } catch (CustomApplicationException e) {
+        agentLogger.error("agent 已停止, 原因為: {} ", e.getErrorMessage());
+      }
+    }, "performance-agent-" + localPort);
+    agentThread.setDaemon(true);
+    agentThread.start();
+
+    return localPort;
+
+  }
+
+  /**
+   * 停止等待 coordinator 連線, 進行中的測試不受影響
+   */
+  public synchronized void close() {
+    if (serverSocket == null) {
+      return;
+    }
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      /* 已關閉時不需處理 */
+    }
+  }
+
+  private synchronized void open() throws CustomApplicationException {
+    try {
+      serverSocket = new ServerSocket(port);
+    } catch (IOException e) {
+      agentLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{port});
+      throw new CustomApplicationException("發生IO Exception", e, new Object[]{port});
+    }
+    agentLogger.info("agent 已於 port {} 等待 coordinator 連線...", serverSocket.getLocalPort());
+  }
+
+  private void acceptConnections() throws CustomApplicationException {
+
+    while (!Thread.currentThread().isInterrupted()) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        /* 由 close 關閉時正常結束 */
+        if (serverSocket.isClosed()) {
+          return;
+        }
+        agentLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{port});
+        throw new CustomApplicationException("發生IO Exception", e, new Object[]{port});
+      }
+
+      try (DistributedMessageChannel channel = new DistributedMessageChannel(socket)) {
+        agentLogger.info("收到 coordinator {} 的連線", channel.getRemoteAddress());
+        runForCoordinator(channel);
+      } catch (CustomApplicationException e) {
+        agentLogger.error("與 coordinator 之間的測試未完成, 原因為: {} ", e.getErrorMessage());
+      }
+      agentLogger.info("繼續等待下一次 coordinator 連線...");
+    }
+
+  }
+
+  private void runForCoordinator(DistributedMessageChannel channel) throws CustomApplicationException {
+
+    DistributedMessageData profileMessage = channel.receive(DistributedMessageType.PROFILE);
+
+    try {
+      /* 設定檢查失敗時回傳 ERROR, 讓 coordinator 在開始前就能中止所有 agent */
+      PerformanceRequestData requestData = DataTransferUtils.transIntoPerformanceRequestData(profileMessage.getProfile(), null);
+      agentLogger.info("收到測試設定, url: {} , 併發數: {} , 總測試次數: {} , 目標速率: {} ", requestData.getUrl(),
+          requestData.getConcurrency(), requestData.getTaskLimit(), requestData.getTargetRate());
+      channel.send(DistributedMessageData.builder().type(DistributedMessageType.READY).build());
+
+      DistributedMessageData startMessage = channel.receive(DistributedMessageType.START);
+      waitUntilStartTime(startMessage.getStartTime());
+
+      /* 每秒的區間統計即時回傳, coordinator 中斷時只記錄異常, 測試仍繼續到結束 */
+      IntervalReporter intervalReporter = new IntervalReporter(null, intervalData -> sendInterval(channel, intervalData));
+      PerformanceResultCollector resultCollector = new PerformanceResultCollector(null, intervalReporter);
+      long runTime = PerformanceRunner.run(requestData, resultCollector, intervalReporter);
+
+      channel.send(DistributedMessageData.builder()
+          .type(DistributedMessageType.RESULT)
+          .result(resultCollector.toAgentResultData(runTime))
+          .build());
+      agentLogger.info("測試已完成, 共 {} 筆, 結果已回傳至 coordinator", resultCollector.getAggregator().getTotalCount());
+
+    } catch (CustomApplicationException e) {
+      channel.send(DistributedMessageData.builder().type(DistributedMessageType.ERROR).errorMessage(e.getErrorMessage()).build());
+      throw e;
+    }
+
+  }
+
+  private void sendInterval(DistributedMessageChannel channel, IntervalResultData intervalData) {
+    try {
+      channel.send(DistributedMessageData.builder().type(DistributedMessageType.INTERVAL).interval(intervalData).build());
+    } catch (CustomApplicationException e) {
+      agentLogger.warn("區間統計回傳失敗, 原因為: {} ", e.getErrorMessage());
+    }
+  }
+
+  /**
+   * 所有 agent 依 coordinator 指定的時間點同時開始, 跨主機執行時需先同步各主機的時鐘
+   */
+  private void waitUntilStartTime(long startTime) throws CustomApplicationException {
+
+    long waitMillis = startTime - System.currentTimeMillis();
+    if (waitMillis < 0) {
+      agentLogger.warn("收到開始通知時已晚於指定的開始時間 {} ms, 將立即開始", -waitMillis);
+      return;
+    }
+
+    agentLogger.info("將於 {} ms 後開始測試", waitMillis);
+    try {
+      Thread.sleep(waitMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for start time...", e);
+    }
+
+  }
+
+}
@@ -0,0 +1,264 @@
+package com.github.georgeTseng.apiPerformanceTest.distributed;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.DistributedMessageType;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.AgentResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.DistributedMessageData;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 分散式執行時的 coordinator, 將請求設定依 agent 數平均分配後送至各 agent, 所有 agent 都回覆 READY 後通知於同一時間點開始;
+ * 執行期間合併各 agent 的區間統計, 結束時合併各 agent 的 Histogram 與累計值, 產生與單機執行相同格式的結果
+ */
+public class PerformanceCoordinator {
+
+  /* 通知開始到實際開始之間保留的時間, 讓每個 agent 都能在開始前收到通知 */
+  public final static long START_DELAY_MILLIS = 2000;
+  public final static int CONNECT_TIMEOUT_MILLIS = 5000;
+  /* agent 收到設定後只需檢查內容即回覆 READY */
+  public final static long READY_TIMEOUT_MILLIS = 30000;
+  /* 推算開始後接收的逾時時額外保留的時間, 涵蓋建立連線池與回傳最終結果 */
+  public final static long RECEIVE_TIMEOUT_MARGIN_MILLIS = 30000;
+
+  private final Logger coordinatorLogger = LoggerFactory.getLogger(PerformanceCoordinator.class);
+
+  private final PerformanceRequestData requestData;
+  private final List<InetSocketAddress> agentAddresses;
+  private final List<AgentResultData> agentResultDatas = new ArrayList<>();
+  private long readyTimeoutMillis = READY_TIMEOUT_MILLIS;
+
+  /**
+   * @param requestData 整次測試的請求設定, 併發數, 總測試次數與目標速率為所有 agent 的合計
+   * @param agentAddresses 各 agent 的位址
+   */
+  public PerformanceCoordinator(PerformanceRequestData requestData, List<InetSocketAddress> agentAddresses) {
+    this.requestData = requestData;
+    this.agentAddresses = agentAddresses;
+  }
+
+  /**
+   * 各 agent 回傳的結果, 依 agent 的順序排列; coordinate 完成後才有內容
+   */
+  public List<AgentResultData> getAgentResultDatas() {
+    return agentResultDatas;
+  }
+
+  /**
+   * 調整等待 READY 的逾時, 供同一個 JVM 內的檢查縮短等待時間
+   */
+  void setReadyTimeoutMillis(long readyTimeoutMillis) {
+    this.readyTimeoutMillis = readyTimeoutMillis;
+  }
+
+  /**
+   * 執行分散式測試並回傳合併後的結果, 任一 agent 失敗時拋出例外
+   *
+   * @param intervalFilePath 合併後區間紀錄檔的路徑, 不需輸出檔案時為 null
+   */
+  public PerformanceResultFileData coordinate(Path intervalFilePath) throws CustomApplicationException {
+
+    int agentCount = agentAddresses.size();
+    if (requestData.getTaskLimit() != null && requestData.getTaskLimit() < agentCount) {
+      throw new CustomApplicationException("總測試次數不可少於 agent 數: " + agentCount);
+    }
+
+    List<DistributedMessageChannel> channels = new ArrayList<>();
+    ExecutorService receiverPool = Executors.newFixedThreadPool(agentCount);
+
+    try {
+      for (InetSocketAddress agentAddress : agentAddresses) {
+        channels.add(connect(agentAddress));
+      }
+
+      /* 先送出設定並等待所有 agent 檢查完成, 任一 agent 無法執行時不會有任何 agent 開始 */
+      for (int agentIndex = 0; agentIndex < agentCount; agentIndex++) {
+        PerformanceRequestData agentRequestData = splitRequestData(agentIndex, agentCount);
+        coordinatorLogger.info("agent {} : 併發數 {} , 總測試次數 {} , 目標速率 {} ", channels.get(agentIndex).getRemoteAddress(),
+            agentRequestData.getConcurrency(), agentRequestData.getTaskLimit(), agentRequestData.getTargetRate());
+        channels.get(agentIndex).send(DistributedMessageData.builder()
+            .type(DistributedMessageType.PROFILE)
+            .profile(DataTransferUtils.transIntoPerformanceRequestFileData(agentRequestData))
+            .build());
+      }
+      for (DistributedMessageChannel channel : channels) {
+        channel.receive(DistributedMessageType.READY);
+      }
+
+      long startTime = System.currentTimeMillis() + START_DELAY_MILLIS;
+      long runReceiveTimeout = getRunReceiveTimeout();
+      for (DistributedMessageChannel channel : channels) {
+        channel.setReceiveTimeout(runReceiveTimeout);
+        channel.send(DistributedMessageData.builder().type(DistributedMessageType.START).startTime(startTime).build());
+      }
+      coordinatorLogger.info("已通知 {} 個 agent 於 {} ms 後同時開始", agentCount, START_DELAY_MILLIS);
+
+      /* 每個 agent 各自一條執行緒接收區間統計與最終結果 */
+      IntervalMerger intervalMerger = new IntervalMerger(agentCount, intervalFilePath);
+      List<Future<AgentResultData>> agentResults = new ArrayList<>();
+      for (int agentIndex = 0; agentIndex < agentCount; agentIndex++) {
+        int currentIndex = agentIndex;
+        DistributedMessageChannel channel = channels.get(agentIndex);
+        agentResults.add(receiverPool.submit(() -> receiveAgentResult(currentIndex, channel, intervalMerger)));
+      }
+
+      /* 以各 agent 的 Histogram 合併出整體的百分位數, 執行時間以最晚結束的 agent 為準 */
+      PerformanceResultCollector resultCollector = new PerformanceResultCollector(null, null);
+      long runTime = 0;
+      for (Future<AgentResultData> agentResult : agentResults) {
+        AgentResultData agentResultData = getAgentResult(agentResult);
+        agentResultDatas.add(agentResultData);
+        resultCollector.merge(agentResultData);
+        runTime = Math.max(runTime, agentResultData.getRunTime());
+      }
+      intervalMerger.close();
+
+      return resultCollector.toResultFileData(runTime, requestData);
+
+    } finally {
+      receiverPool.shutdownNow();
+      channels.forEach(DistributedMessageChannel::close);
+    }
+
+  }
+
+  private DistributedMessageChannel connect(InetSocketAddress agentAddress) throws CustomApplicationException {
+
+    Socket socket = new Socket();
+    try {
+      socket.connect(agentAddress, CONNECT_TIMEOUT_MILLIS);
+    } catch (IOException e) {
+      coordinatorLogger.error("無法連線至 agent {} , 原因為: {} ", agentAddress, e.getMessage());
+      throw new CustomApplicationException("無法連線至 agent " + agentAddress, e);
+    }
+
+    DistributedMessageChannel channel = new DistributedMessageChannel(socket);
+    channel.setReceiveTimeout(readyTimeoutMillis);
+    return channel;
+
+  }
+
+  /**
+   * 開始後 agent 每秒回傳區間統計, 只有等待開始, 暖機與等待進行中的請求完成時不會回傳, 以這些時間的上限加上保留時間作為接收的逾時;
+   * 暖機只限次數而沒有時間上限時無法推算, 不設定逾時
+   */
+  private long getRunReceiveTimeout() {
+
+    long shutdownTimeoutMillis = TimeUnit.SECONDS.toMillis(requestData.getShutdownTimeout());
+    long receiveTimeout = START_DELAY_MILLIS + shutdownTimeoutMillis + RECEIVE_TIMEOUT_MARGIN_MILLIS;
+
+    if (requestData.getWarmUpDuration() != null) {
+      receiveTimeout = receiveTimeout + TimeUnit.SECONDS.toMillis(requestData.getWarmUpDuration()) + shutdownTimeoutMillis;
+    } else if (requestData.getWarmUpCount() != null) {
+      coordinatorLogger.warn("暖機只限次數而沒有時間上限, 無法推算 agent 回應的時間上限, 不設定接收的逾時");
+      return 0;
+    }
+
+    return receiveTimeout;
+
+  }
+
+  private AgentResultData receiveAgentResult(int agentIndex, DistributedMessageChannel channel, IntervalMerger intervalMerger)
+      throws CustomApplicationException {
+
+    while (true) {
+      DistributedMessageData messageData = channel.receive();
+
+      if (DistributedMessageType.INTERVAL == messageData.getType()) {
+        intervalMerger.merge(agentIndex, messageData.getInterval());
+      } else if (DistributedMessageType.RESULT == messageData.getType()) {
+        intervalMerger.finishAgent(agentIndex);
+        coordinatorLogger.info("agent {} 已完成, 共 {} 筆", channel.getRemoteAddress(), messageData.getResult().getAggregate().getTotalCount());
+        return messageData.getResult();
+      } else if (DistributedMessageType.ERROR == messageData.getType()) {
+        throw new CustomApplicationException(channel.getRemoteAddress() + " 發生異常: " + messageData.getErrorMessage());
+      } else {
+        throw new CustomApplicationException(channel.getRemoteAddress() + " 回傳了非預期的訊息: " + messageData.getType());
+      }
+    }
+
+  }
+
+  private AgentResultData getAgentResult(Future<AgentResultData> agentResult) throws CustomApplicationException {
+
+    try {
+      return agentResult.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for agent result...", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof CustomApplicationException) {
+        throw (CustomApplicationException) e.getCause();
+      }
+      throw new CustomApplicationException("fail to receive agent result...", e.getCause());
+    }
+
+  }
+
+  /**
+   * 將整體的併發數, 總測試次數, 目標速率與連線數平均分配給各 agent, 無法整除的部分由編號較前的 agent 多負擔一份
+   */
+  private PerformanceRequestData splitRequestData(int agentIndex, int agentCount) {
+
+    PerformanceRequestData.PerformanceRequestDataBuilder agentRequestData = requestData.toBuilder()
+        .concurrency(Math.max(splitCount(requestData.getConcurrency(), agentIndex, agentCount), 1))
+        .maxConnections(Math.max(splitCount(requestData.getMaxConnections(), agentIndex, agentCount), 1))
+        .maxConnectionsPerRoute(Math.max(splitCount(requestData.getMaxConnectionsPerRoute(), agentIndex, agentCount), 1))
+        .filePath(null);
+
+    if (requestData.getTaskLimit() != null) {
+      agentRequestData.taskLimit(splitCount(requestData.getTaskLimit(), agentIndex, agentCount));
+    }
+
+    if (requestData.getTargetRate() != null) {
+      agentRequestData.targetRate(requestData.getTargetRate() / agentCount);
+    }
+
+    if (requestData.getStages() != null) {
+      agentRequestData.stages(requestData.getStages().stream()
+          .map(stage -> splitStage(stage, agentIndex, agentCount))
+          .collect(Collectors.toList()));
+    }
+
+    return agentRequestData.build();
+
+  }
+
+  private static LoadStageData splitStage(LoadStageData stage, int agentIndex, int agentCount) {
+
+    LoadStageData.LoadStageDataBuilder agentStage = stage.toBuilder();
+
+    if (stage.getTargetConcurrency() != null) {
+      agentStage.targetConcurrency(splitCount(stage.getTargetConcurrency(), agentIndex, agentCount));
+    }
+
+    if (stage.getTargetRate() != null) {
+      agentStage.targetRate(stage.getTargetRate() / agentCount);
+    }
+
+    return agentStage.build();
+
+  }
+
+  private static int splitCount(int totalCount, int agentIndex, int agentCount) {
+    return totalCount / agentCount + (agentIndex < totalCount % agentCount ? 1 : 0);
+  }
+
+}
@@ -0,0 +1,344 @@
+package com.github.georgeTseng.apiPerformanceTest.engine;
+
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutGuard;
+import com.github.georgeTseng.apiPerformanceTest.enums.ErrorType;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedEngine;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceTask;
+import com.github.georgeTseng.apiPerformanceTest.template.PreparedRequest;
+import com.github.georgeTseng.apiPerformanceTest.utils.AsyncHttpClientUtils;
+import com.github.georgeTseng.apiPerformanceTest.workflow.JsonValueExtractor;
+import com.github.georgeTseng.apiPerformanceTest.workflow.WorkflowExecution;
+import com.github.georgeTseng.apiPerformanceTest.workflow.WorkflowStep;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.io.CloseMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 以非阻塞的 HttpAsyncClient 送出請求, 少數幾條 I/O reactor 執行緒即可維持大量進行中的請求.
+ * HTTP/2 時依連線數建立多個各自只有一條多工連線的 client, 依序分配請求, 並限制每條連線同時進行中的串流數
+ */
+public class AsyncPerformanceEngine implements PerformanceEngine {
+
+  /* HttpAsyncClient 的 I/O reactor 執行緒名稱 */
+  private final static String WORKER_THREAD_PREFIX = "httpclient-dispatch-";
+
+  private final Logger engineLogger = LoggerFactory.getLogger(AsyncPerformanceEngine.class);
+
+  private final PerformanceRequestData requestData;
+  private final CloseableHttpAsyncClient[] httpAsyncClients;
+  /* HTTP/2 時每條連線進行中的串流數, HTTP/1.1 由連線池分配連線, 為 null */
+  private final AtomicInteger[] activeStreams;
+  private final AtomicInteger nextConnection = new AtomicInteger();
+  private final int concurrency;
+  private final Semaphore inFlightPermits;
+  private final ScheduledExecutorService waitScheduler;
+  private final TotalTimeoutGuard timeoutGuard;
+
+  /**
+   * @param requestData 請求設定
+   * @param concurrency 同時進行中的請求上限
+   */
+  public AsyncPerformanceEngine(PerformanceRequestData requestData, int concurrency) {
+
+    this.requestData = requestData;
+    this.concurrency = concurrency;
+    this.inFlightPermits = new Semaphore(concurrency);
+
+    /* 每次執行後的等待改由排程歸還名額, 不佔用執行緒 */
+    this.waitScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    /* 逾時時取消請求, 取消後由回呼計為總時間逾時 */
+    this.timeoutGuard = new TotalTimeoutGuard(requestData.getTotalTimeout());
+
+    if (SupportedEngine.HTTP2 == requestData.getEngine()) {
+      this.httpAsyncClients = AsyncHttpClientUtils.createHttp2AsyncClients(requestData);
+      this.activeStreams = new AtomicInteger[httpAsyncClients.length];
+      for (int index = 0; index < activeStreams.length; index++) {
+        activeStreams[index] = new AtomicInteger();
+      }
+    } else {
+      this.httpAsyncClients = new CloseableHttpAsyncClient[] {AsyncHttpClientUtils.createHttpAsyncClient(requestData)};
+      this.activeStreams = null;
+    }
+    for (CloseableHttpAsyncClient httpAsyncClient : httpAsyncClients) {
+      httpAsyncClient.start();
+    }
+
+  }
+
+  @Override
+  public void submit(PerformanceTask performanceTask) throws CustomApplicationException {
+
+    /* 取得名額, 已達同時進行中的請求上限時等待 */
+    try {
+      inFlightPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to submit task data...", e);
+    }
+
+    /* 固定到達速率模式下由排定的送出時間開始計時, 否則取系統當前時間(ns) */
+    Long scheduledStartTime = performanceTask.getScheduledStartTime();
+    long startTime = scheduledStartTime == null ? System.nanoTime() : scheduledStartTime;
+
+    /* 沒有執行緒池, 只有固定到達速率模式下等待名額的時間會延遲送出 */
+    if (scheduledStartTime != null) {
+      performanceTask.getResultCollector().recordSchedulingLag(System.nanoTime() - scheduledStartTime);
+    }
+
+    /* 執行流程時依序送出各步驟, 由前一步驟的回呼送出下一步驟, 整個流程只佔用一個名額 */
+    if (performanceTask.getWorkflow() != null) {
+      WorkflowExecution execution = performanceTask.getWorkflow().start(performanceTask.getVirtualUser(),
+          performanceTask.getResultCollector());
+      executeWorkflowStep(performanceTask, execution, startTime);
+      return;
+    }
+
+    /* 混合多種請求時, Http 方法與 content-type 依本次抽選的請求而定 */
+    execute(performanceTask.getRequestData(), () -> performanceTask.getRequestTemplate().prepare(), null, startTime,
+        (responseData, endTime) -> finishTask(performanceTask, responseData, startTime, endTime));
+
+  }
+
+  /**
+   * 送出單次請求, 完成, 失敗或無法送出時皆交由 resultListener 處理
+   *
+   * @param taskRequestData 本次送出的請求設定
+   * @param preparedRequestSupplier 產生已編碼的請求內容, 填入後的 url 格式錯誤時拋出 IllegalArgumentException
+   * @param extractor 流程步驟自回應內文取值的 extractor, 不需取值時為 null
+   * @param startTime 開始計時的時間點(ns)
+   * @param resultListener 取得結果後呼叫
+   */
+  private void execute(PerformanceRequestData taskRequestData, Supplier<PreparedRequest> preparedRequestSupplier,
+      JsonValueExtractor extractor, long startTime, ResultListener resultListener) {
+
+    SimpleHttpRequest httpRequest;
+    try {
+      httpRequest = AsyncHttpClientUtils.createSimpleHttpRequest(taskRequestData, preparedRequestSupplier.get());
+    } catch (IllegalArgumentException e) {
+      /* 填入變數後的 url 格式錯誤, 與阻塞模式相同計為失敗 */
+      engineLogger.error("執行失敗, url 格式錯誤 : {} ", e.getMessage());
+      resultListener.onResult(PerformanceTask.createErrorTestData(ErrorType.REQUEST_ERROR, "執行失敗, url 格式錯誤 ! "), System.nanoTime());
+      return;
+    }
+    if (httpRequest == null) {
+      resultListener.onResult(PerformanceTask.createErrorTestData(ErrorType.REQUEST_ERROR,
+          "本程式上不支援此種組合: " + taskRequestData.getHttpMethod() + ":" + taskRequestData.getContentType()), System.nanoTime());
+      return;
+    }
+
+    AsyncResponseDataConsumer responseConsumer = new AsyncResponseDataConsumer(requestData.getResponseMode(), System.nanoTime(), extractor);
+    int connection = acquireConnection();
+    TotalTimeoutGuard.Deadline deadline = timeoutGuard.start();
+    Future<PerformanceTestData> responseFuture;
+    try {
+      responseFuture = httpAsyncClients[connection].execute(SimpleRequestProducer.create(httpRequest), responseConsumer,
+          new FutureCallback<PerformanceTestData>() {
+
+        @Override
+        public void completed(PerformanceTestData responseData) {
+          deadline.finish();
+          releaseConnection(connection);
+          /* 僅取大小時不計入讀取內文的時間, 需要取值的流程步驟一律讀完內文 */
+          long endTime = extractor == null && SupportedResponseMode.SIZE_ONLY == requestData.getResponseMode() ?
+              responseConsumer.getResponseHeadReceivedAt() : System.nanoTime();
+          resultListener.onResult(responseData, endTime);
+        }
+
+        @Override
+        public void failed(Exception e) {
+          deadline.finish();
+          releaseConnection(connection);
+          /* 依例外判斷失敗的類型, 逾時, 連線被拒與連線中斷等分開統計 */
+          ErrorType errorType = deadline.isExpired() ? ErrorType.TOTAL_TIMEOUT : ErrorType.classify(e);
+          engineLogger.error("執行失敗, {} : {} ", errorType.getDisplayName(), e.getMessage());
+          resultListener.onResult(PerformanceTask.createErrorTestData(errorType,
+              "執行失敗, " + errorType.getDisplayName() + " : " + e.getMessage()), System.nanoTime());
+        }
+
+        @Override
+        public void cancelled() {
+          deadline.finish();
+          releaseConnection(connection);
+          /* 只有超過總時間上限或強制結束時會取消請求 */
+          ErrorType errorType = deadline.isExpired() ? ErrorType.TOTAL_TIMEOUT : ErrorType.IO_ERROR;
+          resultListener.onResult(PerformanceTask.createErrorTestData(errorType, "執行失敗, 請求已取消 : " + errorType.getDisplayName()),
+              System.nanoTime());
+        }
+
+      });
+    } catch (RuntimeException e) {
+      /* 例如結束時 client 已關閉, 未送出即失敗時不會呼叫 callback, 需在此歸還串流名額並回報結果, 否則進行中的請求數不會減少 */
+      deadline.finish();
+      releaseConnection(connection);
+      ErrorType errorType = ErrorType.classify(e);
+      engineLogger.error("執行失敗, {} : {} ", errorType.getDisplayName(), e.getMessage());
+      resultListener.onResult(PerformanceTask.createErrorTestData(errorType,
+          "執行失敗, " + errorType.getDisplayName() + " : " + e.getMessage()), System.nanoTime());
+      return;
+    }
+    deadline.onExpired(() -> responseFuture.cancel(true));
+
+  }
+
+  /**
+   * 依序取得仍有串流名額的連線; 設定時已確認連線數 x 串流上限不小於併發數, 進行中的請求未達併發數上限時必定有連線仍有名額
+   *
+   * @return 使用的 client 位置
+   */
+  private int acquireConnection() {
+
+    if (activeStreams == null) {
+      return 0;
+    }
+
+    while (true) {
+      int connection = Math.floorMod(nextConnection.getAndIncrement(), activeStreams.length);
+      if (activeStreams[connection].incrementAndGet() <= requestData.getHttp2MaxStreams()) {
+        return connection;
+      }
+      activeStreams[connection].decrementAndGet();
+    }
+
+  }
+
+  private void releaseConnection(int connection) {
+    if (activeStreams != null) {
+      activeStreams[connection].decrementAndGet();
+    }
+  }
+
+  /**
+   * 送出流程中下一個需要送出的步驟, 所有步驟皆已完成時歸還名額
+   *
+   * @param performanceTask 本次的排程
+   * @param execution 本次流程的執行狀態
+   * @param stepStartTime 此步驟開始計時的時間點(ns)
+   */
+  private void executeWorkflowStep(PerformanceTask performanceTask, WorkflowExecution execution, long stepStartTime) {
+
+    WorkflowStep step = execution.nextStep();
+    if (step == null) {
+      releaseTask(performanceTask);
+      return;
+    }
+
+    execute(step.getRequestData(), () -> execution.prepare(step), step.getExtractor(), stepStartTime,
+        (responseData, endTime) -> completeWorkflowStep(performanceTask, execution, step, responseData, stepStartTime, endTime));
+
+  }
+
+  private void completeWorkflowStep(PerformanceTask performanceTask, WorkflowExecution execution, WorkflowStep step,
+      PerformanceTestData responseData, long startTime, long endTime) {
+
+    boolean continued = false;
+    try {
+      performanceTask.recordStepResult(responseData, step.getName(), startTime, endTime);
+      if (execution.complete(step, responseData)) {
+        continued = true;
+        executeWorkflowStep(performanceTask, execution, System.nanoTime());
+      }
+    } finally {
+      /* 流程中止或紀錄失敗時歸還名額 */
+      if (!continued) {
+        releaseTask(performanceTask);
+      }
+    }
+
+  }
+
+  @Override
+  public boolean awaitCompletion(long timeout, TimeUnit unit) throws CustomApplicationException {
+    return awaitIdle(timeout, unit);
+  }
+
+  @Override
+  public boolean awaitIdle(long timeout, TimeUnit unit) throws CustomApplicationException {
+
+    /* 取回全部名額即代表所有請求(含等待時間)皆已完成 */
+    boolean completed;
+    try {
+      completed = inFlightPermits.tryAcquire(concurrency, timeout, unit);
+      if (completed) {
+        inFlightPermits.release(concurrency);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for task data...", e);
+    }
+
+    return completed;
+
+  }
+
+  @Override
+  public int getInFlightCount() {
+    return concurrency - inFlightPermits.availablePermits();
+  }
+
+  @Override
+  public boolean isWorkerThread(String threadName) {
+    return threadName.startsWith(WORKER_THREAD_PREFIX);
+  }
+
+  @Override
+  public void close() {
+    waitScheduler.shutdownNow();
+    timeoutGuard.close();
+    /* 仍有進行中的請求時代表等待已逾時, 直接中斷連線 */
+    CloseMode closeMode = getInFlightCount() == 0 ? CloseMode.GRACEFUL : CloseMode.IMMEDIATE;
+    for (CloseableHttpAsyncClient httpAsyncClient : httpAsyncClients) {
+      AsyncHttpClientUtils.closeHttpAsyncClient(httpAsyncClient, closeMode);
+    }
+  }
+
+  private void finishTask(PerformanceTask performanceTask, PerformanceTestData responseData, long startTime, long endTime) {
+
+    try {
+      performanceTask.recordResult(responseData, startTime, endTime);
+    } finally {
+      releaseTask(performanceTask);
+    }
+
+  }
+
+  /**
+   * 本次排程結束, 固定到達速率模式由排程器控制送出時間, 其餘模式等待指定時間後才歸還名額
+   */
+  private void releaseTask(PerformanceTask performanceTask) {
+    if (performanceTask.getScheduledStartTime() != null) {
+      inFlightPermits.release();
+      performanceTask.notifyCompletion();
+    } else {
+      waitScheduler.schedule(() -> {
+        inFlightPermits.release();
+        performanceTask.notifyCompletion();
+      }, requestData.getWaitTime(), TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * 取得單次請求的結果後呼叫
+   */
+  private interface ResultListener {
+
+    void onResult(PerformanceTestData responseData, long endTime);
+
+  }
+
+}
@@ -0,0 +1,242 @@
+package com.github.georgeTseng.apiPerformanceTest.engine;
+
+import com.github.georgeTseng.apiPerformanceTest.connection.ResponseContentDecoder;
+import com.github.georgeTseng.apiPerformanceTest.enums.ErrorType;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.utils.ApiConnectionUtils;
+import com.github.georgeTseng.apiPerformanceTest.workflow.JsonValueExtractor;
+import com.google.gson.JsonParseException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import lombok.Getter;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 於 I/O reactor 執行緒上依回應內文的處理模式接收內文, 並計算各階段的時間; 回應有壓縮時邊接收邊解壓縮
+ */
+public class AsyncResponseDataConsumer extends AbstractBinResponseConsumer<PerformanceTestData> {
+
+  private final static int CAPACITY_INCREMENT = 8192;
+
+  private final SupportedResponseMode responseMode;
+  private final long requestSubmittedAt;
+  private final JsonValueExtractor extractor;
+
+  private int statusCode;
+  private Charset responseEncoding = StandardCharsets.UTF_8;
+  private long contentLength;
+  private long responseBytes;
+  private ByteArrayOutputStream responseBody;
+  private Checksum checksum;
+  private ResponseContentDecoder decoder;
+
+  @Getter
+  private long responseHeadReceivedAt;
+
+  /**
+   * @param responseMode 回應內文的處理模式
+   * @param requestSubmittedAt 送出請求的時間(ns), 非阻塞模式下無法分開連線建立時間, 首位元組時間會包含連線建立時間
+   */
+  public AsyncResponseDataConsumer(SupportedResponseMode responseMode, long requestSubmittedAt) {
+    this(responseMode, requestSubmittedAt, null);
+  }
+
+  /**
+   * @param responseMode 回應內文的處理模式
+   * @param requestSubmittedAt 送出請求的時間(ns)
+   * @param extractor 流程步驟自回應內文取值的 extractor, 有指定時不論處理模式皆保留內文, 收完後取出指定的值
+   */
+  public AsyncResponseDataConsumer(SupportedResponseMode responseMode, long requestSubmittedAt, JsonValueExtractor extractor) {
+    this.responseMode = responseMode;
+    this.requestSubmittedAt = requestSubmittedAt;
+    this.extractor = extractor;
+  }
+
+  @Override
+  protected void start(HttpResponse response, ContentType contentType) {
+
+    responseHeadReceivedAt = System.nanoTime();
+
+    /* 確認 status code */
+    statusCode = response.getCode();
+    if (ApiConnectionUtils.HTTP_OK_STATUS != statusCode) {
+      Logger consumerLogger = LoggerFactory.getLogger(AsyncResponseDataConsumer.class);
+      consumerLogger.error("link ng..., http status = {} ", statusCode);
+    }
+
+    /* 取得回傳之編碼 */
+    if (contentType != null && contentType.getCharset() != null) {
+      responseEncoding = contentType.getCharset();
+    }
+
+    Header contentLengthHeader = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+    contentLength = contentLengthHeader == null ? -1 : Long.parseLong(contentLengthHeader.getValue());
+
+    if (extractor != null || SupportedResponseMode.PARSE == responseMode) {
+      responseBody = new ByteArrayOutputStream();
+    } else if (SupportedResponseMode.HASH == responseMode) {
+      checksum = new CRC32();
+    }
+
+    /* 只取 Content-Length 時不需解壓縮 */
+    if (extractor != null || SupportedResponseMode.SIZE_ONLY != responseMode) {
+      Header contentEncodingHeader = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+      decoder = contentEncodingHeader == null ? null : ResponseContentDecoder.create(contentEncodingHeader.getValue());
+    }
+
+  }
+
+  @Override
+  protected int capacityIncrement() {
+    return CAPACITY_INCREMENT;
+  }
+
+  @Override
+  protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+
+    int readBytes = src.remaining();
+    responseBytes += readBytes;
+
+    if (decoder != null) {
+      /* 解壓縮後的內容再依處理模式保留或計算 CRC32 */
+      decoder.update(src, (buffer, offset, length) -> {
+        if (responseBody != null) {
+          responseBody.write(buffer, offset, length);
+        } else if (checksum != null) {
+          checksum.update(buffer, offset, length);
+        }
+      });
+      return;
+    }
+
+    if (extractor != null) {
+      writeBody(src, readBytes);
+      return;
+    }
+
+    switch (responseMode) {
+      case PARSE:
+        /* 保留內文, 收完後轉成 map */
+        writeBody(src, readBytes);
+        break;
+      case HASH:
+        /* 邊讀取邊計算 CRC32, 不保留內文也能比對回應是否一致 */
+        checksum.update(src);
+        break;
+      default:
+        /* 直接丟棄, 只保留位元組數 */
+        src.position(src.limit());
+        break;
+    }
+
+  }
+
+  private void writeBody(ByteBuffer src, int readBytes) {
+    if (src.hasArray()) {
+      responseBody.write(src.array(), src.arrayOffset() + src.position(), readBytes);
+      src.position(src.limit());
+    } else {
+      byte[] readBuffer = new byte[readBytes];
+      src.get(readBuffer);
+      responseBody.write(readBuffer, 0, readBytes);
+    }
+  }
+
+  @Override
+  protected PerformanceTestData buildResult() {
+
+    long parseStartTime = System.nanoTime();
+    Map<String, Object> responseDatas = null;
+    String responseChecksum = null;
+    long totalBytes = decoder == null ? responseBytes : decoder.getDecodedBytes();
+    long decompressTime = decoder == null ? 0 : decoder.getDecodeTimeNanos();
+    boolean bodyConsumed = true;
+    String[] extractedValues = null;
+    String errorType = null;
+
+    if (extractor != null) {
+      extractedValues = extractValues();
+    } else switch (responseMode) {
+      case PARSE:
+        /* 轉出回傳之json string 後轉成map, 無法解析時保留狀態碼並標記錯誤類型, 與阻塞模式相同 */
+        try {
+          responseDatas = ApiConnectionUtils.parseResponseBody(statusCode, responseBody.toByteArray(), responseEncoding);
+        } catch (JsonParseException e) {
+          LoggerFactory.getLogger(AsyncResponseDataConsumer.class).error("{} : {} ", ErrorType.RESPONSE_PARSE_ERROR.getDisplayName(),
+              e.getMessage());
+          errorType = ErrorType.RESPONSE_PARSE_ERROR.getKey();
+        }
+        break;
+      case HASH:
+        responseChecksum = Long.toHexString(checksum.getValue());
+        break;
+      case SIZE_ONLY:
+        /* 非阻塞模式下內文仍會被讀完, 但只回報 Content-Length, 計時止於收到回應標頭; 未提供時以讀完的位元組數為準 */
+        totalBytes = contentLength >= 0 ? contentLength : responseBytes;
+        bodyConsumed = false;
+        parseStartTime = responseHeadReceivedAt;
+        break;
+      default:
+        break;
+    }
+    long parseEndTime = extractor == null && SupportedResponseMode.SIZE_ONLY == responseMode ? responseHeadReceivedAt : System.nanoTime();
+
+    return PerformanceTestData.builder()
+        .statusCode(statusCode)
+        .errorType(errorType)
+        .responseDatas(responseDatas)
+        .responseBytes(totalBytes)
+        .wireBytes(SupportedResponseMode.SIZE_ONLY == responseMode && extractor == null ? totalBytes : responseBytes)
+        .responseChecksum(responseChecksum)
+        .bodyConsumed(bodyConsumed)
+        .extractedValues(extractedValues)
+        .connectTimeInMicros(0L)
+        .tlsHandshakeTimeInMicros(0L)
+        .timeToFirstByteInMicros(toMicros(responseHeadReceivedAt - requestSubmittedAt))
+        .bodyTransferTimeInMicros(toMicros(Math.max(parseStartTime - responseHeadReceivedAt - decompressTime, 0)))
+        .decompressTimeInMicros(toMicros(decompressTime))
+        .parseTimeInMicros(toMicros(parseEndTime - parseStartTime))
+        .build();
+
+  }
+
+  /**
+   * 自已收完的內文取出指定的值, 內文來自記憶體, 不會發生讀取失敗
+   */
+  private String[] extractValues() {
+    try {
+      return extractor.extract(new InputStreamReader(new ByteArrayInputStream(responseBody.toByteArray()), responseEncoding));
+    } catch (IOException e) {
+      return new String[extractor.getNames().length];
+    }
+  }
+
+  @Override
+  public void releaseResources() {
+    responseBody = null;
+    if (decoder != null) {
+      decoder.close();
+    }
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+}
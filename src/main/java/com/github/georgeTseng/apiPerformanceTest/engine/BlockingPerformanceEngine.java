@@ -0,0 +1,126 @@
+package com.github.georgeTseng.apiPerformanceTest.engine;
+
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutGuard;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceTask;
+import com.github.georgeTseng.apiPerformanceTest.utils.HttpClientUtils;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+/**
+ * 以阻塞式的 Apache HttpClient 送出請求, 每個進行中的請求佔用一條執行緒
+ */
+public class BlockingPerformanceEngine implements PerformanceEngine {
+
+  private final static String WORKER_THREAD_PREFIX = "performance-worker-";
+
+  private final CloseableHttpClient httpClient;
+  private final TotalTimeoutGuard timeoutGuard;
+  private final ExecutorService executor;
+  private final int concurrency;
+  private final Semaphore inFlightPermits;
+
+  /**
+   * @param requestData 請求設定
+   * @param concurrency 執行緒池大小, 即同時進行中的請求上限
+   */
+  public BlockingPerformanceEngine(PerformanceRequestData requestData, int concurrency) {
+
+    /* 建立整次測試共用的 HttpClient */
+    this.httpClient = HttpClientUtils.createHttpClient(requestData);
+
+    /* 所有請求共用, 限制單次請求的總時間 */
+    this.timeoutGuard = new TotalTimeoutGuard(requestData.getTotalTimeout());
+
+    /* 依併發數建立固定大小的執行緒池, 每條執行緒各自依序執行排程並於每次執行後等待 */
+    AtomicInteger workerCount = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(concurrency,
+        runnable -> new Thread(runnable, WORKER_THREAD_PREFIX + workerCount.incrementAndGet()));
+
+    /* 已達併發數時送出會等待, 避免排程堆積在執行緒池的佇列中 */
+    this.concurrency = concurrency;
+    this.inFlightPermits = new Semaphore(concurrency);
+
+  }
+
+  @Override
+  public void submit(PerformanceTask performanceTask) throws CustomApplicationException {
+
+    try {
+      inFlightPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to submit task data...", e);
+    }
+
+    /* 結果由排程自行交給 collector, 不保留 Future */
+    performanceTask.setHttpClient(httpClient);
+    performanceTask.setTimeoutGuard(timeoutGuard);
+    performanceTask.setSubmittedTime(System.nanoTime());
+    executor.submit(() -> {
+      try {
+        return performanceTask.execute();
+      } finally {
+        inFlightPermits.release();
+        performanceTask.notifyCompletion();
+      }
+    });
+
+  }
+
+  @Override
+  public boolean awaitCompletion(long timeout, TimeUnit unit) throws CustomApplicationException {
+
+    executor.shutdown();
+    try {
+      return executor.awaitTermination(timeout, unit);
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for task data...", e);
+    }
+
+  }
+
+  @Override
+  public boolean awaitIdle(long timeout, TimeUnit unit) throws CustomApplicationException {
+
+    /* 執行緒池維持運作, 取回全部名額即代表所有請求(含等待時間)皆已完成 */
+    boolean completed;
+    try {
+      completed = inFlightPermits.tryAcquire(concurrency, timeout, unit);
+      if (completed) {
+        inFlightPermits.release(concurrency);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for task data...", e);
+    }
+
+    return completed;
+
+  }
+
+  @Override
+  public int getInFlightCount() {
+    return concurrency - inFlightPermits.availablePermits();
+  }
+
+  @Override
+  public boolean isWorkerThread(String threadName) {
+    return threadName.startsWith(WORKER_THREAD_PREFIX);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    HttpClientUtils.closeHttpClient(httpClient);
+    timeoutGuard.close();
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.github.georgeTseng.apiPerformanceTest.engine;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 實際送出請求的方式, 排程器只負責決定何時送出, 由 engine 決定如何送出
+ */
+public interface PerformanceEngine {
+
+  /**
+   * 送出一次請求, 同時進行中的請求已達上限時會等待
+   *
+   * @param performanceTask 本次請求的排程
+   */
+  void submit(PerformanceTask performanceTask) throws CustomApplicationException;
+
+  /**
+   * 不再送出新的請求, 並等待所有進行中的請求完成, 最多等待指定的時間
+   *
+   * @param timeout 最長等待時間
+   * @param unit 時間單位
+   * @return 全部完成時回傳 true, 逾時回傳 false
+   */
+  boolean awaitCompletion(long timeout, TimeUnit unit) throws CustomApplicationException;
+
+  /**
+   * 等待目前所有進行中的請求完成, 但之後仍可繼續送出新的請求, 用於暖機結束時; 最多等待指定的時間
+   *
+   * @param timeout 最長等待時間
+   * @param unit 時間單位
+   * @return 全部完成時回傳 true, 逾時回傳 false
+   */
+  boolean awaitIdle(long timeout, TimeUnit unit) throws CustomApplicationException;
+
+  /**
+   * 目前進行中(含執行後的等待)的請求數
+   */
+  int getInFlightCount();
+
+  /**
+   * 依執行緒名稱判斷是否為送出請求的工作執行緒, 用於取樣負載產生端的 CPU
+   *
+   * @param threadName 執行緒名稱
+   */
+  boolean isWorkerThread(String threadName);
+
+  /**
+   * 釋放連線池與執行緒等資源, 等待逾時後呼叫時會中斷仍在進行中的請求
+   */
+  void close();
+
+}
@@ -0,0 +1,181 @@
+package com.github.georgeTseng.apiPerformanceTest.engine;
+
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutGuard;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.LatencyPercentileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceTask;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import com.github.georgeTseng.apiPerformanceTest.utils.HttpClientUtils;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 每個請求各自在一條虛擬執行緒上以阻塞式的 HttpClient 執行, 不需依併發數設定執行緒池大小, 需要 JDK 21 以上
+ */
+public class VirtualThreadPerformanceEngine implements PerformanceEngine {
+
+  private final static String VIRTUAL_THREAD_EXECUTOR_METHOD = "newVirtualThreadPerTaskExecutor";
+  private final static String SCHEDULER_PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+  /* 虛擬執行緒的 CPU 時間無法個別取得, 以載體執行緒代表 */
+  private final static String WORKER_THREAD_PREFIX = "ForkJoinPool-";
+
+  /* 開始執行前的等待超過此值時, 代表載體執行緒已忙不過來 */
+  private final static long SATURATED_SCHEDULING_LAG_MICROS = TimeUnit.MILLISECONDS.toMicros(10);
+
+  private final Logger engineLogger = LoggerFactory.getLogger(VirtualThreadPerformanceEngine.class);
+
+  private final CloseableHttpClient httpClient;
+  private final TotalTimeoutGuard timeoutGuard;
+  private final ExecutorService executor;
+  private final int concurrency;
+  private final Semaphore inFlightPermits;
+  private final Histogram schedulingLagHistogram = HistogramUtils.createLatencyHistogram();
+  private final VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor();
+
+  /**
+   * @param requestData 請求設定
+   * @param concurrency 同時進行中的請求(虛擬使用者)上限
+   */
+  public VirtualThreadPerformanceEngine(PerformanceRequestData requestData, int concurrency) throws CustomApplicationException {
+
+    this.executor = createVirtualThreadExecutor();
+    this.concurrency = concurrency;
+    this.inFlightPermits = new Semaphore(concurrency);
+    this.httpClient = HttpClientUtils.createHttpClient(requestData);
+    this.timeoutGuard = new TotalTimeoutGuard(requestData.getTotalTimeout());
+
+    pinningMonitor.start();
+
+    engineLogger.info("以虛擬執行緒執行, 載體執行緒數: {} ",
+        System.getProperty(SCHEDULER_PARALLELISM_PROPERTY, String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+  }
+
+  @Override
+  public void submit(PerformanceTask performanceTask) throws CustomApplicationException {
+
+    /* 取得名額, 已達同時進行中的請求上限時等待 */
+    try {
+      inFlightPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to submit task data...", e);
+    }
+
+    performanceTask.setHttpClient(httpClient);
+    performanceTask.setTimeoutGuard(timeoutGuard);
+
+    /* 記錄送出至虛擬執行緒實際開始執行的時間, 用來判斷載體執行緒是否已飽和 */
+    long submittedAt = System.nanoTime();
+    performanceTask.setSubmittedTime(submittedAt);
+    executor.submit(() -> {
+      recordSchedulingLag(System.nanoTime() - submittedAt);
+      try {
+        /* 執行後的等待也在虛擬執行緒上進行, 等待期間不佔用載體執行緒 */
+        return performanceTask.execute();
+      } finally {
+        inFlightPermits.release();
+        performanceTask.notifyCompletion();
+      }
+    });
+
+  }
+
+  @Override
+  public boolean awaitCompletion(long timeout, TimeUnit unit) throws CustomApplicationException {
+
+    boolean completed = awaitIdle(timeout, unit);
+
+    showSchedulingLag();
+    pinningMonitor.stopAndReport();
+
+    return completed;
+
+  }
+
+  @Override
+  public boolean awaitIdle(long timeout, TimeUnit unit) throws CustomApplicationException {
+
+    /* 取回全部名額即代表所有請求(含等待時間)皆已完成 */
+    boolean completed;
+    try {
+      completed = inFlightPermits.tryAcquire(concurrency, timeout, unit);
+      if (completed) {
+        inFlightPermits.release(concurrency);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for task data...", e);
+    }
+
+    return completed;
+
+  }
+
+  @Override
+  public int getInFlightCount() {
+    return concurrency - inFlightPermits.availablePermits();
+  }
+
+  @Override
+  public boolean isWorkerThread(String threadName) {
+    return threadName.startsWith(WORKER_THREAD_PREFIX);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    pinningMonitor.close();
+    HttpClientUtils.closeHttpClient(httpClient);
+    timeoutGuard.close();
+  }
+
+  private void recordSchedulingLag(long lagNanos) {
+    synchronized (schedulingLagHistogram) {
+      schedulingLagHistogram.recordValue(TimeUnit.NANOSECONDS.toMicros(lagNanos));
+    }
+  }
+
+  private void showSchedulingLag() {
+
+    LatencyPercentileData lagData;
+    synchronized (schedulingLagHistogram) {
+      if (schedulingLagHistogram.getTotalCount() == 0) {
+        return;
+      }
+      lagData = HistogramUtils.transIntoLatencyPercentileData(schedulingLagHistogram);
+    }
+
+    engineLogger.info("虛擬執行緒開始執行前的等待: 平均 {} ms, p50 {} ms, p99 {} ms, max {} ms",
+        HistogramUtils.toMillis(lagData.getMean()), HistogramUtils.toMillis(lagData.getP50()),
+        HistogramUtils.toMillis(lagData.getP99()), HistogramUtils.toMillis(lagData.getMax()));
+
+    if (lagData.getP99() > SATURATED_SCHEDULING_LAG_MICROS) {
+      engineLogger.warn("載體執行緒已飽和, 虛擬執行緒需排隊等待執行, 負載產生端可能已成為瓶頸");
+    }
+
+  }
+
+  /**
+   * 以反射取得 Executors.newVirtualThreadPerTaskExecutor, 讓專案在 JDK 1.8 下仍可編譯
+   */
+  private static ExecutorService createVirtualThreadExecutor() throws CustomApplicationException {
+    try {
+      return (ExecutorService) Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR_METHOD).invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new CustomApplicationException("目前的 JDK 不支援虛擬執行緒, 請使用 JDK 21 以上執行", e);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new CustomApplicationException("fail to create virtual thread executor...", e);
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+package com.github.georgeTseng.apiPerformanceTest.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 以 JFR 記錄虛擬執行緒被釘選(pinned)在載體執行緒上, 以及無法交給排程器的事件
+ */
+public class VirtualThreadPinningMonitor {
+
+  private final static String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private final static String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+
+  /* 只記錄釘選超過此時間的事件, 避免短暫的 synchronized 造成大量事件 */
+  private final static Duration PINNED_THRESHOLD = Duration.ofMillis(1);
+  private final static int TOP_PINNED_LOCATIONS = 3;
+
+  private final Logger monitorLogger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  private Recording recording;
+
+  public void start() {
+
+    try {
+      recording = new Recording();
+      recording.enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD).withStackTrace();
+      recording.enable(SUBMIT_FAILED_EVENT);
+      recording.start();
+    } catch (IllegalStateException | SecurityException e) {
+      monitorLogger.warn("無法啟動 JFR, 將不會記錄虛擬執行緒的釘選事件, 原因為: {} ", e.getMessage());
+      recording = null;
+    }
+
+  }
+
+  /**
+   * 停止記錄並顯示釘選的次數, 累計時間與最常發生的位置
+   */
+  public void stopAndReport() {
+
+    if (recording == null) {
+      return;
+    }
+
+    Path recordingFile = null;
+    try {
+      recording.stop();
+      recordingFile = Files.createTempFile("virtual-thread-pinning-", ".jfr");
+      recording.dump(recordingFile);
+
+      List<RecordedEvent> recordedEvents = RecordingFile.readAllEvents(recordingFile);
+      long pinnedCount = 0;
+      long submitFailedCount = 0;
+      Duration pinnedDuration = Duration.ZERO;
+      Map<String, Long> pinnedLocations = new HashMap<>();
+
+      for (RecordedEvent recordedEvent : recordedEvents) {
+        String eventName = recordedEvent.getEventType().getName();
+        if (PINNED_EVENT.equals(eventName)) {
+          pinnedCount++;
+          pinnedDuration = pinnedDuration.plus(recordedEvent.getDuration());
+          pinnedLocations.merge(getPinnedLocation(recordedEvent), 1L, Long::sum);
+        } else if (SUBMIT_FAILED_EVENT.equals(eventName)) {
+          submitFailedCount++;
+        }
+      }
+
+      monitorLogger.info("虛擬執行緒被釘選於載體執行緒 {} 次, 累計 {} ms", pinnedCount, pinnedDuration.toMillis());
+      pinnedLocations.entrySet().stream()
+          .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+          .limit(TOP_PINNED_LOCATIONS)
+          .forEach(pinnedLocation -> monitorLogger.info("釘選位置: {} , 共 {} 次", pinnedLocation.getKey(), pinnedLocation.getValue()));
+
+      if (submitFailedCount > 0) {
+        monitorLogger.warn("共 {} 次虛擬執行緒無法交給排程器執行, 負載產生端已成為瓶頸", submitFailedCount);
+      } else if (pinnedCount > 0) {
+        monitorLogger.warn("釘選期間載體執行緒無法執行其他虛擬執行緒, 實際的併發數可能低於設定值");
+      }
+    } catch (IOException e) {
+      monitorLogger.error("fail to read the jfr recording, reason is : {} ", e.getMessage());
+    } finally {
+      close();
+      deleteRecordingFile(recordingFile);
+    }
+
+  }
+
+  public void close() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  private static String getPinnedLocation(RecordedEvent recordedEvent) {
+
+    RecordedStackTrace stackTrace = recordedEvent.getStackTrace();
+    if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+      return "unknown";
+    }
+
+    /* 取最上層非 JDK 內部的呼叫位置 */
+    for (RecordedFrame frame : stackTrace.getFrames()) {
+      String typeName = frame.getMethod().getType().getName();
+      if (!typeName.startsWith("java.") && !typeName.startsWith("jdk.") && !typeName.startsWith("sun.")) {
+        return typeName + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+      }
+    }
+
+    RecordedFrame topFrame = stackTrace.getFrames().get(0);
+    return topFrame.getMethod().getType().getName() + "." + topFrame.getMethod().getName();
+
+  }
+
+  private void deleteRecordingFile(Path recordingFile) {
+    if (recordingFile == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(recordingFile);
+    } catch (IOException e) {
+      monitorLogger.error("fail to delete {} , reason is : {} ", recordingFile, e.getMessage());
+    }
+  }
+
+}
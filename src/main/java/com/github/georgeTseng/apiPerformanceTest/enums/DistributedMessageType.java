@@ -0,0 +1,13 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+/**
+ * coordinator 與 agent 之間的訊息種類, 依 PROFILE -> READY -> START -> INTERVAL... -> RESULT 的順序往來, 任一方失敗時送出 ERROR
+ */
+public enum DistributedMessageType {
+  PROFILE,
+  READY,
+  START,
+  INTERVAL,
+  RESULT,
+  ERROR;
+}
@@ -0,0 +1,152 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutException;
+import com.google.gson.JsonParseException;
+import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import javax.net.ssl.SSLException;
+
+/**
+ * 單次請求失敗的類型, 阻塞與非阻塞模式的例外皆歸類於此; 非 200 的回應另以狀態碼分類, 例如 http503
+ */
+public enum ErrorType {
+  CONNECT_REFUSED("connectRefused", "連線被拒"),
+  CONNECT_TIMEOUT("connectTimeout", "連線逾時"),
+  READ_TIMEOUT("readTimeout", "讀取逾時"),
+  TOTAL_TIMEOUT("totalTimeout", "總時間逾時"),
+  CONNECTION_RESET("connectionReset", "連線中斷"),
+  TLS_FAILURE("tlsFailure", "TLS 失敗"),
+  PROTOCOL_ERROR("protocolError", "協定錯誤"),
+  RESPONSE_PARSE_ERROR("responseParseError", "回應內文無法解析"),
+  UNKNOWN_HOST("unknownHost", "無法解析主機"),
+  REQUEST_ERROR("requestError", "無法建立請求"),
+  IO_ERROR("ioError", "其他 I/O 錯誤"),
+  UNEXPECTED_ERROR("unexpectedError", "未預期的例外");
+
+  private final static String HTTP_STATUS_KEY_PREFIX = "http";
+
+  String key;
+  String displayName;
+
+  ErrorType(String key, String displayName) {
+    this.key = key;
+    this.displayName = displayName;
+  }
+
+  public String getKey() {
+    return this.key;
+  }
+
+  public String getDisplayName() {
+    return this.displayName;
+  }
+
+  /**
+   * 依例外與其原因判斷失敗的類型, 由外而內取第一個可辨識的例外, 皆無法辨識時為 IO_ERROR; HttpClient 4 與 5 的例外皆可辨識
+   *
+   * @param throwable 請求失敗時的例外
+   */
+  public static ErrorType classify(Throwable throwable) {
+    return classify(throwable, IO_ERROR);
+  }
+
+  /**
+   * 依例外與其原因判斷失敗的類型, 皆無法辨識時回傳指定的類型
+   *
+   * @param throwable 請求失敗時的例外
+   * @param defaultType 無法辨識時的類型
+   */
+  public static ErrorType classify(Throwable throwable, ErrorType defaultType) {
+
+    for (Throwable current = throwable; current != null; current = current.getCause()) {
+      ErrorType errorType = classifySingle(current);
+      if (errorType != null) {
+        return errorType;
+      }
+      if (current.getCause() == current) {
+        break;
+      }
+    }
+
+    return defaultType;
+
+  }
+
+  private static ErrorType classifySingle(Throwable throwable) {
+
+    /* 逾時的例外需在 SocketException 等父類別之前判斷 */
+    if (throwable instanceof TotalTimeoutException) {
+      return TOTAL_TIMEOUT;
+    } else if (throwable instanceof org.apache.http.conn.ConnectTimeoutException
+        || throwable instanceof org.apache.hc.client5.http.ConnectTimeoutException) {
+      return CONNECT_TIMEOUT;
+    } else if (throwable instanceof SocketTimeoutException) {
+      return READ_TIMEOUT;
+    } else if (throwable instanceof SSLException) {
+      return TLS_FAILURE;
+    } else if (throwable instanceof UnknownHostException) {
+      return UNKNOWN_HOST;
+    } else if (throwable instanceof ConnectException) {
+      return CONNECT_REFUSED;
+    } else if (throwable instanceof SocketException
+        || throwable instanceof org.apache.http.NoHttpResponseException
+        || throwable instanceof org.apache.http.ConnectionClosedException
+        || throwable instanceof org.apache.hc.core5.http.NoHttpResponseException
+        || throwable instanceof org.apache.hc.core5.http.ConnectionClosedException) {
+      /* 連線被重設, 或伺服器未回應即關閉連線 */
+      return CONNECTION_RESET;
+    } else if (throwable instanceof org.apache.http.ProtocolException
+        || throwable instanceof org.apache.http.client.ClientProtocolException
+        || throwable instanceof org.apache.http.MalformedChunkCodingException
+        || throwable instanceof org.apache.hc.core5.http.ProtocolException) {
+      return PROTOCOL_ERROR;
+    } else if (throwable instanceof JsonParseException) {
+      /* 回應內文無法轉成 json 物件, 需在 IllegalArgumentException 之前判斷, 其原因可能是 NumberFormatException */
+      return RESPONSE_PARSE_ERROR;
+    } else if (throwable instanceof UnsupportedEncodingException || throwable instanceof IllegalArgumentException) {
+      return REQUEST_ERROR;
+    }
+
+    return null;
+
+  }
+
+  /**
+   * 是否為連線, 讀取或總時間逾時, 用來區分逾時與快速回應的錯誤
+   *
+   * @param key 錯誤類型的 key
+   */
+  public static boolean isTimeout(String key) {
+    return CONNECT_TIMEOUT.getKey().equals(key) || READ_TIMEOUT.getKey().equals(key) || TOTAL_TIMEOUT.getKey().equals(key);
+  }
+
+  /**
+   * 非 200 的回應依狀態碼分類, 與成功次數的判斷一致
+   *
+   * @param statusCode Http 狀態碼
+   */
+  public static String toStatusKey(int statusCode) {
+    return HTTP_STATUS_KEY_PREFIX + statusCode;
+  }
+
+  /**
+   * 取得錯誤類型的顯示名稱, 狀態碼分類顯示為 Http 503 的形式, 無法辨識時顯示原本的 key
+   *
+   * @param key 錯誤類型的 key
+   */
+  public static String getDisplayName(String key) {
+
+    for (ErrorType errorType : values()) {
+      if (errorType.getKey().equals(key)) {
+        return errorType.getDisplayName();
+      }
+    }
+
+    return key.startsWith(HTTP_STATUS_KEY_PREFIX) ? "Http " + key.substring(HTTP_STATUS_KEY_PREFIX.length()) : key;
+
+  }
+
+}
@@ -0,0 +1,8 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+public enum SupportedEngine {
+  BLOCKING,
+  ASYNC,
+  VIRTUAL_THREAD,
+  HTTP2;
+}
@@ -0,0 +1,9 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+/**
+ * 資料檔取出資料的順序; SEQUENTIAL 依序循環取出, RANDOM 每次隨機取出一筆
+ */
+public enum SupportedFeederOrder {
+  SEQUENTIAL,
+  RANDOM;
+}
@@ -0,0 +1,6 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+public enum SupportedLoadModel {
+  CLOSED,
+  ARRIVAL_RATE;
+}
@@ -0,0 +1,8 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+public enum SupportedResponseMode {
+  PARSE,
+  DISCARD,
+  HASH,
+  SIZE_ONLY;
+}
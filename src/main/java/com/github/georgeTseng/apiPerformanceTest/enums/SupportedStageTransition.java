@@ -0,0 +1,6 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+public enum SupportedStageTransition {
+  LINEAR,
+  STEP;
+}
@@ -0,0 +1,60 @@
+package com.github.georgeTseng.apiPerformanceTest.enums;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import java.util.function.Function;
+
+/**
+ * 單次請求的各個計時階段, 單位皆為微秒(us)
+ */
+public enum TimingPhase {
+  CONNECT("connect", "建立連線", PerformanceTestData::getConnectTimeInMicros),
+  TLS_HANDSHAKE("tlsHandshake", "TLS 交握", PerformanceTestData::getTlsHandshakeTimeInMicros),
+  TIME_TO_FIRST_BYTE("timeToFirstByte", "等待回應(TTFB)", PerformanceTestData::getTimeToFirstByteInMicros),
+  BODY_TRANSFER("bodyTransfer", "接收內文", PerformanceTestData::getBodyTransferTimeInMicros),
+  DECOMPRESS("decompress", "解壓縮內文", PerformanceTestData::getDecompressTimeInMicros),
+  PARSE("parse", "解析內文", PerformanceTestData::getParseTimeInMicros),
+  OTHER("other", "其他(排隊/建立請求/連線池)", TimingPhase::getOtherTimeInMicros);
+
+  String key;
+  String displayName;
+  Function<PerformanceTestData, Long> timeGetter;
+
+  TimingPhase(String key, String displayName, Function<PerformanceTestData, Long> timeGetter) {
+    this.key = key;
+    this.displayName = displayName;
+    this.timeGetter = timeGetter;
+  }
+
+  public String getKey() {
+    return this.key;
+  }
+
+  public String getDisplayName() {
+    return this.displayName;
+  }
+
+  /**
+   * 取出該階段的耗時, 未記錄時回傳 0
+   */
+  public long getTimeInMicros(PerformanceTestData testData) {
+    Long time = this.timeGetter.apply(testData);
+    return time == null ? 0L : time;
+  }
+
+  /* 總耗時扣除其他已量測的階段, 剩下的即為程式本身與排隊的時間 */
+  private static Long getOtherTimeInMicros(PerformanceTestData testData) {
+    if (testData.getOperateTimeInMicros() == null) {
+      return null;
+    }
+
+    long measuredTime = 0L;
+    for (TimingPhase phase : values()) {
+      if (OTHER != phase) {
+        measuredTime += phase.getTimeInMicros(testData);
+      }
+    }
+
+    return Math.max(testData.getOperateTimeInMicros() - measuredTime, 0L);
+  }
+
+}
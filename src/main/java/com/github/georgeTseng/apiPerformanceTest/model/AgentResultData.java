@@ -0,0 +1,25 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單一 agent 結束時回傳的結果, runTime 單位為奈秒(ns), stageAggregates 以負載階段名稱為 key,
+ * scenarioAggregates 以請求定義的名稱為 key, stepAggregates 以流程步驟的名稱為 key
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentResultData {
+
+  private Long runTime;
+  private AggregateSnapshotData aggregate;
+  private Map<String, AggregateSnapshotData> stageAggregates;
+  private Map<String, AggregateSnapshotData> scenarioAggregates;
+  private Map<String, AggregateSnapshotData> stepAggregates;
+
+}
@@ -0,0 +1,33 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 累計統計值的完整內容, 耗時單位為毫秒(ms), histogram 為壓縮後的 Base64 字串; 可與其他 agent 的統計值合併而不失真
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateSnapshotData {
+
+  private Integer totalCount;
+  private Integer okCount;
+  private Integer ngCount;
+  private Long totalOperateTime;
+  private Long bestOperateTime;
+  private Long worstOperateTime;
+  private Long totalResponseBytes;
+  private Long totalWireBytes;
+  private Integer sizedResponseCount;
+  private Integer cachedCount;
+  private Integer abortedCount;
+  private String latencyHistogram;
+  private Map<String, String> phaseHistograms;
+  private Map<String, String> errorHistograms;
+
+}
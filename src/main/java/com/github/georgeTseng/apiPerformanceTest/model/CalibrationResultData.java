@@ -0,0 +1,27 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 自我校準的結果; latencyFloor 為併發數 1 時的耗時(us), 即本程式與本機網路堆疊的耗時下限,
+ * maxRate 為各併發數中最高的實際速率(次/秒)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalibrationResultData {
+
+  private String engine;
+  private String responseMode;
+  private Integer payloadBytes;
+  private LatencyPercentileData latencyFloor;
+  private Double maxRate;
+  private Integer maxRateConcurrency;
+  private List<CalibrationStepData> steps;
+
+}
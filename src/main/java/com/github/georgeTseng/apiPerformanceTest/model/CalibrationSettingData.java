@@ -0,0 +1,25 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 自我校準的設定; engine, httpMethod 與 responseMode 與設定檔的寫法相同, stepDuration 為每個併發數執行的時間(s),
+ * 併發數自 1 起倍增, 直到速率不再明顯增加或超過 maxConcurrency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalibrationSettingData {
+
+  private String engine;
+  private String httpMethod;
+  private String responseMode;
+  private Integer payloadBytes;
+  private Long stepDuration;
+  private Integer maxConcurrency;
+
+}
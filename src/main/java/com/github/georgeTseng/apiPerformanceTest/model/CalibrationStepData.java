@@ -0,0 +1,20 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalibrationStepData {
+
+  private Integer concurrency;
+  private Integer totalCount;
+  private Integer ngCount;
+  private Double achievedRate;
+  private LatencyPercentileData latencyPercentiles;
+
+}
@@ -0,0 +1,29 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 兩次測試結果的比較, 顯著性以 Mann-Whitney U 檢定(單尾, 比較結果較慢)由兩份結果檔的耗時 Histogram 計算;
+ * 任一結果檔沒有 Histogram 時檢定的欄位皆為 null, 耗時只依門檻判定. probabilityOfSuperiority 為隨機各取一次請求時,
+ * 比較結果較慢的機率(相同時各計一半), 0.5 代表沒有差異
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComparisonResultData {
+
+  private List<MetricComparisonData> metrics;
+  private Double uStatistic;
+  private Double zScore;
+  private Double pValue;
+  private Double probabilityOfSuperiority;
+  private Boolean significant;
+  private List<String> regressions;
+  private Boolean regressed;
+
+}
@@ -0,0 +1,27 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 比較兩次測試結果時判定為退化的門檻, 未設定(null)的項目不檢查; 耗時與速率為相對於基準的變化(%),
+ * 成功率為下降的百分點, significanceLevel 為顯著水準, 耗時的增加需同時超過門檻且達到顯著才判定為退化
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComparisonThresholdData {
+
+  private Double mean;
+  private Double p50;
+  private Double p90;
+  private Double p99;
+  private Double p999;
+  private Double okPercent;
+  private Double achievedRate;
+  private Double significanceLevel;
+
+}
@@ -0,0 +1,25 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.DistributedMessageType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * coordinator 與 agent 之間以一行一筆 json 傳送的訊息, 依 type 只會帶有對應的欄位; startTime 為 epoch 毫秒
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributedMessageData {
+
+  private DistributedMessageType type;
+  private PerformanceRequestFileData profile;
+  private Long startTime;
+  private IntervalResultData interval;
+  private AgentResultData result;
+  private String errorMessage;
+
+}
@@ -0,0 +1,23 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單一錯誤類型的統計值, 非 200 的回應以 http503 的形式依狀態碼分類; 耗時的百分位數單位為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorResultData {
+
+  private String errorType;
+  private String description;
+  private Integer count;
+  private Double percent;
+  private LatencyPercentileData latencyPercentiles;
+
+}
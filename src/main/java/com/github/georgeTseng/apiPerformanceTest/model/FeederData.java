@@ -0,0 +1,21 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedFeederOrder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 提供 ${變數} 值的資料檔, 依副檔名為 .csv(第一行為欄位名稱) 或 .jsonl(每行一個 json 物件)
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeederData {
+
+  private String filePath;
+  private SupportedFeederOrder order;
+
+}
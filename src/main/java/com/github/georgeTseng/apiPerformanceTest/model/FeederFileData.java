@@ -0,0 +1,17 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeederFileData {
+
+  private String filePath;
+  private String order;
+
+}
@@ -0,0 +1,33 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 整次測試期間負載產生端的健康狀態摘要, 單位與 HealthSampleData 相同; gcOverlapCount 為耗時與 GC 停頓重疊的請求數,
+ * warnings 為結果可能受負載產生端影響的原因
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneratorHealthData {
+
+  private Integer sampleCount;
+  private Double averageProcessCpuPercent;
+  private Double maxProcessCpuPercent;
+  private Double maxBusiestWorkerCpuPercent;
+  private Integer cpuSaturatedSampleCount;
+  private Integer gcPauseCount;
+  private Long gcPauseTime;
+  private Long maxGcPause;
+  private Long maxHeapUsedMb;
+  private Long heapMaxMb;
+  private Long schedulingLagMax;
+  private Long gcOverlapCount;
+  private List<String> warnings;
+
+}
@@ -0,0 +1,35 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 負載產生端單一時間區間(預設 1 秒)的健康狀態; CPU 為百分比, 程序 CPU 以所有核心為 100%, 工作執行緒以單一核心為 100%,
+ * GC 停頓與 heap 的單位為 ms 與 MB, 排程延遲的單位為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthSampleData {
+
+  private Long sequence;
+  private Double elapsedTime;
+  private Double processCpuPercent;
+  private Double systemCpuPercent;
+  private Integer workerThreadCount;
+  private Double workerCpuPercent;
+  private Double busiestWorkerCpuPercent;
+  private Long heapUsedMb;
+  private Long heapCommittedMb;
+  private Long heapMaxMb;
+  private Integer gcPauseCount;
+  private Long gcPauseTime;
+  private Long maxGcPause;
+  private Long schedulingLagP99;
+  private Long schedulingLagMax;
+  private Boolean cpuSaturated;
+
+}
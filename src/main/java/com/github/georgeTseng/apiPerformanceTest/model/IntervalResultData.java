@@ -0,0 +1,31 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單一時間區間(預設 1 秒)的統計值, sequence 由 1 開始依序編號, 耗時單位為微秒(us), histogram 為該區間壓縮後的 Base64 字串
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntervalResultData {
+
+  private Long sequence;
+  private Double elapsedTime;
+  private Double intervalTime;
+  private Long requestCount;
+  private Long errorCount;
+  private Long timeoutCount;
+  private Double requestsPerSecond;
+  private Double errorsPerSecond;
+  private Long p50;
+  private Long p99;
+  private Long max;
+  private Integer inFlight;
+  private String histogram;
+
+}
@@ -0,0 +1,25 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 耗時的平均值與百分位數, 單位皆為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyPercentileData {
+
+  private Long mean;
+  private Long p50;
+  private Long p90;
+  private Long p99;
+  private Long p999;
+  private Long p9999;
+  private Long max;
+
+}
@@ -0,0 +1,24 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedStageTransition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 負載的單一階段; LINEAR 由前一階段的目標值線性變化至本階段的目標值, STEP 於階段開始時直接切換
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadStageData {
+
+  private String name;
+  private Long duration;
+  private Integer targetConcurrency;
+  private Double targetRate;
+  private SupportedStageTransition transition;
+
+}
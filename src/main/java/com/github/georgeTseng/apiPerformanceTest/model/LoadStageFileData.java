@@ -0,0 +1,20 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadStageFileData {
+
+  private String name;
+  private String duration;
+  private String targetConcurrency;
+  private String targetRate;
+  private String transition;
+
+}
@@ -0,0 +1,25 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單一指標的比較結果, 耗時單位為毫秒(ms); change 與 threshold 對耗時與速率為相對變化(%), 對成功率為百分點,
+ * 未設定門檻時 threshold 為 null 且 exceeded 為 false
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricComparisonData {
+
+  private String metric;
+  private Double baselineValue;
+  private Double candidateValue;
+  private Double change;
+  private Double threshold;
+  private Boolean exceeded;
+
+}
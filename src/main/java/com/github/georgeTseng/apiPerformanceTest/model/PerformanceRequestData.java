@@ -1,6 +1,10 @@
 package com.github.georgeTseng.apiPerformanceTest.model;
 
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedEngine;
 import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedLoadModel;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
+import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,7 +12,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PerformanceRequestData {
@@ -16,12 +20,37 @@ public class PerformanceRequestData {
   private String url;
   private SupportedHttpMethod httpMethod;
   private Integer taskLimit;
+  private Long runDuration;
+  private Integer warmUpCount;
+  private Long warmUpDuration;
+  private Long shutdownTimeout;
   private Long waitTime;
+  private Integer concurrency;
+  private SupportedLoadModel loadModel;
+  private Double targetRate;
+  private List<LoadStageData> stages;
+  private Boolean reuseConnection;
+  private Boolean compression;
+  private Integer maxConnections;
+  private Integer maxConnectionsPerRoute;
+  private Long keepAliveTime;
+  private Long idleConnectionTime;
+  private Long connectTimeout;
+  private Long readTimeout;
+  private Long totalTimeout;
+  private SupportedEngine engine;
+  private Integer ioThreads;
+  private Integer http2Connections;
+  private Integer http2MaxStreams;
   private String authorization;
   private String contentType;
   private String accept;
+  private SupportedResponseMode responseMode;
   private Map<String, Object> otherHeadersParams;
   private Map<String, Object> otherParams;
+  private List<FeederData> feeders;
+  private List<ScenarioData> scenarios;
+  private List<WorkflowStepData> steps;
   private String filePath;
 
 }
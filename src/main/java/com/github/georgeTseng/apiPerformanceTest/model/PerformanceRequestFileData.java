@@ -1,5 +1,6 @@
 package com.github.georgeTseng.apiPerformanceTest.model;
 
+import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,11 +16,36 @@ public class PerformanceRequestFileData {
   private String url;
   private String httpMethod;
   private String taskLimit;
+  private String runDuration;
+  private String warmUpCount;
+  private String warmUpDuration;
+  private String shutdownTimeout;
   private String waitTime;
+  private String concurrency;
+  private String loadModel;
+  private String targetRate;
+  private List<LoadStageFileData> stages;
+  private String reuseConnection;
+  private String compression;
+  private String maxConnections;
+  private String maxConnectionsPerRoute;
+  private String keepAliveTime;
+  private String idleConnectionTime;
+  private String connectTimeout;
+  private String readTimeout;
+  private String totalTimeout;
+  private String engine;
+  private String ioThreads;
+  private String http2Connections;
+  private String http2MaxStreams;
   private String authorization;
   private String contentType;
   private String accept;
+  private String responseMode;
   private Map<String, Object> otherHeadersParams;
   private Map<String, Object> otherParams;
+  private List<FeederFileData> feeders;
+  private List<ScenarioFileData> scenarios;
+  private List<WorkflowStepFileData> steps;
 
 }
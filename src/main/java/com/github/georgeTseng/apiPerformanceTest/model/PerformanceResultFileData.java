@@ -1,5 +1,6 @@
 package com.github.georgeTseng.apiPerformanceTest.model;
 
+import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,7 +13,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PerformanceResultFileData {
 
-  private Map<Integer, PerformanceTestData> performanceTestResults;
   private Integer totalCount;
   private Long averageOperateTime;
   private Long bestOperateTime;
@@ -20,5 +20,28 @@ public class PerformanceResultFileData {
   private Integer okCount;
   private Integer ngCount;
   private Double okPercent;
+  private LatencyPercentileData latencyPercentiles;
+  private String latencyHistogram;
+  private Map<String, LatencyPercentileData> phasePercentiles;
+  private List<ErrorResultData> errorResults;
+  private List<StageResultData> stageResults;
+  private List<ScenarioResultData> scenarioResults;
+  private List<StepResultData> stepResults;
+  private WarmUpResultData warmUpResult;
+  private GeneratorHealthData generatorHealth;
+  private Long runTime;
+  private String responseMode;
+  private Boolean bodyConsumed;
+  private Long averageResponseBytes;
+  private Long averageWireBytes;
+  /* 未取得回應大小的筆數, 不計入平均大小 */
+  private Integer unknownSizeCount;
+  private Double wireMegabytesPerSecond;
+  private Double decodedMegabytesPerSecond;
+  private Double targetRate;
+  private Double achievedRate;
+  private String sampleFilePath;
+  private String intervalFilePath;
+  private String healthFilePath;
 
 }
@@ -13,8 +13,32 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PerformanceTestData {
 
+  private Integer taskCount;
+  private String stage;
+  private String scenario;
+  private String step;
   private Long operateTime;
+  private Long operateTimeInMicros;
+  private Long connectTimeInMicros;
+  private Long tlsHandshakeTimeInMicros;
+  private Long timeToFirstByteInMicros;
+  private Long bodyTransferTimeInMicros;
+  private Long decompressTimeInMicros;
+  private Long parseTimeInMicros;
+  private Long clientGcPauseInMicros;
   private Integer statusCode;
+  private String errorType;
   private Map<String, Object> responseDatas;
+  /* responseBytes 為解壓縮後的內文大小, wireBytes 為實際傳輸的內文大小, 未壓縮時兩者相同 */
+  private Long responseBytes;
+  private Long wireBytes;
+  private String responseChecksum;
+  private Boolean bodyConsumed;
+
+  /* 流程中自回應取出的值, 依步驟設定的順序排列; 不寫入逐次結果的檔案 */
+  private transient String[] extractedValues;
+
+  /* 計時的結束時間點(ns), 之後讀完內文讓連線可重複使用的時間不計入耗時; 為 null 時以回傳時的時間為準, 不寫入逐次結果的檔案 */
+  private transient Long timingEndTime;
 
 }
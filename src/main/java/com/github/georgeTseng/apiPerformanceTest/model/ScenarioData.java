@@ -0,0 +1,30 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 混合多種請求時的單一請求定義, 依 weight 佔全部權重的比例抽選;
+ * content-type, authorization, accept 與其他 Headers 未設定時沿用設定檔最外層的值
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioData {
+
+  private String name;
+  private Double weight;
+  private String url;
+  private SupportedHttpMethod httpMethod;
+  private String authorization;
+  private String contentType;
+  private String accept;
+  private Map<String, Object> otherHeadersParams;
+  private Map<String, Object> otherParams;
+
+}
@@ -0,0 +1,25 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioFileData {
+
+  private String name;
+  private String weight;
+  private String url;
+  private String httpMethod;
+  private String authorization;
+  private String contentType;
+  private String accept;
+  private Map<String, Object> otherHeadersParams;
+  private Map<String, Object> otherParams;
+
+}
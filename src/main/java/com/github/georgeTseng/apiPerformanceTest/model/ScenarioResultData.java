@@ -0,0 +1,31 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 混合多種請求時單一請求定義的統計值, weightPercent 為設定的比例, actualPercent 為實際送出的比例,
+ * 耗時的百分位數單位為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioResultData {
+
+  private String scenario;
+  private String httpMethod;
+  private String url;
+  private Double weightPercent;
+  private Double actualPercent;
+  private Integer totalCount;
+  private Integer okCount;
+  private Integer ngCount;
+  private Double okPercent;
+  private Long averageOperateTime;
+  private Double achievedRate;
+  private LatencyPercentileData latencyPercentiles;
+
+}
@@ -0,0 +1,27 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單一負載階段的統計值, 耗時的百分位數單位為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageResultData {
+
+  private String stage;
+  private Long duration;
+  private Integer targetConcurrency;
+  private Double targetRate;
+  private Integer totalCount;
+  private Integer okCount;
+  private Integer ngCount;
+  private Double achievedRate;
+  private LatencyPercentileData latencyPercentiles;
+
+}
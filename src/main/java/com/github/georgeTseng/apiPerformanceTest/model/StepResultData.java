@@ -0,0 +1,30 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 流程中單一步驟的統計值, cachedCount 為使用快取而未送出的次數, abortedCount 為無法取出值而中止流程的次數,
+ * 耗時的百分位數單位為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StepResultData {
+
+  private String step;
+  private String httpMethod;
+  private String url;
+  private Integer totalCount;
+  private Integer okCount;
+  private Integer ngCount;
+  private Double okPercent;
+  private Long averageOperateTime;
+  private Integer cachedCount;
+  private Integer abortedCount;
+  private LatencyPercentileData latencyPercentiles;
+
+}
@@ -0,0 +1,28 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 內建 stub server 的設定; host 為 null 時接受所有網卡的連線, port 為 0 時由系統分配,
+ * latency 為回應前的延遲分佈, errorRate 為以 errorStatus 回應的比例(0~1), payloadBytes 為成功時的回應大小,
+ * protocol 為 h1(HTTP/1.1) 或 h2c(直接以 HTTP/2 連線)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StubServerData {
+
+  private String host;
+  private Integer port;
+  private String latency;
+  private Double errorRate;
+  private Integer errorStatus;
+  private Integer payloadBytes;
+  private Integer ioThreads;
+  private String protocol;
+
+}
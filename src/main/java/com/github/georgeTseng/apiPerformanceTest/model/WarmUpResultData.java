@@ -0,0 +1,26 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 暖機期間的統計值, 不計入整次測試的統計值; 耗時的百分位數單位為微秒(us)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmUpResultData {
+
+  private Integer totalCount;
+  private Integer okCount;
+  private Integer ngCount;
+  private Long averageOperateTime;
+  private Long worstOperateTime;
+  private Long runTime;
+  private Double achievedRate;
+  private LatencyPercentileData latencyPercentiles;
+
+}
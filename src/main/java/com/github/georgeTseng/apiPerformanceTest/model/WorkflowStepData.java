@@ -0,0 +1,32 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 流程中的單一步驟, 每次執行依序送出所有步驟; extract 的 key 為變數名稱, value 為回應內文中的路徑,
+ * 取出的值可於後面的步驟以 ${變數} 使用. 設定 cacheTtl(s) 時取出的值依虛擬使用者快取, 期限內不再送出此步驟;
+ * content-type, authorization, accept 與其他 Headers 未設定時沿用設定檔最外層的值
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowStepData {
+
+  private String name;
+  private String url;
+  private SupportedHttpMethod httpMethod;
+  private String authorization;
+  private String contentType;
+  private String accept;
+  private Map<String, Object> otherHeadersParams;
+  private Map<String, Object> otherParams;
+  private Map<String, String> extract;
+  private Long cacheTtl;
+
+}
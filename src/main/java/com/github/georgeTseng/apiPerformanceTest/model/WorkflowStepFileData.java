@@ -0,0 +1,26 @@
+package com.github.georgeTseng.apiPerformanceTest.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowStepFileData {
+
+  private String name;
+  private String url;
+  private String httpMethod;
+  private String authorization;
+  private String contentType;
+  private String accept;
+  private Map<String, Object> otherHeadersParams;
+  private Map<String, Object> otherParams;
+  private Map<String, String> extract;
+  private String cacheTtl;
+
+}
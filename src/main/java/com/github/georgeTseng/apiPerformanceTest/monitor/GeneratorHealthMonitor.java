@@ -0,0 +1,494 @@
+package com.github.georgeTseng.apiPerformanceTest.monitor;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.GeneratorHealthData;
+import com.github.georgeTseng.apiPerformanceTest.model.HealthSampleData;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import com.google.gson.Gson;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 以 JMX 每秒取樣負載產生端(本程式)的 CPU, 工作執行緒的 CPU 時間, heap 與排程延遲, 並以 GC 通知記錄每次停頓的起訖時間;
+ * 用來判斷耗時的突增來自目標服務還是本程式自身. 取樣視需要寫入健康紀錄檔(json lines), 結束時產生摘要與警告
+ */
+public class GeneratorHealthMonitor {
+
+  public final static long SAMPLE_INTERVAL_MILLIS = 1000;
+
+  /* 程序 CPU 或單一工作執行緒的 CPU 達到此比例時視為飽和 */
+  private final static double CPU_SATURATED_PERCENT = 90.0;
+
+  /* 排程延遲超過此值時, 請求已無法於預定的時間送出 */
+  private final static long SCHEDULING_LAG_WARNING_MICROS = TimeUnit.MILLISECONDS.toMicros(10);
+
+  /* 只保留最近的停頓紀錄, 足以涵蓋進行中請求的時間範圍 */
+  private final static int MAX_RECENT_PAUSES = 256;
+
+  /* 名稱含有此字的 collector 回報的是並行的回收週期而非停頓(ZGC, Shenandoah) */
+  private final static String CONCURRENT_CYCLE_COLLECTOR = "Cycles";
+
+  private final static double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+  private final static long BYTES_PER_MB = 1024 * 1024;
+
+  private final Logger monitorLogger = LoggerFactory.getLogger(GeneratorHealthMonitor.class);
+  private final Gson gson = new Gson();
+
+  private final Path healthFilePath;
+  private final Recorder schedulingLagRecorder = new Recorder(HistogramUtils.NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+  private final LongAdder gcOverlapCounter = new LongAdder();
+
+  /* 最近的停頓起訖時間(ns, 與 System.nanoTime 同一基準), 由 GC 通知執行緒加入 */
+  private final Deque<long[]> recentPauses = new ArrayDeque<>();
+  private volatile long latestPauseEndTime = Long.MIN_VALUE;
+
+  private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private final OperatingSystemMXBean operatingSystemBean = ManagementFactory.getOperatingSystemMXBean();
+  private final int availableProcessors = Runtime.getRuntime().availableProcessors();
+  private final NotificationListener gcListener = this::onGarbageCollection;
+  private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+
+  private ScheduledExecutorService sampleScheduler;
+  private Writer healthWriter;
+  private Predicate<String> workerThreadFilter;
+  private long uptimeBaseMillis;
+  private long nanoTimeBase;
+  private long runStartTime;
+
+  /* 以下只由取樣執行緒讀寫, 結束時在 stop 中讀取 */
+  private Histogram recycledLagHistogram;
+  private Map<Long, Long> lastWorkerCpuTimes = new HashMap<>();
+  private long lastSampleTime;
+  private long lastProcessCpuTime;
+  private int intervalPauseCount;
+  private long intervalPauseNanos;
+  private long intervalMaxPauseNanos;
+  private long sequence;
+  private boolean saturated;
+  private volatile IOException writeFailure;
+
+  /* 摘要 */
+  private double totalProcessCpuPercent;
+  private double maxProcessCpuPercent;
+  private double maxBusiestWorkerCpuPercent;
+  private int cpuSaturatedSampleCount;
+  private int gcPauseCount;
+  private long gcPauseNanos;
+  private long maxGcPauseNanos;
+  private long maxHeapUsedBytes;
+  private long heapMaxBytes;
+  private long schedulingLagMax;
+
+  /**
+   * @param healthFilePath 健康紀錄檔的路徑, 不需輸出檔案時為 null
+   */
+  public GeneratorHealthMonitor(Path healthFilePath) {
+    this.healthFilePath = healthFilePath;
+  }
+
+  /**
+   * 測試開始時呼叫, 開啟健康紀錄檔, 註冊 GC 通知並啟動每秒取樣的背景執行緒
+   *
+   * @param runStartTime 測試開始的時間點(ns)
+   * @param workerThreadFilter 依執行緒名稱判斷是否為 engine 送出請求的工作執行緒
+   */
+  public synchronized void start(long runStartTime, Predicate<String> workerThreadFilter) throws CustomApplicationException {
+
+    this.runStartTime = runStartTime;
+    this.lastSampleTime = System.nanoTime();
+    this.workerThreadFilter = workerThreadFilter;
+
+    /* GC 通知的時間為 JVM 啟動後的 ms, 換算為 System.nanoTime 的基準 */
+    this.uptimeBaseMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    this.nanoTimeBase = System.nanoTime();
+
+    if (healthFilePath != null) {
+      try {
+        healthWriter = new BufferedWriter(Files.newBufferedWriter(healthFilePath, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        monitorLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{healthFilePath});
+        throw new CustomApplicationException("發生IO Exception", e, new Object[]{healthFilePath});
+      }
+    }
+
+    for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (gcBean instanceof NotificationEmitter) {
+        NotificationEmitter gcEmitter = (NotificationEmitter) gcBean;
+        gcEmitter.addNotificationListener(gcListener, null, null);
+        gcEmitters.add(gcEmitter);
+      }
+    }
+
+    if (threadBean.isThreadCpuTimeSupported() && !threadBean.isThreadCpuTimeEnabled()) {
+      threadBean.setThreadCpuTimeEnabled(true);
+    }
+    lastProcessCpuTime = getProcessCpuTime();
+    lastWorkerCpuTimes = readWorkerCpuTimes();
+
+    sampleScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread monitorThread = new Thread(runnable, "generator-health-monitor");
+      monitorThread.setDaemon(true);
+      return monitorThread;
+    });
+    sampleScheduler.scheduleAtFixedRate(() -> sample(false), SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+  }
+
+  /**
+   * 記錄請求於負載產生端等待的時間: 固定到達速率模式下為排定的送出時間至實際送出, 其餘為交給 engine 至開始執行;
+   * 可由多條執行緒同時呼叫
+   *
+   * @param lagNanos 等待的時間(ns)
+   */
+  public void recordSchedulingLag(long lagNanos) {
+    schedulingLagRecorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(lagNanos)));
+  }
+
+  /**
+   * 取得請求期間與 GC 停頓重疊的時間(us), 沒有重疊時為 0 並不計數; 以 GC 結束後的通知判斷,
+   * 停頓結束後極短時間內完成的請求可能在通知送達前即已記錄而未被標記. 可由多條執行緒同時呼叫
+   *
+   * @param startTime 請求開始計時的時間點(ns)
+   * @param endTime 請求結束計時的時間點(ns)
+   */
+  public long getGcPauseOverlapMicros(long startTime, long endTime) {
+
+    /* 大部分的請求期間沒有停頓, 不需取得鎖 */
+    if (latestPauseEndTime <= startTime) {
+      return 0;
+    }
+
+    long overlapNanos = 0;
+    synchronized (recentPauses) {
+      for (long[] pause : recentPauses) {
+        long overlapStart = Math.max(pause[0], startTime);
+        long overlapEnd = Math.min(pause[1], endTime);
+        if (overlapEnd > overlapStart) {
+          overlapNanos = overlapNanos + (overlapEnd - overlapStart);
+        }
+      }
+    }
+
+    if (overlapNanos == 0) {
+      return 0;
+    }
+    gcOverlapCounter.increment();
+
+    return Math.max(1, TimeUnit.NANOSECONDS.toMicros(overlapNanos));
+
+  }
+
+  private void onGarbageCollection(Notification notification, Object handback) {
+
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+      return;
+    }
+
+    GarbageCollectionNotificationInfo gcNotification = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    if (gcNotification.getGcName().contains(CONCURRENT_CYCLE_COLLECTOR)) {
+      return;
+    }
+
+    GcInfo gcInfo = gcNotification.getGcInfo();
+    long pauseStartTime = nanoTimeBase + TimeUnit.MILLISECONDS.toNanos(gcInfo.getStartTime() - uptimeBaseMillis);
+    long pauseNanos = TimeUnit.MILLISECONDS.toNanos(gcInfo.getDuration());
+    long pauseEndTime = pauseStartTime + pauseNanos;
+
+    synchronized (recentPauses) {
+      recentPauses.addLast(new long[]{pauseStartTime, pauseEndTime});
+      if (recentPauses.size() > MAX_RECENT_PAUSES) {
+        recentPauses.removeFirst();
+      }
+      latestPauseEndTime = Math.max(latestPauseEndTime, pauseEndTime);
+
+      intervalPauseCount++;
+      intervalPauseNanos = intervalPauseNanos + pauseNanos;
+      intervalMaxPauseNanos = Math.max(intervalMaxPauseNanos, pauseNanos);
+    }
+
+  }
+
+  /**
+   * 所有請求完成後呼叫, 取樣最後一個未滿一秒的區間, 移除 GC 通知並關閉健康紀錄檔, 寫入曾失敗時拋出例外
+   */
+  public void stop() throws CustomApplicationException {
+
+    if (sampleScheduler == null) {
+      return;
+    }
+
+    sampleScheduler.shutdown();
+    try {
+      sampleScheduler.awaitTermination(SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for generator health monitor...", e);
+    }
+
+    synchronized (this) {
+      sample(true);
+
+      for (NotificationEmitter gcEmitter : gcEmitters) {
+        try {
+          gcEmitter.removeNotificationListener(gcListener);
+        } catch (ListenerNotFoundException e) {
+          /* 已移除 */
+        }
+      }
+      gcEmitters.clear();
+
+      if (healthWriter != null) {
+        try {
+          healthWriter.close();
+        } catch (IOException e) {
+          writeFailure = e;
+        }
+        healthWriter = null;
+      }
+    }
+
+    if (writeFailure != null) {
+      throw new CustomApplicationException("發生IO Exception", writeFailure, new Object[]{healthFilePath});
+    }
+
+    if (healthFilePath != null) {
+      monitorLogger.info("負載產生端的健康紀錄已儲存於 {} ", healthFilePath);
+    }
+
+  }
+
+  /**
+   * @param lastInterval 是否為結束時未滿一秒的最後一個區間
+   */
+  private synchronized void sample(boolean lastInterval) {
+
+    long sampleTime = System.nanoTime();
+    long intervalNanos = sampleTime - lastSampleTime;
+    lastSampleTime = sampleTime;
+    if (intervalNanos <= 0 || (lastInterval && intervalNanos < TimeUnit.MILLISECONDS.toNanos(100))) {
+      return;
+    }
+
+    /* 程序 CPU 以所有核心為 100% */
+    long processCpuTime = getProcessCpuTime();
+    double processCpuPercent = processCpuTime < 0 ? 0 : toPercent(processCpuTime - lastProcessCpuTime, intervalNanos * availableProcessors);
+    lastProcessCpuTime = processCpuTime;
+
+    /* 工作執行緒以單一核心為 100%, 只有一條 I/O 執行緒的非阻塞模式看最忙的執行緒即可知道是否飽和 */
+    Map<Long, Long> workerCpuTimes = readWorkerCpuTimes();
+    long workerCpuNanos = 0;
+    long busiestWorkerCpuNanos = 0;
+    for (Map.Entry<Long, Long> workerCpuTime : workerCpuTimes.entrySet()) {
+      long cpuNanos = workerCpuTime.getValue() - lastWorkerCpuTimes.getOrDefault(workerCpuTime.getKey(), 0L);
+      workerCpuNanos = workerCpuNanos + cpuNanos;
+      busiestWorkerCpuNanos = Math.max(busiestWorkerCpuNanos, cpuNanos);
+    }
+    lastWorkerCpuTimes = workerCpuTimes;
+    double busiestWorkerCpuPercent = toPercent(busiestWorkerCpuNanos, intervalNanos);
+
+    MemoryUsage heapUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+    int pauseCount;
+    long pauseNanos;
+    long maxPauseNanos;
+    synchronized (recentPauses) {
+      pauseCount = intervalPauseCount;
+      pauseNanos = intervalPauseNanos;
+      maxPauseNanos = intervalMaxPauseNanos;
+      intervalPauseCount = 0;
+      intervalPauseNanos = 0;
+      intervalMaxPauseNanos = 0;
+    }
+
+    Histogram lagHistogram = schedulingLagRecorder.getIntervalHistogram(recycledLagHistogram);
+    recycledLagHistogram = lagHistogram;
+
+    boolean cpuSaturated = processCpuPercent >= CPU_SATURATED_PERCENT || busiestWorkerCpuPercent >= CPU_SATURATED_PERCENT;
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    sequence++;
+    HealthSampleData sampleData = HealthSampleData.builder()
+        .sequence(sequence)
+        .elapsedTime(Math.round((sampleTime - runStartTime) / NANOS_PER_SECOND * decimalPlaceFactor) / decimalPlaceFactor)
+        .processCpuPercent(round(processCpuPercent))
+        .systemCpuPercent(round(getSystemCpuPercent()))
+        .workerThreadCount(workerCpuTimes.size())
+        .workerCpuPercent(round(toPercent(workerCpuNanos, intervalNanos)))
+        .busiestWorkerCpuPercent(round(busiestWorkerCpuPercent))
+        .heapUsedMb(heapUsage.getUsed() / BYTES_PER_MB)
+        .heapCommittedMb(heapUsage.getCommitted() / BYTES_PER_MB)
+        .heapMaxMb(heapUsage.getMax() < 0 ? null : heapUsage.getMax() / BYTES_PER_MB)
+        .gcPauseCount(pauseCount)
+        .gcPauseTime(TimeUnit.NANOSECONDS.toMillis(pauseNanos))
+        .maxGcPause(TimeUnit.NANOSECONDS.toMillis(maxPauseNanos))
+        .schedulingLagP99(lagHistogram.getTotalCount() == 0 ? 0 : lagHistogram.getValueAtPercentile(99.0))
+        .schedulingLagMax(lagHistogram.getTotalCount() == 0 ? 0 : lagHistogram.getMaxValue())
+        .cpuSaturated(cpuSaturated)
+        .build();
+
+    /* 累計摘要 */
+    totalProcessCpuPercent = totalProcessCpuPercent + processCpuPercent;
+    maxProcessCpuPercent = Math.max(maxProcessCpuPercent, processCpuPercent);
+    maxBusiestWorkerCpuPercent = Math.max(maxBusiestWorkerCpuPercent, busiestWorkerCpuPercent);
+    cpuSaturatedSampleCount = cpuSaturatedSampleCount + (cpuSaturated ? 1 : 0);
+    gcPauseCount = gcPauseCount + pauseCount;
+    gcPauseNanos = gcPauseNanos + pauseNanos;
+    maxGcPauseNanos = Math.max(maxGcPauseNanos, maxPauseNanos);
+    maxHeapUsedBytes = Math.max(maxHeapUsedBytes, heapUsage.getUsed());
+    heapMaxBytes = heapUsage.getMax();
+    schedulingLagMax = Math.max(schedulingLagMax, sampleData.getSchedulingLagMax());
+
+    /* 進入飽和時即時警告一次, 持續飽和期間不重複 */
+    if (cpuSaturated && !saturated) {
+      monitorLogger.warn("[{} s] 負載產生端的 CPU 已飽和(程序 {} %, 最忙的工作執行緒 {} %), 此後的耗時可能包含本程式的排隊時間",
+          sampleData.getElapsedTime(), sampleData.getProcessCpuPercent(), sampleData.getBusiestWorkerCpuPercent());
+    }
+    saturated = cpuSaturated;
+    if (maxPauseNanos > 0 && TimeUnit.NANOSECONDS.toMicros(maxPauseNanos) > SCHEDULING_LAG_WARNING_MICROS) {
+      monitorLogger.warn("[{} s] 負載產生端發生 GC 停頓 {} 次, 共 {} ms, 最長 {} ms", sampleData.getElapsedTime(), pauseCount,
+          sampleData.getGcPauseTime(), sampleData.getMaxGcPause());
+    }
+
+    writeSample(sampleData);
+
+  }
+
+  private Map<Long, Long> readWorkerCpuTimes() {
+
+    Map<Long, Long> workerCpuTimes = new HashMap<>();
+    if (!threadBean.isThreadCpuTimeSupported()) {
+      return workerCpuTimes;
+    }
+
+    long[] threadIds = threadBean.getAllThreadIds();
+    ThreadInfo[] threadInfos = threadBean.getThreadInfo(threadIds);
+    for (int index = 0; index < threadIds.length; index++) {
+      if (threadInfos[index] == null || !workerThreadFilter.test(threadInfos[index].getThreadName())) {
+        continue;
+      }
+      /* 執行緒已結束時為 -1 */
+      long cpuTime = threadBean.getThreadCpuTime(threadIds[index]);
+      if (cpuTime >= 0) {
+        workerCpuTimes.put(threadIds[index], cpuTime);
+      }
+    }
+
+    return workerCpuTimes;
+
+  }
+
+  private long getProcessCpuTime() {
+    if (operatingSystemBean instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) operatingSystemBean).getProcessCpuTime();
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("deprecation")
+  private double getSystemCpuPercent() {
+    if (operatingSystemBean instanceof com.sun.management.OperatingSystemMXBean) {
+      double systemCpuLoad = ((com.sun.management.OperatingSystemMXBean) operatingSystemBean).getSystemCpuLoad();
+      return systemCpuLoad < 0 ? 0 : systemCpuLoad * 100;
+    }
+    return 0;
+  }
+
+  private static double toPercent(long cpuNanos, long wallNanos) {
+    return wallNanos <= 0 ? 0 : 100.0 * cpuNanos / wallNanos;
+  }
+
+  private static double round(double value) {
+    double decimalPlaceFactor = Math.pow(10, 2);
+    return Math.round(value * decimalPlaceFactor) / decimalPlaceFactor;
+  }
+
+  private void writeSample(HealthSampleData sampleData) {
+
+    if (healthWriter == null || writeFailure != null) {
+      return;
+    }
+
+    try {
+      gson.toJson(sampleData, healthWriter);
+      healthWriter.write(System.lineSeparator());
+      healthWriter.flush();
+    } catch (IOException e) {
+      monitorLogger.error("寫入健康紀錄時發生異常, 原因為: {} ", e.getMessage());
+      writeFailure = e;
+    }
+
+  }
+
+  /**
+   * 將整次測試的取樣轉換為摘要, 並列出結果可能受負載產生端影響的原因
+   *
+   * @param totalCount 整次測試的請求數, 用於計算與 GC 停頓重疊的比例
+   */
+  public synchronized GeneratorHealthData toGeneratorHealthData(int totalCount) {
+
+    long gcOverlapCount = gcOverlapCounter.sum();
+
+    List<String> warnings = new ArrayList<>();
+    if (cpuSaturatedSampleCount > 0) {
+      warnings.add("負載產生端的 CPU 有 " + cpuSaturatedSampleCount + " 秒達到飽和(程序或單一工作執行緒 >= " + CPU_SATURATED_PERCENT
+          + " %), 這段期間的耗時可能包含本程式的排隊時間");
+    }
+    if (gcOverlapCount > 0) {
+      warnings.add(gcOverlapCount + " 筆請求(" + round(totalCount == 0 ? 0 : 100.0 * gcOverlapCount / totalCount)
+          + " %)與負載產生端的 GC 停頓重疊, 最長停頓 " + TimeUnit.NANOSECONDS.toMillis(maxGcPauseNanos) + " ms");
+    }
+    if (schedulingLagMax > SCHEDULING_LAG_WARNING_MICROS) {
+      warnings.add("請求於負載產生端等待送出的時間最長 " + HistogramUtils.toMillis(schedulingLagMax) + " ms, 未能依預定的時間送出");
+    }
+
+    return GeneratorHealthData.builder()
+        .sampleCount((int) sequence)
+        .averageProcessCpuPercent(sequence == 0 ? 0 : round(totalProcessCpuPercent / sequence))
+        .maxProcessCpuPercent(round(maxProcessCpuPercent))
+        .maxBusiestWorkerCpuPercent(round(maxBusiestWorkerCpuPercent))
+        .cpuSaturatedSampleCount(cpuSaturatedSampleCount)
+        .gcPauseCount(gcPauseCount)
+        .gcPauseTime(TimeUnit.NANOSECONDS.toMillis(gcPauseNanos))
+        .maxGcPause(TimeUnit.NANOSECONDS.toMillis(maxGcPauseNanos))
+        .maxHeapUsedMb(maxHeapUsedBytes / BYTES_PER_MB)
+        .heapMaxMb(heapMaxBytes < 0 ? null : heapMaxBytes / BYTES_PER_MB)
+        .schedulingLagMax(schedulingLagMax)
+        .gcOverlapCount(gcOverlapCount)
+        .warnings(warnings)
+        .build();
+
+  }
+
+}
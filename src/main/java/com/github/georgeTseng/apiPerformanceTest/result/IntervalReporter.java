@@ -0,0 +1,231 @@
+package com.github.georgeTseng.apiPerformanceTest.result;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.ErrorType;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.IntervalResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import com.google.gson.Gson;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 於背景執行緒每秒顯示前一秒的吞吐量, 失敗數, 耗時與進行中的請求數, 並視需要寫入區間紀錄檔(json lines);
+ * 請求完成時只需記錄到 Recorder, 不會在執行請求的執行緒上輸出; 分散式執行時另由 listener 將每個區間回傳給 coordinator
+ */
+public class IntervalReporter {
+
+  public final static long REPORT_INTERVAL_MILLIS = 1000;
+  public final static int HTTP_OK_STATUS_OK = 200;
+
+  private final static double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Logger reporterLogger = LoggerFactory.getLogger(IntervalReporter.class);
+  private final Gson gson = new Gson();
+
+  private final Recorder latencyRecorder = new Recorder(HistogramUtils.NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+  private final LongAdder errorCounter = new LongAdder();
+  private final LongAdder timeoutCounter = new LongAdder();
+  private final Path intervalFilePath;
+  private final Consumer<IntervalResultData> intervalListener;
+
+  private ScheduledExecutorService reportScheduler;
+  private Writer intervalWriter;
+  private IntSupplier inFlightSupplier;
+  private Histogram recycledHistogram;
+  private long runStartTime;
+  private long lastReportTime;
+  private long sequence;
+  private volatile IOException writeFailure;
+
+  /**
+   * @param intervalFilePath 區間紀錄檔的路徑, 不需輸出檔案時為 null
+   */
+  public IntervalReporter(Path intervalFilePath) {
+    this(intervalFilePath, null);
+  }
+
+  /**
+   * @param intervalFilePath 區間紀錄檔的路徑, 不需輸出檔案時為 null
+   * @param intervalListener 每個區間輸出後呼叫, 收到的區間一律帶有 histogram, 不需要時為 null
+   */
+  public IntervalReporter(Path intervalFilePath, Consumer<IntervalResultData> intervalListener) {
+    this.intervalFilePath = intervalFilePath;
+    this.intervalListener = intervalListener;
+  }
+
+  /**
+   * 測試開始時呼叫, 開啟區間紀錄檔並啟動每秒輸出的背景執行緒
+   *
+   * @param runStartTime 測試開始的時間點(ns)
+   * @param inFlightSupplier 取得目前進行中請求數的方法
+   */
+  public synchronized void start(long runStartTime, IntSupplier inFlightSupplier) throws CustomApplicationException {
+
+    this.runStartTime = runStartTime;
+    this.lastReportTime = runStartTime;
+    this.inFlightSupplier = inFlightSupplier;
+
+    if (intervalFilePath != null) {
+      try {
+        intervalWriter = new BufferedWriter(Files.newBufferedWriter(intervalFilePath, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        reporterLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{intervalFilePath});
+        throw new CustomApplicationException("發生IO Exception", e, new Object[]{intervalFilePath});
+      }
+    }
+
+    reportScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread reporterThread = new Thread(runnable, "interval-reporter");
+      reporterThread.setDaemon(true);
+      return reporterThread;
+    });
+    reportScheduler.scheduleAtFixedRate(() -> report(false), REPORT_INTERVAL_MILLIS, REPORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+  }
+
+  /**
+   * 記錄單次請求的結果, 可由多條執行緒同時呼叫
+   *
+   * @param testData 單次請求的結果
+   */
+  public void record(PerformanceTestData testData) {
+
+    latencyRecorder.recordValue(testData.getOperateTimeInMicros());
+
+    if (HTTP_OK_STATUS_OK != testData.getStatusCode() || testData.getErrorType() != null) {
+      errorCounter.increment();
+    }
+
+    if (ErrorType.isTimeout(testData.getErrorType())) {
+      timeoutCounter.increment();
+    }
+
+  }
+
+  /**
+   * 所有請求完成後呼叫, 輸出最後一個未滿一秒的區間並關閉區間紀錄檔, 寫入曾失敗時拋出例外
+   */
+  public void stop() throws CustomApplicationException {
+
+    if (reportScheduler == null) {
+      return;
+    }
+
+    reportScheduler.shutdown();
+    try {
+      reportScheduler.awaitTermination(REPORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for interval reporter...", e);
+    }
+
+    synchronized (this) {
+      report(true);
+
+      if (intervalWriter != null) {
+        try {
+          intervalWriter.close();
+        } catch (IOException e) {
+          writeFailure = e;
+        }
+        intervalWriter = null;
+      }
+    }
+
+    if (writeFailure != null) {
+      throw new CustomApplicationException("發生IO Exception", writeFailure, new Object[]{intervalFilePath});
+    }
+
+    if (intervalFilePath != null) {
+      reporterLogger.info("每秒的區間紀錄已儲存於 {} ", intervalFilePath);
+    }
+
+  }
+
+  /**
+   * @param lastInterval 是否為結束時未滿一秒的最後一個區間, 此時沒有任何請求完成則不輸出
+   */
+  private synchronized void report(boolean lastInterval) {
+
+    long reportTime = System.nanoTime();
+    double intervalSeconds = (reportTime - lastReportTime) / NANOS_PER_SECOND;
+    lastReportTime = reportTime;
+
+    /* 取出本區間的耗時並重置, 上一個區間的 Histogram 回收重複使用 */
+    Histogram intervalHistogram = latencyRecorder.getIntervalHistogram(recycledHistogram);
+    recycledHistogram = intervalHistogram;
+    long requestCount = intervalHistogram.getTotalCount();
+    long errorCount = errorCounter.sumThenReset();
+    long timeoutCount = timeoutCounter.sumThenReset();
+
+    if (intervalSeconds <= 0 || (lastInterval && requestCount == 0)) {
+      return;
+    }
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    sequence++;
+    IntervalResultData intervalData = IntervalResultData.builder()
+        .sequence(sequence)
+        .elapsedTime(Math.round((reportTime - runStartTime) / NANOS_PER_SECOND * decimalPlaceFactor) / decimalPlaceFactor)
+        .intervalTime(Math.round(intervalSeconds * decimalPlaceFactor) / decimalPlaceFactor)
+        .requestCount(requestCount)
+        .errorCount(errorCount)
+        .timeoutCount(timeoutCount)
+        .requestsPerSecond(Math.round(requestCount / intervalSeconds * decimalPlaceFactor) / decimalPlaceFactor)
+        .errorsPerSecond(Math.round(errorCount / intervalSeconds * decimalPlaceFactor) / decimalPlaceFactor)
+        .p50(intervalHistogram.getValueAtPercentile(50.0))
+        .p99(intervalHistogram.getValueAtPercentile(99.0))
+        .max(intervalHistogram.getMaxValue())
+        .inFlight(inFlightSupplier.getAsInt())
+        .build();
+
+    reporterLogger.info("[{} s] {} 次/秒, 失敗 {} 次/秒(逾時 {} 次), p50 {} ms, p99 {} ms, 進行中 {} ", intervalData.getElapsedTime(),
+        intervalData.getRequestsPerSecond(), intervalData.getErrorsPerSecond(), timeoutCount, HistogramUtils.toMillis(intervalData.getP50()),
+        HistogramUtils.toMillis(intervalData.getP99()), intervalData.getInFlight());
+
+    /* 保留完整的區間分布, 事後可合併任意時間範圍或多個 agent 的結果重新計算百分位數 */
+    if (intervalWriter != null || intervalListener != null) {
+      intervalData.setHistogram(HistogramUtils.encodeHistogram(intervalHistogram));
+    }
+
+    writeInterval(intervalData);
+
+    if (intervalListener != null) {
+      intervalListener.accept(intervalData);
+    }
+
+  }
+
+  private void writeInterval(IntervalResultData intervalData) {
+
+    if (intervalWriter == null || writeFailure != null) {
+      return;
+    }
+
+    try {
+      gson.toJson(intervalData, intervalWriter);
+      intervalWriter.write(System.lineSeparator());
+      intervalWriter.flush();
+    } catch (IOException e) {
+      reporterLogger.error("寫入區間紀錄時發生異常, 原因為: {} ", e.getMessage());
+      writeFailure = e;
+    }
+
+  }
+
+}
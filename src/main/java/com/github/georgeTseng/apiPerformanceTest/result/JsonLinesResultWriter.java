@@ -0,0 +1,126 @@
+package com.github.georgeTseng.apiPerformanceTest.result;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 於背景執行緒將每次請求的結果以一行一筆的精簡 json 寫入檔案
+ */
+public class JsonLinesResultWriter {
+
+  public final static int QUEUE_CAPACITY = 8192;
+  public final static int WRITER_BUFFER_SIZE = 64 * 1024;
+
+  /* 通知背景執行緒結束用的物件 */
+  private final static PerformanceTestData END_OF_RESULTS = new PerformanceTestData();
+
+  private final Logger writerLogger = LoggerFactory.getLogger(JsonLinesResultWriter.class);
+  private final Gson gson = new Gson();
+
+  private final Path filePath;
+  private final BlockingQueue<PerformanceTestData> resultQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private final Thread writerThread;
+  private volatile Exception writeFailure;
+
+  /**
+   * 開啟檔案並啟動背景寫入的執行緒, 失敗時拋出例外
+   *
+   * @param filePath 要寫入的檔案路徑
+   */
+  public JsonLinesResultWriter(Path filePath) throws CustomApplicationException {
+
+    this.filePath = filePath;
+
+    Writer writer;
+    try {
+      writer = new BufferedWriter(Files.newBufferedWriter(filePath, StandardCharsets.UTF_8), WRITER_BUFFER_SIZE);
+    } catch (IOException e) {
+      writerLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{filePath});
+      throw new CustomApplicationException("發生IO Exception", e, new Object[]{filePath});
+    }
+
+    this.writerThread = new Thread(() -> writeResults(writer), "result-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+
+  }
+
+  /**
+   * 將單次請求的結果排入佇列, 佇列已滿時等待背景執行緒寫出; 寫入已失敗時直接略過, 不讓執行請求的執行緒等待
+   *
+   * @param testData 單次請求的結果
+   */
+  public void write(PerformanceTestData testData) {
+    if (writeFailure != null) {
+      return;
+    }
+    try {
+      resultQueue.put(testData);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      writerLogger.error("無法將第 {} 次的結果排入寫入佇列", testData.getTaskCount());
+    }
+  }
+
+  /**
+   * 等待佇列中的結果全部寫出後關閉檔案, 寫入曾失敗時拋出例外
+   */
+  public void close() throws CustomApplicationException {
+
+    try {
+      /* 背景執行緒寫入失敗後仍會持續取出並丟棄, 仍在執行時佇列必定會空出位置 */
+      if (writerThread.isAlive()) {
+        resultQueue.put(END_OF_RESULTS);
+      }
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for result writer...", e);
+    }
+
+    if (writeFailure != null) {
+      throw new CustomApplicationException("發生IO Exception", writeFailure, new Object[]{filePath});
+    }
+
+    writerLogger.info("逐次測試結果已儲存於 {} ", filePath);
+
+  }
+
+  private void writeResults(Writer writer) {
+
+    try {
+      PerformanceTestData testData = null;
+      try (Writer resultWriter = writer) {
+        while ((testData = resultQueue.take()) != END_OF_RESULTS) {
+          gson.toJson(testData, resultWriter);
+          resultWriter.write(System.lineSeparator());
+        }
+      } catch (IOException | JsonIOException e) {
+        /* gson 寫入失敗時將 IOException 包裝成 JsonIOException */
+        writerLogger.error("寫入逐次測試結果時發生異常, 之後的結果不再寫出, 原因為: {} ", e.getMessage());
+        writeFailure = e;
+      }
+
+      /* 寫入失敗後持續取出並丟棄直到結束, 避免等待排入佇列的執行緒與 close 卡住 */
+      while (testData != END_OF_RESULTS) {
+        testData = resultQueue.take();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+  }
+
+}
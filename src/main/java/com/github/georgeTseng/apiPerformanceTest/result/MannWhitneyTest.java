@@ -0,0 +1,111 @@
+package com.github.georgeTseng.apiPerformanceTest.result;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+/**
+ * 以兩個 Histogram 計算 Mann-Whitney U 檢定, 同一個 bucket 內的值視為相同並以平均等級處理, 不需保留逐次的耗時;
+ * 樣本數大, 以含同分修正的常態近似計算單尾 p 值, 檢定比較組是否較基準組慢
+ */
+public class MannWhitneyTest {
+
+  private final double uStatistic;
+  private final double zScore;
+  private final double pValue;
+  private final double probabilityOfSuperiority;
+
+  private MannWhitneyTest(double uStatistic, double zScore, double pValue, double probabilityOfSuperiority) {
+    this.uStatistic = uStatistic;
+    this.zScore = zScore;
+    this.pValue = pValue;
+    this.probabilityOfSuperiority = probabilityOfSuperiority;
+  }
+
+  /**
+   * 兩個 Histogram 需使用相同的有效位數, bucket 的邊界才會一致
+   *
+   * @param baseline 基準組的耗時
+   * @param candidate 比較組的耗時
+   */
+  public static MannWhitneyTest test(Histogram baseline, Histogram candidate) {
+
+    /* 依 bucket 合併兩組的筆數, 依值由小到大排列 */
+    TreeMap<Long, long[]> bucketCounts = new TreeMap<>();
+    addCounts(bucketCounts, baseline, 0);
+    addCounts(bucketCounts, candidate, 1);
+
+    double baselineCount = baseline.getTotalCount();
+    double candidateCount = candidate.getTotalCount();
+    double totalCount = baselineCount + candidateCount;
+
+    /* 同一 bucket 的所有值取平均等級, 並累計同分修正項 */
+    double candidateRankSum = 0;
+    double tieCorrection = 0;
+    double rankedCount = 0;
+    for (long[] counts : bucketCounts.values()) {
+      double tiedCount = counts[0] + counts[1];
+      double averageRank = rankedCount + (tiedCount + 1) / 2;
+      candidateRankSum = candidateRankSum + counts[1] * averageRank;
+      tieCorrection = tieCorrection + tiedCount * tiedCount * tiedCount - tiedCount;
+      rankedCount = rankedCount + tiedCount;
+    }
+
+    double uStatistic = candidateRankSum - candidateCount * (candidateCount + 1) / 2;
+    double meanU = baselineCount * candidateCount / 2;
+    double varianceU = baselineCount * candidateCount / 12 * ((totalCount + 1) - tieCorrection / (totalCount * (totalCount - 1)));
+
+    /* 單尾檢定, 含連續性修正; 所有值皆相同時變異數為 0, 視為沒有差異 */
+    double zScore = varianceU > 0 ? (uStatistic - meanU - 0.5) / Math.sqrt(varianceU) : 0;
+    double pValue = varianceU > 0 ? 1 - standardNormalCdf(zScore) : 1;
+
+    return new MannWhitneyTest(uStatistic, zScore, pValue, uStatistic / (baselineCount * candidateCount));
+
+  }
+
+  private static void addCounts(Map<Long, long[]> bucketCounts, Histogram histogram, int group) {
+    for (HistogramIterationValue iterationValue : histogram.recordedValues()) {
+      bucketCounts.computeIfAbsent(histogram.lowestEquivalentValue(iterationValue.getValueIteratedTo()), value -> new long[2])[group] +=
+          iterationValue.getCountAtValueIteratedTo();
+    }
+  }
+
+  /**
+   * 標準常態分佈的累積機率, 以 erfc 的 Chebyshev 近似計算, 誤差小於 1.2e-7
+   */
+  private static double standardNormalCdf(double z) {
+
+    double x = Math.abs(z) / Math.sqrt(2);
+    double t = 1 / (1 + 0.5 * x);
+    double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+        + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+        + t * (-0.82215223 + t * 0.17087277)))))))));
+
+    return z >= 0 ? 1 - erfc / 2 : erfc / 2;
+
+  }
+
+  public double getUStatistic() {
+    return uStatistic;
+  }
+
+  public double getZScore() {
+    return zScore;
+  }
+
+  /**
+   * 比較組不比基準組慢的虛無假設下, 觀察到此差異或更大差異的機率
+   */
+  public double getPValue() {
+    return pValue;
+  }
+
+  /**
+   * 隨機各取一次請求時比較組較慢的機率, 相同時各計一半
+   */
+  public double getProbabilityOfSuperiority() {
+    return probabilityOfSuperiority;
+  }
+
+}
@@ -0,0 +1,386 @@
+package com.github.georgeTseng.apiPerformanceTest.result;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.ErrorType;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
+import com.github.georgeTseng.apiPerformanceTest.enums.TimingPhase;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.AggregateSnapshotData;
+import com.github.georgeTseng.apiPerformanceTest.model.ErrorResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StageResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StepResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.WarmUpResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.WorkflowStepData;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 隨著每次請求完成即時累計統計值, 不保留任何單次的結果, 記憶體用量不會隨請求次數增加
+ */
+public class PerformanceResultAggregator {
+
+  public final static int HTTP_OK_STATUS_OK = 200;
+  private final static double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  private final Histogram latencyHistogram = HistogramUtils.createLatencyHistogram();
+  private final Map<TimingPhase, Histogram> phaseHistograms = HistogramUtils.createPhaseHistograms();
+
+  /* 各錯誤類型的耗時, 筆數即 Histogram 的總筆數; 只有發生過的類型才建立 */
+  private final Map<String, Histogram> errorHistograms = new TreeMap<>();
+
+  private int totalCount;
+  private int okCount;
+  private int ngCount;
+  private long totalOperateTime;
+  private long bestOperateTime;
+  private long worstOperateTime;
+  private long totalResponseBytes;
+  private long totalWireBytes;
+  /* 取得回應大小的筆數, 平均大小以此為分母; 未取得回應的失敗不計入 */
+  private int sizedResponseCount;
+  private int cachedCount;
+  private int abortedCount;
+
+  /**
+   * 累計單次請求的結果
+   *
+   * @param testData 單次請求的結果
+   */
+  public synchronized void record(PerformanceTestData testData) {
+
+    long currentOperateTime = testData.getOperateTime();
+    if (worstOperateTime < currentOperateTime) {
+      worstOperateTime = currentOperateTime;
+    }
+
+    if (totalCount == 0 || bestOperateTime > currentOperateTime) {
+      bestOperateTime = currentOperateTime;
+    }
+
+    /* 200 但內文無法解析時另有錯誤類型, 不計為成功 */
+    if (HTTP_OK_STATUS_OK == testData.getStatusCode() && testData.getErrorType() == null) {
+      okCount++;
+    } else {
+      ngCount++;
+    }
+
+    totalCount++;
+    totalOperateTime = totalOperateTime + currentOperateTime;
+    if (testData.getResponseBytes() != null && testData.getResponseBytes() >= 0) {
+      sizedResponseCount++;
+      totalResponseBytes = totalResponseBytes + testData.getResponseBytes();
+      if (testData.getWireBytes() != null && testData.getWireBytes() >= 0) {
+        totalWireBytes = totalWireBytes + testData.getWireBytes();
+      }
+    }
+
+    latencyHistogram.recordValue(testData.getOperateTimeInMicros());
+    HistogramUtils.recordPhases(phaseHistograms, testData);
+
+    if (testData.getErrorType() != null) {
+      errorHistograms.computeIfAbsent(testData.getErrorType(), errorType -> HistogramUtils.createLatencyHistogram())
+          .recordValue(testData.getOperateTimeInMicros());
+    }
+
+  }
+
+  /**
+   * 累計流程步驟使用快取而未送出的次數
+   */
+  public synchronized void recordCached() {
+    cachedCount++;
+  }
+
+  /**
+   * 累計流程步驟無法取出值而中止流程的次數
+   */
+  public synchronized void recordAborted() {
+    abortedCount++;
+  }
+
+  public synchronized int getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * 將目前累計的統計值連同完整的 Histogram 轉換為可合併的 AggregateSnapshotData 物件
+   */
+  public synchronized AggregateSnapshotData toSnapshotData() {
+
+    Map<String, String> encodedPhaseHistograms = new LinkedHashMap<>();
+    for (Map.Entry<TimingPhase, Histogram> phaseHistogram : phaseHistograms.entrySet()) {
+      encodedPhaseHistograms.put(phaseHistogram.getKey().getKey(), HistogramUtils.encodeHistogram(phaseHistogram.getValue()));
+    }
+
+    Map<String, String> encodedErrorHistograms = new LinkedHashMap<>();
+    for (Map.Entry<String, Histogram> errorHistogram : errorHistograms.entrySet()) {
+      encodedErrorHistograms.put(errorHistogram.getKey(), HistogramUtils.encodeHistogram(errorHistogram.getValue()));
+    }
+
+    return AggregateSnapshotData.builder()
+        .totalCount(totalCount)
+        .okCount(okCount)
+        .ngCount(ngCount)
+        .totalOperateTime(totalOperateTime)
+        .bestOperateTime(bestOperateTime)
+        .worstOperateTime(worstOperateTime)
+        .totalResponseBytes(totalResponseBytes)
+        .totalWireBytes(totalWireBytes)
+        .sizedResponseCount(sizedResponseCount)
+        .cachedCount(cachedCount)
+        .abortedCount(abortedCount)
+        .latencyHistogram(HistogramUtils.encodeHistogram(latencyHistogram))
+        .phaseHistograms(encodedPhaseHistograms)
+        .errorHistograms(encodedErrorHistograms)
+        .build();
+
+  }
+
+  /**
+   * 合併其他 aggregator 的統計值, 百分位數由合併後的 Histogram 重新計算; 資料無法還原時拋出例外
+   *
+   * @param snapshotData 由 toSnapshotData 產生的統計值
+   */
+  public synchronized void merge(AggregateSnapshotData snapshotData) throws CustomApplicationException {
+
+    if (snapshotData == null) {
+      return;
+    }
+
+    /* 流程步驟可能只有使用快取的次數而沒有送出任何請求 */
+    if (snapshotData.getCachedCount() != null) {
+      cachedCount = cachedCount + snapshotData.getCachedCount();
+    }
+    if (snapshotData.getAbortedCount() != null) {
+      abortedCount = abortedCount + snapshotData.getAbortedCount();
+    }
+
+    if (snapshotData.getTotalCount() == null || snapshotData.getTotalCount() == 0) {
+      return;
+    }
+
+    if (totalCount == 0 || bestOperateTime > snapshotData.getBestOperateTime()) {
+      bestOperateTime = snapshotData.getBestOperateTime();
+    }
+    worstOperateTime = Math.max(worstOperateTime, snapshotData.getWorstOperateTime());
+
+    totalCount = totalCount + snapshotData.getTotalCount();
+    okCount = okCount + snapshotData.getOkCount();
+    ngCount = ngCount + snapshotData.getNgCount();
+    totalOperateTime = totalOperateTime + snapshotData.getTotalOperateTime();
+    totalResponseBytes = totalResponseBytes + snapshotData.getTotalResponseBytes();
+    if (snapshotData.getTotalWireBytes() != null) {
+      totalWireBytes = totalWireBytes + snapshotData.getTotalWireBytes();
+    }
+    /* 舊版 agent 未回報取得大小的筆數, 以總筆數代替 */
+    sizedResponseCount = sizedResponseCount +
+        (snapshotData.getSizedResponseCount() == null ? snapshotData.getTotalCount() : snapshotData.getSizedResponseCount());
+
+    latencyHistogram.add(HistogramUtils.decodeHistogram(snapshotData.getLatencyHistogram()));
+    if (snapshotData.getPhaseHistograms() != null) {
+      for (Map.Entry<TimingPhase, Histogram> phaseHistogram : phaseHistograms.entrySet()) {
+        String encodedHistogram = snapshotData.getPhaseHistograms().get(phaseHistogram.getKey().getKey());
+        if (encodedHistogram != null) {
+          phaseHistogram.getValue().add(HistogramUtils.decodeHistogram(encodedHistogram));
+        }
+      }
+    }
+    if (snapshotData.getErrorHistograms() != null) {
+      for (Map.Entry<String, String> encodedHistogram : snapshotData.getErrorHistograms().entrySet()) {
+        errorHistograms.computeIfAbsent(encodedHistogram.getKey(), errorType -> HistogramUtils.createLatencyHistogram())
+            .add(HistogramUtils.decodeHistogram(encodedHistogram.getValue()));
+      }
+    }
+
+  }
+
+  /**
+   * 將目前累計的統計值轉換為 PerformanceResultFileData 物件
+   *
+   * @param runTime 整次測試的執行時間(ns)
+   * @param requestData 本次測試的請求設定
+   */
+  public synchronized PerformanceResultFileData toResultFileData(long runTime, PerformanceRequestData requestData) {
+
+    long averageOperateTime = totalCount == 0 ? 0 : totalOperateTime / totalCount;
+    double okRate = totalCount == 0 ? 0 : (100 * okCount) / (totalCount * 1.0);
+    double decimalPlaceFactor = Math.pow(10, 2);
+    double okPercent = Math.round((okRate / decimalPlaceFactor) * decimalPlaceFactor);
+
+    double runSeconds = runTime / (double) TimeUnit.SECONDS.toNanos(1);
+    double achievedRate = runSeconds > 0 ? totalCount / runSeconds : 0;
+
+    /* 傳輸量分為實際傳輸與解壓縮後的內文, 用來比較壓縮節省的頻寬 */
+    double wireMegabytesPerSecond = runSeconds > 0 ? totalWireBytes / BYTES_PER_MEGABYTE / runSeconds : 0;
+    double decodedMegabytesPerSecond = runSeconds > 0 ? totalResponseBytes / BYTES_PER_MEGABYTE / runSeconds : 0;
+
+    return PerformanceResultFileData.builder()
+        .totalCount(totalCount)
+        .averageOperateTime(averageOperateTime)
+        .bestOperateTime(bestOperateTime)
+        .worstOperateTime(worstOperateTime)
+        .okPercent(okPercent)
+        .okCount(okCount)
+        .ngCount(ngCount)
+        .latencyPercentiles(HistogramUtils.transIntoLatencyPercentileData(latencyHistogram))
+        .latencyHistogram(HistogramUtils.encodeHistogram(latencyHistogram))
+        .phasePercentiles(HistogramUtils.transIntoPhasePercentileData(phaseHistograms))
+        .errorResults(errorHistograms.isEmpty() ? null : toErrorResultData())
+        .runTime(TimeUnit.NANOSECONDS.toMillis(runTime))
+        .targetRate(requestData.getTargetRate())
+        .responseMode(requestData.getResponseMode().toString())
+        .bodyConsumed(SupportedResponseMode.SIZE_ONLY != requestData.getResponseMode())
+        .averageResponseBytes(sizedResponseCount == 0 ? 0 : totalResponseBytes / sizedResponseCount)
+        .averageWireBytes(sizedResponseCount == 0 ? 0 : totalWireBytes / sizedResponseCount)
+        .unknownSizeCount(totalCount - sizedResponseCount)
+        .wireMegabytesPerSecond(Math.round(wireMegabytesPerSecond * decimalPlaceFactor) / decimalPlaceFactor)
+        .decodedMegabytesPerSecond(Math.round(decodedMegabytesPerSecond * decimalPlaceFactor) / decimalPlaceFactor)
+        .achievedRate(Math.round(achievedRate * decimalPlaceFactor) / decimalPlaceFactor)
+        .build();
+
+  }
+
+  /**
+   * 將各錯誤類型的筆數與耗時轉換為 ErrorResultData 物件, 依筆數由多至少排列
+   */
+  private List<ErrorResultData> toErrorResultData() {
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+
+    return errorHistograms.entrySet().stream()
+        .map(errorHistogram -> {
+          long count = errorHistogram.getValue().getTotalCount();
+          double percent = totalCount == 0 ? 0 : (100 * count) / (totalCount * 1.0);
+          return ErrorResultData.builder()
+              .errorType(errorHistogram.getKey())
+              .description(ErrorType.getDisplayName(errorHistogram.getKey()))
+              .count((int) count)
+              .percent(Math.round(percent * decimalPlaceFactor) / decimalPlaceFactor)
+              .latencyPercentiles(HistogramUtils.transIntoLatencyPercentileData(errorHistogram.getValue()))
+              .build();
+        })
+        .sorted(Comparator.comparing(ErrorResultData::getCount).reversed())
+        .collect(Collectors.toList());
+
+  }
+
+  /**
+   * 將目前累計的統計值轉換為單一負載階段的 StageResultData 物件
+   *
+   * @param stage 負載階段的設定
+   */
+  public synchronized StageResultData toStageResultData(LoadStageData stage) {
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    double achievedRate = stage.getDuration() > 0 ? totalCount / (double) stage.getDuration() : 0;
+
+    return StageResultData.builder()
+        .stage(stage.getName())
+        .duration(stage.getDuration())
+        .targetConcurrency(stage.getTargetConcurrency())
+        .targetRate(stage.getTargetRate())
+        .totalCount(totalCount)
+        .okCount(okCount)
+        .ngCount(ngCount)
+        .achievedRate(Math.round(achievedRate * decimalPlaceFactor) / decimalPlaceFactor)
+        .latencyPercentiles(HistogramUtils.transIntoLatencyPercentileData(latencyHistogram))
+        .build();
+
+  }
+
+  /**
+   * 將目前累計的統計值轉換為暖機期間的 WarmUpResultData 物件
+   *
+   * @param runTime 暖機的執行時間(ns)
+   */
+  public synchronized WarmUpResultData toWarmUpResultData(long runTime) {
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    double runSeconds = runTime / (double) TimeUnit.SECONDS.toNanos(1);
+    double achievedRate = runSeconds > 0 ? totalCount / runSeconds : 0;
+
+    return WarmUpResultData.builder()
+        .totalCount(totalCount)
+        .okCount(okCount)
+        .ngCount(ngCount)
+        .averageOperateTime(totalCount == 0 ? 0 : totalOperateTime / totalCount)
+        .worstOperateTime(worstOperateTime)
+        .runTime(TimeUnit.NANOSECONDS.toMillis(runTime))
+        .achievedRate(Math.round(achievedRate * decimalPlaceFactor) / decimalPlaceFactor)
+        .latencyPercentiles(HistogramUtils.transIntoLatencyPercentileData(latencyHistogram))
+        .build();
+
+  }
+
+  /**
+   * 將目前累計的統計值轉換為混合多種請求時單一請求的 ScenarioResultData 物件
+   *
+   * @param scenario 請求定義
+   * @param weightPercent 設定的比例(%)
+   * @param allTotalCount 所有請求的總筆數, 用來算出實際送出的比例
+   * @param runTime 整次測試的執行時間(ns)
+   */
+  public synchronized ScenarioResultData toScenarioResultData(ScenarioData scenario, double weightPercent, int allTotalCount, long runTime) {
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    double okRate = totalCount == 0 ? 0 : (100 * okCount) / (totalCount * 1.0);
+    double actualPercent = allTotalCount == 0 ? 0 : (100 * totalCount) / (allTotalCount * 1.0);
+    double runSeconds = runTime / (double) TimeUnit.SECONDS.toNanos(1);
+    double achievedRate = runSeconds > 0 ? totalCount / runSeconds : 0;
+
+    return ScenarioResultData.builder()
+        .scenario(scenario.getName())
+        .httpMethod(scenario.getHttpMethod().toString())
+        .url(scenario.getUrl())
+        .weightPercent(Math.round(weightPercent * decimalPlaceFactor) / decimalPlaceFactor)
+        .actualPercent(Math.round(actualPercent * decimalPlaceFactor) / decimalPlaceFactor)
+        .totalCount(totalCount)
+        .okCount(okCount)
+        .ngCount(ngCount)
+        .okPercent(Math.round(okRate * decimalPlaceFactor) / decimalPlaceFactor)
+        .averageOperateTime(totalCount == 0 ? 0 : totalOperateTime / totalCount)
+        .achievedRate(Math.round(achievedRate * decimalPlaceFactor) / decimalPlaceFactor)
+        .latencyPercentiles(HistogramUtils.transIntoLatencyPercentileData(latencyHistogram))
+        .build();
+
+  }
+
+  /**
+   * 將目前累計的統計值轉換為流程中單一步驟的 StepResultData 物件
+   *
+   * @param step 流程步驟的設定
+   */
+  public synchronized StepResultData toStepResultData(WorkflowStepData step) {
+
+    double decimalPlaceFactor = Math.pow(10, 2);
+    double okRate = totalCount == 0 ? 0 : (100 * okCount) / (totalCount * 1.0);
+
+    return StepResultData.builder()
+        .step(step.getName())
+        .httpMethod(step.getHttpMethod().toString())
+        .url(step.getUrl())
+        .totalCount(totalCount)
+        .okCount(okCount)
+        .ngCount(ngCount)
+        .okPercent(Math.round(okRate * decimalPlaceFactor) / decimalPlaceFactor)
+        .averageOperateTime(totalCount == 0 ? 0 : totalOperateTime / totalCount)
+        .cachedCount(cachedCount)
+        .abortedCount(abortedCount)
+        .latencyPercentiles(HistogramUtils.transIntoLatencyPercentileData(latencyHistogram))
+        .build();
+
+  }
+
+}
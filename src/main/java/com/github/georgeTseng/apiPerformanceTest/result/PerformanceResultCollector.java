@@ -0,0 +1,288 @@
+package com.github.georgeTseng.apiPerformanceTest.result;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.AgentResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.AggregateSnapshotData;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StageResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.StepResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.WarmUpResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.WorkflowStepData;
+import com.github.georgeTseng.apiPerformanceTest.monitor.GeneratorHealthMonitor;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 接收每次請求完成後的結果, 累計至統計值並視需要寫入逐次結果的檔案
+ */
+public class PerformanceResultCollector {
+
+  private final PerformanceResultAggregator aggregator = new PerformanceResultAggregator();
+  private final Map<String, PerformanceResultAggregator> stageAggregators = new ConcurrentHashMap<>();
+  private final Map<String, PerformanceResultAggregator> scenarioAggregators = new ConcurrentHashMap<>();
+  private final Map<String, PerformanceResultAggregator> stepAggregators = new ConcurrentHashMap<>();
+  private final JsonLinesResultWriter resultWriter;
+  private final IntervalReporter intervalReporter;
+
+  /* 測試期間由 runner 設定, 只合併其他 agent 的結果時為 null */
+  private volatile GeneratorHealthMonitor healthMonitor;
+
+  /* 有暖機時由 runner 於暖機結束後設定, 暖機的結果另外累計, 不計入此 collector 的統計值 */
+  private volatile WarmUpResultData warmUpResult;
+
+  /* 等待逾時而強制結束後, 被中斷的請求仍可能回報結果, 此時不再累計 */
+  private volatile boolean closed;
+
+  /**
+   * @param resultWriter 寫入逐次結果用的 writer, 不需輸出檔案時為 null
+   * @param intervalReporter 每秒顯示區間統計的 reporter, 只合併其他 agent 的結果時為 null
+   */
+  public PerformanceResultCollector(JsonLinesResultWriter resultWriter, IntervalReporter intervalReporter) {
+    this.resultWriter = resultWriter;
+    this.intervalReporter = intervalReporter;
+  }
+
+  public void collect(PerformanceTestData testData) {
+
+    if (closed) {
+      return;
+    }
+
+    aggregator.record(testData);
+    if (intervalReporter != null) {
+      intervalReporter.record(testData);
+    }
+
+    /* 依負載階段執行時, 另外累計各階段的統計值 */
+    if (testData.getStage() != null) {
+      stageAggregators.computeIfAbsent(testData.getStage(), stage -> new PerformanceResultAggregator()).record(testData);
+    }
+
+    /* 混合多種請求時, 另外累計各請求的統計值 */
+    if (testData.getScenario() != null) {
+      scenarioAggregators.computeIfAbsent(testData.getScenario(), scenario -> new PerformanceResultAggregator()).record(testData);
+    }
+
+    /* 執行流程時, 另外累計各步驟的統計值 */
+    if (testData.getStep() != null) {
+      getStepAggregator(testData.getStep()).record(testData);
+    }
+
+    if (resultWriter != null) {
+      resultWriter.write(testData);
+    }
+
+  }
+
+  /**
+   * 流程步驟使用快取而未送出時呼叫, 不計入請求次數
+   *
+   * @param step 步驟名稱
+   */
+  public void collectCachedStep(String step) {
+    if (!closed) {
+      getStepAggregator(step).recordCached();
+    }
+  }
+
+  /**
+   * 流程步驟無法取出值而中止流程時呼叫, 此步驟的請求已另外累計
+   *
+   * @param step 步驟名稱
+   */
+  public void collectAbortedStep(String step) {
+    if (!closed) {
+      getStepAggregator(step).recordAborted();
+    }
+  }
+
+  /**
+   * 記錄請求於負載產生端等待送出的時間, 未設定 healthMonitor 時不記錄
+   *
+   * @param lagNanos 等待的時間(ns)
+   */
+  public void recordSchedulingLag(long lagNanos) {
+    GeneratorHealthMonitor currentMonitor = healthMonitor;
+    if (currentMonitor != null) {
+      currentMonitor.recordSchedulingLag(lagNanos);
+    }
+  }
+
+  /**
+   * 請求期間與負載產生端的 GC 停頓重疊時, 將重疊的時間記錄於結果中
+   *
+   * @param testData 單次請求的結果
+   * @param startTime 開始計時的時間點(ns)
+   * @param endTime 結束計時的時間點(ns)
+   */
+  public void markClientGcPause(PerformanceTestData testData, long startTime, long endTime) {
+
+    GeneratorHealthMonitor currentMonitor = healthMonitor;
+    if (currentMonitor == null) {
+      return;
+    }
+
+    long pauseMicros = currentMonitor.getGcPauseOverlapMicros(startTime, endTime);
+    if (pauseMicros > 0) {
+      testData.setClientGcPauseInMicros(pauseMicros);
+    }
+
+  }
+
+  public void setHealthMonitor(GeneratorHealthMonitor healthMonitor) {
+    this.healthMonitor = healthMonitor;
+  }
+
+  public void setWarmUpResult(WarmUpResultData warmUpResult) {
+    this.warmUpResult = warmUpResult;
+  }
+
+  private PerformanceResultAggregator getStepAggregator(String step) {
+    return stepAggregators.computeIfAbsent(step, name -> new PerformanceResultAggregator());
+  }
+
+  public PerformanceResultAggregator getAggregator() {
+    return aggregator;
+  }
+
+  /**
+   * 依設定的順序取出各負載階段的統計值, 沒有任何結果的階段計為 0 筆
+   *
+   * @param stages 負載階段的設定
+   */
+  public List<StageResultData> toStageResultData(List<LoadStageData> stages) {
+    return stages.stream()
+        .map(stage -> stageAggregators.getOrDefault(stage.getName(), new PerformanceResultAggregator()).toStageResultData(stage))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * 依設定的順序取出混合的各請求的統計值, 沒有任何結果的請求計為 0 筆
+   *
+   * @param scenarios 請求定義
+   * @param runTime 整次測試的執行時間(ns)
+   */
+  public List<ScenarioResultData> toScenarioResultData(List<ScenarioData> scenarios, long runTime) {
+
+    double totalWeight = scenarios.stream().mapToDouble(ScenarioData::getWeight).sum();
+    int allTotalCount = aggregator.getTotalCount();
+
+    return scenarios.stream()
+        .map(scenario -> scenarioAggregators.getOrDefault(scenario.getName(), new PerformanceResultAggregator())
+            .toScenarioResultData(scenario, 100 * scenario.getWeight() / totalWeight, allTotalCount, runTime))
+        .collect(Collectors.toList());
+
+  }
+
+  /**
+   * 依設定的順序取出流程各步驟的統計值, 沒有任何結果的步驟計為 0 筆
+   *
+   * @param steps 流程步驟的設定
+   */
+  public List<StepResultData> toStepResultData(List<WorkflowStepData> steps) {
+    return steps.stream()
+        .map(step -> stepAggregators.getOrDefault(step.getName(), new PerformanceResultAggregator()).toStepResultData(step))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * 將整次測試的統計值轉換為 PerformanceResultFileData 物件, 依負載階段執行, 混合多種請求或執行流程時一併附上各階段, 各請求與各步驟的統計值, 有暖機時一併附上暖機的統計值
+   *
+   * @param runTime 整次測試的執行時間(ns)
+   * @param requestData 本次測試的請求設定
+   */
+  public PerformanceResultFileData toResultFileData(long runTime, PerformanceRequestData requestData) {
+
+    PerformanceResultFileData resultData = aggregator.toResultFileData(runTime, requestData);
+    if (requestData.getStages() != null && !requestData.getStages().isEmpty()) {
+      resultData.setStageResults(toStageResultData(requestData.getStages()));
+    }
+    if (requestData.getScenarios() != null && !requestData.getScenarios().isEmpty()) {
+      resultData.setScenarioResults(toScenarioResultData(requestData.getScenarios(), runTime));
+    }
+    if (requestData.getSteps() != null && !requestData.getSteps().isEmpty()) {
+      resultData.setStepResults(toStepResultData(requestData.getSteps()));
+    }
+    if (warmUpResult != null) {
+      resultData.setWarmUpResult(warmUpResult);
+    }
+    if (healthMonitor != null) {
+      resultData.setGeneratorHealth(healthMonitor.toGeneratorHealthData(resultData.getTotalCount()));
+    }
+
+    return resultData;
+
+  }
+
+  /**
+   * 將整次測試, 各負載階段, 各請求與各步驟的統計值轉換為 agent 回傳給 coordinator 的 AgentResultData 物件
+   *
+   * @param runTime 整次測試的執行時間(ns)
+   */
+  public AgentResultData toAgentResultData(long runTime) {
+    return AgentResultData.builder()
+        .runTime(runTime)
+        .aggregate(aggregator.toSnapshotData())
+        .stageAggregates(toSnapshotData(stageAggregators))
+        .scenarioAggregates(toSnapshotData(scenarioAggregators))
+        .stepAggregates(toSnapshotData(stepAggregators))
+        .build();
+  }
+
+  private static Map<String, AggregateSnapshotData> toSnapshotData(Map<String, PerformanceResultAggregator> aggregators) {
+
+    Map<String, AggregateSnapshotData> snapshotDatas = new LinkedHashMap<>();
+    for (Map.Entry<String, PerformanceResultAggregator> namedAggregator : aggregators.entrySet()) {
+      snapshotDatas.put(namedAggregator.getKey(), namedAggregator.getValue().toSnapshotData());
+    }
+
+    return snapshotDatas;
+
+  }
+
+  /**
+   * 合併單一 agent 回傳的結果, 資料無法還原時拋出例外
+   *
+   * @param agentResult agent 回傳的結果
+   */
+  public void merge(AgentResultData agentResult) throws CustomApplicationException {
+
+    aggregator.merge(agentResult.getAggregate());
+    mergeSnapshotData(stageAggregators, agentResult.getStageAggregates());
+    mergeSnapshotData(scenarioAggregators, agentResult.getScenarioAggregates());
+    mergeSnapshotData(stepAggregators, agentResult.getStepAggregates());
+
+  }
+
+  private static void mergeSnapshotData(Map<String, PerformanceResultAggregator> aggregators,
+      Map<String, AggregateSnapshotData> snapshotDatas) throws CustomApplicationException {
+
+    if (snapshotDatas == null) {
+      return;
+    }
+
+    for (Map.Entry<String, AggregateSnapshotData> snapshotData : snapshotDatas.entrySet()) {
+      aggregators.computeIfAbsent(snapshotData.getKey(), name -> new PerformanceResultAggregator()).merge(snapshotData.getValue());
+    }
+
+  }
+
+  /**
+   * 所有請求完成後呼叫, 等待逐次結果全部寫出
+   */
+  public void close() throws CustomApplicationException {
+    closed = true;
+    if (resultWriter != null) {
+      resultWriter.close();
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.github.georgeTseng.apiPerformanceTest.result;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.ComparisonResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.ComparisonThresholdData;
+import com.github.georgeTseng.apiPerformanceTest.model.LatencyPercentileData;
+import com.github.georgeTseng.apiPerformanceTest.model.MetricComparisonData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.utils.HistogramUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 比較基準與比較兩次測試的結果檔; 耗時的增加需同時超過門檻且 Mann-Whitney U 檢定顯著才判定為退化,
+ * 避免只因單次測試的波動而誤判; 成功率與實際速率只依門檻判定
+ */
+public class PerformanceResultComparator {
+
+  private final static double DECIMAL_PLACE_FACTOR = Math.pow(10, 2);
+
+  /**
+   * 比較兩次測試的結果, 結果檔沒有任何請求時拋出例外
+   *
+   * @param baseline 基準的測試結果
+   * @param candidate 比較的測試結果
+   * @param thresholds 判定為退化的門檻
+   */
+  public static ComparisonResultData compare(PerformanceResultFileData baseline, PerformanceResultFileData candidate,
+      ComparisonThresholdData thresholds) throws CustomApplicationException {
+
+    if (isEmpty(baseline) || isEmpty(candidate)) {
+      throw new CustomApplicationException("結果檔沒有任何請求的統計值, 無法比較 , 程式已停止");
+    }
+
+    /* 兩份結果檔皆有 Histogram 時才能進行檢定 */
+    MannWhitneyTest mannWhitneyTest = null;
+    if (baseline.getLatencyHistogram() != null && candidate.getLatencyHistogram() != null) {
+      mannWhitneyTest = MannWhitneyTest.test(HistogramUtils.decodeHistogram(baseline.getLatencyHistogram()),
+          HistogramUtils.decodeHistogram(candidate.getLatencyHistogram()));
+    }
+    boolean significant = mannWhitneyTest == null || mannWhitneyTest.getPValue() < thresholds.getSignificanceLevel();
+
+    List<MetricComparisonData> metrics = new ArrayList<>();
+    metrics.add(compareLatency("mean", baseline, candidate, LatencyPercentileData::getMean, thresholds.getMean()));
+    metrics.add(compareLatency("p50", baseline, candidate, LatencyPercentileData::getP50, thresholds.getP50()));
+    metrics.add(compareLatency("p90", baseline, candidate, LatencyPercentileData::getP90, thresholds.getP90()));
+    metrics.add(compareLatency("p99", baseline, candidate, LatencyPercentileData::getP99, thresholds.getP99()));
+    metrics.add(compareLatency("p99.9", baseline, candidate, LatencyPercentileData::getP999, thresholds.getP999()));
+    metrics.add(compareLatency("max", baseline, candidate, LatencyPercentileData::getMax, null));
+
+    /* 成功率以百分點比較, 下降超過門檻即為退化 */
+    double okPercentChange = candidate.getOkPercent() - baseline.getOkPercent();
+    MetricComparisonData okPercentMetric = MetricComparisonData.builder()
+        .metric("okPercent")
+        .baselineValue(baseline.getOkPercent())
+        .candidateValue(candidate.getOkPercent())
+        .change(round(okPercentChange))
+        .threshold(thresholds.getOkPercent())
+        .exceeded(thresholds.getOkPercent() != null && -okPercentChange > thresholds.getOkPercent())
+        .build();
+
+    /* 實際速率下降超過門檻即為退化, 固定到達速率模式下兩次的速率應相近 */
+    double achievedRateChange = changePercent(baseline.getAchievedRate(), candidate.getAchievedRate());
+    MetricComparisonData achievedRateMetric = MetricComparisonData.builder()
+        .metric("achievedRate")
+        .baselineValue(baseline.getAchievedRate())
+        .candidateValue(candidate.getAchievedRate())
+        .change(round(achievedRateChange))
+        .threshold(thresholds.getAchievedRate())
+        .exceeded(thresholds.getAchievedRate() != null && -achievedRateChange > thresholds.getAchievedRate())
+        .build();
+
+    List<String> regressions = new ArrayList<>();
+    for (MetricComparisonData metric : metrics) {
+      if (metric.getExceeded() && significant) {
+        regressions.add(metric.getMetric() + " 增加 " + metric.getChange() + " % , 超過門檻 " + metric.getThreshold() + " %");
+      }
+    }
+    if (okPercentMetric.getExceeded()) {
+      regressions.add("成功率下降 " + -okPercentMetric.getChange() + " 個百分點 , 超過門檻 " + okPercentMetric.getThreshold());
+    }
+    if (achievedRateMetric.getExceeded()) {
+      regressions.add("實際速率下降 " + -achievedRateMetric.getChange() + " % , 超過門檻 " + achievedRateMetric.getThreshold() + " %");
+    }
+    metrics.add(okPercentMetric);
+    metrics.add(achievedRateMetric);
+
+    return ComparisonResultData.builder()
+        .metrics(metrics)
+        .uStatistic(mannWhitneyTest == null ? null : mannWhitneyTest.getUStatistic())
+        .zScore(mannWhitneyTest == null ? null : round(mannWhitneyTest.getZScore()))
+        .pValue(mannWhitneyTest == null ? null : mannWhitneyTest.getPValue())
+        .probabilityOfSuperiority(mannWhitneyTest == null ? null : Math.round(mannWhitneyTest.getProbabilityOfSuperiority() * 1000) / 1000.0)
+        .significant(mannWhitneyTest == null ? null : significant)
+        .regressions(regressions)
+        .regressed(!regressions.isEmpty())
+        .build();
+
+  }
+
+  private static boolean isEmpty(PerformanceResultFileData resultData) {
+    return resultData.getTotalCount() == null || resultData.getTotalCount() == 0 || resultData.getLatencyPercentiles() == null;
+  }
+
+  /**
+   * 比較單一耗時指標, 以毫秒(ms)顯示, 增加超過門檻時 exceeded 為 true
+   */
+  private static MetricComparisonData compareLatency(String metric, PerformanceResultFileData baseline, PerformanceResultFileData candidate,
+      Function<LatencyPercentileData, Long> percentileGetter, Double threshold) {
+
+    Long baselineMicros = percentileGetter.apply(baseline.getLatencyPercentiles());
+    Long candidateMicros = percentileGetter.apply(candidate.getLatencyPercentiles());
+    double change = changePercent(baselineMicros == null ? null : baselineMicros.doubleValue(),
+        candidateMicros == null ? null : candidateMicros.doubleValue());
+
+    return MetricComparisonData.builder()
+        .metric(metric)
+        .baselineValue(baselineMicros == null ? null : HistogramUtils.toMillis(baselineMicros))
+        .candidateValue(candidateMicros == null ? null : HistogramUtils.toMillis(candidateMicros))
+        .change(round(change))
+        .threshold(threshold)
+        .exceeded(threshold != null && change > threshold)
+        .build();
+
+  }
+
+  /**
+   * 相對於基準的變化(%), 任一值不存在或基準為 0 時為 0
+   */
+  private static double changePercent(Double baselineValue, Double candidateValue) {
+    if (baselineValue == null || candidateValue == null || baselineValue == 0) {
+      return 0;
+    }
+    return 100 * (candidateValue - baselineValue) / baselineValue;
+  }
+
+  private static double round(double value) {
+    return Math.round(value * DECIMAL_PLACE_FACTOR) / DECIMAL_PLACE_FACTOR;
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.github.georgeTseng.apiPerformanceTest.stub;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedEngine;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.CalibrationResultData;
+import com.github.georgeTseng.apiPerformanceTest.model.CalibrationSettingData;
+import com.github.georgeTseng.apiPerformanceTest.model.CalibrationStepData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.StubServerData;
+import com.github.georgeTseng.apiPerformanceTest.result.IntervalReporter;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.task.PerformanceRunner;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 以同一個 JVM 內不延遲的 stub server 為目標執行測試, 量測本程式在此硬體上的耗時下限與最大速率.
+ * 先以一次不計入的測試完成 JIT 編譯, 再以併發數 1 量測耗時下限, 之後併發數逐次倍增直到速率增加不足 5%;
+ * stub server 與本程式共用 CPU, 結果為本程式上限的保守估計
+ */
+public class StubCalibrator {
+
+  private final static Logger calibratorLogger = LoggerFactory.getLogger(StubCalibrator.class);
+
+  private final static String STUB_HOST = "127.0.0.1";
+  private final static String STUB_PATH = "/calibration";
+
+  /* 速率增加不足此比例時視為已達上限 */
+  private final static double SATURATION_GAIN = 0.05;
+
+  /* 不計入結果的暖機測試所使用的併發數 */
+  private final static int WARM_UP_CONCURRENCY = 8;
+
+  /**
+   * 執行自我校準, 設定有誤或 stub server 無法啟動時拋出例外
+   *
+   * @param settingData 自我校準的設定
+   */
+  public static CalibrationResultData calibrate(CalibrationSettingData settingData) throws CustomApplicationException {
+
+    StubTargetServer stubServer = new StubTargetServer(StubServerData.builder()
+        .host(STUB_HOST)
+        .port(0)
+        .errorRate(0.0)
+        .errorStatus(500)
+        .payloadBytes(settingData.getPayloadBytes())
+        .ioThreads(Runtime.getRuntime().availableProcessors())
+        /* 校準 HTTP/2 時 stub server 也以 h2c 回應 */
+        .protocol(SupportedEngine.HTTP2.name().equals(settingData.getEngine()) ? StubTargetServer.PROTOCOL_H2C : StubTargetServer.PROTOCOL_HTTP1)
+        .build());
+
+    try {
+      String url = "http://" + STUB_HOST + ":" + stubServer.start() + STUB_PATH;
+
+      calibratorLogger.info("自我校準: 暖機中, 併發數 {} , {} 秒, 結果不列入計算...", WARM_UP_CONCURRENCY, settingData.getStepDuration());
+      runStep(settingData, url, WARM_UP_CONCURRENCY);
+
+      List<CalibrationStepData> steps = new ArrayList<>();
+      CalibrationStepData floorStep = runStep(settingData, url, 1);
+      steps.add(floorStep);
+
+      /* 併發數倍增, 速率仍明顯增加時繼續 */
+      CalibrationStepData bestStep = floorStep;
+      for (int concurrency = 2; concurrency <= settingData.getMaxConcurrency(); concurrency = concurrency * 2) {
+        CalibrationStepData step = runStep(settingData, url, concurrency);
+        steps.add(step);
+
+        boolean saturated = step.getAchievedRate() < bestStep.getAchievedRate() * (1 + SATURATION_GAIN);
+        if (step.getAchievedRate() > bestStep.getAchievedRate()) {
+          bestStep = step;
+        }
+        if (saturated) {
+          break;
+        }
+      }
+
+      PerformanceRequestData requestData = createRequestData(settingData, url, 1);
+      return CalibrationResultData.builder()
+          .engine(requestData.getEngine().toString())
+          .responseMode(requestData.getResponseMode().toString())
+          .payloadBytes(settingData.getPayloadBytes())
+          .latencyFloor(floorStep.getLatencyPercentiles())
+          .maxRate(bestStep.getAchievedRate())
+          .maxRateConcurrency(bestStep.getConcurrency())
+          .steps(steps)
+          .build();
+    } finally {
+      stubServer.close();
+    }
+
+  }
+
+  private static CalibrationStepData runStep(CalibrationSettingData settingData, String url, int concurrency)
+      throws CustomApplicationException {
+
+    PerformanceRequestData requestData = createRequestData(settingData, url, concurrency);
+    calibratorLogger.info("自我校準: 併發數 {} , 執行 {} 秒...", concurrency, requestData.getRunDuration());
+
+    IntervalReporter intervalReporter = new IntervalReporter(null);
+    PerformanceResultCollector resultCollector = new PerformanceResultCollector(null, intervalReporter);
+    long runTime = PerformanceRunner.run(requestData, resultCollector, intervalReporter);
+    PerformanceResultFileData resultData = resultCollector.toResultFileData(runTime, requestData);
+
+    return CalibrationStepData.builder()
+        .concurrency(concurrency)
+        .totalCount(resultData.getTotalCount())
+        .ngCount(resultData.getNgCount())
+        .achievedRate(resultData.getAchievedRate())
+        .latencyPercentiles(resultData.getLatencyPercentiles())
+        .build();
+
+  }
+
+  /**
+   * 經由與設定檔相同的檢查建立請求設定, 再改為每次執行後不等待, 使每位虛擬使用者連續送出請求
+   */
+  private static PerformanceRequestData createRequestData(CalibrationSettingData settingData, String url, int concurrency)
+      throws CustomApplicationException {
+
+    PerformanceRequestFileData requestFileData = PerformanceRequestFileData.builder()
+        .url(url)
+        .httpMethod(settingData.getHttpMethod())
+        .runDuration(settingData.getStepDuration().toString())
+        .waitTime("1")
+        .concurrency(String.valueOf(concurrency))
+        .engine(settingData.getEngine())
+        .contentType("application/json")
+        .responseMode(settingData.getResponseMode())
+        .build();
+
+    return DataTransferUtils.transIntoPerformanceRequestData(requestFileData, null).toBuilder()
+        .waitTime(0L)
+        .build();
+
+  }
+
+}
@@ -0,0 +1,156 @@
+package com.github.georgeTseng.apiPerformanceTest.stub;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stub server 回應前的延遲分佈, 格式為 種類:參數(ms), 例如 fixed:10, uniform:5-50, exponential:20, normal:20,5,
+ * lognormal:20,200; 建立後不再變更, 可由多條執行緒同時抽樣
+ */
+public class StubLatencyDistribution {
+
+  public final static String NONE = "none";
+  public final static String FIXED = "fixed";
+  public final static String UNIFORM = "uniform";
+  public final static String EXPONENTIAL = "exponential";
+  public final static String NORMAL = "normal";
+  public final static String LOGNORMAL = "lognormal";
+
+  public final static String FORMAT_MESSAGE = "延遲分佈格式為 none, fixed:ms, uniform:最小ms-最大ms, exponential:平均ms, "
+      + "normal:平均ms,標準差ms 或 lognormal:p50ms,p99ms";
+
+  /* 標準常態分佈的 99 百分位數, 由 p50 與 p99 換算對數常態分佈的參數 */
+  private final static double STANDARD_NORMAL_P99 = 2.326348;
+
+  private final String description;
+  private final String type;
+  private final double first;
+  private final double second;
+
+  private StubLatencyDistribution(String description, String type, double first, double second) {
+    this.description = description;
+    this.type = type;
+    this.first = first;
+    this.second = second;
+  }
+
+  /**
+   * 解析延遲分佈, 格式錯誤或參數不合理時拋出例外
+   *
+   * @param latencyValue 延遲分佈的設定, 空白時為不延遲
+   */
+  public static StubLatencyDistribution parse(String latencyValue) throws CustomApplicationException {
+
+    if (latencyValue == null || latencyValue.trim().isEmpty() || NONE.equalsIgnoreCase(latencyValue.trim())) {
+      return new StubLatencyDistribution(NONE, NONE, 0, 0);
+    }
+
+    String description = latencyValue.trim();
+    int separatorIndex = description.indexOf(':');
+    if (separatorIndex <= 0) {
+      throw createFormatException(description);
+    }
+    String type = description.substring(0, separatorIndex).trim().toLowerCase();
+    String parameters = description.substring(separatorIndex + 1).trim();
+
+    switch (type) {
+      case FIXED:
+      case EXPONENTIAL:
+        return new StubLatencyDistribution(description, type, parseMillis(description, parameters), 0);
+      case UNIFORM:
+        double[] bounds = parsePair(description, parameters, "-");
+        if (bounds[1] < bounds[0]) {
+          throw createFormatException(description);
+        }
+        return new StubLatencyDistribution(description, type, bounds[0], bounds[1]);
+      case NORMAL:
+        double[] normalParameters = parsePair(description, parameters, ",");
+        return new StubLatencyDistribution(description, type, normalParameters[0], normalParameters[1]);
+      case LOGNORMAL:
+        double[] percentiles = parsePair(description, parameters, ",");
+        if (percentiles[0] <= 0 || percentiles[1] < percentiles[0]) {
+          throw createFormatException(description);
+        }
+        /* 轉為對數常態分佈的 mu 與 sigma */
+        return new StubLatencyDistribution(description, type, Math.log(percentiles[0]),
+            Math.log(percentiles[1] / percentiles[0]) / STANDARD_NORMAL_P99);
+      default:
+        throw createFormatException(description);
+    }
+
+  }
+
+  private static double[] parsePair(String description, String parameters, String separator) throws CustomApplicationException {
+
+    String[] values = parameters.split(separator);
+    if (values.length != 2) {
+      throw createFormatException(description);
+    }
+
+    return new double[]{parseMillis(description, values[0]), parseMillis(description, values[1])};
+
+  }
+
+  private static double parseMillis(String description, String value) throws CustomApplicationException {
+
+    try {
+      double millis = Double.parseDouble(value.trim());
+      if (millis < 0 || Double.isNaN(millis) || Double.isInfinite(millis)) {
+        throw createFormatException(description);
+      }
+      return millis;
+    } catch (NumberFormatException e) {
+      throw new CustomApplicationException("無效的延遲分佈 - " + description + " , " + FORMAT_MESSAGE, e);
+    }
+
+  }
+
+  private static CustomApplicationException createFormatException(String description) {
+    return new CustomApplicationException("無效的延遲分佈 - " + description + " , " + FORMAT_MESSAGE);
+  }
+
+  /**
+   * 是否不延遲, 不延遲時直接於 I/O 執行緒回應
+   */
+  public boolean isNone() {
+    return NONE.equals(type);
+  }
+
+  /**
+   * 抽樣一次延遲時間(us), 小於 0 的結果視為 0
+   */
+  public long nextDelayMicros() {
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    double millis;
+    switch (type) {
+      case FIXED:
+        millis = first;
+        break;
+      case UNIFORM:
+        millis = first + random.nextDouble() * (second - first);
+        break;
+      case EXPONENTIAL:
+        millis = -Math.log(1 - random.nextDouble()) * first;
+        break;
+      case NORMAL:
+        millis = first + random.nextGaussian() * second;
+        break;
+      case LOGNORMAL:
+        millis = Math.exp(first + random.nextGaussian() * second);
+        break;
+      default:
+        millis = 0;
+    }
+
+    return Math.max(0, Math.round(millis * TimeUnit.MILLISECONDS.toMicros(1)));
+
+  }
+
+  @Override
+  public String toString() {
+    return description;
+  }
+
+}
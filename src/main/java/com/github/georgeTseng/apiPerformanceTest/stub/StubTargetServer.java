@@ -0,0 +1,246 @@
+package com.github.georgeTseng.apiPerformanceTest.stub;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.StubServerData;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 內建的 stub server, 對任何路徑與 Http 方法皆回應固定的 json, 用於在 CI 或本機驗證設定, 以及量測本程式自身的上限.
+ * 以非阻塞的 HttpAsyncServer 實作, 延遲由排程送出回應, 不佔用 I/O 執行緒, 大量延遲中的請求也不會拖慢其他回應.
+ * 可改以 h2c 回應, 用來量測 HTTP/2 的多工連線; 請求的 Accept-Encoding 含 gzip 時, 成功的回應以 gzip 壓縮
+ */
+public class StubTargetServer {
+
+  private final Logger stubLogger = LoggerFactory.getLogger(StubTargetServer.class);
+
+  public final static String PROTOCOL_HTTP1 = "h1";
+  public final static String PROTOCOL_H2C = "h2c";
+
+  private final static String SUCCESS_BODY_PREFIX = "{\"code\":\"0000\",\"message\":\"stub\",\"data\":\"";
+  private final static String SUCCESS_BODY_SUFFIX = "\"}";
+  private final static String GZIP_ENCODING = "gzip";
+  private final static byte[] ERROR_BODY = "{\"code\":\"9999\",\"message\":\"stub error\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final StubServerData stubServerData;
+  private final StubLatencyDistribution latencyDistribution;
+  private final byte[] successBody;
+  private final byte[] gzipSuccessBody;
+  private final LongAdder servedCount = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+
+  private HttpAsyncServer httpAsyncServer;
+  private ScheduledExecutorService delayScheduler;
+
+  /**
+   * 設定有誤時拋出例外
+   *
+   * @param stubServerData stub server 的設定
+   */
+  public StubTargetServer(StubServerData stubServerData) throws CustomApplicationException {
+    this.stubServerData = stubServerData;
+    this.latencyDistribution = StubLatencyDistribution.parse(stubServerData.getLatency());
+    this.successBody = createSuccessBody(stubServerData.getPayloadBytes());
+    this.gzipSuccessBody = gzip(successBody);
+  }
+
+  /**
+   * 預先壓縮成功時的回應內文, 回應時不需再壓縮
+   */
+  private static byte[] gzip(byte[] body) throws CustomApplicationException {
+
+    ByteArrayOutputStream compressedBody = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedBody)) {
+      gzipOutputStream.write(body);
+    } catch (IOException e) {
+      throw new CustomApplicationException("stub server 無法壓縮回應內文", e);
+    }
+
+    return compressedBody.toByteArray();
+
+  }
+
+  /**
+   * 建立成功時的回應內文, 以填充的 data 補足指定大小; 指定大小小於最短的 json 時使用最短的 json
+   */
+  private static byte[] createSuccessBody(int payloadBytes) {
+
+    int paddingLength = Math.max(0, payloadBytes - SUCCESS_BODY_PREFIX.length() - SUCCESS_BODY_SUFFIX.length());
+    char[] padding = new char[paddingLength];
+    Arrays.fill(padding, 'x');
+
+    return (SUCCESS_BODY_PREFIX + new String(padding) + SUCCESS_BODY_SUFFIX).getBytes(StandardCharsets.UTF_8);
+
+  }
+
+  /**
+   * 開始接受連線, 回傳實際使用的 port; 無法開啟 port 時拋出例外
+   */
+  public int start() throws CustomApplicationException {
+
+    delayScheduler = Executors.newSingleThreadScheduledExecutor();
+    httpAsyncServer = H2ServerBootstrap.bootstrap()
+        .setIOReactorConfig(IOReactorConfig.custom()
+            .setIoThreadCount(stubServerData.getIoThreads())
+            .setSoReuseAddress(true)
+            .setTcpNoDelay(true)
+            .build())
+        .register("*", new StubRequestHandler())
+        .create();
+    httpAsyncServer.start();
+
+    InetSocketAddress bindAddress = stubServerData.getHost() == null ?
+        new InetSocketAddress(stubServerData.getPort()) : new InetSocketAddress(stubServerData.getHost(), stubServerData.getPort());
+    try {
+      /* 明文連線無法協商協定, 依設定固定以 HTTP/1.1 或 HTTP/2 回應 */
+      HttpVersionPolicy versionPolicy = PROTOCOL_H2C.equals(stubServerData.getProtocol()) ?
+          HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.FORCE_HTTP_1;
+      ListenerEndpoint listenerEndpoint = httpAsyncServer.listen(bindAddress, URIScheme.HTTP, versionPolicy, null).get();
+      int port = ((InetSocketAddress) listenerEndpoint.getAddress()).getPort();
+      stubLogger.info("stub server 已於 port {} 啟動, 協定: {} , 延遲分佈: {} , 失敗比例: {} (Http {}), 回應大小: {} bytes", port,
+          versionPolicy == HttpVersionPolicy.FORCE_HTTP_2 ? PROTOCOL_H2C : PROTOCOL_HTTP1, latencyDistribution,
+          stubServerData.getErrorRate(), stubServerData.getErrorStatus(), successBody.length);
+      return port;
+    } catch (ExecutionException e) {
+      close();
+      throw new CustomApplicationException("stub server 無法開啟 port " + stubServerData.getPort(), e.getCause());
+    } catch (InterruptedException e) {
+      close();
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("stub server 啟動時被中斷", e);
+    }
+
+  }
+
+  /**
+   * 啟動後持續服務直到程式結束, 結束時(例如 Ctrl+C)顯示累計的回應次數
+   */
+  public void serve() throws CustomApplicationException {
+
+    start();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+
+    try {
+      httpAsyncServer.awaitShutdown(TimeValue.MAX_VALUE);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("stub server 等待時被中斷", e);
+    }
+
+  }
+
+  /**
+   * 停止接受連線並關閉所有連線, 延遲中尚未送出的回應直接捨棄
+   */
+  public synchronized void close() {
+
+    if (httpAsyncServer == null) {
+      return;
+    }
+
+    httpAsyncServer.close(CloseMode.IMMEDIATE);
+    delayScheduler.shutdownNow();
+    httpAsyncServer = null;
+    stubLogger.info("stub server 已關閉, 共回應 {} 次, 其中失敗 {} 次", servedCount.sum(), errorCount.sum());
+
+  }
+
+  /**
+   * 讀取並捨棄請求內文後, 依設定的比例決定成功或失敗, 依延遲分佈決定何時回應
+   */
+  private class StubRequestHandler implements AsyncServerRequestHandler<Message<HttpRequest, Void>> {
+
+    @Override
+    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(HttpRequest request, EntityDetails entityDetails,
+        HttpContext context) {
+      return new BasicRequestConsumer<>(new DiscardingEntityConsumer<>());
+    }
+
+    @Override
+    public void handle(Message<HttpRequest, Void> requestMessage, ResponseTrigger responseTrigger, HttpContext context)
+        throws HttpException, IOException {
+
+      boolean error = stubServerData.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < stubServerData.getErrorRate();
+      Header acceptEncoding = requestMessage.getHead().getFirstHeader(HttpHeaders.ACCEPT_ENCODING);
+      boolean gzip = acceptEncoding != null && acceptEncoding.getValue().toLowerCase(Locale.ROOT).contains(GZIP_ENCODING);
+      if (latencyDistribution.isNone()) {
+        respond(responseTrigger, context, error, gzip);
+        return;
+      }
+
+      long delayMicros = latencyDistribution.nextDelayMicros();
+      delayScheduler.schedule(() -> {
+        try {
+          respond(responseTrigger, context, error, gzip);
+        } catch (HttpException | IOException e) {
+          /* client 已中斷連線時無法回應, 不影響其他請求 */
+          stubLogger.debug("stub server 回應失敗, 原因為: {} ", e.getMessage());
+        }
+      }, delayMicros, TimeUnit.MICROSECONDS);
+
+    }
+
+    private void respond(ResponseTrigger responseTrigger, HttpContext context, boolean error, boolean gzip) throws HttpException,
+        IOException {
+
+      servedCount.increment();
+      if (error) {
+        errorCount.increment();
+      }
+
+      /* 每次回應各自建立 entity producer, 共用同一份已編碼的內文 */
+      if (error) {
+        responseTrigger.submitResponse(AsyncResponseBuilder.create(stubServerData.getErrorStatus())
+            .setEntity(AsyncEntityProducers.create(ERROR_BODY, ContentType.APPLICATION_JSON))
+            .build(), context);
+      } else if (gzip) {
+        responseTrigger.submitResponse(AsyncResponseBuilder.create(200)
+            .setHeader(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING)
+            .setEntity(AsyncEntityProducers.create(gzipSuccessBody, ContentType.APPLICATION_JSON))
+            .build(), context);
+      } else {
+        responseTrigger.submitResponse(AsyncResponseBuilder.create(200)
+            .setEntity(AsyncEntityProducers.create(successBody, ContentType.APPLICATION_JSON))
+            .build(), context);
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 以 alias method(Vose) 依權重抽選編號, 建立時間與項目數成正比, 每次抽選只需兩個亂數與一次比較, 與項目數無關;
+ * 建立後不再變更, 可由多條執行緒同時抽選
+ */
+public class AliasSampler {
+
+  private final double[] probabilities;
+  private final int[] aliases;
+
+  /**
+   * @param weights 各項目的權重, 皆需大於 0
+   */
+  public AliasSampler(double[] weights) {
+
+    int count = weights.length;
+    this.probabilities = new double[count];
+    this.aliases = new int[count];
+
+    double totalWeight = 0;
+    for (double weight : weights) {
+      totalWeight = totalWeight + weight;
+    }
+
+    /* 權重換算為平均值為 1 的比例, 分為不足 1 與至少 1 兩組 */
+    double[] scaledWeights = new double[count];
+    Deque<Integer> smallIndexes = new ArrayDeque<>();
+    Deque<Integer> largeIndexes = new ArrayDeque<>();
+    for (int index = 0; index < count; index++) {
+      scaledWeights[index] = weights[index] * count / totalWeight;
+      if (scaledWeights[index] < 1) {
+        smallIndexes.push(index);
+      } else {
+        largeIndexes.push(index);
+      }
+    }
+
+    /* 每次以一個不足 1 的項目搭配一個較大的項目補滿, 較大項目剩餘的比例再重新分組 */
+    while (!smallIndexes.isEmpty() && !largeIndexes.isEmpty()) {
+      int smallIndex = smallIndexes.pop();
+      int largeIndex = largeIndexes.pop();
+
+      probabilities[smallIndex] = scaledWeights[smallIndex];
+      aliases[smallIndex] = largeIndex;
+
+      scaledWeights[largeIndex] = scaledWeights[largeIndex] + scaledWeights[smallIndex] - 1;
+      if (scaledWeights[largeIndex] < 1) {
+        smallIndexes.push(largeIndex);
+      } else {
+        largeIndexes.push(largeIndex);
+      }
+    }
+
+    /* 剩下的項目僅因浮點數誤差而不等於 1, 一律視為 1 */
+    while (!largeIndexes.isEmpty()) {
+      probabilities[largeIndexes.pop()] = 1;
+    }
+    while (!smallIndexes.isEmpty()) {
+      probabilities[smallIndexes.pop()] = 1;
+    }
+
+  }
+
+  /**
+   * 依權重抽選一個編號
+   */
+  public int sample() {
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int column = random.nextInt(probabilities.length);
+
+    return random.nextDouble() < probabilities[column] ? column : aliases[column];
+
+  }
+
+}
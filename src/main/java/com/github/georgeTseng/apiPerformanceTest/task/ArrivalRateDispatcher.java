@@ -0,0 +1,76 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import com.github.georgeTseng.apiPerformanceTest.engine.PerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 以固定的到達速率送出排程, 送出時間只依排定的時間表決定, 不會因為回應變慢而減少送出的請求
+ */
+public class ArrivalRateDispatcher {
+
+  /* 送出時間晚於排定時間超過此值時, 視為落後時間表 */
+  private final static long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static Logger getLoggerInstance() {
+    return LoggerFactory.getLogger(ArrivalRateDispatcher.class);
+  }
+
+  /**
+   * 依目標速率逐一產生並送出排程, 直到達到總測試次數或超過執行時間; 結果由各排程自行交給 collector, 此處不保留
+   *
+   * @param engine 實際送出請求的 engine, 其併發數即為同時進行中的請求上限
+   * @param taskProducer 產生排程的 producer
+   * @param targetRate 目標速率(次/秒)
+   */
+  public static void dispatch(PerformanceEngine engine, PerformanceTaskProducer taskProducer, double targetRate)
+      throws CustomApplicationException {
+
+    Logger dispatcherLogger = getLoggerInstance();
+
+    /* 兩次送出之間的間隔(ns) */
+    double intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRate;
+
+    long dispatchStartTime = System.nanoTime();
+    long maxLateTime = 0;
+    int lateCount = 0;
+
+    for (int index = 0; ; index++) {
+      /* 依時間表算出本次應送出的時間, 超過執行時間或已達總次數即停止, 時間未到則等待 */
+      long scheduledStartTime = dispatchStartTime + (long) (index * intervalNanos);
+      if (!taskProducer.hasNext(scheduledStartTime)) {
+        break;
+      }
+      waitUntil(scheduledStartTime);
+
+      /* 耗時由排定的送出時間開始計算, 讓等待併發名額的時間也會反映在結果中 */
+      PerformanceTask performanceTask = taskProducer.next(null);
+      performanceTask.setScheduledStartTime(scheduledStartTime);
+      engine.submit(performanceTask);
+
+      /* 已達併發數時 submit 會等待名額, 每次送出後記錄落後排定時間的程度, 取整次測試中最大的落後 */
+      long lateTime = System.nanoTime() - scheduledStartTime;
+      maxLateTime = Math.max(maxLateTime, lateTime);
+      if (lateTime > LATE_THRESHOLD_NANOS) {
+        lateCount++;
+      }
+    }
+
+    if (maxLateTime > LATE_THRESHOLD_NANOS) {
+      dispatcherLogger.warn("送出排程落後時間表, 共 {} 次落後超過 {} ms, 最多落後 {} ms, 產生負載的一端或併發數可能已達上限", lateCount,
+          TimeUnit.NANOSECONDS.toMillis(LATE_THRESHOLD_NANOS), TimeUnit.NANOSECONDS.toMillis(maxLateTime));
+    }
+
+  }
+
+  static void waitUntil(long targetTime) {
+    long remainingTime;
+    while ((remainingTime = targetTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remainingTime);
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import com.github.georgeTseng.apiPerformanceTest.engine.PerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 維持固定數量的虛擬使用者, 每位使用者完成一次請求(含執行後的等待)後才補上下一個排程,
+ * 同時存在的排程數不會超過併發數
+ */
+public class ClosedModelDispatcher {
+
+  private final PerformanceEngine engine;
+  private final PerformanceTaskProducer taskProducer;
+
+  private int inFlightUsers;
+
+  /**
+   * @param engine 實際送出請求的 engine
+   * @param taskProducer 產生排程的 producer
+   */
+  public ClosedModelDispatcher(PerformanceEngine engine, PerformanceTaskProducer taskProducer) {
+    this.engine = engine;
+    this.taskProducer = taskProducer;
+  }
+
+  /**
+   * 持續送出排程直到達到總測試次數或超過執行時間
+   *
+   * @param concurrency 同時進行中的虛擬使用者數
+   */
+  public void dispatch(int concurrency) throws CustomApplicationException {
+
+    while (taskProducer.hasNext(System.nanoTime())) {
+      /* 補上已完成的使用者 */
+      if (reserveUser(concurrency)) {
+        PerformanceTask performanceTask = taskProducer.next(null);
+        performanceTask.setCompletionListener(this::onTaskCompleted);
+        engine.submit(performanceTask);
+        continue;
+      }
+
+      /* 等待有使用者完成, 或到了停止產生排程的時間 */
+      waitForCompletion(concurrency);
+    }
+
+  }
+
+  private synchronized boolean reserveUser(int concurrency) {
+    if (inFlightUsers >= concurrency) {
+      return false;
+    }
+    inFlightUsers++;
+    return true;
+  }
+
+  private synchronized void waitForCompletion(int concurrency) throws CustomApplicationException {
+
+    try {
+      while (inFlightUsers >= concurrency) {
+        if (!taskProducer.hasDeadline()) {
+          wait();
+          continue;
+        }
+
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(taskProducer.getDeadline() - System.nanoTime());
+        if (remainingMillis <= 0) {
+          return;
+        }
+        wait(remainingMillis);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for task data...", e);
+    }
+
+  }
+
+  private synchronized void onTaskCompleted() {
+    inFlightUsers--;
+    notifyAll();
+  }
+
+}
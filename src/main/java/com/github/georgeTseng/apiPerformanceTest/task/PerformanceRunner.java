@@ -0,0 +1,193 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import com.github.georgeTseng.apiPerformanceTest.engine.AsyncPerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.engine.BlockingPerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.engine.PerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.engine.VirtualThreadPerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedEngine;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedLoadModel;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.WarmUpResultData;
+import com.github.georgeTseng.apiPerformanceTest.monitor.GeneratorHealthMonitor;
+import com.github.georgeTseng.apiPerformanceTest.result.IntervalReporter;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.workflow.Workflow;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 依請求設定建立 engine 與 dispatcher 並執行一次完整的測試, 單機執行與分散式的 agent 共用相同的流程
+ */
+public class PerformanceRunner {
+
+  private static Logger getLoggerInstance() {
+    return LoggerFactory.getLogger(PerformanceRunner.class);
+  }
+
+  /**
+   * 執行測試直到所有請求結束, 結果累計於 resultCollector, 回傳整次測試的執行時間(ns)
+   *
+   * @param requestData 請求設定
+   * @param resultCollector 接收結果的 collector
+   * @param intervalReporter 每秒顯示區間統計的 reporter
+   */
+  public static long run(PerformanceRequestData requestData, PerformanceResultCollector resultCollector,
+      IntervalReporter intervalReporter) throws CustomApplicationException {
+    return run(requestData, resultCollector, intervalReporter, new GeneratorHealthMonitor(null));
+  }
+
+  /**
+   * 執行測試直到所有請求結束, 期間由 healthMonitor 取樣負載產生端的健康狀態, 回傳整次測試的執行時間(ns)
+   *
+   * @param requestData 請求設定
+   * @param resultCollector 接收結果的 collector
+   * @param intervalReporter 每秒顯示區間統計的 reporter
+   * @param healthMonitor 取樣負載產生端健康狀態的 monitor
+   */
+  public static long run(PerformanceRequestData requestData, PerformanceResultCollector resultCollector,
+      IntervalReporter intervalReporter, GeneratorHealthMonitor healthMonitor) throws CustomApplicationException {
+
+    Logger runnerLogger = getLoggerInstance();
+
+    /* 依負載階段執行時, 由各階段的持續時間決定何時結束 */
+    boolean hasStages = requestData.getStages() != null && !requestData.getStages().isEmpty();
+
+    /* 併發數即為同時進行中的請求上限, 執行流程時也是虛擬使用者的數量 */
+    Integer taskLimit = requestData.getTaskLimit();
+    int concurrency = hasStages || taskLimit == null ? requestData.getConcurrency() : Math.min(requestData.getConcurrency(), taskLimit);
+
+    /* 開始前先編譯所有請求或流程步驟的範本並載入資料檔, 每次請求只需抽選請求並填入變數 */
+    boolean hasSteps = requestData.getSteps() != null && !requestData.getSteps().isEmpty();
+    Workflow workflow = hasSteps ? Workflow.compile(requestData, concurrency) : null;
+    ScenarioMix scenarioMix = hasSteps ? null : ScenarioMix.compile(requestData);
+
+    /* 排程於送出前才由 producer 產生, 次數與時間兩種模式共用相同的累計方式 */
+    PerformanceTaskProducer taskProducer = new PerformanceTaskProducer(requestData, scenarioMix, workflow, resultCollector);
+
+    /* 依設定建立送出請求的 engine */
+    PerformanceEngine engine = createPerformanceEngine(requestData, concurrency);
+
+    long runTime;
+    try {
+      /* 暖機期間送出實際的請求並建立連線池中的連線, 結果另外累計, 不計入整次測試的統計值 */
+      if (requestData.getWarmUpCount() != null || requestData.getWarmUpDuration() != null) {
+        resultCollector.setWarmUpResult(warmUp(runnerLogger, requestData, engine, scenarioMix, workflow, concurrency));
+      }
+
+      long runStartTime = System.nanoTime();
+      taskProducer.start(runStartTime);
+
+      /* 每秒顯示前一秒的吞吐量與耗時 */
+      intervalReporter.start(runStartTime, engine::getInFlightCount);
+
+      /* 每秒取樣本程式的 CPU, GC 與排程延遲, 判斷耗時的突增是否來自負載產生端 */
+      healthMonitor.start(runStartTime, engine::isWorkerThread);
+      resultCollector.setHealthMonitor(healthMonitor);
+
+      if (hasStages) {
+        new StagedLoadDispatcher(engine, requestData, taskProducer).dispatch();
+      } else if (SupportedLoadModel.ARRIVAL_RATE == requestData.getLoadModel()) {
+        ArrivalRateDispatcher.dispatch(engine, taskProducer, requestData.getTargetRate());
+      } else {
+        new ClosedModelDispatcher(engine, taskProducer).dispatch(concurrency);
+      }
+
+      /* 停止送出後等待進行中的請求完成, 逾時則強制結束 */
+      awaitEngineShutdown(runnerLogger, engine, requestData.getShutdownTimeout());
+      runTime = System.nanoTime() - runStartTime;
+    } finally {
+      /* 關閉連線池並等待逐次結果與區間紀錄寫出 */
+      engine.close();
+      resultCollector.close();
+      intervalReporter.stop();
+      healthMonitor.stop();
+    }
+
+    return runTime;
+
+  }
+
+  /**
+   * 以相同的 engine 送出暖機的請求, 達到暖機次數或時間後等待暖機的請求全部完成, 回傳暖機期間的統計值
+   *
+   * @param logger logger
+   * @param requestData 請求設定
+   * @param engine 整次測試共用的 engine, 暖機後連線池中的連線可直接用於正式測試
+   * @param scenarioMix 整次測試共用, 已編譯完成的所有請求; 執行流程時為 null
+   * @param workflow 整次測試共用, 已編譯完成的流程; 未設定流程時為 null
+   * @param concurrency 同時進行中的請求上限
+   */
+  private static WarmUpResultData warmUp(Logger logger, PerformanceRequestData requestData, PerformanceEngine engine,
+      ScenarioMix scenarioMix, Workflow workflow, int concurrency) throws CustomApplicationException {
+
+    logger.info("開始暖機, 暖機次數: {} , 暖機時間: {} 秒, 暖機的結果不計入統計...",
+        requestData.getWarmUpCount() == null ? "不限" : requestData.getWarmUpCount(),
+        requestData.getWarmUpDuration() == null ? "不限" : requestData.getWarmUpDuration());
+
+    /* 以暖機的次數與時間取代總測試次數與執行時間, 結果交給只在暖機期間使用的 collector */
+    PerformanceRequestData warmUpRequestData = requestData.toBuilder()
+        .taskLimit(requestData.getWarmUpCount())
+        .runDuration(requestData.getWarmUpDuration())
+        .build();
+    PerformanceResultCollector warmUpCollector = new PerformanceResultCollector(null, null);
+    PerformanceTaskProducer warmUpProducer = new PerformanceTaskProducer(warmUpRequestData, scenarioMix, workflow, warmUpCollector);
+
+    long warmUpStartTime = System.nanoTime();
+    warmUpProducer.start(warmUpStartTime);
+
+    /* 固定到達速率模式依目標速率送出, 其餘(含負載階段)以併發數維持固定數量的虛擬使用者, 連線池中的連線即依此建立 */
+    boolean hasStages = requestData.getStages() != null && !requestData.getStages().isEmpty();
+    if (!hasStages && SupportedLoadModel.ARRIVAL_RATE == requestData.getLoadModel()) {
+      ArrivalRateDispatcher.dispatch(engine, warmUpProducer, requestData.getTargetRate());
+    } else {
+      new ClosedModelDispatcher(engine, warmUpProducer).dispatch(concurrency);
+    }
+
+    /* 暖機的請求全部完成後才開始正式測試, 逾時未完成的請求不列入暖機的統計 */
+    if (!engine.awaitIdle(requestData.getShutdownTimeout(), TimeUnit.SECONDS)) {
+      logger.warn("等待暖機的請求逾時, 尚有 {} 個請求(含執行後的等待)未結束, 將直接開始正式測試", engine.getInFlightCount());
+    }
+    long warmUpTime = System.nanoTime() - warmUpStartTime;
+    warmUpCollector.close();
+
+    WarmUpResultData warmUpResult = warmUpCollector.getAggregator().toWarmUpResultData(warmUpTime);
+    logger.info("暖機結束, 共 {} 筆, 平均耗時 {} ms, 最長耗時 {} ms, 開始正式測試...", warmUpResult.getTotalCount(),
+        warmUpResult.getAverageOperateTime(), warmUpResult.getWorstOperateTime());
+
+    return warmUpResult;
+
+  }
+
+  public static PerformanceEngine createPerformanceEngine(PerformanceRequestData requestData, int concurrency) throws CustomApplicationException {
+
+    if (SupportedEngine.ASYNC == requestData.getEngine() || SupportedEngine.HTTP2 == requestData.getEngine()) {
+      /* 非阻塞模式, 由少數 I/O 執行緒維持所有進行中的請求; HTTP/2 時多個請求共用同一條連線 */
+      return new AsyncPerformanceEngine(requestData, concurrency);
+    }
+
+    if (SupportedEngine.VIRTUAL_THREAD == requestData.getEngine()) {
+      /* 虛擬執行緒模式, 每個請求各自一條虛擬執行緒, 不需依併發數設定執行緒池大小 */
+      return new VirtualThreadPerformanceEngine(requestData, concurrency);
+    }
+
+    /* 阻塞模式, 依併發數建立固定大小的執行緒池, 每條執行緒各自依序執行排程並於每次執行後等待 */
+    return new BlockingPerformanceEngine(requestData, concurrency);
+
+  }
+
+  public static void awaitEngineShutdown(Logger logger, PerformanceEngine engine, long shutdownTimeout) throws CustomApplicationException {
+
+    int inFlightCount = engine.getInFlightCount();
+    if (inFlightCount > 0) {
+      logger.info("已停止送出新的請求, 等待 {} 個進行中的請求完成, 最多等待 {} 秒...", inFlightCount, shutdownTimeout);
+    }
+
+    if (!engine.awaitCompletion(shutdownTimeout, TimeUnit.SECONDS)) {
+      logger.warn("等待逾時, 尚有 {} 個請求(含執行後的等待)未結束, 將強制結束, 未完成的請求不列入統計", engine.getInFlightCount());
+    }
+
+  }
+
+}
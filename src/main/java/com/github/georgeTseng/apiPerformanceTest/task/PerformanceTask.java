@@ -1,24 +1,32 @@
 package com.github.georgeTseng.apiPerformanceTest.task;
 
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutGuard;
+import com.github.georgeTseng.apiPerformanceTest.enums.ErrorType;
 import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.template.PreparedRequest;
+import com.github.georgeTseng.apiPerformanceTest.template.RequestTemplate;
 import com.github.georgeTseng.apiPerformanceTest.utils.ApiConnectionUtils;
+import com.github.georgeTseng.apiPerformanceTest.workflow.JsonValueExtractor;
+import com.github.georgeTseng.apiPerformanceTest.workflow.Workflow;
+import com.github.georgeTseng.apiPerformanceTest.workflow.WorkflowExecution;
+import com.github.georgeTseng.apiPerformanceTest.workflow.WorkflowStep;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.apache.http.client.ClientProtocolException;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Data
 @Builder
@@ -27,8 +35,18 @@ import java.util.concurrent.TimeUnit;
 public class PerformanceTask implements Callable<PerformanceTestData> {
 
   private Integer taskCount;
-  private Integer totalCount;
+  private String stage;
+  private String scenario;
   private PerformanceRequestData requestData;
+  private RequestTemplate requestTemplate;
+  private Workflow workflow;
+  private Integer virtualUser;
+  private CloseableHttpClient httpClient;
+  private TotalTimeoutGuard timeoutGuard;
+  private Long scheduledStartTime;
+  private Long submittedTime;
+  private PerformanceResultCollector resultCollector;
+  private Runnable completionListener;
 
   private final static String ERROR_PARAM_KEY = "error";
 
@@ -37,89 +55,193 @@ public class PerformanceTask implements Callable<PerformanceTestData> {
 
     Logger performanceTaskLogger = LoggerFactory.getLogger(PerformanceTask.class);
 
-    Map<String, Object> responseDatas = new HashMap<>();
-
-    /* 顯示系統當前時間(ms) */
-    long startTime = System.currentTimeMillis();
+    /* 固定到達速率模式下由排定的送出時間開始計時, 否則取系統當前時間(ns) */
+    long startTime = scheduledStartTime == null ? System.nanoTime() : scheduledStartTime;
     long endTime;
 
+    /* 排定的送出時間或交給 engine 的時間至實際開始執行, 即請求在負載產生端等待的時間 */
+    Long expectedStartTime = scheduledStartTime == null ? submittedTime : scheduledStartTime;
+    if (expectedStartTime != null) {
+      resultCollector.recordSchedulingLag(System.nanoTime() - expectedStartTime);
+    }
+
+    PerformanceTestData currentTestData = null;
+
+    if (workflow == null) {
+      PerformanceTestData responseData = sendRequest(performanceTaskLogger, requestData, requestTemplate::prepare, null);
+
+      /* 執行完成後紀錄當前時間(ns), 並累計本次的結果 */
+      endTime = resolveEndTime(responseData);
+      currentTestData = recordResult(responseData, startTime, endTime);
+    } else {
+      /* 依序送出流程的各步驟, 每個步驟各自計時; 排定的送出時間只用於第一個步驟 */
+      WorkflowExecution execution = workflow.start(virtualUser, resultCollector);
+      WorkflowStep step;
+      while ((step = execution.nextStep()) != null) {
+        WorkflowStep currentStep = step;
+        PerformanceTestData responseData = sendRequest(performanceTaskLogger, step.getRequestData(), () -> execution.prepare(currentStep),
+            step.getExtractor());
+
+        endTime = resolveEndTime(responseData);
+        currentTestData = recordStepResult(responseData, step.getName(), startTime, endTime);
+        if (!execution.complete(step, responseData)) {
+          break;
+        }
+        startTime = System.nanoTime();
+      }
+    }
+
+    /* 固定到達速率模式由排程器控制送出時間, 不需等待 */
+    if (scheduledStartTime != null) {
+      return currentTestData;
+    }
+
+    try {
+      /* 執行後暫停指定時間 */
+      TimeUnit.SECONDS.sleep(requestData.getWaitTime());
+    } catch (InterruptedException e) {
+      performanceTaskLogger.error("執行緒 sleep 失敗..., 原因為: {} ", e.getMessage());
+      throw new CustomApplicationException("執行緒 sleep 失敗...", e);
+    }
+
+    return currentTestData;
+  }
+
+  /**
+   * 由阻塞與虛擬執行緒的 engine 呼叫, engine 不保留 Future, 執行中發生未預期的例外時在此記錄並計為一次失敗, 避免例外被忽略
+   */
+  public PerformanceTestData execute() throws CustomApplicationException {
+
+    long startTime = scheduledStartTime == null ? System.nanoTime() : scheduledStartTime;
+    try {
+      return call();
+    } catch (CustomApplicationException e) {
+      /* 執行後的等待被中斷, 代表測試已強制結束, 本次結果已記錄 */
+      throw e;
+    } catch (RuntimeException e) {
+      /* 可辨識的例外依原本的類型統計, 其餘(例如程式錯誤)另計為未預期的例外, 不與網路錯誤混在一起 */
+      ErrorType errorType = ErrorType.classify(e, ErrorType.UNEXPECTED_ERROR);
+      LoggerFactory.getLogger(PerformanceTask.class).error("執行時發生未預期的例外, {} : {} ", errorType.getDisplayName(), e.toString(), e);
+      return recordResult(createErrorTestData(errorType, "執行失敗, " + errorType.getDisplayName() + " : " + e), startTime, System.nanoTime());
+    }
+
+  }
+
+  /**
+   * 產生請求內容並呼叫 api, 失敗時回傳失敗的結果物件
+   *
+   * @param performanceTaskLogger logger
+   * @param requestData 本次送出的請求設定
+   * @param preparedRequestSupplier 產生已編碼的請求內容, 填入後的 url 格式錯誤時拋出 IllegalArgumentException
+   * @param extractor 自回應內文取值的 extractor, 不需取值時為 null
+   */
+  private PerformanceTestData sendRequest(Logger performanceTaskLogger, PerformanceRequestData requestData,
+      Supplier<PreparedRequest> preparedRequestSupplier, JsonValueExtractor extractor) {
+
     PerformanceTestData responseData;
 
     try {
       /* 執行呼叫 api */
-      responseData = ApiConnectionUtils.getApiConnectResult(requestData);
-    } catch (UnsupportedEncodingException e) {
-      /* 代表 StringEntity 建立失敗 */
-      performanceTaskLogger.error("執行失敗, 無法建立 StringEntity ! ");
-      responseDatas.put(ERROR_PARAM_KEY, "執行失敗, 無法建立 StringEntity ! ");
-
-      responseData = PerformanceTestData.builder()
-          .statusCode(400)
-          .responseDatas(responseDatas)
-          .build();
-    } catch (ClientProtocolException e) {
-      /* 代表 CloseableHttpClient物件.execute 執行失敗 */
-      performanceTaskLogger.error("執行失敗, execute 失敗 ! ");
-      responseDatas.put(ERROR_PARAM_KEY, "執行失敗, execute 失敗 ! ");
-
-      responseData = PerformanceTestData.builder()
-          .statusCode(400)
-          .responseDatas(responseDatas)
-          .build();
+      responseData = ApiConnectionUtils.getApiConnectResult(httpClient, requestData, preparedRequestSupplier.get(), extractor, timeoutGuard);
     } catch (IOException e) {
-      /* IOException */
-      performanceTaskLogger.error("執行失敗, 發生 IOException ! ");
-      responseDatas.put(ERROR_PARAM_KEY, "執行失敗, 發生 IOException ! ");
-
-      responseData = PerformanceTestData.builder()
-          .statusCode(400)
-          .responseDatas(responseDatas)
-          .build();
+      /* 依例外判斷失敗的類型, 逾時, 連線被拒與連線中斷等分開統計 */
+      ErrorType errorType = ErrorType.classify(e);
+      performanceTaskLogger.error("執行失敗, {} : {} ", errorType.getDisplayName(), e.getMessage());
+      responseData = createErrorTestData(errorType, "執行失敗, " + errorType.getDisplayName() + " : " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      /* 代表填入變數後的 url 格式錯誤 */
+      performanceTaskLogger.error("執行失敗, url 格式錯誤 : {} ", e.getMessage());
+      responseData = createErrorTestData(ErrorType.REQUEST_ERROR, "執行失敗, url 格式錯誤 ! ");
     }
 
-    /* 執行完成後紀錄當前時間(ms) */
-    endTime = new Date().getTime();
+    return responseData;
 
-    /* 執行完成後算出耗時 */
-    long costTime = endTime - startTime;
+  }
+
+  /**
+   * 取得計時的結束時間點(ns), 僅取大小時不計入計時結束後讀完內文的時間
+   */
+  private static long resolveEndTime(PerformanceTestData responseData) {
+    return responseData.getTimingEndTime() == null ? System.nanoTime() : responseData.getTimingEndTime();
+  }
+
+  /**
+   * 紀錄流程中單一步驟的結果, 除標記步驟名稱外與 recordResult 相同
+   *
+   * @param responseData 呼叫 api 後取得的結果
+   * @param step 步驟名稱
+   * @param startTime 開始計時的時間點(ns)
+   * @param endTime 結束計時的時間點(ns)
+   */
+  public PerformanceTestData recordStepResult(PerformanceTestData responseData, String step, long startTime, long endTime) {
+    responseData.setStep(step);
+    return recordResult(responseData, startTime, endTime);
+  }
+
+  /**
+   * 算出本次的耗時後交由 collector 累計, 進度由 collector 的每秒區間統計顯示; 阻塞與非阻塞的執行方式共用
+   *
+   * @param responseData 呼叫 api 後取得的結果, 各階段的計時已填入
+   * @param startTime 開始計時的時間點(ns)
+   * @param endTime 結束計時的時間點(ns)
+   */
+  public PerformanceTestData recordResult(PerformanceTestData responseData, long startTime, long endTime) {
+
+    /* 執行完成後算出耗時(ms 與 us) */
+    long costTime = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+    long costTimeInMicros = TimeUnit.NANOSECONDS.toMicros(endTime - startTime);
 
     /* 取出執行次數 */
     int currentTaskCount = getTaskCount();
 
-    /* 取出 status code 與回應內文 */
-    int currentStatusCode = responseData.getStatusCode();
-    responseDatas = responseData.getResponseDatas();
+    /* 將耗時寫入回傳用的 TaskData 物件 */
+    responseData.setTaskCount(currentTaskCount + 1);
+    responseData.setStage(stage);
+    responseData.setScenario(scenario);
+    responseData.setOperateTime(costTime);
+    responseData.setOperateTimeInMicros(costTimeInMicros);
 
-    /* 生成回傳用的 TaskData 物件 */
-    PerformanceTestData currentTestData = PerformanceTestData.builder()
-        .operateTime(costTime)
-        .statusCode(currentStatusCode)
-        .responseDatas(responseDatas)
-        .build();
+    /* 取得回應但非 200 時依狀態碼分類, 與成功次數的判斷一致 */
+    if (responseData.getErrorType() == null && !ApiConnectionUtils.HTTP_OK_STATUS.equals(responseData.getStatusCode())) {
+      responseData.setErrorType(ErrorType.toStatusKey(responseData.getStatusCode()));
+    }
 
-    /* 取出總執行次數 */
-    int totalTaskCount = getTotalCount();
+    /* 與負載產生端的 GC 停頓重疊時記錄重疊的時間, 此筆耗時可能不代表目標服務 */
+    resultCollector.markClientGcPause(responseData, startTime, endTime);
 
-    /* 算出完成比率 */
-    double finishRate = (100 * (currentTaskCount + 1)) / (totalTaskCount * 1.0);
-    double decimalPlaceFactor = Math.pow(10, 2);
-    double finishPercent = Math.round((finishRate / decimalPlaceFactor) * decimalPlaceFactor);
+    /* 交由 collector 累計統計值並寫出逐次結果 */
+    resultCollector.collect(responseData);
 
-    /* 印出執行次數讓使用者確認程式尚在運行 */
-    performanceTaskLogger.info("已執行第 {} 次, 已完成 {} %...", (currentTaskCount + 1), finishPercent);
+    return responseData;
 
-    /* 取出等待時間 */
-    long waitTime = requestData.getWaitTime();
+  }
 
-    try {
-      /* 執行後暫停指定時間 */
-      TimeUnit.SECONDS.sleep(waitTime);
-    } catch (InterruptedException e) {
-      performanceTaskLogger.error("執行緒 sleep 失敗..., 原因為: {} ", e.getMessage());
-      throw new CustomApplicationException("執行緒 sleep 失敗...", e);
+  /**
+   * 本次請求(含執行後的等待)全部結束時由 engine 呼叫, 通知依負載階段控制併發數的排程器
+   */
+  public void notifyCompletion() {
+    if (completionListener != null) {
+      completionListener.run();
     }
+  }
+
+  /**
+   * 建立未取得回應而失敗時使用的結果物件, 狀態碼為 0
+   *
+   * @param errorType 失敗的類型
+   * @param errorMessage 失敗的原因
+   */
+  public static PerformanceTestData createErrorTestData(ErrorType errorType, String errorMessage) {
+
+    Map<String, Object> responseDatas = new HashMap<>();
+    responseDatas.put(ERROR_PARAM_KEY, errorMessage);
+
+    return PerformanceTestData.builder()
+        .statusCode(ApiConnectionUtils.NO_RESPONSE_STATUS)
+        .errorType(errorType.getKey())
+        .responseDatas(responseDatas)
+        .build();
 
-    return currentTestData;
   }
 
 }
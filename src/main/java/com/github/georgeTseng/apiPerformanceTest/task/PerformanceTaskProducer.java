@@ -0,0 +1,105 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.workflow.Workflow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 需要送出請求時才建立排程, 不會預先建立全部的排程; 達到總測試次數或超過執行時間即不再產生
+ */
+public class PerformanceTaskProducer {
+
+  private final PerformanceRequestData requestData;
+  private final ScenarioMix scenarioMix;
+  private final Workflow workflow;
+  private final PerformanceResultCollector resultCollector;
+
+  private int taskIndex;
+  private long deadline = Long.MAX_VALUE;
+  private boolean hasDeadline;
+
+  /**
+   * @param requestData 請求設定, 總測試次數與執行時間皆可為 null
+   * @param scenarioMix 整次測試共用, 已編譯完成的所有請求; 執行流程時為 null
+   * @param workflow 整次測試共用, 已編譯完成的流程; 未設定流程時為 null
+   * @param resultCollector 接收結果的 collector
+   */
+  public PerformanceTaskProducer(PerformanceRequestData requestData, ScenarioMix scenarioMix, Workflow workflow,
+      PerformanceResultCollector resultCollector) {
+    this.requestData = requestData;
+    this.scenarioMix = scenarioMix;
+    this.workflow = workflow;
+    this.resultCollector = resultCollector;
+  }
+
+  /**
+   * 測試開始時呼叫, 以開始時間算出停止產生排程的時間
+   *
+   * @param runStartTime 測試開始的時間點(ns)
+   */
+  public synchronized void start(long runStartTime) {
+    if (requestData.getRunDuration() != null) {
+      deadline = runStartTime + TimeUnit.SECONDS.toNanos(requestData.getRunDuration());
+      hasDeadline = true;
+    }
+  }
+
+  /**
+   * 在指定的時間點送出時, 是否仍需產生排程
+   *
+   * @param sendTime 預計送出的時間點(ns)
+   */
+  public synchronized boolean hasNext(long sendTime) {
+
+    Integer taskLimit = requestData.getTaskLimit();
+    if (taskLimit != null && taskIndex >= taskLimit) {
+      return false;
+    }
+
+    return !hasDeadline || sendTime - deadline < 0;
+
+  }
+
+  /**
+   * 產生下一個排程, 混合多種請求時依權重抽選本次送出的請求; 執行流程時依排程編號輪流分配給各虛擬使用者
+   *
+   * @param stage 所屬的負載階段, 未使用負載階段時為 null
+   */
+  public synchronized PerformanceTask next(String stage) {
+
+    if (workflow != null) {
+      return PerformanceTask.builder()
+          .taskCount(taskIndex)
+          .stage(stage)
+          .requestData(requestData)
+          .workflow(workflow)
+          .virtualUser(taskIndex++ % workflow.getVirtualUserCount())
+          .resultCollector(resultCollector)
+          .build();
+    }
+
+    int scenarioIndex = scenarioMix.next();
+    return PerformanceTask.builder()
+        .taskCount(taskIndex++)
+        .stage(stage)
+        .scenario(scenarioMix.getName(scenarioIndex))
+        .requestData(scenarioMix.getRequestData(scenarioIndex))
+        .requestTemplate(scenarioMix.getRequestTemplate(scenarioIndex))
+        .resultCollector(resultCollector)
+        .build();
+
+  }
+
+  /**
+   * 停止產生排程的時間點(ns), 未指定執行時間時為 Long.MAX_VALUE
+   */
+  public synchronized long getDeadline() {
+    return deadline;
+  }
+
+  public synchronized boolean hasDeadline() {
+    return hasDeadline;
+  }
+
+}
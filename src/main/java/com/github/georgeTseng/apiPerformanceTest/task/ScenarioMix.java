@@ -0,0 +1,84 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioData;
+import com.github.georgeTseng.apiPerformanceTest.template.DataFeeder;
+import com.github.georgeTseng.apiPerformanceTest.template.RequestTemplate;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import java.util.List;
+
+/**
+ * 整次測試要送出的請求, 未設定多種請求時只有最外層的一種; 設定多種請求時各自編譯請求範本並共用資料檔,
+ * 每次產生排程時依權重抽選其中一種
+ */
+public class ScenarioMix {
+
+  private final String[] names;
+  private final PerformanceRequestData[] requestDatas;
+  private final RequestTemplate[] requestTemplates;
+  private final AliasSampler sampler;
+
+  private ScenarioMix(String[] names, PerformanceRequestData[] requestDatas, RequestTemplate[] requestTemplates, AliasSampler sampler) {
+    this.names = names;
+    this.requestDatas = requestDatas;
+    this.requestTemplates = requestTemplates;
+    this.sampler = sampler;
+  }
+
+  /**
+   * 開啟資料檔並編譯所有請求的範本, 資料檔無法讀取或使用未定義的變數時拋出例外
+   *
+   * @param requestData 請求設定
+   */
+  public static ScenarioMix compile(PerformanceRequestData requestData) throws CustomApplicationException {
+
+    List<ScenarioData> scenarios = requestData.getScenarios();
+    if (scenarios == null || scenarios.isEmpty()) {
+      return new ScenarioMix(new String[]{null}, new PerformanceRequestData[]{requestData},
+          new RequestTemplate[]{RequestTemplate.compile(requestData)}, null);
+    }
+
+    List<DataFeeder> feeders = RequestTemplate.openFeeders(requestData.getFeeders());
+
+    String[] names = new String[scenarios.size()];
+    PerformanceRequestData[] requestDatas = new PerformanceRequestData[scenarios.size()];
+    RequestTemplate[] requestTemplates = new RequestTemplate[scenarios.size()];
+    double[] weights = new double[scenarios.size()];
+    for (int index = 0; index < scenarios.size(); index++) {
+      ScenarioData scenario = scenarios.get(index);
+      names[index] = scenario.getName();
+      requestDatas[index] = DataTransferUtils.transIntoOverriddenRequestData(requestData, scenario.getUrl(), scenario.getHttpMethod(),
+          scenario.getAuthorization(), scenario.getContentType(), scenario.getAccept(), scenario.getOtherHeadersParams(),
+          scenario.getOtherParams());
+      requestTemplates[index] = RequestTemplate.compile(requestDatas[index], feeders);
+      weights[index] = scenario.getWeight();
+    }
+
+    return new ScenarioMix(names, requestDatas, requestTemplates, new AliasSampler(weights));
+
+  }
+
+  /**
+   * 依權重抽選下一個請求的編號, 只有一種請求時固定為 0; 可由多條執行緒同時呼叫
+   */
+  public int next() {
+    return sampler == null ? 0 : sampler.sample();
+  }
+
+  /**
+   * 請求定義的名稱, 未設定多種請求時為 null
+   */
+  public String getName(int scenarioIndex) {
+    return names[scenarioIndex];
+  }
+
+  public PerformanceRequestData getRequestData(int scenarioIndex) {
+    return requestDatas[scenarioIndex];
+  }
+
+  public RequestTemplate getRequestTemplate(int scenarioIndex) {
+    return requestTemplates[scenarioIndex];
+  }
+
+}
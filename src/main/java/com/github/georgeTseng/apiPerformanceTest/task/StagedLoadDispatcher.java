@@ -0,0 +1,189 @@
+package com.github.georgeTseng.apiPerformanceTest.task;
+
+import com.github.georgeTseng.apiPerformanceTest.engine.PerformanceEngine;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedLoadModel;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedStageTransition;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 依序執行各負載階段, 每個階段只依持續時間結束; CLOSED 模式下控制同時進行中的虛擬使用者數,
+ * ARRIVAL_RATE 模式下控制每秒送出的請求數
+ */
+public class StagedLoadDispatcher {
+
+  /* CLOSED 模式下重新計算目標併發數的最長間隔 */
+  private final static long CONCURRENCY_CHECK_INTERVAL_MILLIS = 10;
+  private final static double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Logger dispatcherLogger = LoggerFactory.getLogger(StagedLoadDispatcher.class);
+
+  private final PerformanceEngine engine;
+  private final PerformanceRequestData requestData;
+  private final PerformanceTaskProducer taskProducer;
+
+  private int inFlightUsers;
+
+  /**
+   * @param engine 實際送出請求的 engine
+   * @param requestData 請求設定, 包含各負載階段
+   * @param taskProducer 產生排程的 producer
+   */
+  public StagedLoadDispatcher(PerformanceEngine engine, PerformanceRequestData requestData, PerformanceTaskProducer taskProducer) {
+    this.engine = engine;
+    this.requestData = requestData;
+    this.taskProducer = taskProducer;
+  }
+
+  /**
+   * 依序執行所有階段, 最後一個階段的時間結束, 或達到總測試次數/執行時間時即停止送出新的請求
+   */
+  public void dispatch() throws CustomApplicationException {
+
+    boolean arrivalRateModel = SupportedLoadModel.ARRIVAL_RATE == requestData.getLoadModel();
+
+    /* 各階段的開始時間以時間表計算, 不會因為送出請求的延遲而累積誤差 */
+    long stageStartTime = System.nanoTime();
+    double previousTarget = 0;
+
+    for (LoadStageData stage : requestData.getStages()) {
+      if (!taskProducer.hasNext(stageStartTime)) {
+        break;
+      }
+
+      double stageTarget = arrivalRateModel ? stage.getTargetRate() : stage.getTargetConcurrency();
+      double startTarget = SupportedStageTransition.LINEAR == stage.getTransition() ? previousTarget : stageTarget;
+      long stageDuration = TimeUnit.SECONDS.toNanos(stage.getDuration());
+
+      dispatcherLogger.info("開始負載階段 {} , 持續 {} 秒, {} 由 {} 至 {} ", stage.getName(), stage.getDuration(),
+          arrivalRateModel ? "目標速率(次/秒)" : "併發數", startTarget, stageTarget);
+
+      if (arrivalRateModel) {
+        dispatchRateStage(stage, stageStartTime, stageDuration, startTarget, stageTarget);
+      } else {
+        dispatchConcurrencyStage(stage, stageStartTime, stageDuration, startTarget, stageTarget);
+      }
+
+      stageStartTime = stageStartTime + stageDuration;
+      previousTarget = stageTarget;
+    }
+
+  }
+
+  private void dispatchRateStage(LoadStageData stage, long stageStartTime, long stageDuration, double startRate, double endRate)
+      throws CustomApplicationException {
+
+    double durationSeconds = stageDuration / NANOS_PER_SECOND;
+    double rateSlope = (endRate - startRate) / durationSeconds;
+
+    for (long arrival = 0; ; arrival++) {
+      /* 依速率的積分算出第 n 個請求的送出時間, 超過階段的持續時間即結束 */
+      double offsetSeconds = getArrivalOffsetSeconds(arrival, startRate, rateSlope);
+      if (Double.isNaN(offsetSeconds) || offsetSeconds >= durationSeconds) {
+        break;
+      }
+
+      long scheduledStartTime = stageStartTime + (long) (offsetSeconds * NANOS_PER_SECOND);
+      if (!taskProducer.hasNext(scheduledStartTime)) {
+        return;
+      }
+      ArrivalRateDispatcher.waitUntil(scheduledStartTime);
+
+      PerformanceTask performanceTask = createPerformanceTask(stage);
+      performanceTask.setScheduledStartTime(scheduledStartTime);
+      engine.submit(performanceTask);
+    }
+
+    ArrivalRateDispatcher.waitUntil(stageStartTime + stageDuration);
+
+  }
+
+  private void dispatchConcurrencyStage(LoadStageData stage, long stageStartTime, long stageDuration, double startConcurrency,
+      double endConcurrency) throws CustomApplicationException {
+
+    long stageEndTime = stageStartTime + stageDuration;
+    long currentTime;
+
+    while ((currentTime = System.nanoTime()) < stageEndTime && taskProducer.hasNext(currentTime)) {
+      /* 依階段進度算出目前的目標併發數, 併發數下降時不中斷進行中的請求, 只是不再補上新的 */
+      double progress = (currentTime - stageStartTime) / (double) stageDuration;
+      int targetConcurrency = (int) Math.round(startConcurrency + (endConcurrency - startConcurrency) * progress);
+
+      int usersToStart;
+      synchronized (this) {
+        usersToStart = Math.max(targetConcurrency - inFlightUsers, 0);
+        inFlightUsers = inFlightUsers + usersToStart;
+      }
+
+      for (int index = 0; index < usersToStart; index++) {
+        if (!taskProducer.hasNext(System.nanoTime())) {
+          synchronized (this) {
+            inFlightUsers = inFlightUsers - (usersToStart - index);
+          }
+          return;
+        }
+        engine.submit(createPerformanceTask(stage));
+      }
+
+      /* 等待有請求完成或到下一次重新計算的時間 */
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(stageEndTime - System.nanoTime());
+      waitForCompletion(Math.min(CONCURRENCY_CHECK_INTERVAL_MILLIS, Math.max(remainingMillis, 1)));
+    }
+
+  }
+
+  private synchronized void waitForCompletion(long timeoutMillis) throws CustomApplicationException {
+    try {
+      wait(timeoutMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomApplicationException("fail to wait for task data...", e);
+    }
+  }
+
+  private synchronized void onTaskCompleted() {
+    inFlightUsers--;
+    notifyAll();
+  }
+
+  private PerformanceTask createPerformanceTask(LoadStageData stage) {
+
+    PerformanceTask performanceTask = taskProducer.next(stage.getName());
+    if (SupportedLoadModel.CLOSED == requestData.getLoadModel()) {
+      performanceTask.setCompletionListener(this::onTaskCompleted);
+    }
+
+    return performanceTask;
+
+  }
+
+  /**
+   * 速率由 startRate 以 rateSlope 線性變化時, 累計送出 arrival 個請求所需的時間(s); 速率降為 0 而無法到達時回傳 NaN
+   */
+  private static double getArrivalOffsetSeconds(long arrival, double startRate, double rateSlope) {
+
+    if (arrival == 0) {
+      return 0;
+    }
+
+    /* 速率固定時直接以速率換算 */
+    if (Math.abs(rateSlope) < 1e-9) {
+      return startRate > 0 ? arrival / startRate : Double.NaN;
+    }
+
+    /* 解 startRate * t + rateSlope / 2 * t^2 = arrival, 取較早的解 */
+    double halfSlope = rateSlope / 2;
+    double discriminant = startRate * startRate + 4 * halfSlope * arrival;
+    if (discriminant < 0) {
+      return Double.NaN;
+    }
+
+    return (-startRate + Math.sqrt(discriminant)) / (2 * halfSlope);
+
+  }
+
+}
@@ -0,0 +1,131 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 建立 csv 資料檔的索引, 第一行為欄位名稱; 欄位以逗號分隔, 含逗號或換行的欄位以雙引號包住, 內容中的雙引號以兩個雙引號表示
+ */
+class CsvFeederParser {
+
+  private final static byte QUOTE = '"';
+  private final static byte SEPARATOR = ',';
+  private final static byte LINE_FEED = '\n';
+  private final static byte CARRIAGE_RETURN = '\r';
+
+  /**
+   * 由檔案內容建立索引, 格式錯誤時拋出例外
+   *
+   * @param buffer 資料檔的內容
+   * @param filePath 錯誤訊息中顯示的檔案路徑
+   */
+  static FeederIndex parse(ByteBuffer buffer, String filePath) throws CustomApplicationException {
+
+    int position = FeederParserUtils.skipByteOrderMark(buffer);
+    position = skipBlankLines(buffer, position);
+
+    /* 第一行為欄位名稱 */
+    List<String> columns = new ArrayList<>();
+    position = scanRecord(buffer, position, filePath, (column, start, end, escaped) ->
+        columns.add(decode(buffer, start, end, escaped).trim()));
+    FeederIndex feederIndex = new FeederIndex(columns);
+
+    while ((position = skipBlankLines(buffer, position)) < buffer.limit()) {
+      feederIndex.beginRecord();
+      position = scanRecord(buffer, position, filePath, (column, start, end, escaped) -> {
+        /* 多出來的欄位不列入 */
+        if (column < feederIndex.getColumnCount()) {
+          feederIndex.setField(column, start, end, escaped);
+        }
+      });
+    }
+
+    return feederIndex;
+
+  }
+
+  /**
+   * 還原欄位內容, 含有兩個連續雙引號時還原為一個
+   */
+  static String decode(ByteBuffer buffer, int start, int end, boolean escaped) {
+    String value = FeederParserUtils.decodeUtf8(buffer, start, end);
+    return escaped ? value.replace("\"\"", "\"") : value;
+  }
+
+  /**
+   * 掃描一筆資料的所有欄位, 回傳下一筆資料的起始位置
+   */
+  private static int scanRecord(ByteBuffer buffer, int position, String filePath, FieldConsumer fieldConsumer)
+      throws CustomApplicationException {
+
+    int limit = buffer.limit();
+    int column = 0;
+
+    while (true) {
+      if (position < limit && buffer.get(position) == QUOTE) {
+        int fieldStart = position + 1;
+        boolean escaped = false;
+        position++;
+
+        while (position < limit) {
+          if (buffer.get(position) == QUOTE) {
+            if (position + 1 < limit && buffer.get(position + 1) == QUOTE) {
+              escaped = true;
+              position = position + 2;
+              continue;
+            }
+            break;
+          }
+          position++;
+        }
+
+        if (position >= limit) {
+          throw new CustomApplicationException("資料檔的雙引號未結束 - " + filePath + " , 程式已停止");
+        }
+        fieldConsumer.accept(column, fieldStart, position, escaped);
+
+        /* 略過結束的雙引號到分隔符號之間的內容 */
+        while (position < limit && buffer.get(position) != SEPARATOR && buffer.get(position) != LINE_FEED) {
+          position++;
+        }
+      } else {
+        int fieldStart = position;
+        while (position < limit && buffer.get(position) != SEPARATOR && buffer.get(position) != LINE_FEED) {
+          position++;
+        }
+
+        int fieldEnd = position;
+        if (fieldEnd > fieldStart && buffer.get(fieldEnd - 1) == CARRIAGE_RETURN) {
+          fieldEnd--;
+        }
+        fieldConsumer.accept(column, fieldStart, fieldEnd, false);
+      }
+
+      if (position >= limit) {
+        return limit;
+      }
+      if (buffer.get(position) == LINE_FEED) {
+        return position + 1;
+      }
+
+      position++;
+      column++;
+    }
+
+  }
+
+  private static int skipBlankLines(ByteBuffer buffer, int position) {
+    while (position < buffer.limit() && (buffer.get(position) == LINE_FEED || buffer.get(position) == CARRIAGE_RETURN)) {
+      position++;
+    }
+    return position;
+  }
+
+  @FunctionalInterface
+  private interface FieldConsumer {
+    void accept(int column, int start, int end, boolean escaped);
+  }
+
+}
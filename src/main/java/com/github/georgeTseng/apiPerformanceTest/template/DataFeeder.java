@@ -0,0 +1,132 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedFeederOrder;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.FeederData;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以 memory-mapped 的方式讀取 csv/jsonl 資料檔, 開啟時只建立各欄位位置的索引, 取值時才由檔案內容解碼該欄位;
+ * 可由多條執行緒同時取出資料
+ */
+public class DataFeeder {
+
+  public final static String CSV_FILE_EXTENSION = ".csv";
+  public final static String JSON_LINES_FILE_EXTENSION = ".jsonl";
+
+  private final String filePath;
+  private final ByteBuffer buffer;
+  private final FeederIndex feederIndex;
+  private final boolean jsonLines;
+  private final SupportedFeederOrder order;
+  private final AtomicLong nextRecord = new AtomicLong();
+
+  private DataFeeder(String filePath, ByteBuffer buffer, FeederIndex feederIndex, boolean jsonLines, SupportedFeederOrder order) {
+    this.filePath = filePath;
+    this.buffer = buffer;
+    this.feederIndex = feederIndex;
+    this.jsonLines = jsonLines;
+    this.order = order;
+  }
+
+  /**
+   * 開啟資料檔並建立索引, 格式依副檔名判斷; 檔案無法讀取, 格式錯誤或沒有任何資料時拋出例外
+   *
+   * @param feederData 資料檔設定
+   */
+  public static DataFeeder open(FeederData feederData) throws CustomApplicationException {
+
+    String filePath = feederData.getFilePath();
+    String lowerCaseFilePath = filePath.toLowerCase();
+    boolean jsonLines;
+    if (lowerCaseFilePath.endsWith(JSON_LINES_FILE_EXTENSION)) {
+      jsonLines = true;
+    } else if (lowerCaseFilePath.endsWith(CSV_FILE_EXTENSION)) {
+      jsonLines = false;
+    } else {
+      throw new CustomApplicationException("資料檔僅接受 .csv 或 .jsonl - " + filePath + " , 程式已停止");
+    }
+
+    ByteBuffer buffer = mapFile(Paths.get(filePath));
+    FeederIndex feederIndex = jsonLines ? JsonLinesFeederParser.parse(buffer, filePath) : CsvFeederParser.parse(buffer, filePath);
+    if (feederIndex.getRecordCount() == 0) {
+      throw new CustomApplicationException("資料檔沒有任何資料 - " + filePath + " , 程式已停止");
+    }
+
+    return new DataFeeder(filePath, buffer, feederIndex, jsonLines, feederData.getOrder());
+
+  }
+
+  /**
+   * 整個檔案映射至記憶體, 關閉 channel 後映射仍然有效; 單一檔案不可超過 2GB
+   */
+  private static ByteBuffer mapFile(Path path) throws CustomApplicationException {
+
+    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long fileSize = fileChannel.size();
+      if (fileSize > Integer.MAX_VALUE) {
+        throw new CustomApplicationException("資料檔不可超過 2GB - " + path + " , 程式已停止");
+      }
+      return fileChannel.map(MapMode.READ_ONLY, 0, fileSize);
+    } catch (IOException e) {
+      throw new CustomApplicationException("發生IO Exception", e, new Object[]{path});
+    }
+
+  }
+
+  /**
+   * 依設定的順序取出下一筆資料的編號
+   */
+  public int nextRecord() {
+
+    int recordCount = feederIndex.getRecordCount();
+    if (SupportedFeederOrder.RANDOM == order) {
+      return ThreadLocalRandom.current().nextInt(recordCount);
+    }
+
+    return (int) Math.floorMod(nextRecord.getAndIncrement(), (long) recordCount);
+
+  }
+
+  /**
+   * 取出指定資料中單一欄位的值
+   *
+   * @param record 由 nextRecord 取得的資料編號
+   * @param column 欄位編號
+   */
+  public String getValue(int record, int column) {
+
+    int start = feederIndex.getFieldStart(record, column);
+    int end = feederIndex.getFieldEnd(record, column);
+    boolean escaped = feederIndex.isEscaped(record, column);
+
+    return jsonLines ? JsonLinesFeederParser.decode(buffer, start, end, escaped) : CsvFeederParser.decode(buffer, start, end, escaped);
+
+  }
+
+  public List<String> getColumns() {
+    return feederIndex.getColumns();
+  }
+
+  public int getRecordCount() {
+    return feederIndex.getRecordCount();
+  }
+
+  public String getFilePath() {
+    return filePath;
+  }
+
+  public SupportedFeederOrder getOrder() {
+    return order;
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 資料檔中每筆資料各欄位在檔案內的位置(byte offset), 讀取時只需依位置解碼, 不需再解析整行內容;
+ * 含有跳脫字元的欄位另行標記, 解碼時才還原
+ */
+class FeederIndex {
+
+  private final static int INITIAL_CAPACITY = 1024;
+
+  private final List<String> columns;
+  private final int columnCount;
+  private final BitSet escapedFields = new BitSet();
+
+  private int[] fieldStarts = new int[INITIAL_CAPACITY];
+  private int[] fieldEnds = new int[INITIAL_CAPACITY];
+  private int recordCount;
+
+  /**
+   * @param columns 欄位名稱, 依欄位編號排列
+   */
+  FeederIndex(List<String> columns) {
+    this.columns = columns;
+    this.columnCount = columns.size();
+  }
+
+  /**
+   * 新增一筆資料, 未設定的欄位為空字串
+   */
+  void beginRecord() {
+
+    int requiredCapacity = (recordCount + 1) * columnCount;
+    if (requiredCapacity > fieldStarts.length) {
+      int newCapacity = Math.max(fieldStarts.length * 2, requiredCapacity);
+      fieldStarts = Arrays.copyOf(fieldStarts, newCapacity);
+      fieldEnds = Arrays.copyOf(fieldEnds, newCapacity);
+    }
+    recordCount++;
+
+  }
+
+  /**
+   * 設定目前這筆資料中單一欄位的位置
+   *
+   * @param column 欄位編號
+   * @param start 欄位內容的起始位置(含)
+   * @param end 欄位內容的結束位置(不含)
+   * @param escaped 內容是否含有需要還原的跳脫字元
+   */
+  void setField(int column, int start, int end, boolean escaped) {
+
+    int fieldIndex = (recordCount - 1) * columnCount + column;
+    fieldStarts[fieldIndex] = start;
+    fieldEnds[fieldIndex] = end;
+    if (escaped) {
+      escapedFields.set(fieldIndex);
+    }
+
+  }
+
+  List<String> getColumns() {
+    return columns;
+  }
+
+  int getColumnCount() {
+    return columnCount;
+  }
+
+  int getRecordCount() {
+    return recordCount;
+  }
+
+  int getFieldStart(int record, int column) {
+    return fieldStarts[record * columnCount + column];
+  }
+
+  int getFieldEnd(int record, int column) {
+    return fieldEnds[record * columnCount + column];
+  }
+
+  boolean isEscaped(int record, int column) {
+    return escapedFields.get(record * columnCount + column);
+  }
+
+}
@@ -0,0 +1,42 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * csv 與 jsonl 資料檔共用的讀取方法, 一律以 UTF-8 解碼
+ */
+class FeederParserUtils {
+
+  /**
+   * 檔案以 UTF-8 BOM 開頭時略過, 回傳內容的起始位置
+   */
+  static int skipByteOrderMark(ByteBuffer buffer) {
+    if (buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+      return 3;
+    }
+    return 0;
+  }
+
+  /**
+   * 將指定範圍的內容以 UTF-8 解碼, 不改變 buffer 本身的位置, 可由多條執行緒同時呼叫
+   */
+  static String decodeUtf8(ByteBuffer buffer, int start, int end) {
+
+    if (start >= end) {
+      return "";
+    }
+
+    /* 以 Buffer 呼叫, 避免 JDK 9 以上編譯後在 JDK 8 執行時找不到 ByteBuffer 的覆寫方法 */
+    ByteBuffer fieldBuffer = buffer.duplicate();
+    ((Buffer) fieldBuffer).limit(end);
+    ((Buffer) fieldBuffer).position(start);
+
+    byte[] fieldBytes = new byte[end - start];
+    fieldBuffer.get(fieldBytes);
+    return new String(fieldBytes, StandardCharsets.UTF_8);
+
+  }
+
+}
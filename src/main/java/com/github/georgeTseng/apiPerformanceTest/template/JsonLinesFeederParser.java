@@ -0,0 +1,238 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.google.gson.Gson;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 建立 jsonl 資料檔的索引, 每行為一個單層的 json 物件, 欄位以第一行的 key 為準;
+ * 字串值記錄引號內的位置, 其他值(數字, 布林, 巢狀物件/陣列)保留原始的 json 內容, null 視為空字串
+ */
+class JsonLinesFeederParser {
+
+  private final static Gson GSON = new Gson();
+  private final static byte LINE_FEED = '\n';
+
+  /**
+   * 由檔案內容建立索引, 格式錯誤時拋出例外
+   *
+   * @param buffer 資料檔的內容
+   * @param filePath 錯誤訊息中顯示的檔案路徑
+   */
+  static FeederIndex parse(ByteBuffer buffer, String filePath) throws CustomApplicationException {
+
+    int position = FeederParserUtils.skipByteOrderMark(buffer);
+    int limit = buffer.limit();
+    int lineNumber = 0;
+
+    FeederIndex feederIndex = null;
+    Map<String, Integer> columnIndexes = new HashMap<>();
+
+    while (position < limit) {
+      int lineEnd = position;
+      while (lineEnd < limit && buffer.get(lineEnd) != LINE_FEED) {
+        lineEnd++;
+      }
+      lineNumber++;
+
+      LineScanner lineScanner = new LineScanner(buffer, position, lineEnd, filePath, lineNumber);
+      position = lineEnd + 1;
+      if (lineScanner.isBlank()) {
+        continue;
+      }
+
+      /* 第一行的 key 作為所有資料的欄位 */
+      if (feederIndex == null) {
+        List<String> columns = new ArrayList<>();
+        new LineScanner(buffer, lineScanner.position, lineEnd, filePath, lineNumber).scanObject((key, start, end, escaped) -> {
+          if (!columnIndexes.containsKey(key)) {
+            columnIndexes.put(key, columns.size());
+            columns.add(key);
+          }
+        });
+        feederIndex = new FeederIndex(columns);
+      }
+
+      FeederIndex currentIndex = feederIndex;
+      currentIndex.beginRecord();
+      lineScanner.scanObject((key, start, end, escaped) -> {
+        Integer column = columnIndexes.get(key);
+        if (column != null) {
+          currentIndex.setField(column, start, end, escaped);
+        }
+      });
+    }
+
+    if (feederIndex == null) {
+      throw new CustomApplicationException("資料檔沒有任何資料 - " + filePath + " , 程式已停止");
+    }
+
+    return feederIndex;
+
+  }
+
+  /**
+   * 還原欄位內容, 含有跳脫字元時以 json 字串的規則還原
+   */
+  static String decode(ByteBuffer buffer, int start, int end, boolean escaped) {
+    String value = FeederParserUtils.decodeUtf8(buffer, start, end);
+    return escaped ? GSON.fromJson("\"" + value + "\"", String.class) : value;
+  }
+
+  @FunctionalInterface
+  private interface FieldConsumer {
+    void accept(String key, int start, int end, boolean escaped);
+  }
+
+  /**
+   * 掃描單行的 json 物件, 只記錄各值的位置, 不建立任何中間物件
+   */
+  private static class LineScanner {
+
+    private final ByteBuffer buffer;
+    private final int lineEnd;
+    private final String filePath;
+    private final int lineNumber;
+    private int position;
+
+    private LineScanner(ByteBuffer buffer, int lineStart, int lineEnd, String filePath, int lineNumber) {
+      this.buffer = buffer;
+      this.position = lineStart;
+      this.lineEnd = lineEnd;
+      this.filePath = filePath;
+      this.lineNumber = lineNumber;
+      skipWhitespace();
+    }
+
+    private boolean isBlank() {
+      return position >= lineEnd;
+    }
+
+    private void scanObject(FieldConsumer fieldConsumer) throws CustomApplicationException {
+
+      expect('{');
+      skipWhitespace();
+      if (peek() == '}') {
+        return;
+      }
+
+      while (true) {
+        skipWhitespace();
+        expect('"');
+        int keyStart = position;
+        boolean keyEscaped = scanString();
+        String key = decode(buffer, keyStart, position - 1, keyEscaped);
+
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+
+        int valueStart = position;
+        byte valueByte = peek();
+        if (valueByte == '"') {
+          position++;
+          boolean escaped = scanString();
+          fieldConsumer.accept(key, valueStart + 1, position - 1, escaped);
+        } else if (valueByte == '{' || valueByte == '[') {
+          scanNested();
+          fieldConsumer.accept(key, valueStart, position, false);
+        } else {
+          while (position < lineEnd && peek() != ',' && peek() != '}' && !isWhitespace(peek())) {
+            position++;
+          }
+          boolean isNull = position - valueStart == 4 && buffer.get(valueStart) == 'n';
+          fieldConsumer.accept(key, valueStart, isNull ? valueStart : position, false);
+        }
+
+        skipWhitespace();
+        byte nextByte = peek();
+        position++;
+        if (nextByte == '}') {
+          return;
+        } else if (nextByte != ',') {
+          throw createFormatException();
+        }
+      }
+
+    }
+
+    /**
+     * 由字串內容的開頭掃描到結束的引號之後, 回傳內容是否含有跳脫字元
+     */
+    private boolean scanString() throws CustomApplicationException {
+
+      boolean escaped = false;
+      while (position < lineEnd) {
+        byte currentByte = buffer.get(position);
+        if (currentByte == '\\') {
+          escaped = true;
+          position = position + 2;
+        } else if (currentByte == '"') {
+          position++;
+          return escaped;
+        } else {
+          position++;
+        }
+      }
+
+      throw createFormatException();
+
+    }
+
+    /**
+     * 掃描巢狀的物件或陣列直到對應的結束符號之後
+     */
+    private void scanNested() throws CustomApplicationException {
+
+      int depth = 0;
+      while (position < lineEnd) {
+        byte currentByte = buffer.get(position);
+        position++;
+        if (currentByte == '"') {
+          scanString();
+        } else if (currentByte == '{' || currentByte == '[') {
+          depth++;
+        } else if ((currentByte == '}' || currentByte == ']') && --depth == 0) {
+          return;
+        }
+      }
+
+      throw createFormatException();
+
+    }
+
+    private void expect(char expected) throws CustomApplicationException {
+      if (peek() != expected) {
+        throw createFormatException();
+      }
+      position++;
+    }
+
+    private byte peek() throws CustomApplicationException {
+      if (position >= lineEnd) {
+        throw createFormatException();
+      }
+      return buffer.get(position);
+    }
+
+    private void skipWhitespace() {
+      while (position < lineEnd && isWhitespace(buffer.get(position))) {
+        position++;
+      }
+    }
+
+    private static boolean isWhitespace(byte value) {
+      return value == ' ' || value == '\t' || value == '\r';
+    }
+
+    private CustomApplicationException createFormatException() {
+      return new CustomApplicationException("無法解析資料檔 " + filePath + " 的第 " + lineNumber + " 行, 每行需為單層的 json 物件 , 程式已停止");
+    }
+
+  }
+
+}
@@ -0,0 +1,101 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import com.github.georgeTseng.apiPerformanceTest.ApiPerformanceTestApplication.HeadersParamKey;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHeader;
+
+/**
+ * 已編碼完成的請求內容, url 解析為 URI, 內文編碼為 UTF-8 的 byte[], Headers 建立為兩種 client 各自使用的 Header 陣列;
+ * 建立後不再變更, 可由所有排程與執行緒共用, 每次送出只需建立外層的請求物件
+ */
+public class PreparedRequest {
+
+  private final URI uri;
+  private final byte[] body;
+  private final Header[] headers;
+  private final HttpEntity bodyEntity;
+  private final org.apache.hc.core5.http.Header[] asyncHeaders;
+  private final ContentType asyncContentType;
+
+  private PreparedRequest(URI uri, byte[] body, Header[] headers, HttpEntity bodyEntity,
+      org.apache.hc.core5.http.Header[] asyncHeaders, ContentType asyncContentType) {
+    this.uri = uri;
+    this.body = body;
+    this.headers = headers;
+    this.bodyEntity = bodyEntity;
+    this.asyncHeaders = asyncHeaders;
+    this.asyncContentType = asyncContentType;
+  }
+
+  /**
+   * 將填入變數後的請求內容編碼, url 格式錯誤時拋出 IllegalArgumentException
+   *
+   * @param url 目標 url, GET 時已包含其他參數
+   * @param body 內文, 只在 POST 時使用, 其他為 null
+   * @param headerValues 所有 Headers
+   */
+  public static PreparedRequest create(String url, String body, Map<String, String> headerValues) {
+
+    Header[] headers = new Header[headerValues.size()];
+    org.apache.hc.core5.http.Header[] asyncHeaders = new org.apache.hc.core5.http.Header[headerValues.size()];
+    int index = 0;
+    for (Map.Entry<String, String> headerValue : headerValues.entrySet()) {
+      headers[index] = new BasicHeader(headerValue.getKey(), headerValue.getValue());
+      asyncHeaders[index] = new org.apache.hc.core5.http.message.BasicHeader(headerValue.getKey(), headerValue.getValue());
+      index++;
+    }
+
+    /* 內文一律以 UTF-8 編碼; ByteArrayEntity 可重複讀取, 同一份可設定給多個請求 */
+    byte[] bodyBytes = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    HttpEntity bodyEntity = bodyBytes == null ? null : new ByteArrayEntity(bodyBytes);
+
+    String contentType = headerValues.get(HeadersParamKey.CONTENT_TYPE.getKey());
+    ContentType asyncContentType = contentType == null ? null : ContentType.parse(contentType);
+
+    return new PreparedRequest(URI.create(url), bodyBytes, headers, bodyEntity, asyncHeaders, asyncContentType);
+
+  }
+
+  public URI getUri() {
+    return uri;
+  }
+
+  /**
+   * 共用的內文, 呼叫端不可修改其內容
+   */
+  public byte[] getBody() {
+    return body;
+  }
+
+  /**
+   * 阻塞模式使用的 Headers, 呼叫端不可修改其內容
+   */
+  public Header[] getHeaders() {
+    return headers;
+  }
+
+  /**
+   * 阻塞模式使用的內文 entity
+   */
+  public HttpEntity getBodyEntity() {
+    return bodyEntity;
+  }
+
+  /**
+   * 非阻塞模式使用的 Headers, 呼叫端不可修改其內容
+   */
+  public org.apache.hc.core5.http.Header[] getAsyncHeaders() {
+    return asyncHeaders;
+  }
+
+  public ContentType getAsyncContentType() {
+    return asyncContentType;
+  }
+
+}
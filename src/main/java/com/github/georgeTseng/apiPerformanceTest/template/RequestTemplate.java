@@ -0,0 +1,229 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import com.github.georgeTseng.apiPerformanceTest.ApiPerformanceTestApplication.HeadersParamKey;
+import com.github.georgeTseng.apiPerformanceTest.connection.ResponseContentDecoder;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.FeederData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.utils.ApiConnectionUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 整次測試共用的請求範本, 測試開始前將 url, 其他參數, 內文與 Headers 中的 ${變數} 編譯完成並開啟資料檔;
+ * 每次請求自每個資料檔各取一筆資料, 同一次請求中的所有變數皆來自同一筆資料; 變數值直接填入, 不另行編碼.
+ * 沒有任何變數時於編譯時即編碼完成, 所有請求共用同一份 PreparedRequest
+ */
+public class RequestTemplate {
+
+  private final List<DataFeeder> feeders;
+  private final TemplateString urlTemplate;
+  private final TemplateString bodyTemplate;
+  private final Map<String, TemplateString> headerTemplates;
+
+  /* 沒有任何變數時共用的請求內容, 有變數時為 null */
+  private final PreparedRequest staticRequest;
+
+  private RequestTemplate(List<DataFeeder> feeders, TemplateString urlTemplate, TemplateString bodyTemplate,
+      Map<String, TemplateString> headerTemplates) {
+    this.feeders = feeders;
+    this.urlTemplate = urlTemplate;
+    this.bodyTemplate = bodyTemplate;
+    this.headerTemplates = headerTemplates;
+    this.staticRequest = hasVariables() ? null : render(null, null);
+  }
+
+  private static Logger getLoggerInstance() {
+    return LoggerFactory.getLogger(RequestTemplate.class);
+  }
+
+  /**
+   * 開啟資料檔並編譯請求範本, 資料檔無法讀取或使用未定義的變數時拋出例外
+   *
+   * @param requestData 請求設定
+   */
+  public static RequestTemplate compile(PerformanceRequestData requestData) throws CustomApplicationException {
+    return compile(requestData, openFeeders(requestData.getFeeders()));
+  }
+
+  /**
+   * 開啟所有資料檔, 混合多種請求時由各請求範本共用; 資料檔無法讀取時拋出例外
+   *
+   * @param feederDatas 資料檔設定, 未使用時為 null
+   */
+  public static List<DataFeeder> openFeeders(List<FeederData> feederDatas) throws CustomApplicationException {
+
+    Logger templateLogger = getLoggerInstance();
+
+    List<DataFeeder> feeders = new ArrayList<>();
+    if (feederDatas != null) {
+      for (FeederData feederData : feederDatas) {
+        DataFeeder feeder = DataFeeder.open(feederData);
+        feeders.add(feeder);
+
+        templateLogger.info("已載入資料檔 {} , 共 {} 筆, 取出順序 {} , 可用的變數: {} ", feeder.getFilePath(), feeder.getRecordCount(),
+            feeder.getOrder(), feeder.getColumns());
+      }
+    }
+
+    return feeders;
+
+  }
+
+  /**
+   * 以已開啟的資料檔編譯請求範本, 欄位名稱重複或使用未定義的變數時拋出例外
+   *
+   * @param requestData 請求設定
+   * @param feeders 已開啟的資料檔
+   */
+  public static RequestTemplate compile(PerformanceRequestData requestData, List<DataFeeder> feeders) throws CustomApplicationException {
+    return compile(requestData, feeders, Collections.emptyList());
+  }
+
+  /**
+   * 以已開啟的資料檔與流程中已取出的值編譯請求範本, 名稱重複或使用未定義的變數時拋出例外
+   *
+   * @param requestData 請求設定
+   * @param feeders 已開啟的資料檔
+   * @param workflowVariables 流程中前面步驟取出的值的名稱, 依取出值的編號排列
+   */
+  public static RequestTemplate compile(PerformanceRequestData requestData, List<DataFeeder> feeders, List<String> workflowVariables)
+      throws CustomApplicationException {
+
+    Logger templateLogger = getLoggerInstance();
+
+    /* 以欄位名稱作為變數名稱 */
+    Map<String, int[]> variables = new HashMap<>();
+    for (int feederIndex = 0; feederIndex < feeders.size(); feederIndex++) {
+      List<String> columns = feeders.get(feederIndex).getColumns();
+      for (int column = 0; column < columns.size(); column++) {
+        if (variables.put(columns.get(column), new int[]{feederIndex, column}) != null) {
+          throw new CustomApplicationException("資料檔的欄位名稱重複 - " + columns.get(column) + " , 程式已停止");
+        }
+      }
+    }
+    for (int valueIndex = 0; valueIndex < workflowVariables.size(); valueIndex++) {
+      if (variables.put(workflowVariables.get(valueIndex), new int[]{TemplateString.WORKFLOW_VALUE_FEEDER, valueIndex}) != null) {
+        throw new CustomApplicationException("取出值的名稱與其他變數重複 - " + workflowVariables.get(valueIndex) + " , 程式已停止");
+      }
+    }
+
+    /* GET 時其他參數接在 url 後, POST 時轉為內文, 與原本組出請求的方式相同 */
+    TemplateString urlTemplate;
+    TemplateString bodyTemplate = null;
+    if (SupportedHttpMethod.GET == requestData.getHttpMethod()) {
+      urlTemplate = TemplateString.compile(ApiConnectionUtils.createFinalGetUrl(requestData.getUrl(), requestData.getOtherParams()), variables);
+    } else {
+      urlTemplate = TemplateString.compile(requestData.getUrl(), variables);
+      bodyTemplate = TemplateString.compile(ApiConnectionUtils.createRequestJsonString(requestData.getOtherParams()), variables);
+    }
+
+    Map<String, TemplateString> headerTemplates = new LinkedHashMap<>();
+    putHeaderTemplate(headerTemplates, HeadersParamKey.CONTENT_TYPE.getKey(), requestData.getContentType(), variables);
+    putHeaderTemplate(headerTemplates, HeadersParamKey.AUTHORIZATION.getKey(), requestData.getAuthorization(), variables);
+    putHeaderTemplate(headerTemplates, HeadersParamKey.ACCEPT.getKey(), requestData.getAccept(), variables);
+    if (Boolean.TRUE.equals(requestData.getCompression())) {
+      /* 兩種 engine 皆由本程式解壓縮, 以便分開統計傳輸大小與解壓縮時間 */
+      putHeaderTemplate(headerTemplates, HeadersParamKey.ACCEPT_ENCODING.getKey(), ResponseContentDecoder.ACCEPT_ENCODING, variables);
+    }
+    if (requestData.getOtherHeadersParams() != null) {
+      for (Map.Entry<String, Object> headersParam : requestData.getOtherHeadersParams().entrySet()) {
+        putHeaderTemplate(headerTemplates, headersParam.getKey(), String.valueOf(headersParam.getValue()), variables);
+      }
+    }
+
+    try {
+      RequestTemplate requestTemplate = new RequestTemplate(feeders, urlTemplate, bodyTemplate, headerTemplates);
+      templateLogger.info("請求範本 {} 已編譯完成, 請求內容{}", requestData.getUrl(),
+          requestTemplate.isStatic() ? "固定, 所有請求共用已編碼的內容" : "含有變數, 每次請求填入後編碼");
+      return requestTemplate;
+    } catch (IllegalArgumentException e) {
+      throw new CustomApplicationException("url 格式錯誤 - " + urlTemplate.render(feeders, null, null) + " , 程式已停止", e);
+    }
+
+  }
+
+  private static void putHeaderTemplate(Map<String, TemplateString> headerTemplates, String headerKey, String headerValue,
+      Map<String, int[]> variables) throws CustomApplicationException {
+    if (StringUtils.isNotBlank(headerValue)) {
+      headerTemplates.put(headerKey, TemplateString.compile(headerValue, variables));
+    }
+  }
+
+  private boolean hasVariables() {
+
+    if (urlTemplate.hasVariables() || (bodyTemplate != null && bodyTemplate.hasVariables())) {
+      return true;
+    }
+    for (TemplateString headerTemplate : headerTemplates.values()) {
+      if (headerTemplate.hasVariables()) {
+        return true;
+      }
+    }
+
+    return false;
+
+  }
+
+  /**
+   * 請求內容是否固定, 固定時每次 prepare 皆回傳同一份 PreparedRequest
+   */
+  public boolean isStatic() {
+    return staticRequest != null;
+  }
+
+  /**
+   * 產生本次要送出的已編碼請求內容; 內容固定時直接回傳共用的一份, 否則自各資料檔取出一筆資料填入變數後編碼;
+   * 可由多條執行緒同時呼叫, 填入後的 url 格式錯誤時拋出 IllegalArgumentException
+   */
+  public PreparedRequest prepare() {
+    return staticRequest != null ? staticRequest : render(nextRecords(feeders), null);
+  }
+
+  /**
+   * 以指定的資料與流程中已取出的值產生請求內容, 流程中的各步驟共用同一組資料; 內容固定時直接回傳共用的一份
+   *
+   * @param records 由 nextRecords 取得的各資料檔資料編號
+   * @param workflowValues 流程中已取出的值
+   */
+  public PreparedRequest prepare(int[] records, String[] workflowValues) {
+    return staticRequest != null ? staticRequest : render(records, workflowValues);
+  }
+
+  /**
+   * 自每個資料檔各取出一筆資料, 回傳各資料檔的資料編號
+   *
+   * @param feeders 所有資料檔
+   */
+  public static int[] nextRecords(List<DataFeeder> feeders) {
+
+    int[] records = new int[feeders.size()];
+    for (int index = 0; index < records.length; index++) {
+      records[index] = feeders.get(index).nextRecord();
+    }
+
+    return records;
+
+  }
+
+  private PreparedRequest render(int[] records, String[] workflowValues) {
+
+    Map<String, String> headers = new LinkedHashMap<>();
+    for (Map.Entry<String, TemplateString> headerTemplate : headerTemplates.entrySet()) {
+      headers.put(headerTemplate.getKey(), headerTemplate.getValue().render(feeders, records, workflowValues));
+    }
+
+    return PreparedRequest.create(urlTemplate.render(feeders, records, workflowValues),
+        bodyTemplate == null ? null : bodyTemplate.render(feeders, records, workflowValues), headers);
+
+  }
+
+}
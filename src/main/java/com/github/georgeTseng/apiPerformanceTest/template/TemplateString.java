@@ -0,0 +1,109 @@
+package com.github.georgeTseng.apiPerformanceTest.template;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 測試開始前編譯完成的 ${變數} 字串, 拆成固定的文字與變數的位置; 送出請求時依序接上, 不需再尋找或解析變數,
+ * 沒有變數時直接回傳原本的字串. 變數來自資料檔的欄位, 或流程中前面步驟自回應取出的值
+ */
+public class TemplateString {
+
+  public final static String VARIABLE_PREFIX = "${";
+  public final static String VARIABLE_SUFFIX = "}";
+
+  /* 變數位置中的資料檔編號為此值時, 代表流程中取出的值, 欄位編號即為取出值的編號 */
+  public final static int WORKFLOW_VALUE_FEEDER = -1;
+
+  /* 固定文字, 數量為變數數量加 1 */
+  private final String[] literals;
+  private final int[] variableFeeders;
+  private final int[] variableColumns;
+  private final int literalLength;
+
+  private TemplateString(String[] literals, int[] variableFeeders, int[] variableColumns) {
+    this.literals = literals;
+    this.variableFeeders = variableFeeders;
+    this.variableColumns = variableColumns;
+
+    int totalLength = 0;
+    for (String literal : literals) {
+      totalLength = totalLength + literal.length();
+    }
+    this.literalLength = totalLength;
+  }
+
+  /**
+   * 編譯含有 ${變數} 的字串, 使用未定義的變數或格式錯誤時拋出例外
+   *
+   * @param text 要編譯的字串
+   * @param variables 可用的變數, value 為 {資料檔編號, 欄位編號}, 流程中取出的值為 {WORKFLOW_VALUE_FEEDER, 取出值的編號}
+   */
+  public static TemplateString compile(String text, Map<String, int[]> variables) throws CustomApplicationException {
+
+    List<String> literals = new ArrayList<>();
+    List<int[]> variableLocations = new ArrayList<>();
+
+    int position = 0;
+    int variableStart;
+    while ((variableStart = text.indexOf(VARIABLE_PREFIX, position)) >= 0) {
+      int variableEnd = text.indexOf(VARIABLE_SUFFIX, variableStart + VARIABLE_PREFIX.length());
+      if (variableEnd < 0) {
+        throw new CustomApplicationException("變數格式錯誤, 缺少結束的 } - " + text + " , 程式已停止");
+      }
+
+      String variableName = text.substring(variableStart + VARIABLE_PREFIX.length(), variableEnd).trim();
+      int[] variableLocation = variables.get(variableName);
+      if (variableLocation == null) {
+        throw new CustomApplicationException("未定義的變數 - " + variableName + " , 可用的變數為 " + variables.keySet() + " , 程式已停止");
+      }
+
+      literals.add(text.substring(position, variableStart));
+      variableLocations.add(variableLocation);
+      position = variableEnd + VARIABLE_SUFFIX.length();
+    }
+    literals.add(text.substring(position));
+
+    int[] variableFeeders = new int[variableLocations.size()];
+    int[] variableColumns = new int[variableLocations.size()];
+    for (int index = 0; index < variableLocations.size(); index++) {
+      variableFeeders[index] = variableLocations.get(index)[0];
+      variableColumns[index] = variableLocations.get(index)[1];
+    }
+
+    return new TemplateString(literals.toArray(new String[0]), variableFeeders, variableColumns);
+
+  }
+
+  public boolean hasVariables() {
+    return variableFeeders.length > 0;
+  }
+
+  /**
+   * 以本次請求取出的資料填入變數
+   *
+   * @param feeders 所有資料檔
+   * @param records 本次請求在各資料檔取出的資料編號
+   * @param workflowValues 流程中已取出的值, 未使用流程時為 null
+   */
+  public String render(List<DataFeeder> feeders, int[] records, String[] workflowValues) {
+
+    if (!hasVariables()) {
+      return literals[0];
+    }
+
+    StringBuilder stringBuilder = new StringBuilder(literalLength + 16 * variableFeeders.length);
+    for (int index = 0; index < variableFeeders.length; index++) {
+      int feeder = variableFeeders[index];
+      stringBuilder.append(literals[index]).append(feeder == WORKFLOW_VALUE_FEEDER ? workflowValues[variableColumns[index]] :
+          feeders.get(feeder).getValue(records[feeder], variableColumns[index]));
+    }
+    stringBuilder.append(literals[variableFeeders.length]);
+
+    return stringBuilder.toString();
+
+  }
+
+}
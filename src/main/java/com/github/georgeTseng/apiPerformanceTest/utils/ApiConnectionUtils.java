@@ -1,159 +1,430 @@
 package com.github.georgeTseng.apiPerformanceTest.utils;
 
-import com.github.georgeTseng.apiPerformanceTest.ApiPerformanceTestApplication.HeadersParamKey;
 import com.github.georgeTseng.apiPerformanceTest.ApiPerformanceTestApplication.HeadersParamValue;
+import com.github.georgeTseng.apiPerformanceTest.connection.PhaseTimingAttributes;
+import com.github.georgeTseng.apiPerformanceTest.connection.ResponseContentDecoder;
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutException;
+import com.github.georgeTseng.apiPerformanceTest.connection.TotalTimeoutGuard;
+import com.github.georgeTseng.apiPerformanceTest.enums.ErrorType;
 import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.template.PreparedRequest;
+import com.github.georgeTseng.apiPerformanceTest.workflow.JsonValueExtractor;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 
 import java.util.Optional;
-import org.apache.commons.codec.Charsets;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
 
 public class ApiConnectionUtils {
 
   public final static Integer HTTP_OK_STATUS = 200;
+
+  /* 未取得回應時的狀態碼, 不與實際的 Http 狀態碼混淆 */
+  public final static Integer NO_RESPONSE_STATUS = 0;
   private final static String ERROR_PARAM_KEY = "error";
+  private final static int DISCARD_BUFFER_SIZE = 8192;
+
+  /* Gson 與 TypeToken 皆為執行緒安全, 不需每次請求重新建立 */
+  private final static Gson GSON = new Gson();
+  private final static Type JSON_REF_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+  /* 每條執行緒各自的緩衝區, 用來讀取後丟棄的回應內文 */
+  private final static ThreadLocal<byte[]> DISCARD_BUFFER = ThreadLocal.withInitial(() -> new byte[DISCARD_BUFFER_SIZE]);
 
-  public static PerformanceTestData getApiConnectResult(PerformanceRequestData requestData) throws UnsupportedEncodingException,
+  public static PerformanceTestData getApiConnectResult(CloseableHttpClient client, PerformanceRequestData requestData,
+      PreparedRequest preparedRequest) throws UnsupportedEncodingException,
       ClientProtocolException,
       IOException {
+    return getApiConnectResult(client, requestData, preparedRequest, null, null);
+  }
 
-    Type jsonRefType = new TypeToken<Map<String, Object>>() {}.getType();
+  /**
+   * 呼叫 api 並依回應內文的處理模式接收內文; 有指定 extractor 時不論處理模式皆讀取內文並取出指定的值.
+   * 有指定 timeoutGuard 時, 超過總時間上限即中止請求並拋出 TotalTimeoutException
+   *
+   * @param extractor 流程步驟自回應內文取值的 extractor, 不需取值時為 null
+   * @param timeoutGuard 限制單次請求總時間的 guard, 不限制時為 null
+   */
+  public static PerformanceTestData getApiConnectResult(CloseableHttpClient client, PerformanceRequestData requestData,
+      PreparedRequest preparedRequest, JsonValueExtractor extractor, TotalTimeoutGuard timeoutGuard) throws UnsupportedEncodingException,
+      ClientProtocolException,
+      IOException {
 
     Logger apiConnectionUtilsLogger = LoggerFactory.getLogger(ApiConnectionUtils.class);
 
-    Map<String, Object> responseDatas = new HashMap<>();
-
     /* 取出Http方法 */
     SupportedHttpMethod targetHttpMethod = requestData.getHttpMethod();
 
     /* 取出content-type */
     String contentType = requestData.getContentType();
 
-    CloseableHttpClient client = HttpClients.createDefault();
-
-    /* 取得api回應物件 */
-    CloseableHttpResponse response;
-    if (SupportedHttpMethod.GET == targetHttpMethod && HeadersParamValue.JSON.getValue().equals(contentType)) {
-      response = getApiConnectByGet(client, requestData);
-    } else if (SupportedHttpMethod.POST == targetHttpMethod && HeadersParamValue.JSON.getValue().equals(contentType)) {
-      response = getApiConnectByJsonPost(client, requestData);
-    } else if (SupportedHttpMethod.POST == targetHttpMethod && HeadersParamValue.FORM_URI.getValue().equals(contentType)) {
-      response = getApiConnectByFormPost(client, requestData);
-    } else {
+    /* 依Http方法與content-type建立請求物件 */
+    HttpRequestBase httpRequest = createHttpRequestObject(targetHttpMethod, contentType, preparedRequest);
+    if (httpRequest == null) {
       apiConnectionUtilsLogger.error("本程式上不支援此種組合: {} : {} ", targetHttpMethod, contentType);
+
+      Map<String, Object> responseDatas = new HashMap<>();
       responseDatas.put(ERROR_PARAM_KEY, "本程式上不支援此種組合: " + targetHttpMethod + ":" + contentType);
 
       return PerformanceTestData.builder()
-          .statusCode(400)
+          .statusCode(NO_RESPONSE_STATUS)
+          .errorType(ErrorType.REQUEST_ERROR.getKey())
           .responseDatas(responseDatas)
           .build();
     }
 
-    /* 確認 status code */
-    int statusCode = response.getStatusLine().getStatusCode();
-    if (HTTP_OK_STATUS != statusCode) {
-      apiConnectionUtilsLogger.error("link ng..., http status = {} ", statusCode);
+    /* 總時間從取得連線開始計算, 逾時即中止請求, 讀取中的執行緒會因連線被關閉而收到 IOException */
+    TotalTimeoutGuard.Deadline deadline = timeoutGuard == null ? null : timeoutGuard.start();
+    if (deadline != null) {
+      deadline.onExpired(httpRequest::abort);
     }
 
-    /* 取出回應裡的entity物件 */
-    HttpEntity responseEntity = response.getEntity();
-    Header encodingHeader = responseEntity.getContentEncoding();
+    try {
+      return executeRequest(apiConnectionUtilsLogger, client, requestData, httpRequest, extractor);
+    } catch (IOException e) {
+      if (deadline != null && deadline.isExpired()) {
+        throw new TotalTimeoutException(timeoutGuard.getTotalTimeoutMillis(), e);
+      }
+      throw e;
+    } finally {
+      if (deadline != null) {
+        deadline.finish();
+      }
+    }
+
+  }
+
+  private static PerformanceTestData executeRequest(Logger apiConnectionUtilsLogger, CloseableHttpClient client,
+      PerformanceRequestData requestData, HttpRequestBase httpRequest, JsonValueExtractor extractor) throws IOException {
+
+    Map<String, Object> responseDatas;
+
+    /* 每次請求各自的 context, 用來取回各階段的計時 */
+    HttpClientContext context = HttpClientContext.create();
+
+    /* 取得api回應物件 */
+    CloseableHttpResponse response = client.execute(httpRequest, context);
+
+    try {
 
-    /* 取得回傳之編碼 */
-    Charset responseEncoding = encodingHeader == null ? StandardCharsets.UTF_8 :
-        Charsets.toCharset(encodingHeader.getValue());
+      /* 確認 status code */
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (HTTP_OK_STATUS != statusCode) {
+        apiConnectionUtilsLogger.error("link ng..., http status = {} ", statusCode);
+      }
 
-    /* 轉出回傳之json string */
-    String responseJsonString = EntityUtils.toString(responseEntity, responseEncoding);
+      /* 取出回應裡的entity物件 */
+      HttpEntity responseEntity = response.getEntity();
+
+      /* 取得回傳之編碼, 取自 Content-Type 的 charset; Content-Encoding 為壓縮格式, 不是字元編碼 */
+      ContentType responseContentType = responseEntity == null ? null : ContentType.getLenient(responseEntity);
+      Charset responseEncoding = responseContentType == null || responseContentType.getCharset() == null ? StandardCharsets.UTF_8 :
+          responseContentType.getCharset();
+
+      /* 回應有壓縮時邊接收邊解壓縮 */
+      Header contentEncodingHeader = responseEntity == null ? null : responseEntity.getContentEncoding();
+      ResponseContentDecoder decoder = contentEncodingHeader == null ? null : ResponseContentDecoder.create(contentEncodingHeader.getValue());
+
+      /* 依回應內文的處理模式接收內文 */
+      SupportedResponseMode responseMode = requestData.getResponseMode();
+      long bodyTransferStartTime = System.nanoTime();
+      long responseBytes;
+      Long wireBytes = null;
+      long decompressTime = 0;
+      String responseChecksum = null;
+      boolean bodyConsumed = true;
+      String[] extractedValues = null;
+      Long timingEndTime = null;
+      String errorType = null;
+      responseDatas = null;
+
+      long parseStartTime;
+      if (decoder != null && (extractor != null || SupportedResponseMode.SIZE_ONLY != responseMode)) {
+        /* 解壓縮後的內容再依處理模式保留, 計算 CRC32 或直接丟棄; 取值時解壓縮完才取值, 取值的耗時計入解析內文 */
+        ByteArrayOutputStream decodedBody = extractor != null || SupportedResponseMode.PARSE == responseMode ?
+            new ByteArrayOutputStream() : null;
+        Checksum checksum = extractor == null && SupportedResponseMode.HASH == responseMode ? new CRC32() : null;
+        try {
+          wireBytes = decodeEntity(responseEntity, decoder, (buffer, offset, length) -> {
+            if (decodedBody != null) {
+              decodedBody.write(buffer, offset, length);
+            } else if (checksum != null) {
+              checksum.update(buffer, offset, length);
+            }
+          });
+        } finally {
+          decoder.close();
+        }
+        responseBytes = decoder.getDecodedBytes();
+        decompressTime = decoder.getDecodeTimeNanos();
+        responseChecksum = checksum == null ? null : Long.toHexString(checksum.getValue());
+        parseStartTime = System.nanoTime();
+
+        if (extractor != null) {
+          extractedValues = extractor.extract(new InputStreamReader(new ByteArrayInputStream(decodedBody.toByteArray()), responseEncoding));
+        } else if (decodedBody != null) {
+          try {
+            responseDatas = parseResponseBody(statusCode, decodedBody.toByteArray(), responseEncoding);
+          } catch (JsonParseException e) {
+            apiConnectionUtilsLogger.error("{} : {} ", ErrorType.RESPONSE_PARSE_ERROR.getDisplayName(), e.getMessage());
+            errorType = ErrorType.RESPONSE_PARSE_ERROR.getKey();
+          }
+        }
+      } else if (extractor != null) {
+        /* 邊讀取邊比對路徑, 取完後讀完剩下的內文讓連線可重複使用; 取值與接收同時進行, 耗時皆計入接收內文 */
+        try (CountingInputStream inputStream = new CountingInputStream(
+            responseEntity == null ? new ByteArrayInputStream(new byte[0]) : responseEntity.getContent())) {
+          extractedValues = extractor.extract(new InputStreamReader(inputStream, responseEncoding));
+          drainStream(inputStream, null);
+          responseBytes = inputStream.getCount();
+        }
+        parseStartTime = System.nanoTime();
+      } else switch (responseMode) {
+        case DISCARD:
+          /* 讀入共用的緩衝區後直接丟棄, 只保留位元組數 */
+          responseBytes = drainEntity(responseEntity, null);
+          parseStartTime = System.nanoTime();
+          break;
+        case HASH:
+          /* 邊讀取邊計算 CRC32, 不保留內文也能比對回應是否一致 */
+          Checksum checksum = new CRC32();
+          responseBytes = drainEntity(responseEntity, checksum);
+          responseChecksum = Long.toHexString(checksum.getValue());
+          parseStartTime = System.nanoTime();
+          break;
+        case SIZE_ONLY:
+          /* 計時止於取得 Content-Length, 之後才讀完內文讓連線可重複使用; 未提供時(例如 chunked)以讀完的位元組數為準 */
+          long contentLength = responseEntity == null ? 0 : responseEntity.getContentLength();
+          bodyConsumed = false;
+          parseStartTime = System.nanoTime();
+          timingEndTime = parseStartTime;
+          long drainedBytes = drainEntity(responseEntity, null);
+          responseBytes = contentLength >= 0 ? contentLength : drainedBytes;
+          break;
+        default:
+          byte[] responseBodyBytes = responseEntity == null ? null : EntityUtils.toByteArray(responseEntity);
+          responseBytes = responseBodyBytes == null ? 0 : responseBodyBytes.length;
+          parseStartTime = System.nanoTime();
+
+          /* 轉出回傳之json string 後轉成map */
+          try {
+            responseDatas = parseResponseBody(statusCode, responseBodyBytes, responseEncoding);
+          } catch (JsonParseException e) {
+            apiConnectionUtilsLogger.error("{} : {} ", ErrorType.RESPONSE_PARSE_ERROR.getDisplayName(), e.getMessage());
+            errorType = ErrorType.RESPONSE_PARSE_ERROR.getKey();
+          }
+          break;
+      }
+      long parseEndTime = timingEndTime == null ? System.nanoTime() : timingEndTime;
 
-    /* 轉成map */
-    responseDatas = new Gson().fromJson(responseJsonString, jsonRefType);
+      /* 由 context 取出連線建立, TLS 交握與等待回應的時間 */
+      long requestSentAt = PhaseTimingAttributes.getNanos(context, PhaseTimingAttributes.REQUEST_SENT_AT);
+      long responseHeadReceivedAt = PhaseTimingAttributes.getNanos(context, PhaseTimingAttributes.RESPONSE_HEAD_RECEIVED_AT);
 
-    return PerformanceTestData.builder()
-        .statusCode(statusCode)
-        .responseDatas(responseDatas)
-        .build();
+      return PerformanceTestData.builder()
+          .statusCode(statusCode)
+          .errorType(errorType)
+          .responseDatas(responseDatas)
+          .responseBytes(responseBytes)
+          /* 未壓縮或只取 Content-Length 時, 傳輸大小即為內文大小 */
+          .wireBytes(wireBytes == null ? responseBytes : wireBytes)
+          .responseChecksum(responseChecksum)
+          .bodyConsumed(bodyConsumed)
+          .extractedValues(extractedValues)
+          .connectTimeInMicros(toMicros(PhaseTimingAttributes.getNanos(context, PhaseTimingAttributes.CONNECT_TIME)))
+          .tlsHandshakeTimeInMicros(toMicros(PhaseTimingAttributes.getNanos(context, PhaseTimingAttributes.TLS_HANDSHAKE_TIME)))
+          .timeToFirstByteInMicros(toMicros(responseHeadReceivedAt - requestSentAt))
+          .bodyTransferTimeInMicros(toMicros(Math.max(parseStartTime - bodyTransferStartTime - decompressTime, 0)))
+          .decompressTimeInMicros(toMicros(decompressTime))
+          .parseTimeInMicros(toMicros(parseEndTime - parseStartTime))
+          .timingEndTime(timingEndTime)
+          .build();
+    } finally {
+      /* 讀取完畢後關閉回應物件, 讓連線能歸還給連線池 */
+      response.close();
+    }
 
   }
 
-  public static CloseableHttpResponse getApiConnectByGet(CloseableHttpClient client, PerformanceRequestData requestData) throws UnsupportedEncodingException, ClientProtocolException,
-      IOException {
+  /**
+   * 依Http方法與content-type建立請求物件, POST 時設定已編碼的內文, 內容固定時所有請求共用同一個 entity
+   *
+   * @return 不支援的組合時回傳 null
+   */
+  public static HttpRequestBase createHttpRequestObject(SupportedHttpMethod targetHttpMethod, String contentType,
+      PreparedRequest preparedRequest) {
 
-    Map<String, Object> otherParams = requestData.getOtherParams();
+    if (SupportedHttpMethod.GET == targetHttpMethod && HeadersParamValue.JSON.getValue().equals(contentType)) {
+      /* 指定 目標URL(已包含其他參數)，使用 GET 方法進行，並設定 Headers */
+      return createHttpGetObject(preparedRequest);
+    } else if (SupportedHttpMethod.POST == targetHttpMethod && (HeadersParamValue.JSON.getValue().equals(contentType)
+        || HeadersParamValue.FORM_URI.getValue().equals(contentType))) {
+      /* 指定 目標URL，使用 POST 方法進行，並設定 Headers */
+      HttpPost httpPost = createHttpPostObject(preparedRequest);
+      httpPost.setEntity(preparedRequest.getBodyEntity());
+      return httpPost;
+    }
 
-    /* 取出目標url */
-    String targetUri = requestData.getUrl();
-    String finalTargetUri = createFinalGetUrl(targetUri, otherParams);
+    return null;
 
-    /* 指定 目標URL，使用 GET 方法進行，並設定 Headers */
-    HttpGet httpGet = createHttpGetObject(finalTargetUri, requestData);
+  }
 
-    /* 設定 回應物件 後執行 */
-    return client.execute(httpGet);
+  /**
+   * 讀完回應內文並回傳位元組數, 有指定 checksum 時一併計算
+   */
+  private static long drainEntity(HttpEntity responseEntity, Checksum checksum) throws IOException {
+
+    if (responseEntity == null) {
+      return 0;
+    }
+
+    try (InputStream inputStream = responseEntity.getContent()) {
+      return drainStream(inputStream, checksum);
+    }
 
   }
 
-  public static CloseableHttpResponse getApiConnectByJsonPost(CloseableHttpClient client, PerformanceRequestData requestData) throws UnsupportedEncodingException, ClientProtocolException,
-      IOException {
+  /**
+   * 以共用的緩衝區讀完內文並邊讀取邊解壓縮, 回傳實際傳輸的位元組數
+   */
+  private static long decodeEntity(HttpEntity responseEntity, ResponseContentDecoder decoder,
+      ResponseContentDecoder.DecodedBytesConsumer consumer) throws IOException {
 
-    /* 取出目標url */
-    String targetUri = requestData.getUrl();
+    byte[] readBuffer = DISCARD_BUFFER.get();
+    long totalBytes = 0;
 
-    /* 指定 目標URL，使用 POST 方法進行，並設定 Headers */
-    HttpPost httpPost = createHttpPostObject(targetUri, requestData);
+    try (InputStream inputStream = responseEntity.getContent()) {
+      int readBytes;
+      while ((readBytes = inputStream.read(readBuffer)) != -1) {
+        decoder.update(readBuffer, 0, readBytes, consumer);
+        totalBytes += readBytes;
+      }
+    }
+
+    return totalBytes;
+
+  }
 
-    /* 產生 json string */
-    String requestJsonString = createRequestJsonString(requestData.getOtherParams());
+  /**
+   * 以共用的緩衝區讀完剩下的內文並回傳位元組數, 有指定 checksum 時一併計算
+   */
+  private static long drainStream(InputStream inputStream, Checksum checksum) throws IOException {
 
-    /* 產生並設定 StringEntity */
-    StringEntity httpEntity = new StringEntity(requestJsonString);
-    httpPost.setEntity(httpEntity);
+    byte[] discardBuffer = DISCARD_BUFFER.get();
+    long totalBytes = 0;
+
+    int readBytes;
+    while ((readBytes = inputStream.read(discardBuffer)) != -1) {
+      if (checksum != null) {
+        checksum.update(discardBuffer, 0, readBytes);
+      }
+      totalBytes += readBytes;
+    }
+
+    return totalBytes;
 
-    /* 設定 回應物件 後執行 */
-    return client.execute(httpPost);
   }
 
-  public static CloseableHttpResponse getApiConnectByFormPost(CloseableHttpClient client, PerformanceRequestData requestData) throws UnsupportedEncodingException, ClientProtocolException,
-      IOException {
+  /**
+   * 計算已讀取位元組數的 InputStream, 取值時用來算出回應內文的大小
+   */
+  private static class CountingInputStream extends FilterInputStream {
 
-    /* 取出目標url */
-    String targetUri = requestData.getUrl();
+    private long count;
 
-    /* 指定 目標URL，使用 POST 方法進行，並設定 Headers */
-    HttpPost httpPost = createHttpPostObject(targetUri, requestData);
+    private CountingInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
 
-    /* 產生 json string */
-    String requestJsonString = createRequestJsonString(requestData.getOtherParams());
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value != -1) {
+        count++;
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int readBytes = super.read(buffer, offset, length);
+      if (readBytes > 0) {
+        count += readBytes;
+      }
+      return readBytes;
+    }
 
-    /* 產生並設定 StringEntity */
-    StringEntity httpEntity = new StringEntity(requestJsonString);
-    httpPost.setEntity(httpEntity);
+    @Override
+    public long skip(long length) throws IOException {
+      long skippedBytes = super.skip(length);
+      count += skippedBytes;
+      return skippedBytes;
+    }
+
+    private long getCount() {
+      return count;
+    }
+
+  }
+
+  /**
+   * PARSE 模式下將回應內文轉成 map, 阻塞與非阻塞模式共用; 非 200 的回應(例如閘道回傳的 html 錯誤頁)不解析, 交由狀態碼分類.
+   * 200 的內文不是 json 物件時拋出 JsonParseException, 呼叫端標記為 RESPONSE_PARSE_ERROR 並保留狀態碼
+   *
+   * @param statusCode Http 狀態碼
+   * @param responseBody 回應內文, 沒有內文時為 null
+   * @param responseEncoding 回應的字元編碼
+   */
+  public static Map<String, Object> parseResponseBody(int statusCode, byte[] responseBody, Charset responseEncoding) {
+
+    if (HTTP_OK_STATUS != statusCode || responseBody == null) {
+      return null;
+    }
+
+    return parseResponseJson(new String(responseBody, responseEncoding));
+
+  }
 
-    /* 設定 回應物件 後執行 */
-    return client.execute(httpPost);
+  /**
+   * 將回傳之json string 轉成map, 阻塞與非阻塞模式共用
+   */
+  public static Map<String, Object> parseResponseJson(String responseJsonString) {
+    return GSON.fromJson(responseJsonString, JSON_REF_TYPE);
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
   }
 
   public static String createFinalGetUrl(String targetUri, Map<String, Object> otherParams) {
@@ -176,66 +447,24 @@ public class ApiConnectionUtils {
     return stringBuilder.toString();
   }
 
-  public static HttpGet createHttpGetObject(String targetUri, PerformanceRequestData requestData) {
-
-    /* 指定 目標URL，使用 GET 方法進行 */
-    HttpGet httpGet = new HttpGet(targetUri);
-
-    /* 設定一般Headers */
-    String contentType = requestData.getContentType();
-    if (StringUtils.isNotBlank(contentType)) {
-      httpGet.setHeader(HeadersParamKey.CONTENT_TYPE.getKey(), contentType);
-    }
-
-    String authorization = requestData.getAuthorization();
-    if (StringUtils.isNotBlank(authorization)) {
-      httpGet.setHeader(HeadersParamKey.AUTHORIZATION.getKey(), authorization);
-    }
+  public static HttpGet createHttpGetObject(PreparedRequest preparedRequest) {
 
-    String accept = requestData.getAccept();
-    if (StringUtils.isNotBlank(accept)) {
-      httpGet.setHeader(HeadersParamKey.ACCEPT.getKey(), accept);
-    }
+    /* 指定 已解析的目標URI，使用 GET 方法進行 */
+    HttpGet httpGet = new HttpGet(preparedRequest.getUri());
 
-    Map<String, Object> otherHeadersParams = requestData.getOtherHeadersParams();
-    /* 設定其他Headers */
-    if (Optional.ofNullable(otherHeadersParams).isPresent() && otherHeadersParams.size() > 0) {
-      for (Map.Entry<String, Object> headersParam : otherHeadersParams.entrySet()) {
-        httpGet.setHeader(headersParam.getKey(), (String) headersParam.getValue());
-      }
-    }
+    /* 設定已建立的所有Headers, Header 物件不可變更, 可與其他請求共用 */
+    httpGet.setHeaders(preparedRequest.getHeaders());
 
     return httpGet;
   }
 
-  public static HttpPost createHttpPostObject(String targetUri, PerformanceRequestData requestData) {
-
-    /* 指定 目標URL，使用 GET 方法進行 */
-    HttpPost httpPost = new HttpPost(targetUri);
-
-    /* 設定一般Headers */
-    String contentType = requestData.getContentType();
-    if (StringUtils.isNotBlank(contentType)) {
-      httpPost.setHeader(HeadersParamKey.CONTENT_TYPE.getKey(), contentType);
-    }
-
-    String authorization = requestData.getAuthorization();
-    if (StringUtils.isNotBlank(authorization)) {
-      httpPost.setHeader(HeadersParamKey.AUTHORIZATION.getKey(), authorization);
-    }
+  public static HttpPost createHttpPostObject(PreparedRequest preparedRequest) {
 
-    String accept = requestData.getAccept();
-    if (StringUtils.isNotBlank(accept)) {
-      httpPost.setHeader(HeadersParamKey.ACCEPT.getKey(), accept);
-    }
+    /* 指定 已解析的目標URI，使用 POST 方法進行 */
+    HttpPost httpPost = new HttpPost(preparedRequest.getUri());
 
-    /* 設定其他Headers */
-    Map<String, Object> otherHeadersParams = requestData.getOtherHeadersParams();
-    if (Optional.ofNullable(otherHeadersParams).isPresent() && otherHeadersParams.size() > 0) {
-      for (Map.Entry<String, Object> headersParam : otherHeadersParams.entrySet()) {
-        httpPost.setHeader(headersParam.getKey(), (String) headersParam.getValue());
-      }
-    }
+    /* 設定已建立的所有Headers, Header 物件不可變更, 可與其他請求共用 */
+    httpPost.setHeaders(preparedRequest.getHeaders());
 
     return httpPost;
   }
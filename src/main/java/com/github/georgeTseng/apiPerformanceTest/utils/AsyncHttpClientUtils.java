@@ -0,0 +1,175 @@
+package com.github.georgeTseng.apiPerformanceTest.utils;
+
+import com.github.georgeTseng.apiPerformanceTest.ApiPerformanceTestApplication.HeadersParamValue;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.template.PreparedRequest;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AsyncHttpClientUtils {
+
+  private static Logger getLoggerInstance() {
+    return LoggerFactory.getLogger(AsyncHttpClientUtils.class);
+  }
+
+  /**
+   * 依請求設定建立整次測試共用的 CloseableHttpAsyncClient, 由少數 I/O reactor 執行緒處理所有連線
+   *
+   * @param requestData 請求設定
+   */
+  public static CloseableHttpAsyncClient createHttpAsyncClient(PerformanceRequestData requestData) {
+
+    Logger asyncHttpClientUtilsLogger = getLoggerInstance();
+
+    PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(requestData.getMaxConnections())
+        .setMaxConnPerRoute(requestData.getMaxConnectionsPerRoute())
+        .setDefaultConnectionConfig(ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(requestData.getConnectTimeout()))
+            .setSocketTimeout(Timeout.ofMilliseconds(requestData.getReadTimeout()))
+            .build())
+        .build();
+
+    HttpAsyncClientBuilder httpAsyncClientBuilder = HttpAsyncClients.custom()
+        .setIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(requestData.getIoThreads()).build())
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.ofMilliseconds(requestData.getReadTimeout())).build())
+        /* 預設會在 1 秒後重送 503 與 429 的請求, 使快速回應的錯誤被算成一次較慢的請求 */
+        .disableAutomaticRetries()
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofSeconds(requestData.getIdleConnectionTime()));
+
+    if (Boolean.TRUE.equals(requestData.getReuseConnection())) {
+      /* 重複使用連線, 保持時間以伺服器回應與設定值中較短者為準 */
+      httpAsyncClientBuilder.setKeepAliveStrategy(createKeepAliveStrategy(requestData.getKeepAliveTime()));
+    } else {
+      /* 每次請求結束後即關閉連線, 用來量測每次都重新建立連線的情境 */
+      httpAsyncClientBuilder.setConnectionReuseStrategy((request, response, context) -> false);
+    }
+
+    asyncHttpClientUtilsLogger.info("已建立共用的 HttpAsyncClient, I/O 執行緒數: {} , 最大連線數: {} , 單一路由最大連線數: {} , 重複使用連線: {} , 連線/讀取逾時: {} / {} ms ",
+        requestData.getIoThreads(), requestData.getMaxConnections(), requestData.getMaxConnectionsPerRoute(),
+        requestData.getReuseConnection(), requestData.getConnectTimeout(), requestData.getReadTimeout());
+
+    return httpAsyncClientBuilder.build();
+
+  }
+
+  /**
+   * 依請求設定建立 HTTP/2 使用的 CloseableHttpAsyncClient, 每個 client 對同一路由只維持一條多工的連線, 因此依連線數建立多個 client;
+   * url 為 https 時以 TLS(ALPN) 協商 h2, 為 http 時直接以 h2c 連線
+   *
+   * @param requestData 請求設定
+   */
+  public static CloseableHttpAsyncClient[] createHttp2AsyncClients(PerformanceRequestData requestData) {
+
+    Logger asyncHttpClientUtilsLogger = getLoggerInstance();
+
+    if (!Boolean.TRUE.equals(requestData.getReuseConnection())) {
+      /* HTTP/2 的請求共用多工的連線, 無法每次請求都建立新連線 */
+      asyncHttpClientUtilsLogger.warn("HTTP/2 的請求皆共用多工的連線, 不重複使用連線的設定不適用, 將維持連線 ");
+    }
+
+    CloseableHttpAsyncClient[] httpAsyncClients = new CloseableHttpAsyncClient[requestData.getHttp2Connections()];
+    for (int index = 0; index < httpAsyncClients.length; index++) {
+      /* 單一連線只會由一條 I/O 執行緒處理, 每個 client 一條即可 */
+      httpAsyncClients[index] = H2AsyncClientBuilder.create()
+          .setIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(1).build())
+          .setH2Config(H2Config.custom()
+              .setPushEnabled(false)
+              .setMaxConcurrentStreams(requestData.getHttp2MaxStreams())
+              .build())
+          .setDefaultConnectionConfig(ConnectionConfig.custom()
+              .setConnectTimeout(Timeout.ofMilliseconds(requestData.getConnectTimeout()))
+              .setSocketTimeout(Timeout.ofMilliseconds(requestData.getReadTimeout()))
+              .build())
+          .setDefaultRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.ofMilliseconds(requestData.getReadTimeout())).build())
+          .disableAutomaticRetries()
+          .evictIdleConnections(TimeValue.ofSeconds(requestData.getIdleConnectionTime()))
+          .build();
+    }
+
+    asyncHttpClientUtilsLogger.info("已建立 HTTP/2 使用的 HttpAsyncClient, 連線數: {} , 每條連線的串流上限: {} , 連線/讀取逾時: {} / {} ms ",
+        requestData.getHttp2Connections(), requestData.getHttp2MaxStreams(), requestData.getConnectTimeout(), requestData.getReadTimeout());
+
+    return httpAsyncClients;
+
+  }
+
+  /**
+   * 關閉整次測試共用的 CloseableHttpAsyncClient
+   *
+   * @param httpAsyncClient 要關閉的 CloseableHttpAsyncClient
+   * @param closeMode GRACEFUL 等待進行中的請求結束, IMMEDIATE 直接中斷
+   */
+  public static void closeHttpAsyncClient(CloseableHttpAsyncClient httpAsyncClient, CloseMode closeMode) {
+    httpAsyncClient.close(closeMode);
+  }
+
+  /**
+   * 依請求設定與已編碼的請求內容產生非阻塞模式使用的請求物件, 支援的 Http 方法與 content-type 組合與阻塞模式相同
+   *
+   * @param requestData 請求設定
+   * @param preparedRequest 已編碼的請求內容
+   * @return 不支援的組合時回傳 null
+   */
+  public static SimpleHttpRequest createSimpleHttpRequest(PerformanceRequestData requestData, PreparedRequest preparedRequest) {
+
+    /* 取出Http方法 */
+    SupportedHttpMethod targetHttpMethod = requestData.getHttpMethod();
+
+    /* 取出content-type */
+    String contentType = requestData.getContentType();
+
+    SimpleHttpRequest httpRequest;
+    if (SupportedHttpMethod.GET == targetHttpMethod && HeadersParamValue.JSON.getValue().equals(contentType)) {
+      httpRequest = new SimpleHttpRequest(Method.GET, preparedRequest.getUri());
+    } else if (SupportedHttpMethod.POST == targetHttpMethod && (HeadersParamValue.JSON.getValue().equals(contentType)
+        || HeadersParamValue.FORM_URI.getValue().equals(contentType))) {
+      /* 與阻塞模式相同, 以 json string 作為內文; 直接使用已編碼的 byte[], 不另外複製 */
+      httpRequest = new SimpleHttpRequest(Method.POST, preparedRequest.getUri());
+      httpRequest.setBody(preparedRequest.getBody(), preparedRequest.getAsyncContentType());
+    } else {
+      getLoggerInstance().error("本程式上不支援此種組合: {} : {} ", targetHttpMethod, contentType);
+      return null;
+    }
+
+    /* 設定已建立的所有Headers, Header 物件不可變更, 可與其他請求共用 */
+    httpRequest.setHeaders(preparedRequest.getAsyncHeaders());
+
+    return httpRequest;
+
+  }
+
+  private static ConnectionKeepAliveStrategy createKeepAliveStrategy(long keepAliveTime) {
+
+    long keepAliveMillis = TimeUnit.SECONDS.toMillis(keepAliveTime);
+
+    return (response, context) -> {
+      TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      long serverKeepAliveMillis = serverKeepAlive == null ? -1 : serverKeepAlive.toMilliseconds();
+      return TimeValue.ofMilliseconds(serverKeepAliveMillis > 0 ? Math.min(serverKeepAliveMillis, keepAliveMillis) : keepAliveMillis);
+    };
+
+  }
+
+}
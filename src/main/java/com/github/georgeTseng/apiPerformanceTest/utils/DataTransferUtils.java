@@ -1,20 +1,31 @@
 package com.github.georgeTseng.apiPerformanceTest.utils;
 
 import com.github.georgeTseng.apiPerformanceTest.ApiPerformanceTestApplication.HeadersParamValue;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedEngine;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedFeederOrder;
 import com.github.georgeTseng.apiPerformanceTest.enums.SupportedHttpMethod;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedLoadModel;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedResponseMode;
+import com.github.georgeTseng.apiPerformanceTest.enums.SupportedStageTransition;
 import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.FeederData;
+import com.github.georgeTseng.apiPerformanceTest.model.FeederFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageData;
+import com.github.georgeTseng.apiPerformanceTest.model.LoadStageFileData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestFileData;
-import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
-import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioData;
+import com.github.georgeTseng.apiPerformanceTest.model.ScenarioFileData;
+import com.github.georgeTseng.apiPerformanceTest.model.WorkflowStepData;
+import com.github.georgeTseng.apiPerformanceTest.model.WorkflowStepFileData;
 
-import org.apache.commons.lang3.StringUtils;
-
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 
 public class DataTransferUtils {
 
@@ -25,6 +36,14 @@ public class DataTransferUtils {
   public final static int ONE = 1;
   public final static int ZERO = 0;
   public final static int HTTP_OK_STATUS_OK = 200;
+  public final static long DEFAULT_KEEP_ALIVE_TIME = 30;
+  public final static long DEFAULT_IDLE_CONNECTION_TIME = 30;
+  public final static long DEFAULT_SHUTDOWN_TIMEOUT = 30;
+  public final static long DEFAULT_CONNECT_TIMEOUT = 10000;
+  public final static long DEFAULT_READ_TIMEOUT = 30000;
+  public final static long DEFAULT_TOTAL_TIMEOUT = 60000;
+  public final static int DEFAULT_IO_THREADS = Runtime.getRuntime().availableProcessors();
+  public final static int DEFAULT_HTTP2_MAX_STREAMS = 100;
 
   /**
    * 將輸入的物件轉換為 PerformanceRequestFileData 物件
@@ -35,85 +54,433 @@ public class DataTransferUtils {
     return PerformanceRequestFileData.builder()
         .url(requestData.getUrl())
         .httpMethod(requestData.getHttpMethod().toString())
-        .taskLimit(requestData.getTaskLimit().toString())
+        .taskLimit(requestData.getTaskLimit() == null ? null : requestData.getTaskLimit().toString())
+        .runDuration(requestData.getRunDuration() == null ? null : requestData.getRunDuration().toString())
+        .warmUpCount(requestData.getWarmUpCount() == null ? null : requestData.getWarmUpCount().toString())
+        .warmUpDuration(requestData.getWarmUpDuration() == null ? null : requestData.getWarmUpDuration().toString())
+        .shutdownTimeout(requestData.getShutdownTimeout().toString())
         .waitTime(requestData.getWaitTime().toString())
+        .concurrency(requestData.getConcurrency().toString())
+        .loadModel(requestData.getLoadModel().toString())
+        .targetRate(requestData.getTargetRate() == null ? null : requestData.getTargetRate().toString())
+        .stages(transIntoLoadStageFileData(requestData.getStages()))
+        .reuseConnection(requestData.getReuseConnection().toString())
+        .compression(requestData.getCompression().toString())
+        .maxConnections(requestData.getMaxConnections().toString())
+        .maxConnectionsPerRoute(requestData.getMaxConnectionsPerRoute().toString())
+        .keepAliveTime(requestData.getKeepAliveTime().toString())
+        .idleConnectionTime(requestData.getIdleConnectionTime().toString())
+        .connectTimeout(requestData.getConnectTimeout().toString())
+        .readTimeout(requestData.getReadTimeout().toString())
+        .totalTimeout(requestData.getTotalTimeout().toString())
+        .engine(requestData.getEngine().toString())
+        .ioThreads(requestData.getIoThreads().toString())
+        .http2Connections(requestData.getHttp2Connections().toString())
+        .http2MaxStreams(requestData.getHttp2MaxStreams().toString())
         .contentType(requestData.getContentType())
         .authorization(requestData.getAuthorization())
         .accept(requestData.getAccept())
+        .responseMode(requestData.getResponseMode().toString())
         .otherHeadersParams(requestData.getOtherHeadersParams())
         .otherParams(requestData.getOtherParams())
+        .feeders(transIntoFeederFileData(requestData.getFeeders()))
+        .scenarios(transIntoScenarioFileData(requestData.getScenarios()))
+        .steps(transIntoWorkflowStepFileData(requestData.getSteps()))
         .build();
   }
 
   /**
-   * 將輸入的物件轉換為 PerformanceResultFileData 物件
+   * 將流程的各步驟轉換為存入檔案用的 WorkflowStepFileData 物件
    *
-   * @param taskResults 輸入的 List<Future<PerformanceTestData>> 物件
+   * @param steps 流程的步驟, 未使用時為 null
    */
-  public static PerformanceResultFileData transIntoPerformanceResultFileData(List<Future<PerformanceTestData>> taskResults) {
+  public static List<WorkflowStepFileData> transIntoWorkflowStepFileData(List<WorkflowStepData> steps) {
 
-    Map<Integer, PerformanceTestData> performanceTestResults = new HashMap<>();
-    long averageOperateTime = ZERO, bestOperateTime = ZERO, worstOperateTime = ZERO;
-    int okCount = ZERO, ngCount = ZERO;
-    double okPercent = ZERO;
+    if (steps == null) {
+      return null;
+    }
 
-    if (taskResults == null) {
-      throw new CustomApplicationException("empty performance test result...");
-    } else {
-      long totalOperateTime = ZERO;
+    return steps.stream()
+        .map(step -> WorkflowStepFileData.builder()
+            .name(step.getName())
+            .url(step.getUrl())
+            .httpMethod(step.getHttpMethod().toString())
+            .authorization(step.getAuthorization())
+            .contentType(step.getContentType())
+            .accept(step.getAccept())
+            .otherHeadersParams(step.getOtherHeadersParams())
+            .otherParams(step.getOtherParams())
+            .extract(step.getExtract())
+            .cacheTtl(step.getCacheTtl() == null ? null : step.getCacheTtl().toString())
+            .build())
+        .collect(Collectors.toList());
 
-      int totalTestCount = taskResults.size();
+  }
 
-      for (int index = 0; index < totalTestCount; index++) {
-        Future<PerformanceTestData> currentTest = taskResults.get(index);
-        try {
-          PerformanceTestData currentTestData = currentTest.get();
+  /**
+   * 處理/檢查流程的各步驟; 取值路徑與變數名稱於測試開始時編譯, 未設定的 Headers 於測試開始時沿用最外層的值
+   *
+   * @param stepFileDatas 由 json 中取得的流程步驟
+   */
+  public static List<WorkflowStepData> transIntoWorkflowStepData(List<WorkflowStepFileData> stepFileDatas) throws CustomApplicationException {
 
-          long currentOperateTime = currentTestData.getOperateTime();
-          if (worstOperateTime < currentOperateTime) {
-            worstOperateTime = currentOperateTime;
-          }
+    List<WorkflowStepData> steps = new ArrayList<>();
+    Set<String> stepNames = new HashSet<>();
 
-          if (bestOperateTime == ZERO || bestOperateTime > currentOperateTime) {
-            bestOperateTime = currentOperateTime;
-          }
+    for (int index = 0; index < stepFileDatas.size(); index++) {
+      WorkflowStepFileData stepFileData = stepFileDatas.get(index);
+
+      /* 未命名的步驟依順序命名 */
+      String stepName = StringUtils.isBlank(stepFileData.getName()) ? "step-" + (index + 1) : stepFileData.getName();
+      if (!stepNames.add(stepName)) {
+        throw new CustomApplicationException("流程步驟名稱重複 - " + stepName + " , 程式已停止");
+      }
 
-          if (HTTP_OK_STATUS_OK == currentTestData.getStatusCode()) {
-            okCount++;
-          } else {
-            ngCount++;
+      if (StringUtils.isBlank(stepFileData.getUrl())) {
+        throw new CustomApplicationException("無效的url - " + stepName + " , 程式已停止");
+      }
+
+      if (stepFileData.getExtract() != null) {
+        for (Map.Entry<String, String> extractEntry : stepFileData.getExtract().entrySet()) {
+          if (StringUtils.isBlank(extractEntry.getKey()) || StringUtils.isBlank(extractEntry.getValue())) {
+            throw new CustomApplicationException("無效的取值設定 - " + stepName + " , 程式已停止");
           }
+        }
+      }
 
-          performanceTestResults.put((index + 1), currentTestData);
+      /* 快取期限只對有取值的步驟有意義 */
+      Long cacheTtl = StringUtils.isBlank(stepFileData.getCacheTtl()) ? null :
+          parsePositiveNumber(stepFileData.getCacheTtl(), ONE, "快取期限");
+      if (cacheTtl != null && (stepFileData.getExtract() == null || stepFileData.getExtract().isEmpty())) {
+        throw new CustomApplicationException("設定快取期限的步驟需同時設定取值 - " + stepName + " , 程式已停止");
+      }
 
-          totalOperateTime = totalOperateTime + currentOperateTime;
-          if (index == totalTestCount - 1) {
-            averageOperateTime = totalOperateTime / totalTestCount;
-            double okRate = (100 * okCount) / (totalTestCount * 1.0);
-            double decimalPlaceFactor = Math.pow(10, 2);
-            okPercent = Math.round((okRate / decimalPlaceFactor) * decimalPlaceFactor);
+      steps.add(WorkflowStepData.builder()
+          .name(stepName)
+          .url(stepFileData.getUrl())
+          .httpMethod(transIntoHttpMethod(stepFileData.getHttpMethod()))
+          .authorization(stepFileData.getAuthorization())
+          .contentType(checkContentType(stepFileData.getContentType()))
+          .accept(checkAccept(stepFileData.getAccept()))
+          .otherHeadersParams(stepFileData.getOtherHeadersParams())
+          .otherParams(stepFileData.getOtherParams())
+          .extract(stepFileData.getExtract())
+          .cacheTtl(cacheTtl)
+          .build());
+    }
 
+    return steps;
 
-          }
+  }
+
+  /**
+   * 將混合的請求定義轉換為存入檔案用的 ScenarioFileData 物件
+   *
+   * @param scenarios 請求定義, 未使用時為 null
+   */
+  public static List<ScenarioFileData> transIntoScenarioFileData(List<ScenarioData> scenarios) {
 
-        } catch (InterruptedException | ExecutionException e) {
-          throw new CustomApplicationException(System.lineSeparator() + "fail to get TaskData in currentTask" + System.lineSeparator(), e);
+    if (scenarios == null) {
+      return null;
+    }
+
+    return scenarios.stream()
+        .map(scenario -> ScenarioFileData.builder()
+            .name(scenario.getName())
+            .weight(scenario.getWeight().toString())
+            .url(scenario.getUrl())
+            .httpMethod(scenario.getHttpMethod().toString())
+            .authorization(scenario.getAuthorization())
+            .contentType(scenario.getContentType())
+            .accept(scenario.getAccept())
+            .otherHeadersParams(scenario.getOtherHeadersParams())
+            .otherParams(scenario.getOtherParams())
+            .build())
+        .collect(Collectors.toList());
+
+  }
+
+  /**
+   * 處理/檢查混合的各請求定義; 權重未設定時為 1, 未設定的 Headers 於測試開始時沿用最外層的值
+   *
+   * @param scenarioFileDatas 由 json 中取得的請求定義
+   */
+  public static List<ScenarioData> transIntoScenarioData(List<ScenarioFileData> scenarioFileDatas) throws CustomApplicationException {
+
+    List<ScenarioData> scenarios = new ArrayList<>();
+    Set<String> scenarioNames = new HashSet<>();
+
+    for (int index = 0; index < scenarioFileDatas.size(); index++) {
+      ScenarioFileData scenarioFileData = scenarioFileDatas.get(index);
+
+      /* 未命名的請求定義依順序命名 */
+      String scenarioName = StringUtils.isBlank(scenarioFileData.getName()) ? "scenario-" + (index + 1) : scenarioFileData.getName();
+      if (!scenarioNames.add(scenarioName)) {
+        throw new CustomApplicationException("請求定義名稱重複 - " + scenarioName + " , 程式已停止");
+      }
+
+      if (StringUtils.isBlank(scenarioFileData.getUrl())) {
+        throw new CustomApplicationException("無效的url - " + scenarioName + " , 程式已停止");
+      }
+
+      double weight = 1;
+      if (StringUtils.isNotBlank(scenarioFileData.getWeight())) {
+        weight = Double.parseDouble(scenarioFileData.getWeight());
+        if (!(weight > ZERO) || Double.isInfinite(weight)) {
+          throw new CustomApplicationException("無效的權重 - " + scenarioName + " : " + weight + " , 程式已停止");
         }
       }
 
-      return PerformanceResultFileData.builder()
-          .performanceTestResults(performanceTestResults)
-          .totalCount(totalTestCount)
-          .averageOperateTime(averageOperateTime)
-          .bestOperateTime(bestOperateTime)
-          .worstOperateTime(worstOperateTime)
-          .okPercent(okPercent)
-          .okCount(okCount)
-          .ngCount(ngCount)
-          .build();
+      scenarios.add(ScenarioData.builder()
+          .name(scenarioName)
+          .weight(weight)
+          .url(scenarioFileData.getUrl())
+          .httpMethod(transIntoHttpMethod(scenarioFileData.getHttpMethod()))
+          .authorization(scenarioFileData.getAuthorization())
+          .contentType(checkContentType(scenarioFileData.getContentType()))
+          .accept(checkAccept(scenarioFileData.getAccept()))
+          .otherHeadersParams(scenarioFileData.getOtherHeadersParams())
+          .otherParams(scenarioFileData.getOtherParams())
+          .build());
+    }
+
+    return scenarios;
+
+  }
+
+  /**
+   * 以單一請求定義或流程步驟取代最外層的 url 與參數, 未設定的 Headers 沿用最外層的值, 其餘設定維持不變
+   *
+   * @param requestData 最外層的請求設定
+   * @param url 目標 url
+   * @param httpMethod Http方法
+   * @param authorization 未設定時為 null
+   * @param contentType 未設定時為 null
+   * @param accept 未設定時為 null
+   * @param otherHeadersParams 未設定時為 null
+   * @param otherParams 其他參數, 不沿用最外層的值
+   */
+  public static PerformanceRequestData transIntoOverriddenRequestData(PerformanceRequestData requestData, String url,
+      SupportedHttpMethod httpMethod, String authorization, String contentType, String accept, Map<String, Object> otherHeadersParams,
+      Map<String, Object> otherParams) {
+    return requestData.toBuilder()
+        .url(url)
+        .httpMethod(httpMethod)
+        .authorization(StringUtils.isBlank(authorization) ? requestData.getAuthorization() : authorization)
+        .contentType(StringUtils.isBlank(contentType) ? requestData.getContentType() : contentType)
+        .accept(StringUtils.isBlank(accept) ? requestData.getAccept() : accept)
+        .otherHeadersParams(otherHeadersParams == null ? requestData.getOtherHeadersParams() : otherHeadersParams)
+        .otherParams(otherParams)
+        .scenarios(null)
+        .steps(null)
+        .build();
+  }
+
+  /**
+   * 轉換Http方法, 未設定時為 GET
+   *
+   * @param usedMethod 設定檔中的字串
+   */
+  public static SupportedHttpMethod transIntoHttpMethod(String usedMethod) throws CustomApplicationException {
+
+    if (StringUtils.isBlank(usedMethod)) {
+      return SupportedHttpMethod.GET;
+    }
+
+    switch (usedMethod) {
+      case "GET":
+        return SupportedHttpMethod.GET;
+      case "POST":
+        return SupportedHttpMethod.POST;
+      default:
+        throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
+    }
+
+  }
+
+  /**
+   * 檢查 content-type, 僅接受 application/json 或 application/x-www-form-urlencoded, 未設定時回傳原值
+   */
+  private static String checkContentType(String contentTypeValue) throws CustomApplicationException {
+
+    if (StringUtils.isNotBlank(contentTypeValue)) {
+      if (HeadersParamValue.isNotEqualToDefaultValue(contentTypeValue, HeadersParamValue.JSON) &&
+          HeadersParamValue.isNotEqualToDefaultValue(contentTypeValue, HeadersParamValue.FORM_URI)) {
+        throw new CustomApplicationException(UNSUPPORTED_CONTENT_TYPE_MESSAGE);
+      }
+    }
+
+    return contentTypeValue;
 
+  }
+
+  /**
+   * 檢查 accept, 僅接受 application/json, 未設定時回傳原值
+   */
+  private static String checkAccept(String acceptValue) throws CustomApplicationException {
+
+    if (StringUtils.isNotBlank(acceptValue) && HeadersParamValue.isNotEqualToDefaultValue(acceptValue, HeadersParamValue.JSON)) {
+      throw new CustomApplicationException(UNSUPPORTED_ACCEPT_MESSAGE);
     }
 
+    return acceptValue;
+
+  }
+
+  /**
+   * 將資料檔設定轉換為存入檔案用的 FeederFileData 物件
+   *
+   * @param feeders 資料檔設定, 未使用時為 null
+   */
+  public static List<FeederFileData> transIntoFeederFileData(List<FeederData> feeders) {
+
+    if (feeders == null) {
+      return null;
+    }
+
+    return feeders.stream()
+        .map(feeder -> FeederFileData.builder()
+            .filePath(feeder.getFilePath())
+            .order(feeder.getOrder().toString())
+            .build())
+        .collect(Collectors.toList());
+
+  }
+
+  /**
+   * 處理/檢查各資料檔的設定, 檔案內容於測試開始前才讀取
+   *
+   * @param feederFileDatas 由 json 中取得的資料檔設定
+   */
+  public static List<FeederData> transIntoFeederData(List<FeederFileData> feederFileDatas) throws CustomApplicationException {
+
+    List<FeederData> feeders = new ArrayList<>();
+
+    for (FeederFileData feederFileData : feederFileDatas) {
+      if (StringUtils.isBlank(feederFileData.getFilePath())) {
+        throw new CustomApplicationException("無效的資料檔路徑 , 程式已停止");
+      }
+
+      /* 未設定時依序循環取出 */
+      SupportedFeederOrder order;
+      if (StringUtils.isBlank(feederFileData.getOrder())) {
+        order = SupportedFeederOrder.SEQUENTIAL;
+      } else {
+        try {
+          order = SupportedFeederOrder.valueOf(feederFileData.getOrder());
+        } catch (IllegalArgumentException e) {
+          throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE, e);
+        }
+      }
+
+      feeders.add(FeederData.builder()
+          .filePath(feederFileData.getFilePath())
+          .order(order)
+          .build());
+    }
+
+    return feeders;
+
+  }
+
+  /**
+   * 將負載階段轉換為存入檔案用的 LoadStageFileData 物件
+   *
+   * @param stages 負載階段, 未使用時為 null
+   */
+  public static List<LoadStageFileData> transIntoLoadStageFileData(List<LoadStageData> stages) {
+
+    if (stages == null) {
+      return null;
+    }
+
+    return stages.stream()
+        .map(stage -> LoadStageFileData.builder()
+            .name(stage.getName())
+            .duration(stage.getDuration().toString())
+            .targetConcurrency(stage.getTargetConcurrency() == null ? null : stage.getTargetConcurrency().toString())
+            .targetRate(stage.getTargetRate() == null ? null : stage.getTargetRate().toString())
+            .transition(stage.getTransition().toString())
+            .build())
+        .collect(Collectors.toList());
+
+  }
+
+  /**
+   * 處理/檢查各負載階段的內容; CLOSED 模式需指定目標併發數, ARRIVAL_RATE 模式需指定目標速率
+   *
+   * @param stageFileDatas 由 json 中取得的負載階段
+   * @param loadModel 負載模式
+   */
+  public static List<LoadStageData> transIntoLoadStageData(List<LoadStageFileData> stageFileDatas, SupportedLoadModel loadModel)
+      throws CustomApplicationException {
+
+    List<LoadStageData> stages = new ArrayList<>();
+    Set<String> stageNames = new HashSet<>();
+
+    for (int index = 0; index < stageFileDatas.size(); index++) {
+      LoadStageFileData stageFileData = stageFileDatas.get(index);
+
+      /* 未命名的階段依順序命名 */
+      String stageName = StringUtils.isBlank(stageFileData.getName()) ? "stage-" + (index + 1) : stageFileData.getName();
+      if (!stageNames.add(stageName)) {
+        throw new CustomApplicationException("負載階段名稱重複 - " + stageName + " , 程式已停止");
+      }
+
+      if (StringUtils.isBlank(stageFileData.getDuration())) {
+        throw new CustomApplicationException("無效的階段持續時間 - " + stageName + " , 程式已停止");
+      }
+      long duration = parsePositiveNumber(stageFileData.getDuration(), ONE, "階段持續時間");
+
+      Integer targetConcurrency = null;
+      Double targetRate = null;
+      if (SupportedLoadModel.ARRIVAL_RATE == loadModel) {
+        if (StringUtils.isBlank(stageFileData.getTargetRate())) {
+          throw new CustomApplicationException("無效的階段目標速率 - " + stageName + " , 程式已停止");
+        }
+
+        /* 允許 0, 用來表示逐漸降至停止的階段 */
+        targetRate = Double.parseDouble(stageFileData.getTargetRate());
+        if (targetRate < ZERO) {
+          throw new CustomApplicationException("無效的階段目標速率 - " + targetRate + " , 程式已停止");
+        }
+      } else {
+        String targetConcurrencyValue = stageFileData.getTargetConcurrency();
+        if (StringUtils.isBlank(targetConcurrencyValue)) {
+          throw new CustomApplicationException("無效的階段併發數 - " + stageName + " , 程式已停止");
+        } else if (targetConcurrencyValue.endsWith(INTEGER_SAVE_IN_DOUBLE_PATTERN)) {
+          targetConcurrencyValue = targetConcurrencyValue.substring(0, targetConcurrencyValue.length() - 2);
+        }
+
+        targetConcurrency = Integer.parseInt(targetConcurrencyValue);
+        if (targetConcurrency < ZERO) {
+          throw new CustomApplicationException("無效的階段併發數 - " + targetConcurrency + " , 程式已停止");
+        }
+      }
+
+      /* 階段間的變化方式, 未設定時為線性變化 */
+      SupportedStageTransition transition;
+      if (StringUtils.isBlank(stageFileData.getTransition())) {
+        transition = SupportedStageTransition.LINEAR;
+      } else {
+        try {
+          transition = SupportedStageTransition.valueOf(stageFileData.getTransition());
+        } catch (IllegalArgumentException e) {
+          throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE, e);
+        }
+      }
+
+      stages.add(LoadStageData.builder()
+          .name(stageName)
+          .duration(duration)
+          .targetConcurrency(targetConcurrency)
+          .targetRate(targetRate)
+          .transition(transition)
+          .build());
+    }
+
+    return stages;
+
   }
 
   /**
@@ -124,38 +491,49 @@ public class DataTransferUtils {
    */
   public static PerformanceRequestData transIntoPerformanceRequestData(PerformanceRequestFileData requestJsonData, String filePath) throws CustomApplicationException {
 
+    /* 混合多種請求或執行流程時由各請求定義或步驟指定 url, 最外層的 url 可不指定 */
+    boolean hasScenarios = requestJsonData.getScenarios() != null && !requestJsonData.getScenarios().isEmpty();
+    boolean hasSteps = requestJsonData.getSteps() != null && !requestJsonData.getSteps().isEmpty();
+    if (hasScenarios && hasSteps) {
+      throw new CustomApplicationException("混合多種請求(scenarios)與流程(steps)不可同時設定 , 程式已停止");
+    }
+
     String targetUrl = requestJsonData.getUrl();
-    if (StringUtils.isBlank(targetUrl)) {
+    if (StringUtils.isBlank(targetUrl) && !hasScenarios && !hasSteps) {
       throw new CustomApplicationException("無效的url , 程式已停止");
     }
 
-    String usedMethod = requestJsonData.getHttpMethod();
-    SupportedHttpMethod targetMethod;
-    if (StringUtils.isBlank(usedMethod)) {
-      targetMethod = SupportedHttpMethod.GET;
-    } else {
-      switch (usedMethod) {
-        case "GET":
-          targetMethod = SupportedHttpMethod.GET;
-          break;
-        case "POST":
-          targetMethod = SupportedHttpMethod.POST;
-          break;
-        default:
-          throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
-      }
-    }
+    SupportedHttpMethod targetMethod = transIntoHttpMethod(requestJsonData.getHttpMethod());
+
+    /* 依負載階段執行時由各階段的持續時間決定何時結束, 指定執行時間(s)時到時即停止, 兩者皆可不指定總測試次數 */
+    boolean hasStages = requestJsonData.getStages() != null && !requestJsonData.getStages().isEmpty();
+    Long runDuration = StringUtils.isBlank(requestJsonData.getRunDuration()) ? null :
+        parsePositiveNumber(requestJsonData.getRunDuration(), ONE, "執行時間");
+
+    /* 暖機的次數或時間(s), 兩者皆指定時先達到者即結束暖機, 皆未指定時不暖機 */
+    Integer warmUpCount = StringUtils.isBlank(requestJsonData.getWarmUpCount()) ? null :
+        (int) parsePositiveNumber(requestJsonData.getWarmUpCount(), ONE, "暖機次數");
+    Long warmUpDuration = StringUtils.isBlank(requestJsonData.getWarmUpDuration()) ? null :
+        parsePositiveNumber(requestJsonData.getWarmUpDuration(), ONE, "暖機時間");
+
+    /* 停止送出後等待進行中請求的最長時間(s) */
+    long shutdownTimeout = parsePositiveNumber(requestJsonData.getShutdownTimeout(), DEFAULT_SHUTDOWN_TIMEOUT, "結束等待時間");
 
     String taskLimitValue = requestJsonData.getTaskLimit();
+    Integer taskLimit = null;
     if (StringUtils.isBlank(taskLimitValue)) {
-      throw new CustomApplicationException("無效的測試次數 , 程式已停止");
-    } else if (taskLimitValue.endsWith(INTEGER_SAVE_IN_DOUBLE_PATTERN)) {
-      taskLimitValue = taskLimitValue.substring(0, taskLimitValue.length() - 2);
-    }
+      if (!hasStages && runDuration == null) {
+        throw new CustomApplicationException("無效的測試次數 , 程式已停止");
+      }
+    } else {
+      if (taskLimitValue.endsWith(INTEGER_SAVE_IN_DOUBLE_PATTERN)) {
+        taskLimitValue = taskLimitValue.substring(0, taskLimitValue.length() - 2);
+      }
 
-    int taskLimit = Integer.parseInt(taskLimitValue);
-    if (taskLimit < ONE) {
-      throw new CustomApplicationException("無效的輸入次數 - " + taskLimit + " , 程式已停止");
+      taskLimit = Integer.parseInt(taskLimitValue);
+      if (taskLimit < ONE) {
+        throw new CustomApplicationException("無效的輸入次數 - " + taskLimit + " , 程式已停止");
+      }
     }
 
     String waitTimeValue = requestJsonData.getWaitTime();
@@ -170,32 +548,186 @@ public class DataTransferUtils {
       throw new CustomApplicationException("無效的等待時間 - " + waitTime + " , 程式已停止");
     }
 
-    String contentTypeValue = requestJsonData.getContentType();
-    if (StringUtils.isNotBlank(contentTypeValue)) {
-      if (HeadersParamValue.isNotEqualToDefaultValue(contentTypeValue, HeadersParamValue.JSON) &&
-          HeadersParamValue.isNotEqualToDefaultValue(contentTypeValue, HeadersParamValue.FORM_URI)) {
-        throw new CustomApplicationException(UNSUPPORTED_CONTENT_TYPE_MESSAGE);
+    /* 舊版設定檔沒有併發數, 此時維持單執行緒 */
+    int concurrency = (int) parsePositiveNumber(requestJsonData.getConcurrency(), ONE, "併發數");
+
+    /* 負載模式, 未設定時為每次執行後等待的 CLOSED 模式 */
+    String loadModelValue = requestJsonData.getLoadModel();
+    SupportedLoadModel loadModel;
+    if (StringUtils.isBlank(loadModelValue)) {
+      loadModel = SupportedLoadModel.CLOSED;
+    } else {
+      switch (loadModelValue) {
+        case "CLOSED":
+          loadModel = SupportedLoadModel.CLOSED;
+          break;
+        case "ARRIVAL_RATE":
+          loadModel = SupportedLoadModel.ARRIVAL_RATE;
+          break;
+        default:
+          throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE);
       }
     }
 
-    String acceptValue = requestJsonData.getAccept();
-    if (StringUtils.isNotBlank(acceptValue) && HeadersParamValue.isNotEqualToDefaultValue(acceptValue, HeadersParamValue.JSON)) {
-      throw new CustomApplicationException(UNSUPPORTED_ACCEPT_MESSAGE);
+    Double targetRate = null;
+    if (SupportedLoadModel.ARRIVAL_RATE == loadModel && !hasStages) {
+      String targetRateValue = requestJsonData.getTargetRate();
+      if (StringUtils.isBlank(targetRateValue)) {
+        throw new CustomApplicationException("無效的目標速率 , 程式已停止");
+      }
+
+      targetRate = Double.parseDouble(targetRateValue);
+      if (targetRate <= ZERO) {
+        throw new CustomApplicationException("無效的目標速率 - " + targetRate + " , 程式已停止");
+      }
+    }
+
+    /* 各負載階段, CLOSED 模式下併發數至少為各階段中最大的目標併發數 */
+    List<LoadStageData> stages = hasStages ? transIntoLoadStageData(requestJsonData.getStages(), loadModel) : null;
+    if (hasStages && SupportedLoadModel.CLOSED == loadModel) {
+      for (LoadStageData stage : stages) {
+        concurrency = Math.max(concurrency, stage.getTargetConcurrency());
+      }
+    }
+
+    /* 連線池相關設定, 未設定時採用預設值 */
+    String reuseConnectionValue = requestJsonData.getReuseConnection();
+    boolean reuseConnection = StringUtils.isBlank(reuseConnectionValue) || Boolean.parseBoolean(reuseConnectionValue);
+
+    /* 是否要求伺服器壓縮回應, 未設定時不要求 */
+    boolean compression = Boolean.parseBoolean(requestJsonData.getCompression());
+
+    int maxConnections = (int) parsePositiveNumber(requestJsonData.getMaxConnections(), concurrency, "最大連線數");
+    int maxConnectionsPerRoute = (int) parsePositiveNumber(requestJsonData.getMaxConnectionsPerRoute(), concurrency, "單一路由最大連線數");
+    long keepAliveTime = parsePositiveNumber(requestJsonData.getKeepAliveTime(), DEFAULT_KEEP_ALIVE_TIME, "連線保持時間");
+    long idleConnectionTime = parsePositiveNumber(requestJsonData.getIdleConnectionTime(), DEFAULT_IDLE_CONNECTION_TIME, "閒置連線回收時間");
+
+    /* 連線, 讀取(兩次收到資料的間隔)與單次請求總時間的上限(ms), 未設定時採用預設值, 避免沒有回應的請求佔住併發名額 */
+    long connectTimeout = parsePositiveNumber(requestJsonData.getConnectTimeout(), DEFAULT_CONNECT_TIMEOUT, "連線逾時");
+    long readTimeout = parsePositiveNumber(requestJsonData.getReadTimeout(), DEFAULT_READ_TIMEOUT, "讀取逾時");
+    long totalTimeout = parsePositiveNumber(requestJsonData.getTotalTimeout(), DEFAULT_TOTAL_TIMEOUT, "總時間逾時");
+
+    /* 送出請求的方式, 未設定時維持阻塞式, 非阻塞模式的 I/O 執行緒數預設為 CPU 核心數 */
+    String engineValue = requestJsonData.getEngine();
+    SupportedEngine engine;
+    if (StringUtils.isBlank(engineValue)) {
+      engine = SupportedEngine.BLOCKING;
+    } else {
+      try {
+        engine = SupportedEngine.valueOf(engineValue);
+      } catch (IllegalArgumentException e) {
+        throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE, e);
+      }
+    }
+    int ioThreads = (int) parsePositiveNumber(requestJsonData.getIoThreads(), DEFAULT_IO_THREADS, "I/O 執行緒數");
+
+    /* HTTP/2 每條連線的串流上限與連線數, 未設定連線數時以剛好容納併發數的連線數為準 */
+    int http2MaxStreams = (int) parsePositiveNumber(requestJsonData.getHttp2MaxStreams(), DEFAULT_HTTP2_MAX_STREAMS, "HTTP/2 每條連線的串流上限");
+    int http2Connections = (int) parsePositiveNumber(requestJsonData.getHttp2Connections(),
+        getDefaultHttp2Connections(concurrency, http2MaxStreams), "HTTP/2 連線數");
+    if (SupportedEngine.HTTP2 == engine && (long) http2Connections * http2MaxStreams < concurrency) {
+      throw new CustomApplicationException("HTTP/2 連線數(" + http2Connections + ") x 每條連線的串流上限(" + http2MaxStreams
+          + ") 小於併發數 - " + concurrency + " , 程式已停止");
+    }
+
+    String contentTypeValue = checkContentType(requestJsonData.getContentType());
+    String acceptValue = checkAccept(requestJsonData.getAccept());
+
+    /* 回應內文的處理模式, 未設定時維持完整解析 */
+    String responseModeValue = requestJsonData.getResponseMode();
+    SupportedResponseMode responseMode;
+    if (StringUtils.isBlank(responseModeValue)) {
+      responseMode = SupportedResponseMode.PARSE;
+    } else {
+      try {
+        responseMode = SupportedResponseMode.valueOf(responseModeValue);
+      } catch (IllegalArgumentException e) {
+        throw new CustomApplicationException(DEFAULT_ERROR_MESSAGE, e);
+      }
     }
 
+    /* 提供 ${變數} 值的資料檔 */
+    List<FeederData> feeders = requestJsonData.getFeeders() == null || requestJsonData.getFeeders().isEmpty() ? null :
+        transIntoFeederData(requestJsonData.getFeeders());
+
+    /* 依權重混合的多種請求 */
+    List<ScenarioData> scenarios = hasScenarios ? transIntoScenarioData(requestJsonData.getScenarios()) : null;
+
+    /* 依序送出的流程步驟 */
+    List<WorkflowStepData> steps = hasSteps ? transIntoWorkflowStepData(requestJsonData.getSteps()) : null;
+
     return PerformanceRequestData.builder()
         .url(targetUrl)
         .httpMethod(targetMethod)
         .taskLimit(taskLimit)
+        .runDuration(runDuration)
+        .warmUpCount(warmUpCount)
+        .warmUpDuration(warmUpDuration)
+        .shutdownTimeout(shutdownTimeout)
         .waitTime(waitTime)
+        .concurrency(concurrency)
+        .loadModel(loadModel)
+        .targetRate(targetRate)
+        .stages(stages)
+        .reuseConnection(reuseConnection)
+        .compression(compression)
+        .maxConnections(maxConnections)
+        .maxConnectionsPerRoute(maxConnectionsPerRoute)
+        .keepAliveTime(keepAliveTime)
+        .idleConnectionTime(idleConnectionTime)
+        .connectTimeout(connectTimeout)
+        .readTimeout(readTimeout)
+        .totalTimeout(totalTimeout)
+        .engine(engine)
+        .ioThreads(ioThreads)
+        .http2Connections(http2Connections)
+        .http2MaxStreams(http2MaxStreams)
         .contentType(contentTypeValue)
         .authorization(requestJsonData.getAuthorization())
         .accept(acceptValue)
+        .responseMode(responseMode)
         .otherHeadersParams(requestJsonData.getOtherHeadersParams())
         .otherParams(requestJsonData.getOtherParams())
+        .feeders(feeders)
+        .scenarios(scenarios)
+        .steps(steps)
         .filePath(filePath)
         .build();
 
   }
 
+  /**
+   * 未設定 HTTP/2 連線數時, 以剛好容納所有併發請求的連線數為預設值
+   *
+   * @param concurrency 併發數
+   * @param http2MaxStreams 每條連線的串流上限
+   */
+  public static int getDefaultHttp2Connections(int concurrency, int http2MaxStreams) {
+    return Math.max(ONE, (concurrency + http2MaxStreams - 1) / http2MaxStreams);
+  }
+
+  /**
+   * 解析設定檔中以字串儲存的正整數, 空白時回傳預設值, 小於 1 時拋出例外
+   *
+   * @param numberValue 設定檔中的字串
+   * @param defaultValue 未設定時使用的預設值
+   * @param fieldName 錯誤訊息中顯示的欄位名稱
+   */
+  public static long parsePositiveNumber(String numberValue, long defaultValue, String fieldName) throws CustomApplicationException {
+
+    if (StringUtils.isBlank(numberValue)) {
+      return defaultValue;
+    } else if (numberValue.endsWith(INTEGER_SAVE_IN_DOUBLE_PATTERN)) {
+      numberValue = numberValue.substring(0, numberValue.length() - 2);
+    }
+
+    long number = Long.parseLong(numberValue);
+    if (number < ONE) {
+      throw new CustomApplicationException("無效的" + fieldName + " - " + number + " , 程式已停止");
+    }
+
+    return number;
+
+  }
+
 }
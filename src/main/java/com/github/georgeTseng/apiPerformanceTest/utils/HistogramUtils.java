@@ -0,0 +1,145 @@
+package com.github.georgeTseng.apiPerformanceTest.utils;
+
+import com.github.georgeTseng.apiPerformanceTest.enums.TimingPhase;
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.LatencyPercentileData;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+
+public class HistogramUtils {
+
+  /* 保留 3 位有效數字, 誤差在 0.1% 以內 */
+  public final static int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+  public final static double MICROS_PER_MILLI = 1000.0;
+
+  /**
+   * 建立以微秒(us)記錄耗時的 Histogram, 範圍會依記錄的值自動擴充
+   */
+  public static Histogram createLatencyHistogram() {
+    return new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+  }
+
+  /**
+   * 由 Histogram 取出各百分位數
+   *
+   * @param histogram 記錄耗時的 Histogram
+   */
+  public static LatencyPercentileData transIntoLatencyPercentileData(Histogram histogram) {
+    return LatencyPercentileData.builder()
+        .mean(Math.round(histogram.getMean()))
+        .p50(histogram.getValueAtPercentile(50.0))
+        .p90(histogram.getValueAtPercentile(90.0))
+        .p99(histogram.getValueAtPercentile(99.0))
+        .p999(histogram.getValueAtPercentile(99.9))
+        .p9999(histogram.getValueAtPercentile(99.99))
+        .max(histogram.getMaxValue())
+        .build();
+  }
+
+  /**
+   * 將 Histogram 壓縮後轉為 Base64 字串, 方便存入結果檔
+   *
+   * @param histogram 要轉換的 Histogram
+   */
+  public static String encodeHistogram(Histogram histogram) {
+
+    ByteBuffer targetBuffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+    int compressedLength = histogram.encodeIntoCompressedByteBuffer(targetBuffer);
+
+    byte[] compressedBytes = new byte[compressedLength];
+    targetBuffer.rewind();
+    targetBuffer.get(compressedBytes);
+
+    return Base64.getEncoder().encodeToString(compressedBytes);
+
+  }
+
+  /**
+   * 將 Base64 字串還原為 Histogram, 失敗時拋出例外
+   *
+   * @param encodedHistogram 由 encodeHistogram 產生的字串
+   */
+  public static Histogram decodeHistogram(String encodedHistogram) throws CustomApplicationException {
+
+    try {
+      byte[] compressedBytes = Base64.getDecoder().decode(encodedHistogram);
+      return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(compressedBytes), 0);
+    } catch (IllegalArgumentException | DataFormatException e) {
+      throw new CustomApplicationException("無法還原 Histogram 資料", e);
+    }
+
+  }
+
+  /**
+   * 將微秒(us)換算為毫秒(ms), 保留到小數 3 位
+   */
+  public static double toMillis(long micros) {
+    return micros / MICROS_PER_MILLI;
+  }
+
+  /**
+   * 顯示各百分位數的耗時
+   */
+  public static void showPercentiles(Logger logger, LatencyPercentileData percentileData) {
+    logger.info("p50 耗時為 {} ms", toMillis(percentileData.getP50()));
+    logger.info("p90 耗時為 {} ms", toMillis(percentileData.getP90()));
+    logger.info("p99 耗時為 {} ms", toMillis(percentileData.getP99()));
+    logger.info("p99.9 耗時為 {} ms", toMillis(percentileData.getP999()));
+    logger.info("p99.99 耗時為 {} ms", toMillis(percentileData.getP9999()));
+    logger.info("max 耗時為 {} ms", toMillis(percentileData.getMax()));
+  }
+
+  /**
+   * 建立各計時階段各自的 Histogram
+   */
+  public static Map<TimingPhase, Histogram> createPhaseHistograms() {
+    Map<TimingPhase, Histogram> phaseHistograms = new EnumMap<>(TimingPhase.class);
+    for (TimingPhase phase : TimingPhase.values()) {
+      phaseHistograms.put(phase, createLatencyHistogram());
+    }
+    return phaseHistograms;
+  }
+
+  /**
+   * 將單次請求各階段的耗時記錄至對應的 Histogram
+   */
+  public static void recordPhases(Map<TimingPhase, Histogram> phaseHistograms, PerformanceTestData testData) {
+    for (Map.Entry<TimingPhase, Histogram> phaseHistogram : phaseHistograms.entrySet()) {
+      phaseHistogram.getValue().recordValue(phaseHistogram.getKey().getTimeInMicros(testData));
+    }
+  }
+
+  /**
+   * 將各階段的 Histogram 轉為以階段名稱為 key 的百分位數
+   */
+  public static Map<String, LatencyPercentileData> transIntoPhasePercentileData(Map<TimingPhase, Histogram> phaseHistograms) {
+    Map<String, LatencyPercentileData> phasePercentiles = new LinkedHashMap<>();
+    for (Map.Entry<TimingPhase, Histogram> phaseHistogram : phaseHistograms.entrySet()) {
+      phasePercentiles.put(phaseHistogram.getKey().getKey(), transIntoLatencyPercentileData(phaseHistogram.getValue()));
+    }
+    return phasePercentiles;
+  }
+
+  /**
+   * 逐一顯示各階段的平均與百分位數耗時
+   */
+  public static void showPhasePercentiles(Logger logger, Map<String, LatencyPercentileData> phasePercentiles) {
+    logger.info("以下為各階段的耗時資訊: ");
+    for (TimingPhase phase : TimingPhase.values()) {
+      LatencyPercentileData percentileData = phasePercentiles.get(phase.getKey());
+      if (percentileData != null) {
+        logger.info("{} : 平均 {} ms, p50 {} ms, p99 {} ms, max {} ms", phase.getDisplayName(),
+            toMillis(percentileData.getMean()), toMillis(percentileData.getP50()),
+            toMillis(percentileData.getP99()), toMillis(percentileData.getMax()));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.github.georgeTseng.apiPerformanceTest.utils;
+
+import com.github.georgeTseng.apiPerformanceTest.connection.TimedHttpRequestExecutor;
+import com.github.georgeTseng.apiPerformanceTest.connection.TimedPlainConnectionSocketFactory;
+import com.github.georgeTseng.apiPerformanceTest.connection.TimedSSLConnectionSocketFactory;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HttpClientUtils {
+
+  private static Logger getLoggerInstance() {
+    return LoggerFactory.getLogger(HttpClientUtils.class);
+  }
+
+  /**
+   * 依請求設定建立整次測試共用的 CloseableHttpClient, 由連線池管理所有連線
+   *
+   * @param requestData 請求設定
+   */
+  public static CloseableHttpClient createHttpClient(PerformanceRequestData requestData) {
+
+    Logger httpClientUtilsLogger = getLoggerInstance();
+
+    /* 以可記錄連線與 TLS 交握時間的 socket factory 建立連線池, 並設定連線池大小 */
+    Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+        .register("http", new TimedPlainConnectionSocketFactory())
+        .register("https", new TimedSSLConnectionSocketFactory(SSLContexts.createDefault(),
+            SSLConnectionSocketFactory.getDefaultHostnameVerifier()))
+        .build();
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+    connectionManager.setMaxTotal(requestData.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(requestData.getMaxConnectionsPerRoute());
+
+    /* 連線與讀取逾時, 總時間由 TotalTimeoutGuard 另外限制; 取得連線池中的連線不另設上限, 一併計入總時間 */
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout((int) requestData.getConnectTimeout().longValue())
+        .setSocketTimeout((int) requestData.getReadTimeout().longValue())
+        .build();
+
+    HttpClientBuilder httpClientBuilder = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setRequestExecutor(new TimedHttpRequestExecutor())
+        /* 不自動要求及解壓縮, 改依設定送出 Accept-Encoding 並自行解壓縮, 與非阻塞模式一致 */
+        .disableContentCompression()
+        .evictExpiredConnections()
+        .evictIdleConnections(requestData.getIdleConnectionTime().longValue(), TimeUnit.SECONDS);
+
+    if (Boolean.TRUE.equals(requestData.getReuseConnection())) {
+      /* 重複使用連線, 保持時間以伺服器回應與設定值中較短者為準 */
+      httpClientBuilder.setKeepAliveStrategy(createKeepAliveStrategy(requestData.getKeepAliveTime()));
+    } else {
+      /* 每次請求結束後即關閉連線, 用來量測每次都重新建立連線的情境 */
+      httpClientBuilder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
+    }
+
+    httpClientUtilsLogger.info("已建立共用的 HttpClient, 最大連線數: {} , 單一路由最大連線數: {} , 重複使用連線: {} , 連線/讀取逾時: {} / {} ms ",
+        requestData.getMaxConnections(), requestData.getMaxConnectionsPerRoute(), requestData.getReuseConnection(),
+        requestData.getConnectTimeout(), requestData.getReadTimeout());
+
+    return httpClientBuilder.build();
+
+  }
+
+  /**
+   * 關閉整次測試共用的 CloseableHttpClient 與其連線池
+   *
+   * @param httpClient 要關閉的 CloseableHttpClient
+   */
+  public static void closeHttpClient(CloseableHttpClient httpClient) {
+
+    Logger httpClientUtilsLogger = getLoggerInstance();
+
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      httpClientUtilsLogger.error("fail to close the http client, reason is : {} ", e.getMessage());
+    }
+
+  }
+
+  private static ConnectionKeepAliveStrategy createKeepAliveStrategy(long keepAliveTime) {
+
+    long keepAliveMillis = TimeUnit.SECONDS.toMillis(keepAliveTime);
+
+    return (response, context) -> {
+      long serverKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return serverKeepAliveMillis > 0 ? Math.min(serverKeepAliveMillis, keepAliveMillis) : keepAliveMillis;
+    };
+
+  }
+
+}
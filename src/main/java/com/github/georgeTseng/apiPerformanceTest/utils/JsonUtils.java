@@ -4,23 +4,26 @@ import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationExce
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestFileData;
 import com.github.georgeTseng.apiPerformanceTest.model.PerformanceResultFileData;
-import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class JsonUtils {
 
+  public final static String JSON_FILE_EXTENSION = ".json";
+  public final static String SAMPLE_FILE_SUFFIX = "-samples.jsonl";
+  public final static String INTERVAL_FILE_SUFFIX = "-intervals.jsonl";
+  public final static String HEALTH_FILE_SUFFIX = "-health.jsonl";
+
   private static Gson getGsonInstance() {
     return new GsonBuilder()
         .setPrettyPrinting()
@@ -102,20 +105,17 @@ public class JsonUtils {
   }
 
   /**
-   * 將請求結果json寫入檔案, 失敗時拋出例外
+   * 將請求結果的統計值json寫入檔案, 失敗時拋出例外
    *
    * @param filePath 要儲存的檔案路徑
-   * @param taskResults 要儲存的請求結果
+   * @param resultJsonData 要儲存的請求結果統計值
    */
-  public static void writeRequestTestingResultJsonIntoFile(Path filePath, List<Future<PerformanceTestData>> taskResults) {
+  public static void writeRequestTestingResultJsonIntoFile(Path filePath, PerformanceResultFileData resultJsonData) {
 
     Gson gson = getGsonInstance();
     Logger jsonUtilsLogger = getLoggerInstance();
 
     try {
-      /* 將輸入物件轉換為json所需的物件 */
-      PerformanceResultFileData resultJsonData = DataTransferUtils.transIntoPerformanceResultFileData(taskResults);
-
       /* 開啟writer */
       Writer writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8);
 
@@ -139,4 +139,69 @@ public class JsonUtils {
 
   }
 
+  /**
+   * 從檔案中讀取請求結果的統計值json, 失敗時拋出例外
+   *
+   * @param filePath 要讀取的檔案路徑
+   */
+  public static PerformanceResultFileData readRequestTestingResultJsonFromFile(Path filePath) throws CustomApplicationException {
+
+    Gson gson = getGsonInstance();
+    Logger jsonUtilsLogger = getLoggerInstance();
+
+    try (Reader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
+      /* 取出json反序列化後的物件 */
+      PerformanceResultFileData resultJsonData = gson.fromJson(reader, PerformanceResultFileData.class);
+      if (resultJsonData == null) {
+        throw new CustomApplicationException("結果檔沒有任何內容 - " + filePath);
+      }
+      return resultJsonData;
+    } catch (JsonParseException e) {
+      jsonUtilsLogger.error("讀取json資料時發生異常, 原因為: {} ", e.getMessage());
+      throw new CustomApplicationException("讀取json資料時發生異常", e);
+    } catch (IOException e) {
+      jsonUtilsLogger.error("發生IO Exception, 原因為: {} , 所使用的參數有: {} ", e.getMessage(), new Object[]{filePath});
+      throw new CustomApplicationException("發生IO Exception", e, new Object[]{filePath});
+    }
+
+  }
+
+  /**
+   * 取得逐次測試結果(json lines)的檔案路徑, 與統計值的檔案放在同一目錄
+   *
+   * @param resultFilePath 統計值的檔案路徑
+   */
+  public static Path getSampleFilePath(Path resultFilePath) {
+    return getSiblingFilePath(resultFilePath, SAMPLE_FILE_SUFFIX);
+  }
+
+  /**
+   * 取得每秒區間紀錄(json lines)的檔案路徑, 與統計值的檔案放在同一目錄
+   *
+   * @param resultFilePath 統計值的檔案路徑
+   */
+  public static Path getIntervalFilePath(Path resultFilePath) {
+    return getSiblingFilePath(resultFilePath, INTERVAL_FILE_SUFFIX);
+  }
+
+  /**
+   * 取得負載產生端每秒健康紀錄(json lines)的檔案路徑, 與統計值的檔案放在同一目錄
+   *
+   * @param resultFilePath 統計值的檔案路徑
+   */
+  public static Path getHealthFilePath(Path resultFilePath) {
+    return getSiblingFilePath(resultFilePath, HEALTH_FILE_SUFFIX);
+  }
+
+  private static Path getSiblingFilePath(Path resultFilePath, String fileSuffix) {
+
+    String resultFileName = resultFilePath.getFileName().toString();
+    if (resultFileName.endsWith(JSON_FILE_EXTENSION)) {
+      resultFileName = resultFileName.substring(0, resultFileName.length() - JSON_FILE_EXTENSION.length());
+    }
+
+    return resultFilePath.resolveSibling(resultFileName + fileSuffix);
+
+  }
+
 }
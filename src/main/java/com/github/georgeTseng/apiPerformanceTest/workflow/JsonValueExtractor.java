@@ -0,0 +1,299 @@
+package com.github.georgeTseng.apiPerformanceTest.workflow;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以 JsonReader 邊讀取回應內文邊比對路徑, 只取出指定的值, 不建立整份回應的物件; 所有值皆已取出時即停止讀取.
+ * 路徑格式為 $.data.token 或 $.items[0].id, 開頭的 $ 可省略; 字串, 數字與布林取出其文字, 物件與陣列取出 json 字串,
+ * null 取出空字串. 編譯後不再變更, 可由多條執行緒同時使用
+ */
+public class JsonValueExtractor {
+
+  private final static String ROOT_PREFIX = "$";
+
+  private final String[] names;
+  private final String[] paths;
+  /* 每個路徑拆成欄位名稱(String)或陣列位置(Integer) */
+  private final Object[][] segments;
+
+  private JsonValueExtractor(String[] names, String[] paths, Object[][] segments) {
+    this.names = names;
+    this.paths = paths;
+    this.segments = segments;
+  }
+
+  /**
+   * 編譯要取出的值, 路徑格式錯誤時拋出例外
+   *
+   * @param extract key 為取出後的變數名稱, value 為路徑
+   */
+  public static JsonValueExtractor compile(Map<String, String> extract) throws CustomApplicationException {
+
+    String[] names = new String[extract.size()];
+    String[] paths = new String[extract.size()];
+    Object[][] segments = new Object[extract.size()][];
+
+    int index = 0;
+    for (Map.Entry<String, String> extractEntry : extract.entrySet()) {
+      names[index] = extractEntry.getKey();
+      paths[index] = extractEntry.getValue();
+      segments[index] = parsePath(extractEntry.getValue());
+      index++;
+    }
+
+    return new JsonValueExtractor(names, paths, segments);
+
+  }
+
+  private static Object[] parsePath(String path) throws CustomApplicationException {
+
+    String remaining = path.trim();
+    if (remaining.startsWith(ROOT_PREFIX)) {
+      remaining = remaining.substring(ROOT_PREFIX.length());
+    }
+
+    List<Object> pathSegments = new ArrayList<>();
+    int position = 0;
+    while (position < remaining.length()) {
+      char current = remaining.charAt(position);
+      if (current == '[') {
+        int end = remaining.indexOf(']', position);
+        if (end < 0) {
+          throw createPathException(path);
+        }
+        try {
+          pathSegments.add(Integer.parseInt(remaining.substring(position + 1, end).trim()));
+        } catch (NumberFormatException e) {
+          throw createPathException(path);
+        }
+        position = end + 1;
+      } else {
+        /* 第一段可省略開頭的 . */
+        if (current == '.') {
+          position++;
+        } else if (position > 0) {
+          throw createPathException(path);
+        }
+
+        int end = position;
+        while (end < remaining.length() && remaining.charAt(end) != '.' && remaining.charAt(end) != '[') {
+          end++;
+        }
+        if (end == position) {
+          throw createPathException(path);
+        }
+        pathSegments.add(remaining.substring(position, end));
+        position = end;
+      }
+    }
+
+    return pathSegments.toArray();
+
+  }
+
+  private static CustomApplicationException createPathException(String path) {
+    return new CustomApplicationException("無效的取值路徑 - " + path + " , 路徑格式為 $.data.token 或 $.items[0].id , 程式已停止");
+  }
+
+  public String[] getNames() {
+    return names.clone();
+  }
+
+  public String getName(int index) {
+    return names[index];
+  }
+
+  public String getPath(int index) {
+    return paths[index];
+  }
+
+  /**
+   * 自回應內文取出所有值, 依編譯時的順序回傳, 找不到的值為 null; 內文為空或不是合法的 json 時, 回傳格式錯誤前已取出的值,
+   * 只有讀取內文失敗時拋出 IOException
+   *
+   * @param reader 回應內文
+   */
+  public String[] extract(Reader reader) throws IOException {
+
+    String[] values = new String[names.length];
+    int[] candidates = new int[names.length];
+    for (int index = 0; index < candidates.length; index++) {
+      candidates[index] = index;
+    }
+
+    JsonReader jsonReader = new JsonReader(reader);
+    jsonReader.setLenient(true);
+    try {
+      new Walker(jsonReader, values).walk(0, candidates, candidates.length);
+    } catch (JsonIOException e) {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+    } catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException e) {
+      /* 格式錯誤之後的值維持 null, 由呼叫端視為取值失敗 */
+    }
+
+    return values;
+
+  }
+
+  /**
+   * 依序走訪 json, 只進入仍有路徑符合的物件與陣列, 其餘直接略過
+   */
+  private class Walker {
+
+    private final JsonReader jsonReader;
+    private final String[] values;
+    private int remaining;
+
+    private Walker(JsonReader jsonReader, String[] values) {
+      this.jsonReader = jsonReader;
+      this.values = values;
+      this.remaining = values.length;
+    }
+
+    private void walk(int depth, int[] candidates, int candidateCount) throws IOException {
+
+      JsonToken token = jsonReader.peek();
+
+      /* 有路徑剛好走到此處時取出此值; 同時有更深的路徑時由取出的物件繼續尋找 */
+      boolean matched = false;
+      for (int index = 0; index < candidateCount; index++) {
+        if (segments[candidates[index]].length == depth) {
+          matched = true;
+          break;
+        }
+      }
+
+      if (matched) {
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+          JsonElement element = JsonParser.parseReader(jsonReader);
+          for (int index = 0; index < candidateCount; index++) {
+            assign(candidates[index], navigate(element, segments[candidates[index]], depth));
+          }
+        } else {
+          String value = readScalar(token);
+          for (int index = 0; index < candidateCount; index++) {
+            if (segments[candidates[index]].length == depth) {
+              assign(candidates[index], value);
+            }
+          }
+        }
+        return;
+      }
+
+      if (token == JsonToken.BEGIN_OBJECT) {
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+          String name = jsonReader.nextName();
+          int[] nextCandidates = new int[candidateCount];
+          int nextCount = 0;
+          for (int index = 0; index < candidateCount; index++) {
+            if (name.equals(segments[candidates[index]][depth])) {
+              nextCandidates[nextCount++] = candidates[index];
+            }
+          }
+          walkOrSkip(depth, nextCandidates, nextCount);
+          if (remaining == 0) {
+            return;
+          }
+        }
+        jsonReader.endObject();
+      } else if (token == JsonToken.BEGIN_ARRAY) {
+        jsonReader.beginArray();
+        int arrayIndex = 0;
+        while (jsonReader.hasNext()) {
+          int[] nextCandidates = new int[candidateCount];
+          int nextCount = 0;
+          for (int index = 0; index < candidateCount; index++) {
+            Object segment = segments[candidates[index]][depth];
+            if (segment instanceof Integer && (Integer) segment == arrayIndex) {
+              nextCandidates[nextCount++] = candidates[index];
+            }
+          }
+          walkOrSkip(depth, nextCandidates, nextCount);
+          if (remaining == 0) {
+            return;
+          }
+          arrayIndex++;
+        }
+        jsonReader.endArray();
+      } else {
+        jsonReader.skipValue();
+      }
+
+    }
+
+    private void walkOrSkip(int depth, int[] nextCandidates, int nextCount) throws IOException {
+      if (nextCount == 0) {
+        jsonReader.skipValue();
+      } else {
+        walk(depth + 1, nextCandidates, nextCount);
+      }
+    }
+
+    private String readScalar(JsonToken token) throws IOException {
+      switch (token) {
+        case STRING:
+        case NUMBER:
+          return jsonReader.nextString();
+        case BOOLEAN:
+          return String.valueOf(jsonReader.nextBoolean());
+        case NULL:
+          jsonReader.nextNull();
+          return "";
+        default:
+          jsonReader.skipValue();
+          return null;
+      }
+    }
+
+    private void assign(int candidate, String value) {
+      if (value != null && values[candidate] == null) {
+        values[candidate] = value;
+        remaining--;
+      }
+    }
+
+  }
+
+  /**
+   * 由已取出的物件繼續尋找較深的路徑
+   */
+  private static String navigate(JsonElement element, Object[] pathSegments, int depth) {
+
+    JsonElement current = element;
+    for (int index = depth; index < pathSegments.length && current != null; index++) {
+      Object segment = pathSegments[index];
+      if (segment instanceof Integer && current.isJsonArray()) {
+        int arrayIndex = (Integer) segment;
+        current = arrayIndex < current.getAsJsonArray().size() ? current.getAsJsonArray().get(arrayIndex) : null;
+      } else if (segment instanceof String && current.isJsonObject()) {
+        current = current.getAsJsonObject().get((String) segment);
+      } else {
+        current = null;
+      }
+    }
+
+    if (current == null) {
+      return null;
+    } else if (current.isJsonNull()) {
+      return "";
+    }
+
+    return current.isJsonPrimitive() ? current.getAsString() : current.toString();
+
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.github.georgeTseng.apiPerformanceTest.workflow;
+
+import com.github.georgeTseng.apiPerformanceTest.exception.CustomApplicationException;
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.model.WorkflowStepData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.template.DataFeeder;
+import com.github.georgeTseng.apiPerformanceTest.template.RequestTemplate;
+import com.github.georgeTseng.apiPerformanceTest.utils.DataTransferUtils;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 整次測試共用的流程, 測試開始前編譯所有步驟的請求範本並共用資料檔; 每個步驟只能使用前面步驟取出的值.
+ * 排程依編號分配給固定數量的虛擬使用者, 設定快取的步驟依虛擬使用者保存取出的值, 期限內由同一虛擬使用者的流程直接使用;
+ * 任一步驟回應 401 時清除該虛擬使用者的快取, 下次流程重新送出
+ */
+public class Workflow {
+
+  private final static int UNAUTHORIZED_STATUS_CODE = 401;
+
+  private final List<DataFeeder> feeders;
+  private final WorkflowStep[] steps;
+  private final int valueCount;
+  private final int virtualUserCount;
+
+  /* 依 虛擬使用者 * 步驟數 + 步驟編號 存放快取, 未快取或已清除時為 null */
+  private final AtomicReferenceArray<CachedValues> cachedValues;
+
+  private Workflow(List<DataFeeder> feeders, WorkflowStep[] steps, int valueCount, int virtualUserCount) {
+    this.feeders = feeders;
+    this.steps = steps;
+    this.valueCount = valueCount;
+    this.virtualUserCount = virtualUserCount;
+    this.cachedValues = new AtomicReferenceArray<>(virtualUserCount * steps.length);
+  }
+
+  /**
+   * 開啟資料檔並編譯所有步驟, 資料檔無法讀取, 名稱重複或使用未定義的變數時拋出例外
+   *
+   * @param requestData 請求設定, steps 不可為空
+   * @param virtualUserCount 虛擬使用者數量, 即併發數
+   */
+  public static Workflow compile(PerformanceRequestData requestData, int virtualUserCount) throws CustomApplicationException {
+
+    List<DataFeeder> feeders = RequestTemplate.openFeeders(requestData.getFeeders());
+
+    /* 取出值的名稱不可與資料檔欄位或其他步驟取出的值重複 */
+    Set<String> variableNames = new HashSet<>();
+    for (DataFeeder feeder : feeders) {
+      variableNames.addAll(feeder.getColumns());
+    }
+
+    List<WorkflowStepData> stepDatas = requestData.getSteps();
+    WorkflowStep[] steps = new WorkflowStep[stepDatas.size()];
+    List<String> workflowVariables = new ArrayList<>();
+    for (int index = 0; index < stepDatas.size(); index++) {
+      WorkflowStepData stepData = stepDatas.get(index);
+      PerformanceRequestData stepRequestData = DataTransferUtils.transIntoOverriddenRequestData(requestData, stepData.getUrl(),
+          stepData.getHttpMethod(), stepData.getAuthorization(), stepData.getContentType(), stepData.getAccept(),
+          stepData.getOtherHeadersParams(), stepData.getOtherParams());
+
+      /* 只能使用前面步驟取出的值 */
+      RequestTemplate requestTemplate = RequestTemplate.compile(stepRequestData, feeders, new ArrayList<>(workflowVariables));
+
+      JsonValueExtractor extractor = null;
+      int valueOffset = workflowVariables.size();
+      if (stepData.getExtract() != null && !stepData.getExtract().isEmpty()) {
+        extractor = JsonValueExtractor.compile(stepData.getExtract());
+        for (String name : extractor.getNames()) {
+          if (!variableNames.add(name)) {
+            throw new CustomApplicationException("步驟 " + stepData.getName() + " 取出值的名稱與其他變數重複 - " + name + " , 程式已停止");
+          }
+          workflowVariables.add(name);
+        }
+      }
+
+      long cacheTtlNanos = stepData.getCacheTtl() == null ? 0 : TimeUnit.SECONDS.toNanos(stepData.getCacheTtl());
+      steps[index] = new WorkflowStep(index, stepData.getName(), stepRequestData, requestTemplate, extractor, valueOffset, cacheTtlNanos);
+    }
+
+    return new Workflow(feeders, steps, workflowVariables.size(), virtualUserCount);
+
+  }
+
+  public int getVirtualUserCount() {
+    return virtualUserCount;
+  }
+
+  /**
+   * 開始一次流程, 自各資料檔取出本次所有步驟共用的一筆資料
+   *
+   * @param virtualUser 執行此流程的虛擬使用者
+   * @param resultCollector 累計使用快取與中止次數的 collector
+   */
+  public WorkflowExecution start(int virtualUser, PerformanceResultCollector resultCollector) {
+    return new WorkflowExecution(this, virtualUser, RequestTemplate.nextRecords(feeders), new String[valueCount], resultCollector);
+  }
+
+  WorkflowStep getStep(int stepIndex) {
+    return steps[stepIndex];
+  }
+
+  int getStepCount() {
+    return steps.length;
+  }
+
+  /**
+   * 取出尚未過期的快取, 沒有時回傳 null
+   */
+  String[] getCachedValues(int virtualUser, WorkflowStep step, long now) {
+    CachedValues cached = cachedValues.get(virtualUser * steps.length + step.getIndex());
+    return cached == null || now - cached.expiresAt >= 0 ? null : cached.values;
+  }
+
+  void putCachedValues(int virtualUser, WorkflowStep step, String[] values, long now) {
+    cachedValues.set(virtualUser * steps.length + step.getIndex(), new CachedValues(values, now + step.getCacheTtlNanos()));
+  }
+
+  /**
+   * 依回應的狀態碼判斷是否需清除此虛擬使用者的所有快取
+   */
+  void checkUnauthorized(int virtualUser, Integer statusCode) {
+    if (statusCode == null || statusCode != UNAUTHORIZED_STATUS_CODE) {
+      return;
+    }
+    for (int stepIndex = 0; stepIndex < steps.length; stepIndex++) {
+      cachedValues.set(virtualUser * steps.length + stepIndex, null);
+    }
+  }
+
+  /**
+   * 快取的值與到期的時間點(ns), 建立後不再變更
+   */
+  private static class CachedValues {
+
+    private final String[] values;
+    private final long expiresAt;
+
+    private CachedValues(String[] values, long expiresAt) {
+      this.values = values;
+      this.expiresAt = expiresAt;
+    }
+
+  }
+
+}
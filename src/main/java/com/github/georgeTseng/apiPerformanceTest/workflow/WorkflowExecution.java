@@ -0,0 +1,103 @@
+package com.github.georgeTseng.apiPerformanceTest.workflow;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceTestData;
+import com.github.georgeTseng.apiPerformanceTest.result.PerformanceResultCollector;
+import com.github.georgeTseng.apiPerformanceTest.template.PreparedRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 一次流程的執行狀態, 保存本次共用的資料與各步驟取出的值; 同一時間只由一個排程依序使用
+ */
+public class WorkflowExecution {
+
+  private final Workflow workflow;
+  private final int virtualUser;
+  private final int[] records;
+  private final String[] values;
+  private final PerformanceResultCollector resultCollector;
+
+  private int nextStepIndex;
+
+  WorkflowExecution(Workflow workflow, int virtualUser, int[] records, String[] values, PerformanceResultCollector resultCollector) {
+    this.workflow = workflow;
+    this.virtualUser = virtualUser;
+    this.records = records;
+    this.values = values;
+    this.resultCollector = resultCollector;
+  }
+
+  /**
+   * 取得下一個需要送出的步驟, 快取未過期的步驟直接使用快取的值並略過; 所有步驟皆已完成時回傳 null
+   */
+  public WorkflowStep nextStep() {
+
+    while (nextStepIndex < workflow.getStepCount()) {
+      WorkflowStep step = workflow.getStep(nextStepIndex++);
+      if (!step.isCached()) {
+        return step;
+      }
+
+      String[] cached = workflow.getCachedValues(virtualUser, step, System.nanoTime());
+      if (cached == null) {
+        return step;
+      }
+      System.arraycopy(cached, 0, values, step.getValueOffset(), cached.length);
+      resultCollector.collectCachedStep(step.getName());
+    }
+
+    return null;
+
+  }
+
+  /**
+   * 以本次的資料與已取出的值產生步驟的請求內容, 填入後的 url 格式錯誤時拋出 IllegalArgumentException
+   *
+   * @param step 由 nextStep 取得的步驟
+   */
+  public PreparedRequest prepare(WorkflowStep step) {
+    return step.getRequestTemplate().prepare(records, values);
+  }
+
+  /**
+   * 步驟的結果已紀錄後呼叫, 保存取出的值並依設定快取; 有值無法取出時中止本次流程並回傳 false
+   *
+   * @param step 已送出的步驟
+   * @param responseData 此步驟的結果, 需取值時 extractedValues 已填入
+   */
+  public boolean complete(WorkflowStep step, PerformanceTestData responseData) {
+
+    workflow.checkUnauthorized(virtualUser, responseData.getStatusCode());
+
+    JsonValueExtractor extractor = step.getExtractor();
+    if (extractor == null) {
+      return true;
+    }
+
+    /* 請求失敗時沒有取出任何值, 視為第一個值無法取出 */
+    String[] extractedValues = responseData.getExtractedValues();
+    int missingIndex = extractedValues == null ? 0 : -1;
+    for (int index = 0; missingIndex < 0 && index < extractedValues.length; index++) {
+      if (extractedValues[index] == null) {
+        missingIndex = index;
+      }
+    }
+
+    if (missingIndex >= 0) {
+      Logger workflowLogger = LoggerFactory.getLogger(WorkflowExecution.class);
+      workflowLogger.warn("步驟 {} 無法取出 {} ( {} ), 本次流程中止 ", step.getName(), extractor.getName(missingIndex),
+          extractor.getPath(missingIndex));
+      resultCollector.collectAbortedStep(step.getName());
+      return false;
+    }
+
+    System.arraycopy(extractedValues, 0, values, step.getValueOffset(), extractedValues.length);
+    if (step.isCached()) {
+      workflow.putCachedValues(virtualUser, step, extractedValues, System.nanoTime());
+    }
+
+    return true;
+
+  }
+
+}
@@ -0,0 +1,74 @@
+package com.github.georgeTseng.apiPerformanceTest.workflow;
+
+import com.github.georgeTseng.apiPerformanceTest.model.PerformanceRequestData;
+import com.github.georgeTseng.apiPerformanceTest.template.RequestTemplate;
+
+/**
+ * 已編譯完成的流程步驟, 建立後不再變更, 由所有虛擬使用者共用
+ */
+public class WorkflowStep {
+
+  private final int index;
+  private final String name;
+  private final PerformanceRequestData requestData;
+  private final RequestTemplate requestTemplate;
+  private final JsonValueExtractor extractor;
+  private final int valueOffset;
+  private final long cacheTtlNanos;
+
+  WorkflowStep(int index, String name, PerformanceRequestData requestData, RequestTemplate requestTemplate,
+      JsonValueExtractor extractor, int valueOffset, long cacheTtlNanos) {
+    this.index = index;
+    this.name = name;
+    this.requestData = requestData;
+    this.requestTemplate = requestTemplate;
+    this.extractor = extractor;
+    this.valueOffset = valueOffset;
+    this.cacheTtlNanos = cacheTtlNanos;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * 此步驟的請求設定, 未設定的 Headers 已沿用最外層的值
+   */
+  public PerformanceRequestData getRequestData() {
+    return requestData;
+  }
+
+  public RequestTemplate getRequestTemplate() {
+    return requestTemplate;
+  }
+
+  /**
+   * 自回應內文取值的 extractor, 此步驟不需取值時為 null
+   */
+  public JsonValueExtractor getExtractor() {
+    return extractor;
+  }
+
+  /**
+   * 此步驟取出的第一個值在整個流程取出值中的編號
+   */
+  int getValueOffset() {
+    return valueOffset;
+  }
+
+  /**
+   * 取出的值的快取期限(ns), 不快取時為 0
+   */
+  long getCacheTtlNanos() {
+    return cacheTtlNanos;
+  }
+
+  boolean isCached() {
+    return cacheTtlNanos > 0;
+  }
+
+}